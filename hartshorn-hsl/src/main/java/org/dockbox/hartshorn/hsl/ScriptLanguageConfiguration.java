@@ -27,6 +27,7 @@
 import org.dockbox.hartshorn.hsl.parser.TokenParser;
 import org.dockbox.hartshorn.hsl.parser.expression.ComplexExpressionParserAdapter;
 import org.dockbox.hartshorn.hsl.parser.expression.ExpressionParser;
+import org.dockbox.hartshorn.hsl.runtime.CompiledScriptCache;
 import org.dockbox.hartshorn.hsl.runtime.ScriptRuntime;
 import org.dockbox.hartshorn.hsl.runtime.StandardRuntime;
 import org.dockbox.hartshorn.hsl.runtime.ValidateExpressionRuntime;
@@ -94,4 +95,10 @@ public ValidateExpressionRuntime expressionRuntime(
     public ParserCustomizer parserCustomizer() {
         return new DefaultScriptStatementsParserCustomizer();
     }
+
+    @Singleton
+    @SupportPriority
+    public CompiledScriptCache compiledScriptCache() {
+        return new CompiledScriptCache();
+    }
 }
@@ -25,6 +25,8 @@
 import org.dockbox.hartshorn.launchpad.ApplicationContext;
 import org.dockbox.hartshorn.hsl.ScriptEvaluationError;
 import org.dockbox.hartshorn.hsl.customizer.ScriptContext;
+import org.dockbox.hartshorn.hsl.runtime.CompiledScript;
+import org.dockbox.hartshorn.hsl.runtime.CompiledScriptCache;
 import org.dockbox.hartshorn.hsl.runtime.ScriptRuntime;
 import org.dockbox.hartshorn.hsl.runtime.ValidateExpressionRuntime;
 import org.slf4j.Logger;
@@ -48,6 +50,9 @@
  * #GLOBAL_APPLICATION_CONTEXT_NAME} alias, unless the instance is the same as the active {@link ApplicationContext}. If a
  * conflict arises a warning is logged, but the runtime will proceed as usual.
  *
+ * <p>Expressions are compiled through the application's {@link CompiledScriptCache}, so conditions with the same
+ * expression and runtime configuration are only tokenized, parsed and resolved once.
+ *
  * @since 0.4.12
  *
  * @author Guus Lieben
@@ -75,7 +80,9 @@ private ConditionResult calculateResult(ConditionContext context, RequiresExpres
         ValidateExpressionRuntime runtime = this.createRuntime(context);
 
         try {
-            ScriptContext scriptContext = runtime.interpret(expression);
+            CompiledScriptCache cache = context.application().defaultProvider().get(CompiledScriptCache.class);
+            CompiledScript script = cache.compile(runtime, expression);
+            ScriptContext scriptContext = runtime.interpret(script);
             boolean result = ValidateExpressionRuntime.valid(scriptContext);
             return ConditionResult.of(result);
         }
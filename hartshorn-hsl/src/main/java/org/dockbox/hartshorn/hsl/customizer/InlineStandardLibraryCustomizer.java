@@ -58,4 +58,16 @@ private List<Statement> enhanceModuleStatements(ScriptContext context) {
         }
         return statements;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        // Stateless, so all instances behave identically. This allows runtimes with different
+        // instances of this customizer to share compiled scripts.
+        return other != null && this.getClass() == other.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return this.getClass().hashCode();
+    }
 }
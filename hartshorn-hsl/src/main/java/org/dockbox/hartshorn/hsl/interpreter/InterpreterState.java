@@ -117,6 +117,27 @@ public void resolve(Expression expression, int depth) {
         this.locals.put(expression, depth);
     }
 
+    /**
+     * Returns an immutable snapshot of the scope distances of all local variables that were resolved
+     * so far. This can be used to restore the resolution results in another state through {@link
+     * #locals(Map)}, without resolving the same statements again.
+     *
+     * @return the resolved scope distances
+     */
+    public Map<Expression, Integer> locals() {
+        return Map.copyOf(this.locals);
+    }
+
+    /**
+     * Adds the given scope distances of local variables to this state, as if they were resolved
+     * through {@link #resolve(Expression, int)}.
+     *
+     * @param locals the resolved scope distances
+     */
+    public void locals(Map<Expression, Integer> locals) {
+        this.locals.putAll(locals);
+    }
+
     public Object lookUpVariable(Token name, Expression expression) {
         if (name.type() == ObjectTokenType.THIS) {
             return this.visitingScope().getAt(name, 1);
@@ -16,10 +16,13 @@
 
 package org.dockbox.hartshorn.hsl.runtime;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.dockbox.hartshorn.hsl.ParserCustomizer;
 import org.dockbox.hartshorn.hsl.ScriptComponentFactory;
@@ -151,6 +154,74 @@ public ScriptContext runOnly(ScriptContext context, Phase only) {
         return context;
     }
 
+    /**
+     * Runs the given source through all phases up to and including the {@link Phase#RESOLVING resolving}
+     * phase, and returns the result as a {@link CompiledScript}. The compiled script can be interpreted
+     * repeatedly through {@link #interpret(CompiledScript)}, without tokenizing, parsing or resolving the
+     * source again.
+     *
+     * <p>Customizers of the {@link Phase#TOKENIZING tokenizing}, {@link Phase#PARSING parsing} and {@link
+     * Phase#RESOLVING resolving} phases are only called during compilation. Customizers of the {@link
+     * Phase#INTERPRETING interpreting} phase are called for each interpretation of the compiled script.
+     *
+     * @param source the source code to compile
+     * @return the compiled script
+     */
+    public CompiledScript compile(String source) {
+        ScriptContext context = this.runUntil(source, Phase.RESOLVING);
+        return CompiledScript.of(context);
+    }
+
+    /**
+     * Interprets the given compiled script. Each interpretation uses a new script context and
+     * interpreter, which is prepared with the resolved state of the compiled script.
+     *
+     * @param script the compiled script to interpret
+     * @return the context that was created during the execution
+     */
+    public ScriptContext interpret(CompiledScript script) {
+        ScriptContext context = this.createScriptContext(script.source());
+        // Customizers may still modify the statements before they are interpreted, so the shared
+        // statements of the compiled script are copied.
+        context.statements(new ArrayList<>(script.statements()));
+        context.interpreter().restore();
+        context.interpreter().state().locals(script.locals());
+        try {
+            this.interpret(context);
+        }
+        catch (ScriptEvaluationError e) {
+            this.handleScriptEvaluationError(context, e);
+        }
+        return context;
+    }
+
+    /**
+     * Returns a key which identifies the result of {@link #compile(String) compiling} the given source
+     * with this runtime. Two runtimes produce equal keys if they would compile the source in the same way,
+     * which is the case if they are of the same type, use the same component factory and parser customizer,
+     * and have equal customizers and external modules for all phases before the {@link Phase#INTERPRETING
+     * interpreting} phase. Global variables and imports are not part of the key, as they are only used
+     * during interpretation.
+     *
+     * @param source the source code to compile
+     * @return the compilation key
+     *
+     * @see CompiledScriptCache
+     */
+    public Object compilationKey(String source) {
+        Set<CodeCustomizer> compilingCustomizers = this.customizers().stream()
+                .filter(customizer -> customizer.phase() != Phase.INTERPRETING)
+                .collect(Collectors.toUnmodifiableSet());
+        return new CompilationKey(
+                source,
+                this.getClass(),
+                this.factory,
+                this.parserCustomizer,
+                compilingCustomizers,
+                Set.copyOf(this.externalModules().keySet())
+        );
+    }
+
     /**
      * Creates a new script context for the given source. The context is used to store the state of
      * the script's execution, and to provide access to the various executors that are used during
@@ -320,4 +391,14 @@ public void statementParser(ASTNodeParser<? extends Statement> statementParser)
     public void scriptContextCustomizer(Customizer<ScriptContext> customizer) {
         this.customizer(new ConsumerCodeCustomizer(Phase.TOKENIZING, customizer::configure));
     }
+
+    private record CompilationKey(
+            String source,
+            Class<?> runtimeType,
+            ScriptComponentFactory factory,
+            ParserCustomizer parserCustomizer,
+            Set<CodeCustomizer> customizers,
+            Set<String> modules
+    ) {
+    }
 }
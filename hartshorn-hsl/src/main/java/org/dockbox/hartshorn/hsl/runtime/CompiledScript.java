@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.hsl.runtime;
+
+import java.util.List;
+import java.util.Map;
+
+import org.dockbox.hartshorn.hsl.ast.expression.Expression;
+import org.dockbox.hartshorn.hsl.ast.statement.Statement;
+import org.dockbox.hartshorn.hsl.customizer.ScriptContext;
+
+/**
+ * The immutable result of running a script through the {@link Phase#TOKENIZING tokenizing}, {@link Phase#PARSING
+ * parsing} and {@link Phase#RESOLVING resolving} phases. A compiled script only retains the resolved statements, and
+ * the scope distances of local variables as they were calculated by the {@link
+ * org.dockbox.hartshorn.hsl.semantic.Resolver}. Tokens and comments are discarded, as they are no longer required to
+ * interpret the script.
+ *
+ * <p>A compiled script can be interpreted any amount of times, and by multiple threads at once, through {@link
+ * AbstractScriptRuntime#interpret(CompiledScript)}. Each interpretation uses its own {@link ScriptContext} and
+ * interpreter state, so results and variables are never shared between interpretations.
+ *
+ * @see AbstractScriptRuntime#compile(String)
+ * @see CompiledScriptCache
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public final class CompiledScript {
+
+    private final String source;
+    private final List<Statement> statements;
+    private final Map<Expression, Integer> locals;
+
+    private CompiledScript(String source, List<Statement> statements, Map<Expression, Integer> locals) {
+        this.source = source;
+        this.statements = statements;
+        this.locals = locals;
+    }
+
+    /**
+     * Creates a compiled script from the given context. The context is expected to have completed at least the
+     * {@link Phase#RESOLVING resolving} phase.
+     *
+     * @param context the context to create the compiled script from
+     * @return the compiled script
+     */
+    public static CompiledScript of(ScriptContext context) {
+        if (context.statements() == null) {
+            throw new IllegalArgumentException("Script context has not been parsed yet");
+        }
+        return new CompiledScript(
+                context.source(),
+                List.copyOf(context.statements()),
+                context.interpreter().state().locals()
+        );
+    }
+
+    /**
+     * Returns the original source of the script. This is retained so errors during interpretation can still refer
+     * to the source of the script.
+     *
+     * @return the source of the script
+     */
+    public String source() {
+        return this.source;
+    }
+
+    /**
+     * Returns the resolved statements of the script, as they should be interpreted.
+     *
+     * @return the resolved statements
+     */
+    public List<Statement> statements() {
+        return this.statements;
+    }
+
+    /**
+     * Returns the scope distances of all local variables in the script, as they were calculated by the resolver.
+     *
+     * @return the resolved scope distances
+     */
+    public Map<Expression, Integer> locals() {
+        return this.locals;
+    }
+}
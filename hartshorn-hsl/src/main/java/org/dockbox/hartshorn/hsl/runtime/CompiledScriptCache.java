@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.hsl.runtime;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of {@link CompiledScript}s. Scripts are cached by their source, and the {@link
+ * AbstractScriptRuntime#compilationKey(String) compilation configuration} of the runtime that compiled them. This
+ * ensures scripts are only shared between runtimes that would compile them in exactly the same way, even if the
+ * runtimes themselves are different instances.
+ *
+ * <p>When the cache exceeds its maximum size, the least recently used script is evicted. Scripts which fail to
+ * compile are never cached, so the error is reported again on the next attempt.
+ *
+ * @see CompiledScript
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public class CompiledScriptCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 256;
+
+    private final Map<Object, CompiledScript> scripts;
+
+    public CompiledScriptCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public CompiledScriptCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive, but was " + maximumSize);
+        }
+        this.scripts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, CompiledScript> eldest) {
+                return this.size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the compiled form of the given source, compiling it with the given runtime if it is not yet cached.
+     * Compilation itself happens outside the lock of this cache, so concurrent compilations of different scripts do
+     * not block each other. If two threads compile the same script at once, the first result is retained.
+     *
+     * @param runtime the runtime to compile the script with
+     * @param source the source of the script
+     * @return the compiled script
+     */
+    public CompiledScript compile(AbstractScriptRuntime runtime, String source) {
+        Object key = runtime.compilationKey(source);
+        synchronized (this.scripts) {
+            CompiledScript script = this.scripts.get(key);
+            if (script != null) {
+                return script;
+            }
+        }
+        CompiledScript script = runtime.compile(source);
+        synchronized (this.scripts) {
+            CompiledScript existing = this.scripts.putIfAbsent(key, script);
+            return existing != null ? existing : script;
+        }
+    }
+
+    /**
+     * Returns the amount of scripts that are currently cached.
+     *
+     * @return the amount of cached scripts
+     */
+    public int size() {
+        synchronized (this.scripts) {
+            return this.scripts.size();
+        }
+    }
+
+    /**
+     * Removes all scripts from this cache.
+     */
+    public void clear() {
+        synchronized (this.scripts) {
+            this.scripts.clear();
+        }
+    }
+}
@@ -55,6 +55,9 @@ public ValidateExpressionRuntime(
     ) {
         super(applicationContext, factory, parserCustomizer);
         this.customizer(new ExpressionCustomizer());
+        // Also enabled by the customizer, but that only runs while resolving. Compiled expressions
+        // skip that phase, and still need assertions to produce a validation result.
+        this.interpreterOptions().enableAssertions(true);
     }
 
     /**
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.hsl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dockbox.hartshorn.hsl.UseExpressionValidation;
+import org.dockbox.hartshorn.hsl.customizer.AbstractCodeCustomizer;
+import org.dockbox.hartshorn.hsl.customizer.ScriptContext;
+import org.dockbox.hartshorn.hsl.modules.InstanceNativeModule;
+import org.dockbox.hartshorn.hsl.runtime.AbstractScriptRuntime;
+import org.dockbox.hartshorn.hsl.runtime.CompiledScript;
+import org.dockbox.hartshorn.hsl.runtime.CompiledScriptCache;
+import org.dockbox.hartshorn.hsl.runtime.Phase;
+import org.dockbox.hartshorn.hsl.runtime.ScriptRuntime;
+import org.dockbox.hartshorn.hsl.runtime.ValidateExpressionRuntime;
+import org.dockbox.hartshorn.inject.annotations.Inject;
+import org.dockbox.hartshorn.launchpad.ApplicationContext;
+import org.dockbox.hartshorn.test.junit.HartshornIntegrationTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+@HartshornIntegrationTest(includeBasePackages = false)
+@UseExpressionValidation
+public class CompiledScriptTests {
+
+    @Inject
+    private ApplicationContext applicationContext;
+
+    @Test
+    void testCompiledExpressionUsesGlobalsOfEachInterpretation() {
+        ValidateExpressionRuntime runtime = this.applicationContext.get(ValidateExpressionRuntime.class);
+        CompiledScript script = runtime.compile("a == 12");
+
+        runtime.global("a", 12);
+        Assertions.assertTrue(ValidateExpressionRuntime.valid(runtime.interpret(script)));
+
+        runtime.global("a", 13);
+        Assertions.assertFalse(ValidateExpressionRuntime.valid(runtime.interpret(script)));
+    }
+
+    @Test
+    void testResolvedLocalsAreRestoredForEachInterpretation() {
+        AbstractScriptRuntime runtime = (AbstractScriptRuntime) this.applicationContext.get(ScriptRuntime.class);
+        CompiledScript script = runtime.compile("""
+                function add(a, b) {
+                    var sum = a + b;
+                    return sum;
+                }
+                var result = add(1, 2);
+                """);
+
+        for (int i = 0; i < 2; i++) {
+            ScriptContext context = runtime.interpret(script);
+            Object result = context.interpreter().global().values().get("result");
+            Assertions.assertInstanceOf(Number.class, result);
+            Assertions.assertEquals(3, ((Number) result).intValue());
+        }
+    }
+
+    @Test
+    void testOnlyInterpretingCustomizersRunForEachInterpretation() {
+        AbstractScriptRuntime runtime = (AbstractScriptRuntime) this.applicationContext.get(ScriptRuntime.class);
+        AtomicInteger parsing = new AtomicInteger();
+        AtomicInteger interpreting = new AtomicInteger();
+        runtime.customizer(new CountingCustomizer(Phase.PARSING, parsing));
+        runtime.customizer(new CountingCustomizer(Phase.INTERPRETING, interpreting));
+
+        CompiledScript script = runtime.compile("var x = 1;");
+        runtime.interpret(script);
+        runtime.interpret(script);
+
+        Assertions.assertEquals(1, parsing.get());
+        Assertions.assertEquals(2, interpreting.get());
+    }
+
+    @Test
+    void testCacheSharesScriptsBetweenEquivalentRuntimes() {
+        CompiledScriptCache cache = new CompiledScriptCache();
+        ValidateExpressionRuntime first = this.applicationContext.get(ValidateExpressionRuntime.class);
+        ValidateExpressionRuntime second = this.applicationContext.get(ValidateExpressionRuntime.class);
+        Assertions.assertNotSame(first, second);
+
+        CompiledScript script = cache.compile(first, "1 == 1");
+        Assertions.assertSame(script, cache.compile(second, "1 == 1"));
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testCacheSeparatesRuntimesWithDifferentModules() {
+        CompiledScriptCache cache = new CompiledScriptCache();
+        ValidateExpressionRuntime first = this.applicationContext.get(ValidateExpressionRuntime.class);
+        ValidateExpressionRuntime second = this.applicationContext.get(ValidateExpressionRuntime.class);
+        second.module("application", new InstanceNativeModule(this.applicationContext, this.applicationContext));
+
+        CompiledScript script = cache.compile(first, "1 == 1");
+        Assertions.assertNotSame(script, cache.compile(second, "1 == 1"));
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testCacheEvictsLeastRecentlyUsedScript() {
+        CompiledScriptCache cache = new CompiledScriptCache(2);
+        ValidateExpressionRuntime runtime = this.applicationContext.get(ValidateExpressionRuntime.class);
+
+        CompiledScript first = cache.compile(runtime, "1 == 1");
+        cache.compile(runtime, "2 == 2");
+        // Access the first script, so the second script becomes the least recently used
+        cache.compile(runtime, "1 == 1");
+        cache.compile(runtime, "3 == 3");
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertSame(first, cache.compile(runtime, "1 == 1"));
+    }
+
+    private static class CountingCustomizer extends AbstractCodeCustomizer {
+
+        private final AtomicInteger counter;
+
+        CountingCustomizer(Phase phase, AtomicInteger counter) {
+            super(phase);
+            this.counter = counter;
+        }
+
+        @Override
+        public void call(ScriptContext context) {
+            this.counter.incrementAndGet();
+        }
+    }
+}
@@ -26,6 +26,7 @@
 import org.dockbox.hartshorn.hsl.condition.ExpressionCondition;
 import org.dockbox.hartshorn.hsl.condition.ExpressionConditionContext;
 import org.dockbox.hartshorn.hsl.condition.RequiresExpression;
+import org.dockbox.hartshorn.hsl.runtime.CompiledScriptCache;
 import org.dockbox.hartshorn.test.junit.HartshornIntegrationTest;
 import org.dockbox.hartshorn.util.introspect.ElementAnnotationsIntrospector;
 import org.dockbox.hartshorn.util.introspect.view.AnnotatedElementView;
@@ -78,6 +79,16 @@ void testApplicationContextIsAvailableDefault() {
         Assertions.assertTrue(result.matches());
     }
 
+    @Test
+    void testRepeatedExpressionIsCompiledOnce() {
+        CompiledScriptCache cache = this.applicationContext.get(CompiledScriptCache.class);
+        cache.clear();
+
+        Assertions.assertTrue(this.match("2 == 2").matches());
+        Assertions.assertTrue(this.match("2 == 2").matches());
+        Assertions.assertEquals(1, cache.size());
+    }
+
     ConditionResult match(String expression, ContextView... contexts) {
         ExpressionCondition condition = this.applicationContext.get(ExpressionCondition.class);
         AnnotatedElementView element = this.createAnnotatedElement(expression);
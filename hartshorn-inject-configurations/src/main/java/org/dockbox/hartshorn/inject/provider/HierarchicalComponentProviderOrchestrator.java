@@ -17,11 +17,9 @@
 package org.dockbox.hartshorn.inject.provider;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Map;
-import java.util.WeakHashMap;
-
+import java.util.function.Consumer;
 import java.util.function.Function;
+
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.dockbox.hartshorn.inject.ContextKey;
 import org.dockbox.hartshorn.inject.InjectionCapableApplication;
@@ -45,8 +43,10 @@
 import org.dockbox.hartshorn.inject.processing.construction.ComponentPostConstructor;
 import org.dockbox.hartshorn.inject.processing.construction.AnnotatedMethodComponentPostConstructor;
 import org.dockbox.hartshorn.inject.scope.Scope;
+import org.dockbox.hartshorn.inject.scope.WeakScopeReference;
 import org.dockbox.hartshorn.util.ContextualInitializer;
 import org.dockbox.hartshorn.util.Customizer;
+import org.dockbox.hartshorn.util.collections.ConcurrentWeakKeyMap;
 import org.dockbox.hartshorn.util.collections.HashSetMultiMap;
 import org.dockbox.hartshorn.util.collections.MultiMap;
 
@@ -61,7 +61,8 @@
         extends DefaultFallbackCompatibleContext
         implements HierarchicalComponentProvider, ComponentRegistryAwareProviderOrchestrator, HierarchicalBinder {
 
-    private final Map<Scope, HierarchicalBinderAwareComponentProvider> scopedProviders = Collections.synchronizedMap(new WeakHashMap<>());
+    private final ConcurrentWeakKeyMap<Scope, ScopedProviderSlot> scopedProviders = new ConcurrentWeakKeyMap<>();
+    private final ScopedProviderSlot applicationProviderSlot = new ScopedProviderSlot();
     private final Scope applicationScope;
 
     private final transient InjectionCapableApplication application;
@@ -82,13 +83,16 @@ protected HierarchicalComponentProviderOrchestrator(InjectionCapableApplication
     }
 
     @NonNull
-    private HierarchicalBinderAwareComponentProvider createComponentProvider(Scope scope) {
+    private HierarchicalBinderAwareComponentProvider createComponentProvider(Scope scope, Consumer<HierarchicalBinderAwareComponentProvider> earlyPublisher) {
+        // Scoped providers are stored as values of a weakly keyed map, so they may not strongly reference their own
+        // scope. The application scope is held by this orchestrator directly, so it can be referenced as-is.
+        Scope providerScope = scope == this.applicationScope ? scope : WeakScopeReference.of(scope);
         HierarchicalBinderAwareComponentProvider provider = HierarchyAwareComponentProvider.create(
                 this,
                 this.postConstructor,
                 this.application,
                 new ConcurrentHashSingletonCache(),
-                scope,
+                providerScope,
                 Customizer.useDefaults());
 
         if(scope != this.application) {
@@ -100,32 +104,50 @@ private HierarchicalBinderAwareComponentProvider createComponentProvider(Scope s
             }
         }
 
-        // Cache provider before processing, in case of recursive calls
-        this.scopedProviders.put(scope, provider);
+        // Expose provider to the creating thread before processing, in case of recursive calls
+        earlyPublisher.accept(provider);
 
         HierarchicalBinderPostProcessor binderPostProcessor = new CompositeHierarchicalBinderPostProcessor(this.binderProcessorRegistry()::processors);
-        binderPostProcessor.process(this.application, provider.scope(), provider.binder());
+        binderPostProcessor.process(this.application, scope, provider.binder());
         return provider;
     }
 
     private HierarchicalBinderAwareComponentProvider getOrDefaultProvider(Scope scope) {
-        return this.tryGetProvider(scope, s -> this.getOrCreateProvider(this.applicationScope));
+        ScopedProviderSlot slot = this.slot(scope, false);
+        if (slot == null) {
+            return this.getOrCreateProvider(this.applicationScope);
+        }
+        return this.getOrCreateProvider(slot, scope);
     }
 
     private HierarchicalBinderAwareComponentProvider getOrCreateProvider(Scope scope) {
-        return this.tryGetProvider(scope, this::createComponentProvider);
+        return this.getOrCreateProvider(this.slot(scope, true), scope);
     }
 
-    private HierarchicalBinderAwareComponentProvider tryGetProvider(Scope scope, Function<Scope, HierarchicalBinderAwareComponentProvider> fallbackValue) {
-        if (scope == null) {
-            scope = this.applicationScope;
+    private HierarchicalBinderAwareComponentProvider getOrCreateProvider(ScopedProviderSlot slot, Scope scope) {
+        HierarchicalBinderAwareComponentProvider provider = slot.get();
+        if (provider != null) {
+            return provider;
         }
-        synchronized (this.scopedProviders) {
-            if (this.scopedProviders.containsKey(scope)) {
-                return this.scopedProviders.get(scope);
+        Scope targetScope = scope == null ? this.applicationScope : WeakScopeReference.unwrap(scope);
+        return slot.getOrCreate(earlyPublisher -> this.createComponentProvider(targetScope, earlyPublisher));
+    }
+
+    private ScopedProviderSlot slot(Scope requestedScope, boolean createIfAbsent) {
+        Scope scope = WeakScopeReference.unwrap(requestedScope);
+        if (scope == null && requestedScope != null) {
+            if (createIfAbsent) {
+                throw new IllegalStateException("Cannot create provider for scope, as the scope is no longer reachable");
             }
-            return fallbackValue.apply(scope);
+            return null;
+        }
+        if (scope == null || scope == this.applicationScope || this.applicationScope.equals(scope)) {
+            return this.applicationProviderSlot;
+        }
+        if (createIfAbsent) {
+            return this.scopedProviders.computeIfAbsent(scope, key -> new ScopedProviderSlot());
         }
+        return this.scopedProviders.get(scope);
     }
 
     public ComponentPostConstructor postConstructor() {
@@ -179,12 +201,24 @@ public <T> BindingHierarchy<T> hierarchy(ComponentKey<T> key) {
     @Override
     public MultiMap<Scope, BindingHierarchy<?>> hierarchies() {
         MultiMap<Scope, BindingHierarchy<?>> hierarchies = new HashSetMultiMap<>();
-        for (HierarchicalComponentProvider componentProvider : this.scopedProviders.values()) {
+        this.collectHierarchies(this.applicationProviderSlot, hierarchies);
+        for (ScopedProviderSlot slot : this.scopedProviders.values()) {
+            this.collectHierarchies(slot, hierarchies);
+        }
+        return hierarchies;
+    }
+
+    private void collectHierarchies(ScopedProviderSlot slot, MultiMap<Scope, BindingHierarchy<?>> hierarchies) {
+        HierarchicalComponentProvider componentProvider = slot.get();
+        if (componentProvider != null) {
             MultiMap<Scope, BindingHierarchy<?>> providerHierarchies = componentProvider.hierarchies();
             assert providerHierarchies.keySet().size() == 1 : "Hierarchy collection from scoped provider should only contain one scope";
-            hierarchies.putAll(providerHierarchies);
+            Scope scope = WeakScopeReference.unwrap(componentProvider.scope());
+            // Scope may have been collected while its entry has not been expunged yet
+            if (scope != null) {
+                hierarchies.putAll(scope, providerHierarchies.allValues());
+            }
         }
-        return hierarchies;
     }
 
     @Override
@@ -193,7 +227,14 @@ public HierarchicalComponentProvider applicationProvider() {
     }
 
     @Override
-    public boolean containsScope(Scope scopeKey) {
+    public boolean containsScope(Scope requestedScope) {
+        Scope scopeKey = WeakScopeReference.unwrap(requestedScope);
+        if (scopeKey == null) {
+            return false;
+        }
+        if (scopeKey == this.applicationScope || this.applicationScope.equals(scopeKey)) {
+            return this.applicationProviderSlot.get() != null;
+        }
         return this.scopedProviders.containsKey(scopeKey);
     }
 
@@ -211,6 +252,48 @@ public static ContextualInitializer<ComponentRegistry, ComponentProviderOrchestr
         };
     }
 
+    /**
+     * Holder for the provider of a single scope. Completed providers are read without locking. Creation is
+     * guarded by the monitor of the slot itself, so concurrent requests for the same scope create the provider
+     * at most once, while requests for different scopes never contend with each other. The creating thread
+     * can observe the provider before its post-processing completes, to support recursive lookups.
+     */
+    private static final class ScopedProviderSlot {
+
+        private volatile HierarchicalBinderAwareComponentProvider provider;
+        private HierarchicalBinderAwareComponentProvider pendingProvider;
+
+        HierarchicalBinderAwareComponentProvider get() {
+            return this.provider;
+        }
+
+        HierarchicalBinderAwareComponentProvider getOrCreate(
+                Function<Consumer<HierarchicalBinderAwareComponentProvider>, HierarchicalBinderAwareComponentProvider> factory
+        ) {
+            HierarchicalBinderAwareComponentProvider current = this.provider;
+            if (current != null) {
+                return current;
+            }
+            synchronized (this) {
+                if (this.provider != null) {
+                    return this.provider;
+                }
+                // Only visible to the creating thread, as other threads are blocked on this monitor
+                if (this.pendingProvider != null) {
+                    return this.pendingProvider;
+                }
+                try {
+                    HierarchicalBinderAwareComponentProvider created = factory.apply(pending -> this.pendingProvider = pending);
+                    this.provider = created;
+                    return created;
+                }
+                finally {
+                    this.pendingProvider = null;
+                }
+            }
+        }
+    }
+
     /**
      * TODO: #1060 Add documentation
      *
@@ -63,6 +63,28 @@
     private final boolean postConstructionAllowed;
     private final Tristate strict;
 
+    // Keys without parameters, qualifiers or explicit configuration are by far the most common, so these are
+    // shared between all requests for the same type.
+    private static final ClassValue<ComponentKey<?>> DEFAULT_KEYS = new ClassValue<>() {
+        @Override
+        protected ComponentKey<?> computeValue(Class<?> type) {
+            return new ComponentKey<>(
+                    HighestPriorityProviderSelectionStrategy.INSTANCE,
+                    ParameterizableType.create(type),
+                    new CompositeQualifier(),
+                    null,
+                    true,
+                    Tristate.UNDEFINED
+            );
+        }
+    };
+
+    private final int hashCode;
+
+    // Views are immutable, so may be published without synchronization. Concurrent callers may each create a view,
+    // which is harmless as views of the same key are equal.
+    private ComponentKeyView<T> view;
+
     private ComponentKey(
             ProviderSelectionStrategy strategy,
             ParameterizableType type,
@@ -77,6 +99,11 @@ private ComponentKey(
         this.scope = scope;
         this.postConstructionAllowed = postConstructionAllowed;
         this.strict = strict;
+        // Keys are immutable, and frequently used in maps, so the hash is only computed once
+        int hashCode = type.hashCode();
+        hashCode = 31 * hashCode + Objects.hashCode(qualifier);
+        hashCode = 31 * hashCode + Objects.hashCode(scope);
+        this.hashCode = 31 * hashCode + Boolean.hashCode(postConstructionAllowed);
     }
 
     /**
@@ -154,7 +181,7 @@ public static ComponentKey<ComponentCollection<?>> collect(ParameterizableType t
      * @return a new component key
      */
     public static <T> ComponentKey<T> of(Class<T> type) {
-        return ComponentKey.builder(type).build();
+        return TypeUtils.unchecked(DEFAULT_KEYS.get(type), ComponentKey.class);
     }
 
     /**
@@ -220,16 +247,21 @@ public Builder<T> mutable() {
     }
 
     /**
-     * Creates a new view of this key. The view will have the same type and qualifiers as this key. Views are not
+     * Returns a view of this key. The view will have the same type and qualifiers as this key. Views are not
      * attached to a scope, and do not indicate whether post-construction callbacks are allowed. This method is useful
-     * for comparing keys, or for use in maps.
+     * for comparing keys, or for use in maps. The view is created once, and reused for subsequent calls.
      *
      * <p>Views always retain the parameterization of the key.
      *
-     * @return a new view
+     * @return the view of this key
      */
     public ComponentKeyView<T> view() {
-        return new ComponentKeyView<>(this);
+        ComponentKeyView<T> view = this.view;
+        if (view == null) {
+            view = new ComponentKeyView<>(this);
+            this.view = view;
+        }
+        return view;
     }
 
     /**
@@ -266,7 +298,8 @@ public boolean equals(Object other) {
             return false;
         }
         ComponentKey<?> otherComponentKey = (ComponentKey<?>) other;
-        return this.postConstructionAllowed == otherComponentKey.postConstructionAllowed
+        return this.hashCode == otherComponentKey.hashCode
+                && this.postConstructionAllowed == otherComponentKey.postConstructionAllowed
                 && this.type.equals(otherComponentKey.type)
                 && Objects.equals(this.qualifier, otherComponentKey.qualifier)
                 && Objects.equals(this.scope, otherComponentKey.scope);
@@ -274,7 +307,7 @@ public boolean equals(Object other) {
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.type, this.qualifier, this.scope, this.postConstructionAllowed);
+        return this.hashCode;
     }
 
     /**
@@ -309,7 +342,7 @@ public String name() {
 
     /**
      * Returns the qualifier of the component. If the component has no explicit qualifier, an empty qualifier is
-     * returned.
+     * returned. As keys are immutable, the returned qualifier should not be modified.
      *
      * @return the qualifier of the component
      */
@@ -565,12 +598,27 @@ public Builder<ComponentCollection<T>> collector() {
         }
 
         /**
-         * Builds a new key based on the values of this builder.
+         * Builds a key based on the values of this builder. If the builder only configures a type without
+         * parameters, a shared key for that type is returned. Otherwise, a new key is created. Changes made to
+         * this builder after the key is built do not affect the key.
          *
-         * @return a new key
+         * @return a key based on the values of this builder
          */
         public ComponentKey<T> build() {
-            return new ComponentKey<>(this.strategy, this.type, this.qualifier, this.scope, this.postConstructionAllowed, this.strict);
+            if (this.isDefaultKey()) {
+                return TypeUtils.unchecked(DEFAULT_KEYS.get(this.type.type()), ComponentKey.class);
+            }
+            CompositeQualifier qualifier = new CompositeQualifier().addAll(this.qualifier.qualifiers());
+            return new ComponentKey<>(this.strategy, this.type, qualifier, this.scope, this.postConstructionAllowed, this.strict);
+        }
+
+        private boolean isDefaultKey() {
+            return this.type.parameters().isEmpty()
+                    && this.qualifier.isEmpty()
+                    && this.scope == null
+                    && this.postConstructionAllowed
+                    && this.strict == Tristate.UNDEFINED
+                    && this.strategy == HighestPriorityProviderSelectionStrategy.INSTANCE;
         }
 
         /**
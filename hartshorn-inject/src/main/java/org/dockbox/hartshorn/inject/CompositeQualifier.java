@@ -42,6 +42,9 @@
 public class CompositeQualifier implements Reportable {
 
     private final Map<Class<?>, QualifierKey<?>> qualifiers = new HashMap<>();
+    // Cached hash, or 0 if not yet computed. Cleared on modification, though qualifiers are rarely modified
+    // after being added to a key.
+    private int hashCode;
 
     /**
      * Adds the provided qualifier to this {@link CompositeQualifier}. If a qualifier of the same type already exists,
@@ -52,6 +55,7 @@ public class CompositeQualifier implements Reportable {
      */
     public CompositeQualifier add(QualifierKey<?> qualifier) {
         this.qualifiers.put(qualifier.type(), qualifier);
+        this.hashCode = 0;
         return this;
     }
 
@@ -115,7 +119,13 @@ public boolean equals(Object o) {
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.qualifiers);
+        int hashCode = this.hashCode;
+        // Empty qualifiers hash to 0, so are not cached, but computing their hash would allocate an iterator
+        if (hashCode == 0 && !this.qualifiers.isEmpty()) {
+            hashCode = this.qualifiers.hashCode();
+            this.hashCode = hashCode;
+        }
+        return hashCode;
     }
 
     @Override
@@ -16,13 +16,16 @@
 
 package org.dockbox.hartshorn.inject.binding;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -36,8 +39,6 @@
 import org.dockbox.hartshorn.util.CollectionUtilities;
 import org.dockbox.hartshorn.util.Tristate;
 import org.dockbox.hartshorn.util.TypeUtils;
-import org.dockbox.hartshorn.util.collections.ConcurrentSetTreeMultiMap;
-import org.dockbox.hartshorn.util.collections.NavigableMultiMap;
 import org.dockbox.hartshorn.util.introspect.ParameterizableType;
 
 /**
@@ -49,8 +50,24 @@
  */
 public class HierarchyCache {
 
+    public static final int DEFAULT_LOOSE_MATCH_LIMIT = 256;
+
     private final transient Map<ComponentKeyView<?>, BindingHierarchy<?>> hierarchies = new ConcurrentHashMap<>();
 
+    // Secondary index for loose lookups. Each view is registered under its raw type, and all supertypes and
+    // interfaces of that raw type, so a lookup only needs to inspect views which are assignable to the
+    // requested type. Array types are not indexed, and are always inspected.
+    private final transient Map<Class<?>, Set<ComponentKeyView<?>>> typeIndex = new ConcurrentHashMap<>();
+    private final transient Set<ComponentKeyView<?>> unindexedViews = ConcurrentHashMap.newKeySet();
+
+    // Compatible views per requested type, including empty results. Entries are only valid for the version
+    // they were computed for, as any added or removed hierarchy may change the outcome of a loose lookup.
+    // Outdated entries are cleared when the version changes, and all entries are cleared once the limit is
+    // reached, so the amount of requested types cannot grow the cache indefinitely.
+    private final transient Map<ParameterizableType, LooseMatch> looseMatches = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final int looseMatchLimit;
+
     private final InjectorConfiguration configuration;
     private final HierarchicalBinder globalBinder;
     private final HierarchicalBinder binder;
@@ -59,9 +76,21 @@ public HierarchyCache(
             InjectorConfiguration configuration,
             HierarchicalBinder globalBinder,
             HierarchicalBinder binder) {
+        this(configuration, globalBinder, binder, DEFAULT_LOOSE_MATCH_LIMIT);
+    }
+
+    public HierarchyCache(
+            InjectorConfiguration configuration,
+            HierarchicalBinder globalBinder,
+            HierarchicalBinder binder,
+            int looseMatchLimit) {
+        if (looseMatchLimit < 1) {
+            throw new IllegalArgumentException("Loose match limit must be positive, but was " + looseMatchLimit);
+        }
         this.configuration = configuration;
         this.globalBinder = globalBinder;
         this.binder = binder;
+        this.looseMatchLimit = looseMatchLimit;
     }
 
     public <T> void put(BindingHierarchy<T> hierarchy) {
@@ -69,7 +98,30 @@ public <T> void put(BindingHierarchy<T> hierarchy) {
     }
 
     public <T> void put(ComponentKeyView<T> view, BindingHierarchy<T> updated) {
-        this.hierarchies.put(view, updated);
+        BindingHierarchy<?> previous = this.hierarchies.put(view, updated);
+        if (previous == null) {
+            this.index(view);
+            // Only invalidate after the view is indexed, so lookups can never cache a result which
+            // does not include the new view.
+            this.invalidateLooseMatches();
+        }
+    }
+
+    public boolean remove(ComponentKeyView<?> view) {
+        if (this.hierarchies.containsKey(view)) {
+            this.unindex(view);
+            boolean removed = this.hierarchies.remove(view) != null;
+            this.invalidateLooseMatches();
+            return removed;
+        }
+        return false;
+    }
+
+    private void invalidateLooseMatches() {
+        // Increment before clearing, so a lookup which completes concurrently cannot store a result
+        // which is considered valid.
+        this.version.incrementAndGet();
+        this.looseMatches.clear();
     }
 
     public Set<BindingHierarchy<?>> hierarchies() {
@@ -137,12 +189,97 @@ protected boolean isStrict(ComponentKey<?> key) {
         }
     }
 
+    private void index(ComponentKeyView<?> view) {
+        Class<?> type = view.type().type();
+        if (type.isArray()) {
+            this.unindexedViews.add(view);
+        }
+        else {
+            for (Class<?> supertype : this.supertypes(type)) {
+                this.typeIndex.computeIfAbsent(supertype, key -> ConcurrentHashMap.newKeySet()).add(view);
+            }
+        }
+    }
+
+    private void unindex(ComponentKeyView<?> view) {
+        Class<?> type = view.type().type();
+        if (type.isArray()) {
+            this.unindexedViews.remove(view);
+        }
+        else {
+            for (Class<?> supertype : this.supertypes(type)) {
+                Set<ComponentKeyView<?>> views = this.typeIndex.get(supertype);
+                if (views != null) {
+                    views.remove(view);
+                }
+            }
+        }
+    }
+
+    private Set<Class<?>> supertypes(Class<?> type) {
+        Set<Class<?>> supertypes = new LinkedHashSet<>();
+        this.collectSupertypes(type, supertypes);
+        if (!type.isPrimitive()) {
+            // Interfaces do not declare Object as their superclass, but are still assignable to it
+            supertypes.add(Object.class);
+        }
+        return supertypes;
+    }
+
+    private void collectSupertypes(Class<?> type, Set<Class<?>> supertypes) {
+        if (type == null || !supertypes.add(type)) {
+            return;
+        }
+        this.collectSupertypes(type.getSuperclass(), supertypes);
+        for (Class<?> anInterface : type.getInterfaces()) {
+            this.collectSupertypes(anInterface, supertypes);
+        }
+    }
+
+    private Set<ComponentKeyView<?>> compatibleKeys(ParameterizableType type) {
+        // Read the version before inspecting the index, so concurrent modifications will always invalidate
+        // the result of this lookup.
+        long currentVersion = this.version.get();
+        LooseMatch match = this.looseMatches.get(type);
+        if (match != null && match.version() == currentVersion) {
+            return match.compatibleKeys();
+        }
+
+        Set<ComponentKeyView<?>> result = this.computeCompatibleKeys(type);
+        if (this.looseMatches.size() >= this.looseMatchLimit) {
+            this.looseMatches.clear();
+        }
+        this.looseMatches.put(type, new LooseMatch(currentVersion, result));
+        return result;
+    }
+
+    /**
+     * Computes the views of all known hierarchies which are compatible with the given type. This is only
+     * invoked if no valid result is cached for the given type.
+     *
+     * @param type the type to find compatible views for
+     * @return the compatible views
+     */
+    protected Set<ComponentKeyView<?>> computeCompatibleKeys(ParameterizableType type) {
+        Set<ComponentKeyView<?>> candidates = this.typeIndex.getOrDefault(type.type(), Set.of());
+        Set<ComponentKeyView<?>> compatibleKeys = new HashSet<>();
+        for (ComponentKeyView<?> candidate : candidates) {
+            if (this.isCompatible(type, candidate.type())) {
+                compatibleKeys.add(candidate);
+            }
+        }
+        for (ComponentKeyView<?> candidate : this.unindexedViews) {
+            if (this.isCompatible(type, candidate.type())) {
+                compatibleKeys.add(candidate);
+            }
+        }
+
+        return Set.copyOf(compatibleKeys);
+    }
+
     @Nullable
     private <T> BindingHierarchy<?> looseLookupHierarchy(ComponentKey<T> key) {
-        Set<ComponentKeyView<?>> hierarchyKeys = this.hierarchies.keySet();
-        Set<ComponentKeyView<?>> compatibleKeys = hierarchyKeys.stream()
-                .filter(hierarchyKey -> this.isCompatible(key, hierarchyKey))
-                .collect(Collectors.toSet());
+        Set<ComponentKeyView<?>> compatibleKeys = this.compatibleKeys(key.parameterizedType());
 
         if (this.isCollectionComponentKey(key)) {
             return this.composeCollectionHierarchy(TypeUtils.unchecked(key, ComponentKey.class), compatibleKeys);
@@ -165,19 +302,25 @@ private boolean isCollectionComponentKey(ComponentKey<?> key) {
 
     @Nullable
     private BindingHierarchy<?> lookupHighestPriorityHierarchy(ComponentKey<?> key, Set<ComponentKeyView<?>> compatibleKeys) {
-        Set<BindingHierarchy<?>> compatibleHierarchies = compatibleKeys.stream()
-                .map(this.hierarchies::get)
-                .collect(Collectors.toSet());
-
-        // Track entire hierarchy, so potential duplicate top-priority hierarchies can be reported
-        NavigableMultiMap<Integer, BindingHierarchy<?>> providers = new ConcurrentSetTreeMultiMap<>();
-        for (BindingHierarchy<?> compatibleHierarchy : compatibleHierarchies) {
-            int highestPriority = compatibleHierarchy.highestPriority();
-            compatibleHierarchy.get(highestPriority).peek(provider -> {
-                providers.put(highestPriority, compatibleHierarchy);
-            });
-        }
-        Collection<BindingHierarchy<?>> highestPriority = providers.lastEntry();
+        // Track all hierarchies with the same top priority, so potential duplicates can be reported
+        List<BindingHierarchy<?>> highestPriority = new ArrayList<>();
+        int currentHighestPriority = Integer.MIN_VALUE;
+        for (ComponentKeyView<?> compatibleKey : compatibleKeys) {
+            BindingHierarchy<?> compatibleHierarchy = this.hierarchies.get(compatibleKey);
+            if (compatibleHierarchy == null || highestPriority.contains(compatibleHierarchy)) {
+                continue;
+            }
+            int priority = compatibleHierarchy.highestPriority();
+            if (priority < currentHighestPriority || compatibleHierarchy.get(priority).absent()) {
+                continue;
+            }
+            if (priority > currentHighestPriority) {
+                highestPriority.clear();
+                currentHighestPriority = priority;
+            }
+            highestPriority.add(compatibleHierarchy);
+        }
+
         if (highestPriority.size() > 1) {
             Set<ComponentKey<?>> foundKeys = highestPriority.stream()
                     .map(BindingHierarchy::key)
@@ -187,12 +330,6 @@ private BindingHierarchy<?> lookupHighestPriorityHierarchy(ComponentKey<?> key,
         return CollectionUtilities.first(highestPriority);
     }
 
-    private boolean isCompatible(ComponentKey<?> key, ComponentKeyView<?> other) {
-        ParameterizableType originType = key.parameterizedType();
-        ParameterizableType targetType = other.type();
-        return this.isCompatible(originType, targetType);
-    }
-
     private boolean isCompatible(ParameterizableType originType, ParameterizableType targetType) {
         if (!originType.type().isAssignableFrom(targetType.type())) {
             return false;
@@ -216,6 +353,10 @@ private <T> BindingHierarchy<?> composeCollectionHierarchy(ComponentKey<Componen
         Set<CollectionBindingHierarchy<?>> hierarchies = new HashSet<>();
         for (ComponentKeyView<?> compatibleKey : compatibleKeys) {
             BindingHierarchy<?> hierarchy = this.hierarchies.get(compatibleKey);
+            if (hierarchy == null) {
+                // Removed after the compatible keys were resolved
+                continue;
+            }
             if (hierarchy instanceof CollectionBindingHierarchy<?> collectionBindingHierarchy) {
                 hierarchies.add(collectionBindingHierarchy);
             }
@@ -225,4 +366,7 @@ private <T> BindingHierarchy<?> composeCollectionHierarchy(ComponentKey<Componen
         }
         return new ImmutableCompositeBindingHierarchy<>(key, TypeUtils.unchecked(hierarchies, Collection.class));
     }
+
+    private record LooseMatch(long version, Set<ComponentKeyView<?>> compatibleKeys) {
+    }
 }
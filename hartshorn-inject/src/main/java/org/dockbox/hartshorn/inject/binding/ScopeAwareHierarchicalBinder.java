@@ -18,11 +18,13 @@
 
 import org.dockbox.hartshorn.context.ContextIdentity;
 import org.dockbox.hartshorn.inject.ComponentKey;
+import org.dockbox.hartshorn.inject.ComponentKeyView;
 import org.dockbox.hartshorn.inject.InjectionCapableApplication;
 import org.dockbox.hartshorn.inject.collection.CollectionBindingHierarchy;
 import org.dockbox.hartshorn.inject.provider.singleton.SingletonCache;
 import org.dockbox.hartshorn.inject.scope.Scope;
 import org.dockbox.hartshorn.inject.scope.ScopeModuleContext;
+import org.dockbox.hartshorn.inject.scope.WeakScopeReference;
 import org.dockbox.hartshorn.util.IllegalModificationException;
 import org.dockbox.hartshorn.util.TypeUtils;
 import org.dockbox.hartshorn.util.collections.HashSetMultiMap;
@@ -79,6 +81,20 @@ public <C> BindingFunction<C> bind(Class<C> type) {
         return this.bind(componentKey);
     }
 
+    /**
+     * Returns whether the given scope represents the scope of this binder. Scopes are compared by the scopes they
+     * represent rather than by identity, as the scope of this binder may be a {@link WeakScopeReference} to the
+     * actual scope.
+     *
+     * @param scope the scope to compare
+     * @return {@code true} if the given scope represents the scope of this binder, {@code false} otherwise
+     */
+    protected boolean isBinderScope(Scope scope) {
+        Scope binderScope = WeakScopeReference.unwrap(this.scope());
+        Scope otherScope = WeakScopeReference.unwrap(scope);
+        return binderScope != null && (binderScope == otherScope || binderScope.equals(otherScope));
+    }
+
     protected Scope applicationScope() {
         return this.application.defaultProvider().scope();
     }
@@ -90,7 +106,7 @@ public <C> BindingFunction<C> bind(ComponentKey<C> key) {
             componentScope = this.applicationScope();
         }
 
-        if (componentScope != this.scope() && componentScope != this.application.defaultProvider().scope()) {
+        if (!this.isBinderScope(componentScope) && componentScope != this.application.defaultProvider().scope()) {
             throw new IllegalArgumentException(
                     "Cannot bind to a different scope. Expected %s, got %s for key %s".formatted(this.scope(), componentScope, key));
         }
@@ -131,19 +147,27 @@ public <T> BindingHierarchy<T> hierarchy(ComponentKey<T> key, boolean useGlobalI
         // If the scope is default, it means that the binding is not explicitly scoped, so it can be
         // installed in any scope. If our active scope is the active application context, it means
         // the requested scope is not installed, so we can fall back to the application scope.
-        if (!key.scope().contains(this.scope()) && this.scope() != this.applicationScope()) {
+        if (!key.scope().test(this::isBinderScope) && this.scope() != this.applicationScope()) {
             throw new IllegalArgumentException("Cannot create a binding hierarchy for a component key with a different scope");
         }
 
+        // Hierarchies retain the key they were created for, so keys are bound to the scope instance of this binder
+        // to avoid retaining the requested scope instance, which may only be equal to the scope of this binder.
+        ComponentKey<T> scopedKey = key;
+        if (key.scope().test(scope -> scope != this.scope() && this.isBinderScope(scope))) {
+            scopedKey = key.mutable().scope(this.scope()).build();
+        }
+
         HierarchyCache cache = this.hierarchyCache();
-        BindingHierarchy<?> hierarchy = cache.getOrComputeHierarchy(key, useGlobalIfAbsent);
+        BindingHierarchy<?> hierarchy = cache.getOrComputeHierarchy(scopedKey, useGlobalIfAbsent);
         BindingHierarchy<T> adjustedHierarchy = TypeUtils.unchecked(hierarchy, BindingHierarchy.class);
+        ComponentKeyView<T> view = scopedKey.view();
         // onUpdate callback is purely so updates will still be saved even if the reference is lost
         if (adjustedHierarchy instanceof SubscribableBindingHierarchy || adjustedHierarchy instanceof CollectionBindingHierarchy<?>) {
             return adjustedHierarchy;
         }
         else {
-            return new SubscribableBindingHierarchy<>(adjustedHierarchy, updated -> cache.put(key.view(), updated));
+            return new SubscribableBindingHierarchy<>(adjustedHierarchy, updated -> cache.put(view, updated));
         }
     }
 }
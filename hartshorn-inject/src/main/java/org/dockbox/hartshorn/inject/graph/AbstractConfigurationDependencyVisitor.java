@@ -16,6 +16,7 @@
 
 package org.dockbox.hartshorn.inject.graph;
 
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -27,6 +28,7 @@
 import org.dockbox.hartshorn.util.graph.Graph;
 import org.dockbox.hartshorn.util.graph.GraphException;
 import org.dockbox.hartshorn.util.graph.GraphNode;
+import org.dockbox.hartshorn.util.graph.ParallelGraphVisitor;
 
 /**
  * Simple implementation of {@link ConfigurationDependencyVisitor} that provides a default implementation for
@@ -34,15 +36,41 @@
  * is delegated to the {@link #registerProvider(DependencyContext)} and {@link #doAfterRegister(DependencyContext)}
  * methods, which should be implemented by the extending class.
  *
+ * <p>By default the graph is visited breadth-first on the calling thread. Extending classes of which the registration
+ * methods are safe to use from multiple threads may override {@link #parallelism()} to return a value greater than
+ * {@code 1}. Independent dependencies are then registered concurrently as soon as all of their own dependencies have
+ * been registered, as described by {@link ParallelGraphVisitor}. This is not enabled by default, as registrations
+ * through binders are not thread-safe. Bindings of equal priority also replace each other in the order in which they
+ * are registered, so concurrent registration could change which binding is used.
+ *
  * @since 0.6.0
  *
  * @author Guus Lieben
  */
-public abstract class AbstractConfigurationDependencyVisitor implements BreadthFirstGraphVisitor<DependencyContext<?>>, ConfigurationDependencyVisitor {
+public abstract class AbstractConfigurationDependencyVisitor implements BreadthFirstGraphVisitor<DependencyContext<?>>,
+        ParallelGraphVisitor<DependencyContext<?>>, ConfigurationDependencyVisitor {
+
+    /**
+     * Returns the maximum number of dependencies that are registered at the same time. Defaults to {@code 1}, which
+     * visits the graph breadth-first on the calling thread.
+     *
+     * @return the maximum number of concurrently registered dependencies
+     */
+    @Override
+    public int parallelism() {
+        return 1;
+    }
+
+    @Override
+    public Comparator<GraphNode<DependencyContext<?>>> nodeOrder() {
+        return Comparator.comparing(node -> String.valueOf(node.value().componentKey()));
+    }
 
     @Override
     public Set<GraphNode<DependencyContext<?>>> iterate(Graph<DependencyContext<?>> graph) throws GraphException {
-        Set<GraphNode<DependencyContext<?>>> iterated = BreadthFirstGraphVisitor.super.iterate(graph);
+        Set<GraphNode<DependencyContext<?>>> iterated = this.parallelism() > 1
+                ? ParallelGraphVisitor.super.iterate(graph)
+                : BreadthFirstGraphVisitor.super.iterate(graph);
         if (graph instanceof ContentAwareGraph<DependencyContext<?>> contentAwareGraph) {
             Set<GraphNode<DependencyContext<?>>> nodes = contentAwareGraph.nodes();
             Set<GraphNode<DependencyContext<?>>> danglingNodes = CollectionUtilities.difference(nodes, iterated);
@@ -16,8 +16,15 @@
 
 package org.dockbox.hartshorn.inject.graph.support;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.dockbox.hartshorn.inject.ComponentKey;
@@ -38,9 +45,13 @@
  * dependency that is required by a component, but is also a dependency of that same component. This is a problem,
  * as it would require the component to be instantiated before it can be instantiated.
  *
- * <p>This validator will detect cyclic dependencies by traversing the graph, and checking if any of the dependencies
- * of a component are also dependencies of that same component. If that is the case, a {@link CyclicComponentException}
- * is thrown. The exception contains a {@link ComponentDiscoveryList} that describes the cyclic dependency.
+ * <p>This validator will detect cyclic dependencies by collecting the strongly connected components of the graph,
+ * using an iterative variant of Tarjan's algorithm. Each node and dependency is visited once, so validation time is
+ * linear in the size of the graph, and does not depend on the depth of dependency chains. For each strongly connected
+ * component that contains a cycle, the shortest cycle through the first discovered node of that component is reported.
+ * If one or more cycles are found, a {@link CyclicComponentException} is thrown for the first cycle, with exceptions
+ * for any other cycles {@link Throwable#addSuppressed(Throwable) suppressed} by it. Each exception contains a
+ * {@link ComponentDiscoveryList} that describes the cyclic dependency.
  *
  * <p>Dependencies are checked to any depth. This means that if component A depends on component B, and component B
  * depends on component C, and component C depends on component A, a cyclic dependency is detected. This is true
@@ -57,66 +68,210 @@ public class CyclicDependencyGraphValidator implements DependencyGraphValidator
 
     @Override
     public void validateBeforeConfiguration(DependencyGraph dependencyGraph, Introspector introspector) throws ApplicationException {
-        Set<GraphNode<DependencyContext<?>>> nodes = dependencyGraph.nodes();
+        List<List<GraphNode<DependencyContext<?>>>> cycles = this.findCycles(dependencyGraph.nodes());
+        CyclicComponentException exception = null;
+        for (List<GraphNode<DependencyContext<?>>> cycle : cycles) {
+            ComponentDiscoveryList discoveryList = this.createDiscoveryList(cycle, introspector);
+            CyclicComponentException cycleException = new CyclicComponentException(discoveryList, cycle.getFirst().value().origin());
+            if (exception == null) {
+                exception = cycleException;
+            }
+            else {
+                exception.addSuppressed(cycleException);
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Finds a cycle for each strongly connected component in the graph that is formed by the given nodes. Nodes that
+     * do not need immediate resolution are ignored, as they can be lazily initialized and therefore do not pose a
+     * problem. Each cycle starts and ends with the same node, which is also the first discovered node of its
+     * component.
+     *
+     * @param nodes the nodes to check
+     *
+     * @return a cycle for each strongly connected component that contains one, or an empty list if no cyclic
+     *         dependencies were found
+     */
+    public List<List<GraphNode<DependencyContext<?>>>> findCycles(Collection<GraphNode<DependencyContext<?>>> nodes) {
+        Map<GraphNode<DependencyContext<?>>, NodeIndex> indices = new HashMap<>();
+        Deque<GraphNode<DependencyContext<?>>> componentStack = new ArrayDeque<>();
+        List<List<GraphNode<DependencyContext<?>>>> cycles = new ArrayList<>();
         for (GraphNode<DependencyContext<?>> node : nodes) {
-            if (node.isLeaf()) {
+            if (node.isLeaf() || indices.containsKey(node)) {
                 continue;
             }
-            if (node instanceof ContainableGraphNode<DependencyContext<?>> contextContainableGraphNode
-                && contextContainableGraphNode.isRoot()) {
+            // Roots do not have dependencies, so they cannot be part of a cycle
+            if (node instanceof ContainableGraphNode<DependencyContext<?>> containableGraphNode && containableGraphNode.isRoot()) {
+                continue;
+            }
+            if (this.needsImmediateResolution(node)) {
+                this.collectCycles(node, indices, componentStack, cycles);
+            }
+        }
+        return cycles;
+    }
+
+    private void collectCycles(
+            GraphNode<DependencyContext<?>> start,
+            Map<GraphNode<DependencyContext<?>>, NodeIndex> indices,
+            Deque<GraphNode<DependencyContext<?>>> componentStack,
+            List<List<GraphNode<DependencyContext<?>>>> cycles
+    ) {
+        Deque<PathElement> path = new ArrayDeque<>();
+        path.push(this.discover(start, indices, componentStack));
+        while (!path.isEmpty()) {
+            PathElement current = path.peek();
+            if (current.children().hasNext()) {
+                GraphNode<DependencyContext<?>> child = current.children().next();
+                NodeIndex childIndex = indices.get(child);
+                if (childIndex == null) {
+                    if (this.needsImmediateResolution(child)) {
+                        path.push(this.discover(child, indices, componentStack));
+                    }
+                    else {
+                        // Never part of a cycle, so there is no need to check it again
+                        indices.put(child, NodeIndex.EXCLUDED);
+                    }
+                }
+                else if (childIndex.onStack) {
+                    current.index().lowLink = Math.min(current.index().lowLink, childIndex.index);
+                }
                 continue;
             }
-            List<GraphNode<DependencyContext<?>>> graphNodes = this.checkNodeNotCyclicRecursive(node, new ArrayList<>());
-            if (!graphNodes.isEmpty()) {
-                ComponentDiscoveryList discoveryList = this.createDiscoveryList(graphNodes, introspector);
-                throw new CyclicComponentException(discoveryList, node.value().origin());
+
+            path.pop();
+            if (!path.isEmpty()) {
+                NodeIndex parentIndex = path.peek().index();
+                parentIndex.lowLink = Math.min(parentIndex.lowLink, current.index().lowLink);
+            }
+            if (current.index().lowLink == current.index().index) {
+                Set<GraphNode<DependencyContext<?>>> component = new HashSet<>();
+                GraphNode<DependencyContext<?>> member;
+                do {
+                    member = componentStack.pop();
+                    indices.get(member).onStack = false;
+                    component.add(member);
+                }
+                while (member != current.node());
+
+                if (component.size() > 1 || current.node().children().contains(current.node())) {
+                    cycles.add(this.createCycle(current.node(), component));
+                }
+            }
+        }
+    }
+
+    private PathElement discover(
+            GraphNode<DependencyContext<?>> node,
+            Map<GraphNode<DependencyContext<?>>, NodeIndex> indices,
+            Deque<GraphNode<DependencyContext<?>>> componentStack
+    ) {
+        NodeIndex index = new NodeIndex(indices.size());
+        indices.put(node, index);
+        componentStack.push(node);
+        return new PathElement(node, node.children().iterator(), index);
+    }
+
+    private List<GraphNode<DependencyContext<?>>> createCycle(GraphNode<DependencyContext<?>> origin, Set<GraphNode<DependencyContext<?>>> component) {
+        // Breadth-first, so the reported cycle is the shortest cycle through the origin
+        Map<GraphNode<DependencyContext<?>>, GraphNode<DependencyContext<?>>> predecessors = new HashMap<>();
+        Deque<GraphNode<DependencyContext<?>>> queue = new ArrayDeque<>();
+        queue.add(origin);
+        while (!queue.isEmpty()) {
+            GraphNode<DependencyContext<?>> node = queue.poll();
+            for (GraphNode<DependencyContext<?>> child : node.children()) {
+                if (child.equals(origin)) {
+                    Deque<GraphNode<DependencyContext<?>>> cycle = new ArrayDeque<>();
+                    cycle.add(origin);
+                    for (GraphNode<DependencyContext<?>> step = node; step != null; step = predecessors.get(step)) {
+                        cycle.addFirst(step);
+                    }
+                    return new ArrayList<>(cycle);
+                }
+                if (component.contains(child) && !predecessors.containsKey(child)) {
+                    predecessors.put(child, node);
+                    queue.add(child);
+                }
             }
         }
+        throw new IllegalStateException("Strongly connected component of " + origin + " does not contain a cycle");
     }
 
     /**
      * Checks if a node is part of a cyclic dependency. This will ignore any nodes that do not need immediate
-     * resolution, as they can be lazily initialized and therefore do not pose a problem.
+     * resolution, as they can be lazily initialized and therefore do not pose a problem. Dependencies are
+     * traversed iteratively, and each node is checked at most once.
      *
      * @param node the node to check
-     * @param knownNodes the nodes that have already been checked
+     * @param knownNodes the nodes that have already been checked, this list is updated with all nodes that are
+     *                   checked by this method
      *
-     * @return a list of nodes that are part of a cyclic dependency, or an empty list if no cyclic dependency was found
+     * @return the path from the given node to the first node that is encountered twice, or an empty list if no cyclic
+     *         dependency was found
      */
     public List<GraphNode<DependencyContext<?>>> checkNodeNotCyclicRecursive(GraphNode<DependencyContext<?>> node, List<GraphNode<DependencyContext<?>>> knownNodes) {
         if (knownNodes.contains(node)) {
             return List.of(node);
         }
-
-        // Defaults to true, as we should assume that the node needs immediate resolution unless proven otherwise.
-        boolean needsImmediateResolution = true;
-        if (node instanceof ContainableGraphNode<DependencyContext<?>> containableGraphNode) {
-            ComponentKey<?> dependencyCandidate = node.value().componentKey();
-            // If none of the parents need immediate resolution, then we can cut potential cyclic graphs short.
-            needsImmediateResolution = containableGraphNode.children().stream()
-                    .anyMatch(parent -> parent.value().needsImmediateResolution(dependencyCandidate));
-        }
-
-        // If the node doesn't need immediate resolution, then we can skip it. Note that this does not affect potential grandchild
-        // dependencies, as this validator goes over all nodes in the graph, and not just the roots.
-        if (!needsImmediateResolution) {
+        if (!this.needsImmediateResolution(node)) {
             return List.of();
         }
 
+        Set<GraphNode<DependencyContext<?>>> pathNodes = new HashSet<>(knownNodes);
+        Set<GraphNode<DependencyContext<?>>> completedNodes = new HashSet<>();
+        Deque<PathElement> path = new ArrayDeque<>();
+
         knownNodes.add(node);
+        pathNodes.add(node);
+        path.push(new PathElement(node, node.children().iterator(), null));
+
+        while (!path.isEmpty()) {
+            PathElement current = path.peek();
+            if (!current.children().hasNext()) {
+                path.pop();
+                pathNodes.remove(current.node());
+                completedNodes.add(current.node());
+                continue;
+            }
 
-        for(GraphNode<DependencyContext<?>> child : node.children()) {
-            List<GraphNode<DependencyContext<?>>> graphNodes = this.checkNodeNotCyclicRecursive(child, knownNodes);
-            if(!graphNodes.isEmpty()) {
-                List<GraphNode<DependencyContext<?>>> path = new ArrayList<>();
-                path.add(node);
-                path.addAll(graphNodes);
-                return path;
+            GraphNode<DependencyContext<?>> child = current.children().next();
+            if (pathNodes.contains(child)) {
+                List<GraphNode<DependencyContext<?>>> cyclicPath = new ArrayList<>();
+                path.descendingIterator().forEachRemaining(element -> cyclicPath.add(element.node()));
+                cyclicPath.add(child);
+                return cyclicPath;
+            }
+            // Completed nodes did not lead to a cycle before, so they won't now
+            if (completedNodes.contains(child)) {
+                continue;
             }
+            if (!this.needsImmediateResolution(child)) {
+                completedNodes.add(child);
+                continue;
+            }
+
+            knownNodes.add(child);
+            pathNodes.add(child);
+            path.push(new PathElement(child, child.children().iterator(), null));
         }
         return List.of();
     }
 
+    private boolean needsImmediateResolution(GraphNode<DependencyContext<?>> node) {
+        // Defaults to true, as we should assume that the node needs immediate resolution unless proven otherwise.
+        if (node instanceof ContainableGraphNode<DependencyContext<?>> containableGraphNode) {
+            ComponentKey<?> dependencyCandidate = node.value().componentKey();
+            // If none of the dependents need immediate resolution, then we can cut potential cyclic graphs short.
+            return containableGraphNode.children().stream()
+                    .anyMatch(dependent -> dependent.value().needsImmediateResolution(dependencyCandidate));
+        }
+        return true;
+    }
+
     /**
      * Creates a {@link ComponentDiscoveryList} from a path of {@link GraphNode}s. The path is expected to be a path
      * of nodes that are part of a cyclic dependency. The path is traversed, and the {@link ComponentKey}s of the
@@ -152,4 +307,26 @@ private <T> TypePathNode<T> createTypePathNode(ComponentKey<T> componentKey, Vie
         TypeView<T> view = introspector.introspect(componentKey.type());
         return new TypePathNode<>(view, componentKey, origin);
     }
+
+    private record PathElement(
+            GraphNode<DependencyContext<?>> node,
+            Iterator<GraphNode<DependencyContext<?>>> children,
+            NodeIndex index
+    ) {
+    }
+
+    private static final class NodeIndex {
+
+        private static final NodeIndex EXCLUDED = new NodeIndex(-1);
+
+        private final int index;
+        private int lowLink;
+        private boolean onStack;
+
+        private NodeIndex(int index) {
+            this.index = index;
+            this.lowLink = index;
+            this.onStack = index >= 0;
+        }
+    }
 }
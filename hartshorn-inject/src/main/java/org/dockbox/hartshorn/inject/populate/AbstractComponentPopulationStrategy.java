@@ -18,27 +18,24 @@
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.SequencedCollection;
-import java.util.Set;
 
 import org.dockbox.hartshorn.inject.ComponentResolutionException;
 import org.dockbox.hartshorn.inject.targets.RequireInjectionPointRule;
-import org.dockbox.hartshorn.inject.targets.ComponentInjectionPoint;
-import org.dockbox.hartshorn.inject.targets.InjectionPoint;
 import org.dockbox.hartshorn.util.ApplicationException;
 import org.dockbox.hartshorn.util.ApplicationRuntimeException;
 
 /**
  * A base implementation of {@link ComponentPopulationStrategy} which provides the basic functionality for
  * populating components. This includes the ability to indicate whether the strategy is applicable to a given
- * injection point, and the ability to resolve the objects to be injected into the injection point if it is
- * applicable.
+ * plan entry, and the ability to resolve the objects to be injected into the injection point of the entry if
+ * it is applicable.
  *
  * <p>The exact implementation used to resolve individual objects is left to the implementing class. If the
- * implementation yields {@code null}, and the injection point is indicated to be required by the active
- * {@link RequireInjectionPointRule}s, then a {@link ComponentRequiredException} will be thrown.
+ * implementation yields {@code null}, and the dependency is {@link InjectionPlan.Dependency#required() required}
+ * according to the {@link RequireInjectionPointRule}s of the plan, then a {@link ComponentRequiredException} will
+ * be thrown.
  *
- * @see RequireInjectionPointRule
+ * @see InjectionPlan
  * @see ComponentRequiredException
  * @see ComponentPopulationStrategy
  *
@@ -48,45 +45,38 @@
  */
 public abstract class AbstractComponentPopulationStrategy implements ComponentPopulationStrategy {
 
-    private final Set<RequireInjectionPointRule> requiresComponentRules;
-
-    protected AbstractComponentPopulationStrategy(Set<RequireInjectionPointRule> requiresComponentRules) {
-        this.requiresComponentRules = requiresComponentRules;
-    }
-
     @Override
-    public <T> void populate(PopulateComponentContext<T> context, ComponentInjectionPoint<T> injectionPoint) throws ApplicationException {
-        if (this.isApplicable(injectionPoint)) {
-            List<Object> objectsToInject = this.resolveInjectedObjects(context, injectionPoint);
-            injectionPoint.processObjects(context, objectsToInject);
+    public <T> void populate(PopulateComponentContext<T> context, InjectionPlan.Entry<T> entry) throws ApplicationException {
+        if (this.isApplicable(entry)) {
+            List<Object> objectsToInject = this.resolveInjectedObjects(context, entry);
+            entry.injectionPoint().processObjects(context, objectsToInject);
         }
     }
 
     /**
-     * Resolves the objects to inject into the given injection point. This is done by resolving the objects to
-     * inject for each of the {@link InjectionPoint injection points} that are returned by the
-     * {@link ComponentInjectionPoint#injectionPoints()} method.
+     * Resolves the objects to inject into the injection point of the given entry. This is done by resolving the
+     * object to inject for each of the {@link InjectionPlan.Entry#dependencies() dependencies} of the entry.
      *
      * <p>If any of the objects to inject cannot be resolved (due to being null, or because of an exception thrown
-     * while resolving), and the injection point is indicated to be required by the active {@link RequireInjectionPointRule}s,
-     * then a {@link ComponentRequiredException} will be thrown. Unresolved objects that are not required will be ignored.
+     * while resolving), and the dependency is {@link InjectionPlan.Dependency#required() required}, then a
+     * {@link ComponentRequiredException} will be thrown. Unresolved objects that are not required will be ignored.
      *
      * @param context the context that provides the component instance
-     * @param injectionPoint the injection point to resolve the objects to inject for
+     * @param entry the plan entry to resolve the objects to inject for
      * @return a list of objects to inject into the injection point
      */
-    protected List<Object> resolveInjectedObjects(PopulateComponentContext<?> context, ComponentInjectionPoint<?> injectionPoint) {
-        SequencedCollection<InjectionPoint> injectionPoints = injectionPoint.injectionPoints();
+    protected List<Object> resolveInjectedObjects(PopulateComponentContext<?> context, InjectionPlan.Entry<?> entry) {
+        List<InjectionPlan.Dependency> dependencies = entry.dependencies();
 
-        List<Object> objectsToInject = new ArrayList<>();
-        for(InjectionPoint point : injectionPoints) {
+        List<Object> objectsToInject = new ArrayList<>(dependencies.size());
+        for(InjectionPlan.Dependency dependency : dependencies) {
             Object object;
             try {
-                object = this.resolveInjectedObject(point, context);
+                object = this.resolveInjectedObject(dependency, context);
             }
             catch(ApplicationException | ApplicationRuntimeException e) {
-                if (this.shouldRequire(point)) {
-                    throw new ComponentResolutionException("Could not resolve value for injection point " + point.injectionPoint().qualifiedName(), e);
+                if (dependency.required()) {
+                    throw new ComponentResolutionException("Could not resolve value for injection point " + dependency.injectionPoint().injectionPoint().qualifiedName(), e);
                 }
                 else {
                     // Ignore the object if it cannot be resolved and is not required
@@ -94,8 +84,8 @@ protected List<Object> resolveInjectedObjects(PopulateComponentContext<?> contex
                 }
             }
 
-            if (object == null && this.shouldRequire(point)) {
-                throw new ComponentRequiredException("Injection point " + point.injectionPoint().qualifiedName() + " is required, but could not be provided");
+            if (object == null && dependency.required()) {
+                throw new ComponentRequiredException("Injection point " + dependency.injectionPoint().injectionPoint().qualifiedName() + " is required, but could not be provided");
             }
             objectsToInject.add(object);
         }
@@ -103,36 +93,23 @@ protected List<Object> resolveInjectedObjects(PopulateComponentContext<?> contex
     }
 
     /**
-     * Indicates whether this strategy is applicable to the given injection point. If {@code true}, the strategy
-     * may be used to resolve the objects to inject into the injection point.
+     * Indicates whether this strategy is applicable to the given plan entry. If {@code true}, the strategy
+     * may be used to resolve the objects to inject into the injection point of the entry.
      *
-     * @param injectionPoint the injection point to check
-     * @return {@code true} if this strategy is applicable to the given injection point, {@code false} otherwise
+     * @param entry the plan entry to check
+     * @return {@code true} if this strategy is applicable to the given entry, {@code false} otherwise
      */
-    protected abstract boolean isApplicable(ComponentInjectionPoint<?> injectionPoint);
+    protected abstract boolean isApplicable(InjectionPlan.Entry<?> entry);
 
     /**
-     * Resolves the object to inject for the given injection point. If the object cannot be resolved, {@code null}
+     * Resolves the object to inject for the given dependency. If the object cannot be resolved, {@code null}
      * may be returned, or an exception may be thrown.
      *
-     * @param injectionPoint the injection point to resolve the object for
+     * @param dependency the dependency to resolve the object for
      * @param context the context that provides the component instance
      * @return the object to inject, or {@code null} if the object cannot be resolved
      * @throws ApplicationException if the object cannot be resolved
      * @throws ApplicationRuntimeException if the object cannot be resolved
      */
-    protected abstract Object resolveInjectedObject(InjectionPoint injectionPoint, PopulateComponentContext<?> context) throws ApplicationException, ApplicationRuntimeException;
-
-    /**
-     * Indicates whether the given injection point should be required. This is determined by the active
-     * {@link RequireInjectionPointRule}s.
-     *
-     * @param injectionPoint the injection point to check
-     * @return {@code true} if the injection point should be required, {@code false} otherwise
-     */
-    protected boolean shouldRequire(InjectionPoint injectionPoint) {
-        return this.requiresComponentRules.stream()
-                .map(rule -> rule.isRequired(injectionPoint))
-                .reduce(true, Boolean::logicalAnd);
-    }
+    protected abstract Object resolveInjectedObject(InjectionPlan.Dependency dependency, PopulateComponentContext<?> context) throws ApplicationException, ApplicationRuntimeException;
 }
@@ -16,7 +16,6 @@
 
 package org.dockbox.hartshorn.inject.populate;
 
-import org.dockbox.hartshorn.inject.targets.ComponentInjectionPoint;
 import org.dockbox.hartshorn.util.ApplicationException;
 
 /**
@@ -39,16 +38,17 @@
 public interface ComponentPopulationStrategy {
 
     /**
-     * Populates the given injection point. The injection point is described by the given {@link ComponentInjectionPoint},
-     * and the context in which the injection point is populated is described by the given {@link PopulateComponentContext}.
+     * Populates the injection point of the given {@link InjectionPlan.Entry plan entry}. The entry describes the
+     * injection point and its resolved metadata, and the context in which the injection point is populated is
+     * described by the given {@link PopulateComponentContext}.
      *
      * <p>Implementations are expected to throw an {@link ApplicationException} if the injection point cannot be populated,
      * or if constraints are violated.
      *
      * @param context the context in which the injection point is populated
-     * @param injectionPoint the injection point to populate
+     * @param entry the plan entry of the injection point to populate
      * @param <T> the type of the component that is populated
      * @throws ApplicationException if the injection point cannot be populated, or if constraints are violated
      */
-    <T> void populate(PopulateComponentContext<T> context, ComponentInjectionPoint<T> injectionPoint) throws ApplicationException;
+    <T> void populate(PopulateComponentContext<T> context, InjectionPlan.Entry<T> entry) throws ApplicationException;
 }
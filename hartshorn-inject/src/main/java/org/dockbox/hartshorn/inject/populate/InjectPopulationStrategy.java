@@ -21,14 +21,9 @@
 import org.dockbox.hartshorn.inject.ComponentRequestContext;
 import org.dockbox.hartshorn.inject.ComponentResolutionException;
 import org.dockbox.hartshorn.inject.InjectionCapableApplication;
-import org.dockbox.hartshorn.inject.InjectorEnvironment;
 import org.dockbox.hartshorn.inject.annotations.Inject;
 import org.dockbox.hartshorn.inject.provider.ComponentProvider;
-import org.dockbox.hartshorn.inject.targets.AnnotatedInjectionPointRequireRule;
-import org.dockbox.hartshorn.inject.targets.ComponentInjectionPoint;
-import org.dockbox.hartshorn.inject.targets.ComponentInjectionPointsResolver;
 import org.dockbox.hartshorn.inject.targets.InjectionPoint;
-import org.dockbox.hartshorn.inject.targets.RequireInjectionPointRule;
 import org.dockbox.hartshorn.util.ContextualInitializer;
 import org.dockbox.hartshorn.util.Customizer;
 import org.dockbox.hartshorn.util.LazyStreamableConfigurer;
@@ -41,8 +36,8 @@
  * A {@link ComponentPopulationStrategy} which populates components with other components. This provides basic support for
  * {@link Inject} annotated fields, or any other annotation which is configured to be used for injection.
  *
- * <p>Injected components will be resolved by their {@link ComponentKey}, which is determined by the provided {@link
- * ComponentKeyResolver}.
+ * <p>Injected components will be resolved by their {@link ComponentKey}, which is determined by the {@link
+ * ComponentKeyResolver} of the {@link InjectionPlan} that contains the injection point.
  *
  * <p>By default, all components are resolved through the configured {@link ComponentProvider}. Additional {@link InjectParameterResolver}
  * implementations can be registered to provide custom resolution logic for specific injection points. This is primarily useful
@@ -50,6 +45,10 @@
  * {@link ComponentProvider} alone. Built-in support for {@link org.dockbox.hartshorn.context.ContextView} types is provided by the
  * {@link InjectContextParameterResolver}.
  *
+ * <p>Static metadata of injection points, such as whether they are injectable, their resolved {@link ComponentKey}
+ * and whether they are required, is read from the {@link InjectionPlan.Entry plan entry} of the injection point.
+ * Parameter resolvers may depend on the state of the application, and are therefore evaluated on each request.
+ *
  * <p>Example:
  * <pre>{@code
  * @Component
@@ -73,32 +72,25 @@
  */
 public class InjectPopulationStrategy extends AbstractComponentPopulationStrategy {
 
-    private final ComponentKeyResolver componentKeyResolver;
-    private final ComponentInjectionPointsResolver injectionPointsResolver;
     private final ComponentProvider componentProvider;
     private final Set<InjectParameterResolver> parameterResolvers;
     private ConversionService conversionService;
 
     protected InjectPopulationStrategy(
-            ComponentKeyResolver componentKeyResolver,
-            ComponentInjectionPointsResolver injectionPointsResolver,
             ComponentProvider componentProvider,
-            Set<RequireInjectionPointRule> requiresComponentRules,
             Set<InjectParameterResolver> parameterResolvers) {
-        super(requiresComponentRules);
-        this.componentKeyResolver = componentKeyResolver;
-        this.injectionPointsResolver = injectionPointsResolver;
         this.componentProvider = componentProvider;
         this.parameterResolvers = parameterResolvers;
     }
 
     @Override
-    protected boolean isApplicable(ComponentInjectionPoint<?> injectionPoint) {
-        return this.injectionPointsResolver.isInjectable(injectionPoint.declaration());
+    protected boolean isApplicable(InjectionPlan.Entry<?> entry) {
+        return entry.injectable();
     }
 
     @Override
-    protected Object resolveInjectedObject(InjectionPoint injectionPoint, PopulateComponentContext<?> context) throws ComponentResolutionException {
+    protected Object resolveInjectedObject(InjectionPlan.Dependency dependency, PopulateComponentContext<?> context) throws ComponentResolutionException {
+        InjectionPoint injectionPoint = dependency.injectionPoint();
         for(InjectParameterResolver resolver : this.parameterResolvers) {
             if (resolver.accepts(injectionPoint)) {
                 Object resolved = resolver.resolve(injectionPoint, context);
@@ -115,9 +107,8 @@ protected Object resolveInjectedObject(InjectionPoint injectionPoint, PopulateCo
             }
         }
 
-        ComponentKey<?> componentKey = this.componentKeyResolver.resolve(injectionPoint.injectionPoint());
         ComponentRequestContext requestContext = ComponentRequestContext.createForInjectionPoint(injectionPoint);
-        Object component = this.componentProvider.get(componentKey, requestContext);
+        Object component = this.componentProvider.get(dependency.componentKey(), requestContext);
 
         // Ensure types are compatible, or a default value is provided if it is available. This primarily
         // applies to component collections.
@@ -136,12 +127,8 @@ public static ContextualInitializer<InjectionCapableApplication, ComponentPopula
             Configurer configurer = new Configurer();
             customizer.configure(configurer);
             InjectionCapableApplication application = context.input();
-            InjectorEnvironment environment = application.environment();
             return new InjectPopulationStrategy(
-                    environment.componentKeyResolver(),
-                    environment.injectionPointsResolver(),
                     application.defaultProvider(),
-                    Set.copyOf(configurer.requiresComponentRules.initialize(context)),
                     Set.copyOf(configurer.parameterResolvers.initialize(context))
             );
         };
@@ -156,27 +143,11 @@ public static ContextualInitializer<InjectionCapableApplication, ComponentPopula
      */
     public static class Configurer {
 
-        private final LazyStreamableConfigurer<InjectionCapableApplication, RequireInjectionPointRule> requiresComponentRules = LazyStreamableConfigurer.of(new AnnotatedInjectionPointRequireRule());
         private final LazyStreamableConfigurer<InjectionCapableApplication, InjectParameterResolver> parameterResolvers = LazyStreamableConfigurer.of(configurer -> {
             configurer.add(ContextualInitializer.of(InjectContextParameterResolver::new));
             configurer.add(ContextualInitializer.of(application -> new InjectPropertyParameterResolver(application.defaultProvider())));
         });
 
-        public Configurer requiresComponentRules(RequireInjectionPointRule... requiresComponentRules) {
-            this.requiresComponentRules.customizer(collection -> collection.addAll(requiresComponentRules));
-            return this;
-        }
-
-        public Configurer requiresComponentRules(Set<RequireInjectionPointRule> requiresComponentRules) {
-            this.requiresComponentRules.customizer(collection -> collection.addAll(requiresComponentRules));
-            return this;
-        }
-
-        public Configurer requiresComponentRules(Customizer<StreamableConfigurer<InjectionCapableApplication, RequireInjectionPointRule>> customizer) {
-            this.requiresComponentRules.customizer(customizer);
-            return this;
-        }
-
         public Configurer parameterResolvers(InjectParameterResolver... parameterResolvers) {
             this.parameterResolvers.customizer(collection -> collection.addAll(parameterResolvers));
             return this;
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.inject.populate;
+
+import java.util.List;
+import java.util.Set;
+
+import org.dockbox.hartshorn.inject.ComponentKey;
+import org.dockbox.hartshorn.inject.ComponentKeyResolver;
+import org.dockbox.hartshorn.inject.targets.ComponentInjectionPoint;
+import org.dockbox.hartshorn.inject.targets.ComponentInjectionPointsResolver;
+import org.dockbox.hartshorn.inject.targets.InjectionPoint;
+import org.dockbox.hartshorn.inject.targets.RequireInjectionPointRule;
+import org.dockbox.hartshorn.util.introspect.view.TypeView;
+
+/**
+ * An immutable representation of all {@link ComponentInjectionPoint injection points} of a single component type, in
+ * the order in which they are populated. Plans are computed once per type, so populating a component only iterates
+ * over its injection points, rather than scanning all members of the type for every instance.
+ *
+ * <p>Each injection point is represented by an {@link Entry}, which holds the static metadata of the injection point:
+ * whether it is injectable, and the resolved {@link ComponentKey} and required state of each of its {@link Dependency
+ * dependencies}. This metadata is resolved once when the plan is created, so {@link ComponentPopulationStrategy
+ * strategies} do not need to resolve it again for every instance.
+ *
+ * @param <T> the type of the component
+ *
+ * @see StrategyComponentPopulator
+ * @see ComponentInjectionPointsResolver
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public final class InjectionPlan<T> {
+
+    private final TypeView<T> type;
+    private final List<Entry<T>> entries;
+    private final List<ComponentInjectionPoint<T>> injectionPoints;
+
+    private InjectionPlan(TypeView<T> type, List<Entry<T>> entries) {
+        this.type = type;
+        this.entries = entries;
+        this.injectionPoints = entries.stream()
+                .map(Entry::injectionPoint)
+                .toList();
+    }
+
+    /**
+     * Creates a new plan for the given type. The injection points of the type are resolved using the given
+     * injection points resolver, after which an {@link Entry} is created for each injection point.
+     *
+     * @param type the type to create a plan for
+     * @param injectionPointsResolver the resolver to use to resolve the injection points
+     * @param componentKeyResolver the resolver to use to resolve the keys of dependencies
+     * @param requireRules the rules which indicate whether dependencies are required
+     * @param <T> the type of the component
+     * @return the plan for the given type
+     *
+     * @see Entry#create(ComponentInjectionPoint, ComponentInjectionPointsResolver, ComponentKeyResolver, Set)
+     */
+    public static <T> InjectionPlan<T> create(
+            TypeView<T> type,
+            ComponentInjectionPointsResolver injectionPointsResolver,
+            ComponentKeyResolver componentKeyResolver,
+            Set<RequireInjectionPointRule> requireRules
+    ) {
+        List<Entry<T>> entries = injectionPointsResolver.resolve(type).stream()
+                .map(injectionPoint -> Entry.create(injectionPoint, injectionPointsResolver, componentKeyResolver, requireRules))
+                .toList();
+        return new InjectionPlan<>(type, entries);
+    }
+
+    /**
+     * Returns the type for which this plan was created.
+     *
+     * @return the type of the component
+     */
+    public TypeView<T> type() {
+        return this.type;
+    }
+
+    /**
+     * Returns the entries of this plan, in the order in which they should be populated.
+     *
+     * @return the entries of this plan
+     */
+    public List<Entry<T>> entries() {
+        return this.entries;
+    }
+
+    /**
+     * Returns the injection points of the component, in the order in which they should be populated.
+     *
+     * @return the injection points of the component
+     */
+    public List<ComponentInjectionPoint<T>> injectionPoints() {
+        return this.injectionPoints;
+    }
+
+    /**
+     * Indicates whether this plan contains any injection points. Types without injection points can be
+     * skipped entirely during population.
+     *
+     * @return {@code true} if this plan contains no injection points
+     */
+    public boolean isEmpty() {
+        return this.entries.isEmpty();
+    }
+
+    /**
+     * A single injection point of a plan, with its resolved metadata. Dependencies are only resolved for
+     * injectable injection points, and are empty otherwise.
+     *
+     * @param injectionPoint the injection point
+     * @param injectable whether the injection point is injectable
+     * @param dependencies the dependencies of the injection point, in the order in which they are processed
+     * @param <T> the type of the component
+     *
+     * @since 0.7.0
+     *
+     * @author Guus Lieben
+     */
+    public record Entry<T>(ComponentInjectionPoint<T> injectionPoint, boolean injectable, List<Dependency> dependencies) {
+
+        public Entry {
+            dependencies = List.copyOf(dependencies);
+        }
+
+        /**
+         * Creates a new entry for the given injection point. If the injection point is
+         * {@link ComponentInjectionPointsResolver#isInjectable(org.dockbox.hartshorn.util.introspect.view.AnnotatedGenericTypeView)
+         * injectable}, the key of each of its {@link ComponentInjectionPoint#injectionPoints() dependencies} is resolved,
+         * and the dependency is required if all given rules indicate it is required.
+         *
+         * @param injectionPoint the injection point to create an entry for
+         * @param injectionPointsResolver the resolver which indicates whether the injection point is injectable
+         * @param componentKeyResolver the resolver to use to resolve the keys of dependencies
+         * @param requireRules the rules which indicate whether dependencies are required
+         * @param <T> the type of the component
+         * @return the entry for the given injection point
+         */
+        public static <T> Entry<T> create(
+                ComponentInjectionPoint<T> injectionPoint,
+                ComponentInjectionPointsResolver injectionPointsResolver,
+                ComponentKeyResolver componentKeyResolver,
+                Set<RequireInjectionPointRule> requireRules
+        ) {
+            if (!injectionPointsResolver.isInjectable(injectionPoint.declaration())) {
+                return new Entry<>(injectionPoint, false, List.of());
+            }
+            List<Dependency> dependencies = injectionPoint.injectionPoints().stream()
+                    .map(point -> new Dependency(
+                            point,
+                            componentKeyResolver.resolve(point.injectionPoint()),
+                            requireRules.stream().allMatch(rule -> rule.isRequired(point))
+                    ))
+                    .toList();
+            return new Entry<>(injectionPoint, true, dependencies);
+        }
+    }
+
+    /**
+     * A single dependency of an {@link Entry}, which is resolved and provided to the injection point of the entry.
+     *
+     * @param injectionPoint the injection point of the dependency
+     * @param componentKey the key of the component to provide to the injection point
+     * @param required whether the dependency is required
+     *
+     * @since 0.7.0
+     *
+     * @author Guus Lieben
+     */
+    public record Dependency(InjectionPoint injectionPoint, ComponentKey<?> componentKey, boolean required) {
+    }
+}
@@ -16,10 +16,12 @@
 
 package org.dockbox.hartshorn.inject.populate;
 
+import org.dockbox.hartshorn.inject.ComponentKeyResolver;
 import org.dockbox.hartshorn.inject.InjectionCapableApplication;
 import org.dockbox.hartshorn.inject.InjectorEnvironment;
-import org.dockbox.hartshorn.inject.targets.ComponentInjectionPoint;
+import org.dockbox.hartshorn.inject.targets.AnnotatedInjectionPointRequireRule;
 import org.dockbox.hartshorn.inject.targets.ComponentInjectionPointsResolver;
+import org.dockbox.hartshorn.inject.targets.RequireInjectionPointRule;
 import org.dockbox.hartshorn.proxy.ProxyManager;
 import org.dockbox.hartshorn.proxy.ProxyOrchestrator;
 import org.dockbox.hartshorn.util.ApplicationException;
@@ -27,6 +29,7 @@
 import org.dockbox.hartshorn.util.Customizer;
 import org.dockbox.hartshorn.util.LazyStreamableConfigurer;
 import org.dockbox.hartshorn.util.StreamableConfigurer;
+import org.dockbox.hartshorn.util.TypeUtils;
 import org.dockbox.hartshorn.util.introspect.view.TypeView;
 
 import java.util.List;
@@ -39,9 +42,14 @@
  *
  * <p>Injection points are resolved using a {@link ComponentInjectionPointsResolver}. The resolver is expected to
  * return all injection points of a given type, without prior filtering. Filtering is expected to be done by the
- * {@link ComponentPopulationStrategy strategies}.
+ * {@link ComponentPopulationStrategy strategies}. Resolved injection points are cached per type as an {@link
+ * InjectionPlan}, which is stored in a {@link ClassValue} so plans do not prevent types from being unloaded. The
+ * plan also holds the {@link org.dockbox.hartshorn.inject.ComponentKey keys} of all dependencies, as resolved by the
+ * {@link ComponentKeyResolver}, and whether they are required according to the configured {@link
+ * RequireInjectionPointRule}s.
  *
  * @see ComponentPopulationStrategy
+ * @see InjectionPlan
  *
  * @since 0.6.0
  *
@@ -53,15 +61,29 @@ public class StrategyComponentPopulator implements ComponentPopulator {
     private final InjectionCapableApplication application;
     private final ProxyOrchestrator proxyOrchestrator;
     private final ComponentInjectionPointsResolver injectionPointsResolver;
+    private final ComponentKeyResolver componentKeyResolver;
+    private final Set<RequireInjectionPointRule> requiresComponentRules;
+    private final ClassValue<InjectionPlan<?>> injectionPlans = new ClassValue<>() {
+        @Override
+        protected InjectionPlan<?> computeValue(Class<?> type) {
+            StrategyComponentPopulator populator = StrategyComponentPopulator.this;
+            TypeView<?> typeView = populator.proxyOrchestrator.introspector().introspect(type);
+            return InjectionPlan.create(typeView, populator.injectionPointsResolver, populator.componentKeyResolver, populator.requiresComponentRules);
+        }
+    };
 
     public StrategyComponentPopulator(
             InjectionCapableApplication application, ProxyOrchestrator proxyOrchestrator,
             ComponentInjectionPointsResolver injectionPointsResolver,
+            ComponentKeyResolver componentKeyResolver,
+            Set<RequireInjectionPointRule> requiresComponentRules,
             List<ComponentPopulationStrategy> strategies
     ) {
         this.application = application;
         this.proxyOrchestrator = proxyOrchestrator;
         this.injectionPointsResolver = injectionPointsResolver;
+        this.componentKeyResolver = componentKeyResolver;
+        this.requiresComponentRules = requiresComponentRules;
         this.strategies = strategies;
     }
 
@@ -92,20 +114,36 @@ public <T> T populate(T instance) {
 
     protected <T> void populate(PopulateComponentContext<T> context) {
         TypeView<T> type = context.type();
-        Set<ComponentInjectionPoint<T>> injectionPoints = this.injectionPointsResolver.resolve(type);
+        InjectionPlan<T> plan = this.injectionPlan(type);
+        if (plan.isEmpty()) {
+            return;
+        }
 
+        List<InjectionPlan.Entry<T>> entries = plan.entries();
         for(ComponentPopulationStrategy strategy : this.strategies) {
-            for(ComponentInjectionPoint<T> injectionPoint : injectionPoints) {
+            for(InjectionPlan.Entry<T> entry : entries) {
                 try {
-                    strategy.populate(context, injectionPoint);
+                    strategy.populate(context, entry);
                 }
                 catch(ApplicationException e) {
-                    throw new ComponentPopulateException("Could not populate injection point " + injectionPoint.qualifiedName() + " in type " + type.qualifiedName(), e);
+                    throw new ComponentPopulateException("Could not populate injection point " + entry.injectionPoint().qualifiedName() + " in type " + type.qualifiedName(), e);
                 }
             }
         }
     }
 
+    /**
+     * Returns the cached {@link InjectionPlan} for the given type, computing it if it is not yet known.
+     *
+     * @param type the type to get the plan for
+     * @param <T> the type of the component
+     *
+     * @return the plan for the given type
+     */
+    public <T> InjectionPlan<T> injectionPlan(TypeView<T> type) {
+        return TypeUtils.unchecked(this.injectionPlans.get(type.type()), InjectionPlan.class);
+    }
+
     public static ContextualInitializer<InjectionCapableApplication, ComponentPopulator> create(Customizer<Configurer> customizer) {
         return context -> {
             Configurer configurer = new Configurer();
@@ -117,6 +155,8 @@ public static ContextualInitializer<InjectionCapableApplication, ComponentPopula
                     application,
                     environment.proxyOrchestrator(),
                     environment.injectionPointsResolver(),
+                    environment.componentKeyResolver(),
+                    Set.copyOf(configurer.requiresComponentRules.initialize(context)),
                     List.copyOf(populationStrategies)
             );
         };
@@ -131,10 +171,26 @@ public static ContextualInitializer<InjectionCapableApplication, ComponentPopula
      */
     public static class Configurer {
 
+        private final LazyStreamableConfigurer<InjectionCapableApplication, RequireInjectionPointRule> requiresComponentRules = LazyStreamableConfigurer.of(new AnnotatedInjectionPointRequireRule());
         private final LazyStreamableConfigurer<InjectionCapableApplication, ComponentPopulationStrategy> strategies = LazyStreamableConfigurer.of(collection -> {
             collection.add(InjectPopulationStrategy.create(Customizer.useDefaults()));
         });
 
+        public Configurer requiresComponentRules(RequireInjectionPointRule... requiresComponentRules) {
+            this.requiresComponentRules.customizer(collection -> collection.addAll(requiresComponentRules));
+            return this;
+        }
+
+        public Configurer requiresComponentRules(Set<RequireInjectionPointRule> requiresComponentRules) {
+            this.requiresComponentRules.customizer(collection -> collection.addAll(requiresComponentRules));
+            return this;
+        }
+
+        public Configurer requiresComponentRules(Customizer<StreamableConfigurer<InjectionCapableApplication, RequireInjectionPointRule>> customizer) {
+            this.requiresComponentRules.customizer(customizer);
+            return this;
+        }
+
         public Configurer strategy(ComponentPopulationStrategy strategy) {
             this.strategies.customizer(collection -> collection.add(strategy));
             return this;
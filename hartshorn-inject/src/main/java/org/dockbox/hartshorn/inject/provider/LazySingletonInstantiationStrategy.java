@@ -17,6 +17,7 @@
 package org.dockbox.hartshorn.inject.provider;
 
 import org.dockbox.hartshorn.inject.ComponentRequestContext;
+import org.dockbox.hartshorn.inject.ComponentResolutionException;
 import org.dockbox.hartshorn.inject.InjectionCapableApplication;
 import org.dockbox.hartshorn.util.ApplicationException;
 import org.dockbox.hartshorn.util.IllegalModificationException;
@@ -30,6 +31,9 @@
  * may be {@code null}, deviate from the binding key, or should not be initialized until it is
  * actually requested.
  *
+ * <p>The supplier is invoked at most once, when the instance is first requested. Concurrent
+ * requests wait until the instance has been created.
+ *
  * @param <T> the type of the instance
  *
  * @since 0.4.12
@@ -40,19 +44,44 @@
 
     private final CheckedSupplier<T> supplier;
 
+    private volatile T instance;
+    private Thread creatingThread;
+
     public LazySingletonInstantiationStrategy(CheckedSupplier<T> supplier) {
         this.supplier = supplier;
     }
 
     @Override
     public Option<ObjectContainer<T>> provide(InjectionCapableApplication application, ComponentRequestContext requestContext) throws ApplicationException {
-        T instance = this.supplier.get();
+        T instance = this.instance;
         if (instance == null) {
-            throw new IllegalModificationException("Cannot bind null instance");
+            instance = this.createInstance();
         }
         return Option.of(ComponentObjectContainer.ofSingleton(instance));
     }
 
+    private synchronized T createInstance() throws ApplicationException {
+        if (this.instance != null) {
+            return this.instance;
+        }
+        if (this.creatingThread == Thread.currentThread()) {
+            // Monitors are reentrant, so a cyclic request would otherwise create a second instance
+            throw new ComponentResolutionException("Lazy singleton was requested while it was being created, this indicates a cyclic dependency");
+        }
+        this.creatingThread = Thread.currentThread();
+        try {
+            T instance = this.supplier.get();
+            if (instance == null) {
+                throw new IllegalModificationException("Cannot bind null instance");
+            }
+            this.instance = instance;
+            return instance;
+        }
+        finally {
+            this.creatingThread = null;
+        }
+    }
+
     @Override
     public LifecycleType defaultLifecycle() {
         return LifecycleType.SINGLETON;
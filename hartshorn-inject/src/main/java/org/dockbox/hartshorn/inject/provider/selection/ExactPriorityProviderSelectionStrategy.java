@@ -41,4 +41,20 @@ public ExactPriorityProviderSelectionStrategy(int priority) {
     public <T> InstantiationStrategy<T> selectProvider(BindingHierarchy<T> hierarchy) {
         return hierarchy.get(this.priority).orNull();
     }
+
+    @Override
+    public boolean equals(Object object) {
+        if(this == object) {
+            return true;
+        }
+        if(!(object instanceof ExactPriorityProviderSelectionStrategy strategy)) {
+            return false;
+        }
+        return this.priority == strategy.priority;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(this.priority);
+    }
 }
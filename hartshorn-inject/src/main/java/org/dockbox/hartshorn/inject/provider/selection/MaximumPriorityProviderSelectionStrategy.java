@@ -54,4 +54,20 @@ public <T> InstantiationStrategy<T> selectProvider(BindingHierarchy<T> hierarchy
         }
         return null;
     }
+
+    @Override
+    public boolean equals(Object object) {
+        if(this == object) {
+            return true;
+        }
+        if(!(object instanceof MaximumPriorityProviderSelectionStrategy strategy)) {
+            return false;
+        }
+        return this.maximumPriorityExclusive == strategy.maximumPriorityExclusive;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.maximumPriorityExclusive);
+    }
 }
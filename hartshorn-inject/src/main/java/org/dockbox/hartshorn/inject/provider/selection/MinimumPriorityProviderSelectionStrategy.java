@@ -52,4 +52,20 @@ public <T> InstantiationStrategy<T> selectProvider(BindingHierarchy<T> hierarchy
         }
         return null;
     }
+
+    @Override
+    public boolean equals(Object object) {
+        if(this == object) {
+            return true;
+        }
+        if(!(object instanceof MinimumPriorityProviderSelectionStrategy strategy)) {
+            return false;
+        }
+        return this.minimumPriorityInclusive == strategy.minimumPriorityInclusive;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.minimumPriorityInclusive);
+    }
 }
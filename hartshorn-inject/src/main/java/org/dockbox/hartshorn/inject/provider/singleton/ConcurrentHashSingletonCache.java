@@ -16,19 +16,41 @@
 
 package org.dockbox.hartshorn.inject.provider.singleton;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.dockbox.hartshorn.inject.ComponentKey;
 import org.dockbox.hartshorn.inject.ComponentKeyView;
+import org.dockbox.hartshorn.inject.ComponentResolutionException;
+import org.dockbox.hartshorn.inject.provider.selection.ProviderSelectionStrategy;
+import org.dockbox.hartshorn.util.ApplicationException;
 import org.dockbox.hartshorn.util.IllegalModificationException;
+import org.dockbox.hartshorn.util.function.CheckedSupplier;
 import org.dockbox.hartshorn.util.option.Option;
 
 /**
  * A singleton cache implementation that uses a {@link ConcurrentHashMap} to store
  * instances. This implementation is thread-safe.
  *
+ * <p>Instances created through {@link #getOrCreate(ComponentKey, CheckedSupplier)} are created at
+ * most once at a time for each key and {@link ComponentKey#strategy() selection strategy}, so requests
+ * for a different priority of the same key are created independently. Threads which request a key that
+ * is being created by another thread wait for that creation to complete. If a thread requests a key
+ * which it is already creating itself, or if waiting would result in two threads waiting on each other,
+ * a {@link ComponentResolutionException} is thrown instead, as this indicates a cyclic dependency between
+ * components.
+ *
+ * <p>Whether a component is a singleton is only known once it has been created. Keys of which the
+ * created instance was not stored in this cache are therefore remembered as prototypes, and are
+ * created directly for subsequent requests, without waiting for other requests of the same key.
+ *
  * @see SingletonCache
  * @see ConcurrentHashMap
  *
@@ -41,9 +63,14 @@ public class ConcurrentHashSingletonCache implements SingletonCache {
     private final Map<ComponentKeyView<?>, Object> cache = new ConcurrentHashMap<>();
     private final Set<ComponentKeyView<?>> locked = ConcurrentHashMap.newKeySet();
 
+    private final Map<CreationKey, PendingInstance> pending = new ConcurrentHashMap<>();
+    private final Set<CreationKey> prototypes = ConcurrentHashMap.newKeySet();
+    private final Map<Thread, PendingInstance> waiting = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deque<ComponentKey<?>>> creationPath = ThreadLocal.withInitial(ArrayDeque::new);
+
     @Override
     public void lock(ComponentKey<?> key) {
-        ComponentKeyView<?> keyView = new ComponentKeyView<>(key);
+        ComponentKeyView<?> keyView = key.view();
         if (!this.cache.containsKey(keyView)) {
             throw new IllegalModificationException("Cannot lock a key that is not present in the cache");
         }
@@ -52,7 +79,7 @@ public void lock(ComponentKey<?> key) {
 
     @Override
     public <T> void put(ComponentKey<T> key, T instance) {
-        ComponentKeyView<T> keyView = new ComponentKeyView<>(key);
+        ComponentKeyView<T> keyView = key.view();
         if (this.locked.contains(keyView) && this.cache.get(keyView) != instance) {
             throw new IllegalModificationException("Another instance is already stored for key '" + key + "'");
         }
@@ -61,11 +88,161 @@ public <T> void put(ComponentKey<T> key, T instance) {
 
     @Override
     public <T> Option<T> get(ComponentKey<T> key) {
-        return Option.of(key.type().cast(this.cache.get(new ComponentKeyView<>(key))));
+        return Option.of(key.type().cast(this.cache.get(key.view())));
+    }
+
+    @Override
+    public <T> @Nullable T getIfPresent(ComponentKey<T> key) {
+        return key.type().cast(this.cache.get(key.view()));
     }
 
     @Override
     public <T> boolean contains(ComponentKey<T> key) {
-        return this.cache.containsKey(new ComponentKeyView<>(key));
+        return this.cache.containsKey(key.view());
+    }
+
+    @Override
+    public <T> T getOrCreate(ComponentKey<T> key, CheckedSupplier<T> factory) throws ApplicationException {
+        ComponentKeyView<T> keyView = key.view();
+        Object instance = this.cache.get(keyView);
+        if (instance != null) {
+            return key.type().cast(instance);
+        }
+
+        CreationKey creationKey = new CreationKey(keyView, key.strategy());
+        if (this.prototypes.contains(creationKey)) {
+            // Known to not be a singleton, so there is no instance to wait for
+            return factory.get();
+        }
+
+        while (true) {
+            PendingInstance creation = new PendingInstance();
+            PendingInstance activeCreation = this.pending.putIfAbsent(creationKey, creation);
+            if (activeCreation == null) {
+                return this.create(key, creationKey, creation, factory);
+            }
+
+            CreationOutcome outcome = this.await(key, activeCreation);
+            instance = this.cache.get(keyView);
+            if (instance != null) {
+                return key.type().cast(instance);
+            }
+            if (outcome == CreationOutcome.NOT_CACHED) {
+                // The component is not a singleton, so there is no need to wait for other requests
+                return factory.get();
+            }
+            // Creation failed in another thread, so attempt to create the instance in this thread
+        }
+    }
+
+    private <T> T create(ComponentKey<T> key, CreationKey creationKey, PendingInstance creation, CheckedSupplier<T> factory) throws ApplicationException {
+        ComponentKeyView<?> keyView = creationKey.keyView();
+        Deque<ComponentKey<?>> path = this.creationPath.get();
+        path.push(key);
+        CreationOutcome outcome = CreationOutcome.FAILED;
+        try {
+            // The instance may have been stored between the initial lookup and the start of this creation
+            Object existing = this.cache.get(keyView);
+            if (existing != null) {
+                outcome = CreationOutcome.CACHED;
+                return key.type().cast(existing);
+            }
+            T instance = factory.get();
+            if (this.cache.containsKey(keyView)) {
+                outcome = CreationOutcome.CACHED;
+            }
+            else {
+                outcome = CreationOutcome.NOT_CACHED;
+                this.prototypes.add(creationKey);
+            }
+            return instance;
+        }
+        finally {
+            path.pop();
+            if (path.isEmpty()) {
+                this.creationPath.remove();
+            }
+            this.pending.remove(creationKey, creation);
+            creation.complete(outcome);
+        }
+    }
+
+    private CreationOutcome await(ComponentKey<?> key, PendingInstance activeCreation) throws ApplicationException {
+        Thread currentThread = Thread.currentThread();
+        if (activeCreation.owner == currentThread) {
+            throw new ComponentResolutionException("Component " + key + " was requested while it was being created. Creation path: " + this.describePath(key));
+        }
+
+        this.waiting.put(currentThread, activeCreation);
+        try {
+            // Both threads register before checking, so at least one of two threads waiting on each other
+            // observes the cycle.
+            if (this.waitsOn(activeCreation, currentThread)) {
+                throw new ComponentResolutionException("Component " + key + " is being created by thread " + activeCreation.owner.getName()
+                        + ", which is waiting for a component created by this thread. Creation path: " + this.describePath(key));
+            }
+            return activeCreation.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApplicationException("Interrupted while waiting for creation of component " + key, e);
+        }
+        finally {
+            this.waiting.remove(currentThread);
+        }
+    }
+
+    private boolean waitsOn(PendingInstance creation, Thread thread) {
+        Set<Thread> visited = new HashSet<>();
+        PendingInstance current = creation;
+        while (current != null && visited.add(current.owner)) {
+            if (current.owner == thread) {
+                return true;
+            }
+            current = this.waiting.get(current.owner);
+        }
+        return false;
+    }
+
+    private String describePath(ComponentKey<?> key) {
+        StringBuilder builder = new StringBuilder();
+        Iterator<ComponentKey<?>> iterator = this.creationPath.get().descendingIterator();
+        while (iterator.hasNext()) {
+            builder.append(iterator.next()).append(" -> ");
+        }
+        return builder.append(key).toString();
+    }
+
+    /**
+     * Identifies a creation of a component. Components are cached by their key alone, but the selection strategy
+     * of the key may select a different provider, and therefore a different component, for the same key.
+     *
+     * @param keyView the view of the key of the component
+     * @param strategy the strategy which selects the provider of the component
+     */
+    private record CreationKey(ComponentKeyView<?> keyView, ProviderSelectionStrategy strategy) {
+    }
+
+    private enum CreationOutcome {
+        CACHED,
+        NOT_CACHED,
+        FAILED,
+    }
+
+    private static final class PendingInstance {
+
+        private final Thread owner = Thread.currentThread();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile CreationOutcome outcome;
+
+        private void complete(CreationOutcome outcome) {
+            this.outcome = outcome;
+            this.completed.countDown();
+        }
+
+        private CreationOutcome await() throws InterruptedException {
+            this.completed.await();
+            return this.outcome;
+        }
     }
 }
@@ -16,8 +16,11 @@
 
 package org.dockbox.hartshorn.inject.provider.singleton;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.dockbox.hartshorn.inject.ComponentKey;
+import org.dockbox.hartshorn.util.ApplicationException;
 import org.dockbox.hartshorn.util.IllegalModificationException;
+import org.dockbox.hartshorn.util.function.CheckedSupplier;
 import org.dockbox.hartshorn.util.option.Option;
 
 /**
@@ -62,6 +65,19 @@ public interface SingletonCache {
      */
     <T> Option<T> get(ComponentKey<T> key);
 
+    /**
+     * Returns the instance stored in the cache for the given key, or {@code null} if no instance
+     * is stored for the given key. Unlike {@link #get(ComponentKey)}, the instance is not wrapped,
+     * so implementations can look up cached instances without allocating.
+     *
+     * @param key The key to retrieve the instance for.
+     * @param <T> The type of the instance.
+     * @return The instance stored in the cache for the given key, or {@code null}
+     */
+    default <T> @Nullable T getIfPresent(ComponentKey<T> key) {
+        return this.get(key).orNull();
+    }
+
     /**
      * Returns {@code true} if an instance is stored in the cache for the given key.
      *
@@ -70,4 +86,29 @@ public interface SingletonCache {
      * @param <T> The type of the instance.
      */
     <T> boolean contains(ComponentKey<T> key);
+
+    /**
+     * Returns the instance stored in the cache for the given key, or creates it using the given factory if no
+     * instance is stored. The factory is responsible for storing the instance if it should be cached, typically
+     * after it has been processed. If the factory does not store an instance, the created instance is returned
+     * without being cached, which is the case for components that are not singletons.
+     *
+     * <p>The default implementation does not guard against concurrent creation. Implementations may guarantee
+     * that the factory is invoked at most once at a time for each key, so concurrent requests for a singleton
+     * which is being created wait for that singleton instead of creating another instance.
+     *
+     * @param key The key to retrieve the instance for.
+     * @param factory The factory which creates the instance, if it is not yet stored.
+     * @param <T> The type of the instance.
+     * @return The stored instance, or the instance created by the factory.
+     *
+     * @throws ApplicationException If the factory fails to create the instance.
+     */
+    default <T> T getOrCreate(ComponentKey<T> key, CheckedSupplier<T> factory) throws ApplicationException {
+        Option<T> instance = this.get(key);
+        if (instance.present()) {
+            return instance.get();
+        }
+        return factory.get();
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.inject.provider.strategy;
+
+import java.util.List;
+import java.util.SequencedCollection;
+
+import org.dockbox.hartshorn.inject.InjectionCapableApplication;
+import org.dockbox.hartshorn.inject.provider.ComponentProvider;
+import org.dockbox.hartshorn.inject.provider.SingletonCacheComponentProvider;
+import org.dockbox.hartshorn.util.TypeUtils;
+
+/**
+ * An immutable, precompiled representation of how a {@link StrategyChainComponentProvider} resolves components. The
+ * plan is compiled once whenever the strategies of a provider change, and is shared by all subsequent requests. This
+ * avoids copying the strategy list and creating new {@link ComponentProviderStrategyChain chains} on every request.
+ *
+ * <p>If the first strategy in the chain is the standard {@link SingletonCacheComponentProviderStrategy} and the
+ * provider exposes a {@link SingletonCacheComponentProvider#singletonCache() singleton cache}, the plan indicates
+ * that cached singletons can be returned directly. In that case the provider may skip the chain entirely for cached
+ * singletons, and start at the {@link #chainAfterSingletonCache() next strategy} for all other components. This
+ * yields the same result as the chain itself, as the singleton cache strategy has no other side effects.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public final class ComponentResolutionPlan {
+
+    private final List<ComponentProviderStrategy> strategies;
+    private final ComponentProviderStrategyChain<?> chain;
+    private final boolean singletonCacheFirst;
+    private final long version;
+
+    private ComponentResolutionPlan(
+            List<ComponentProviderStrategy> strategies,
+            ComponentProviderStrategyChain<?> chain,
+            boolean singletonCacheFirst,
+            long version
+    ) {
+        this.strategies = strategies;
+        this.chain = chain;
+        this.singletonCacheFirst = singletonCacheFirst;
+        this.version = version;
+    }
+
+    /**
+     * Compiles a new plan for the given provider and strategies.
+     *
+     * @param componentProvider the provider that uses the plan
+     * @param application the application in which the provider is active
+     * @param strategies the strategies to use, in order
+     * @param version the version of the plan, which should be incremented whenever the strategies change
+     *
+     * @return the compiled plan
+     */
+    public static ComponentResolutionPlan compile(
+            ComponentProvider componentProvider,
+            InjectionCapableApplication application,
+            SequencedCollection<ComponentProviderStrategy> strategies,
+            long version
+    ) {
+        List<ComponentProviderStrategy> strategyList = List.copyOf(strategies);
+        ComponentProviderStrategyChain<?> chain = new SimpleComponentProviderStrategyChain<>(
+                componentProvider,
+                application,
+                strategyList
+        );
+        boolean singletonCacheFirst = componentProvider instanceof SingletonCacheComponentProvider
+                && !strategyList.isEmpty()
+                // Exact type check, subclasses may change the behavior of the strategy
+                && strategyList.getFirst().getClass() == SingletonCacheComponentProviderStrategy.class;
+        return new ComponentResolutionPlan(strategyList, chain, singletonCacheFirst, version);
+    }
+
+    /**
+     * Returns the immutable list of strategies in this plan.
+     *
+     * @return the strategies in this plan
+     */
+    public List<ComponentProviderStrategy> strategies() {
+        return this.strategies;
+    }
+
+    /**
+     * Returns the shared chain which starts at the first strategy of this plan.
+     *
+     * @param <T> the type of the component to resolve
+     * @return the chain starting at the first strategy
+     */
+    public <T> ComponentProviderStrategyChain<T> chain() {
+        return TypeUtils.unchecked(this.chain, ComponentProviderStrategyChain.class);
+    }
+
+    /**
+     * Returns the shared chain which starts after the singleton cache strategy. Only valid if {@link
+     * #singletonCacheFirst()} returns {@code true}.
+     *
+     * @param <T> the type of the component to resolve
+     * @return the chain starting after the singleton cache strategy
+     */
+    public <T> ComponentProviderStrategyChain<T> chainAfterSingletonCache() {
+        if (!this.singletonCacheFirst) {
+            throw new IllegalStateException("Plan does not start with a singleton cache strategy");
+        }
+        SimpleComponentProviderStrategyChain<?> head = (SimpleComponentProviderStrategyChain<?>) this.chain;
+        return TypeUtils.unchecked(head.next(), ComponentProviderStrategyChain.class);
+    }
+
+    /**
+     * Indicates whether cached singletons can be returned directly from the provider's singleton cache,
+     * without consulting the strategy chain.
+     *
+     * @return {@code true} if cached singletons can be returned directly
+     */
+    public boolean singletonCacheFirst() {
+        return this.singletonCacheFirst;
+    }
+
+    /**
+     * Returns the version of this plan. Versions are incremented each time the strategies of the owning
+     * provider are changed, and may be used to detect stale plans.
+     *
+     * @return the version of this plan
+     */
+    public long version() {
+        return this.version;
+    }
+}
@@ -32,9 +32,10 @@
  * strategies} to resolve components.
  *
  * <p>This chain tracks the current index of the strategy being used, and will continue to the next strategy in the
- * list until the end of the list is reached. Each strategy is provided with a new chain, which allows each strategy
- * to delegate to the next strategy in the list. While this means that the chain is effectively immutable, it is not
- * recommended to re-use a chain for multiple requests.
+ * list until the end of the list is reached. Each strategy is provided with the next link of the chain, which allows
+ * each strategy to delegate to the next strategy in the list. All links are created once when the chain is created,
+ * so the chain is immutable and can safely be re-used for multiple requests, provided the list of strategies is not
+ * modified.
  *
  * @param <T> the type of the component to resolve
  *
@@ -50,6 +51,7 @@
     private final List<ComponentProviderStrategy> strategies;
     private final ComponentProvider componentProvider;
     private final int index;
+    private final SimpleComponentProviderStrategyChain<T> next;
 
     public SimpleComponentProviderStrategyChain(
             ComponentProvider componentProvider,
@@ -68,6 +70,18 @@ public SimpleComponentProviderStrategyChain(
         this.application = application;
         this.strategies = strategies;
         this.index = index;
+        this.next = index < strategies.size()
+                ? new SimpleComponentProviderStrategyChain<>(componentProvider, application, strategies, index + 1)
+                : null;
+    }
+
+    /**
+     * Returns the next link in this chain, or {@code null} if this is the last link.
+     *
+     * @return the next link in this chain
+     */
+    public SimpleComponentProviderStrategyChain<T> next() {
+        return this.next;
     }
 
     @Override
@@ -85,13 +99,7 @@ public ObjectContainer<T> get(ComponentKey<T> componentKey, ComponentRequestCont
             throws ComponentInitializationException, ApplicationException {
         if(this.index < this.strategies.size()) {
             ComponentProviderStrategy strategy = this.strategies.get(this.index);
-            ComponentProviderStrategyChain<T> chain = new SimpleComponentProviderStrategyChain<>(
-                    this.componentProvider,
-                    this.application,
-                    this.strategies,
-                    this.index + 1
-            );
-            return strategy.get(componentKey, requestContext, chain);
+            return strategy.get(componentKey, requestContext, this.next);
         }
         return ComponentObjectContainer.empty();
     }
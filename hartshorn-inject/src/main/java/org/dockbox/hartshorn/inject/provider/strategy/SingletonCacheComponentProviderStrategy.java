@@ -47,9 +47,8 @@ public <T> ObjectContainer<T> get(
     ) throws ComponentResolutionException, ApplicationException {
         if (chain.componentProvider() instanceof SingletonCacheComponentProvider singletonCacheComponentProvider) {
             SingletonCache singletonCache = singletonCacheComponentProvider.singletonCache();
-            if (singletonCache.contains(componentKey)) {
-                T instance = singletonCache.get(componentKey)
-                        .orElseThrow(() -> new ComponentResolutionException("No instance found for key " + componentKey + ", but the key was present in the singleton cache"));
+            T instance = singletonCache.get(componentKey).orNull();
+            if (instance != null) {
                 ObjectContainer<T> container = ComponentObjectContainer.ofSingleton(instance);
                 container.processed(true);
                 return container;
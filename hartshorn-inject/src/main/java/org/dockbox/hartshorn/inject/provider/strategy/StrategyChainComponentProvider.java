@@ -16,22 +16,29 @@
 
 package org.dockbox.hartshorn.inject.provider.strategy;
 
-import java.util.LinkedList;
 import java.util.List;
-
 import java.util.SequencedCollection;
+
 import org.dockbox.hartshorn.inject.ComponentKey;
 import org.dockbox.hartshorn.inject.ComponentRequestContext;
 import org.dockbox.hartshorn.inject.ComponentResolutionException;
 import org.dockbox.hartshorn.inject.InjectionCapableApplication;
 import org.dockbox.hartshorn.inject.provider.ComponentProvider;
 import org.dockbox.hartshorn.inject.provider.ObjectContainer;
+import org.dockbox.hartshorn.inject.provider.SingletonCacheComponentProvider;
+import org.dockbox.hartshorn.inject.provider.singleton.SingletonCache;
 import org.dockbox.hartshorn.util.ApplicationException;
 
 /**
  * A {@link ComponentProvider} that uses a chain of {@link ComponentProviderStrategy strategies} to resolve components.
- * Each component request is assigned a unique {@link ComponentProviderStrategyChain} that is used to resolve the
- * component. The provider itself does not make any guarantees about the nullability of the resolved component.
+ * The strategies are compiled into a {@link ComponentResolutionPlan} whenever they are changed, and the resulting
+ * immutable {@link ComponentProviderStrategyChain} is shared by all component requests. The provider itself does not
+ * make any guarantees about the nullability of the resolved component.
+ *
+ * <p>If the plan indicates the singleton cache is consulted first, cached singletons are returned directly from the
+ * {@link SingletonCacheComponentProvider#singletonCache() singleton cache}, without invoking the strategy chain.
+ * Other components are created through the singleton cache as well, so the cache can prevent concurrent creation
+ * of the same singleton.
  *
  * @since 0.7.0
  *
@@ -40,16 +47,26 @@
 public abstract class StrategyChainComponentProvider implements ComponentProvider {
 
     private final InjectionCapableApplication application;
-    private final SequencedCollection<ComponentProviderStrategy> strategies;
+    private volatile ComponentResolutionPlan resolutionPlan;
 
     public StrategyChainComponentProvider(InjectionCapableApplication application) {
         this.application = application;
-        this.strategies = new LinkedList<>();
+        this.resolutionPlan = ComponentResolutionPlan.compile(this, application, List.of(), 0);
     }
 
-    protected void strategies(SequencedCollection<ComponentProviderStrategy> strategies) {
-        this.strategies.clear();
-        this.strategies.addAll(strategies);
+    protected synchronized void strategies(SequencedCollection<ComponentProviderStrategy> strategies) {
+        long version = this.resolutionPlan.version() + 1;
+        this.resolutionPlan = ComponentResolutionPlan.compile(this, this.application, strategies, version);
+    }
+
+    /**
+     * Returns the currently active resolution plan of this provider. The plan is replaced whenever the
+     * strategies of this provider change.
+     *
+     * @return the active resolution plan
+     */
+    public ComponentResolutionPlan resolutionPlan() {
+        return this.resolutionPlan;
     }
 
     public InjectionCapableApplication application() {
@@ -58,12 +75,29 @@ public InjectionCapableApplication application() {
 
     @Override
     public <T> T get(ComponentKey<T> key, ComponentRequestContext requestContext) {
-        List<ComponentProviderStrategy> strategies = List.copyOf(this.strategies);
-        ComponentProviderStrategyChain<T> chain = new SimpleComponentProviderStrategyChain<>(
-                this,
-                this.application,
-                strategies);
+        ComponentResolutionPlan plan = this.resolutionPlan;
+        if (plan.singletonCacheFirst() && this instanceof SingletonCacheComponentProvider singletonCacheProvider) {
+            // Cached singletons are always processed, so can be returned directly. This is checked before the
+            // factory is created, so lookups of cached singletons do not allocate.
+            SingletonCache singletonCache = singletonCacheProvider.singletonCache();
+            T cached = singletonCache.getIfPresent(key);
+            if (cached != null) {
+                return cached;
+            }
+            // Uncached components are created through the cache, so concurrent requests for a singleton that is
+            // being created wait for that instance.
+            ComponentProviderStrategyChain<T> chain = plan.chainAfterSingletonCache();
+            try {
+                return singletonCache.getOrCreate(key, () -> this.create(key, requestContext, chain));
+            }
+            catch(ApplicationException e) {
+                throw new ComponentResolutionException("Failed to initialize component with key " + key, e);
+            }
+        }
+        return this.create(key, requestContext, plan.chain());
+    }
 
+    private <T> T create(ComponentKey<T> key, ComponentRequestContext requestContext, ComponentProviderStrategyChain<T> chain) {
         final ObjectContainer<T> container;
         try {
             container = chain.get(key, requestContext);
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.dockbox.hartshorn.inject.scope;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * A {@link Scope} which only weakly references the scope it represents. Scoped providers, and the binders and
+ * component keys they create, reference their scope through this type, so a provider which is stored as the
+ * value of a weakly keyed map does not keep its own key reachable.
+ *
+ * <p>The {@link #installableScopeType() installable scope type} and hash code are captured eagerly, so both
+ * remain available after the referenced scope has been collected. A reference is only equal to other references to
+ * an equal scope, and never to the referenced scope itself, so equality remains symmetric. Code which compares a
+ * reference with the scope it may represent should {@link #unwrap(Scope) unwrap} both sides first. Once the referent
+ * has been collected, a reference is only equal to itself.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public final class WeakScopeReference implements Scope {
+
+    private final WeakReference<Scope> scope;
+    private final ScopeKey scopeKey;
+    private final int hash;
+
+    private WeakScopeReference(Scope scope) {
+        this.scope = new WeakReference<>(scope);
+        this.scopeKey = scope.installableScopeType();
+        this.hash = scope.hashCode();
+    }
+
+    /**
+     * Creates a new weak reference to the given scope. If the given scope is already a weak reference, it is
+     * returned as-is.
+     *
+     * @param scope the scope to reference
+     * @return the weak reference to the scope
+     */
+    public static WeakScopeReference of(Scope scope) {
+        if (scope instanceof WeakScopeReference reference) {
+            return reference;
+        }
+        return new WeakScopeReference(scope);
+    }
+
+    /**
+     * Returns the scope represented by the given scope. If the given scope is a weak reference, its referent is
+     * returned, which may be {@code null} if it has been collected. Otherwise, the given scope is returned.
+     *
+     * @param scope the scope to unwrap
+     * @return the represented scope, or {@code null}
+     */
+    public static Scope unwrap(Scope scope) {
+        if (scope instanceof WeakScopeReference reference) {
+            return reference.scope();
+        }
+        return scope;
+    }
+
+    /**
+     * Returns the referenced scope, or {@code null} if it has been collected.
+     *
+     * @return the referenced scope, or {@code null}
+     */
+    public Scope scope() {
+        return this.scope.get();
+    }
+
+    @Override
+    public ScopeKey installableScopeType() {
+        return this.scopeKey;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof WeakScopeReference reference)) {
+            return false;
+        }
+        Scope referent = this.scope();
+        Scope otherReferent = reference.scope();
+        return referent != null && otherReferent != null && (referent == otherReferent || referent.equals(otherReferent));
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public String toString() {
+        Scope referent = this.scope();
+        return referent == null ? "WeakScopeReference[collected]" : referent.toString();
+    }
+}
@@ -38,9 +38,13 @@
 public class ComponentMethodInjectionPoint<T> implements ComponentInjectionPoint<T> {
 
     private final MethodView<T, ?> method;
+    private final SequencedCollection<InjectionPoint> injectionPoints;
 
     public ComponentMethodInjectionPoint(MethodView<T, ?> method) {
         this.method = method;
+        this.injectionPoints = method.parameters().all().stream()
+                .map(InjectionPoint::new)
+                .toList();
     }
 
     @Override
@@ -63,9 +67,7 @@ public ElementAnnotationsIntrospector annotations() {
 
     @Override
     public SequencedCollection<InjectionPoint> injectionPoints() {
-        return this.method.parameters().all().stream()
-                .map(InjectionPoint::new)
-                .toList();
+        return this.injectionPoints;
     }
 
     @Override
@@ -18,7 +18,7 @@
 
 import java.lang.annotation.Annotation;
 import java.util.EnumSet;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -61,7 +61,8 @@ public <T> Set<ComponentInjectionPoint<T>> resolve(TypeView<T> type) {
                 .map(value -> EnumSet.copyOf(Set.of(value)))
                 .orElseGet(() -> EnumSet.allOf(Populate.Type.class));
 
-        Set<ComponentInjectionPoint<T>> injectionPoints = new HashSet<>();
+        // Linked set, so injection points are populated in a stable order
+        Set<ComponentInjectionPoint<T>> injectionPoints = new LinkedHashSet<>();
         if (types.contains(Populate.Type.EXECUTABLES)) {
             type.methods().all().stream()
                     .filter(this::isInjectable)
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.inject;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dockbox.hartshorn.inject.ComponentKey;
+import org.dockbox.hartshorn.inject.ComponentKeyView;
+import org.dockbox.hartshorn.inject.QualifierKey;
+import org.dockbox.hartshorn.util.introspect.ParameterizableType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ComponentKeyTests {
+
+    @Test
+    void testDefaultKeysAreShared() {
+        ComponentKey<String> key = ComponentKey.of(String.class);
+        Assertions.assertSame(key, ComponentKey.of(String.class));
+        Assertions.assertSame(key, ComponentKey.builder(String.class).build());
+        Assertions.assertSame(key, ComponentKey.of(String.class).mutable().build());
+    }
+
+    @Test
+    void testConfiguredKeysAreNotShared() {
+        ComponentKey<String> key = ComponentKey.of(String.class);
+        ComponentKey<String> named = ComponentKey.of(String.class, "name");
+        ComponentKey<String> strict = ComponentKey.builder(String.class).strict(true).build();
+
+        Assertions.assertNotSame(key, named);
+        Assertions.assertNotEquals(key, named);
+        Assertions.assertNotSame(key, strict);
+        // Strict mode is not part of the identity of a key
+        Assertions.assertEquals(key, strict);
+        Assertions.assertEquals(key.hashCode(), strict.hashCode());
+    }
+
+    @Test
+    void testParameterizedKeysAreNotShared() {
+        ParameterizableType type = ParameterizableType.builder(List.class)
+                .parameters(ParameterizableType.create(String.class))
+                .build();
+        ComponentKey<?> key = ComponentKey.of(type);
+
+        Assertions.assertNotSame(ComponentKey.of(List.class), key);
+        Assertions.assertNotEquals(ComponentKey.of(List.class), key);
+        Assertions.assertEquals(key, ComponentKey.of(type));
+    }
+
+    @Test
+    void testBuilderChangesDoNotAffectBuiltKey() {
+        ComponentKey.Builder<String> builder = ComponentKey.builder(String.class).name("first");
+        ComponentKey<String> key = builder.build();
+        int hashCode = key.hashCode();
+
+        builder.qualifier(QualifierKey.of("second"));
+
+        Assertions.assertEquals(hashCode, key.hashCode());
+        Assertions.assertEquals(ComponentKey.of(String.class, "first"), key);
+        Assertions.assertNotEquals(builder.build(), key);
+    }
+
+    @Test
+    void testKeysCanBeUsedInMaps() {
+        Map<ComponentKey<?>, String> keys = new HashMap<>();
+        keys.put(ComponentKey.builder(String.class).name("name").build(), "named");
+        keys.put(ComponentKey.of(String.class), "default");
+
+        Assertions.assertEquals("named", keys.get(ComponentKey.of(String.class, "name")));
+        Assertions.assertEquals("default", keys.get(ComponentKey.builder(String.class).build()));
+    }
+
+    @Test
+    void testViewIsReused() {
+        ComponentKey<String> key = ComponentKey.of(String.class, "name");
+        ComponentKeyView<String> view = key.view();
+
+        Assertions.assertSame(view, key.view());
+        Assertions.assertEquals(view, ComponentKey.of(String.class, "name").view());
+        Assertions.assertEquals(view.hashCode(), ComponentKey.of(String.class, "name").view().hashCode());
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.inject.binding;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.dockbox.hartshorn.inject.ComponentKey;
+import org.dockbox.hartshorn.inject.ComponentKeyView;
+import org.dockbox.hartshorn.inject.binding.AmbiguousComponentException;
+import org.dockbox.hartshorn.inject.binding.BindingHierarchy;
+import org.dockbox.hartshorn.inject.binding.HierarchyCache;
+import org.dockbox.hartshorn.inject.binding.NativePrunableBindingHierarchy;
+import org.dockbox.hartshorn.inject.provider.SimpleConstructorViewDrivenProvider;
+import org.dockbox.hartshorn.util.introspect.ParameterizableType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HierarchyCacheTests {
+
+    private static final int BINDING_COUNT = 10_000;
+
+    private HierarchyCache cache() {
+        // Non-strict, so unknown keys are resolved through loose lookups
+        return new HierarchyCache(() -> false, null, null);
+    }
+
+    private <T> BindingHierarchy<T> hierarchy(ComponentKey<T> key, int priority, Class<? extends T> implementation) {
+        BindingHierarchy<T> hierarchy = new NativePrunableBindingHierarchy<>(key);
+        hierarchy.add(priority, SimpleConstructorViewDrivenProvider.forSingleton(ComponentKey.of(implementation)));
+        return hierarchy;
+    }
+
+    private void bindUnrelated(HierarchyCache cache) {
+        for (int i = 0; i < BINDING_COUNT; i++) {
+            cache.put(this.hierarchy(ComponentKey.of(String.class, "binding-" + i), 0, String.class));
+        }
+    }
+
+    @Test
+    void testLooseLookupFindsSubtypeAmongUnrelatedBindings() {
+        HierarchyCache cache = this.cache();
+        this.bindUnrelated(cache);
+        BindingHierarchy<ImplementationA> hierarchy = this.hierarchy(ComponentKey.of(ImplementationA.class), 0, ImplementationA.class);
+        cache.put(hierarchy);
+
+        BindingHierarchy<?> resolved = cache.getOrComputeHierarchy(ComponentKey.of(Contract.class), false);
+        Assertions.assertSame(hierarchy, resolved);
+    }
+
+    @Test
+    void testNegativeLookupIsInvalidatedWhenHierarchyIsAdded() {
+        HierarchyCache cache = this.cache();
+        BindingHierarchy<?> absent = cache.getOrComputeHierarchy(ComponentKey.of(Contract.class), false);
+        Assertions.assertTrue(absent.highestPriority() < 0);
+        Assertions.assertEquals(0, absent.size());
+
+        BindingHierarchy<ImplementationA> hierarchy = this.hierarchy(ComponentKey.of(ImplementationA.class), 0, ImplementationA.class);
+        cache.put(hierarchy);
+        Assertions.assertSame(hierarchy, cache.getOrComputeHierarchy(ComponentKey.of(Contract.class), false));
+    }
+
+    @Test
+    void testPositiveLookupIsInvalidatedWhenHierarchyIsRemoved() {
+        HierarchyCache cache = this.cache();
+        BindingHierarchy<ImplementationA> hierarchyA = this.hierarchy(ComponentKey.of(ImplementationA.class), 0, ImplementationA.class);
+        BindingHierarchy<ImplementationB> hierarchyB = this.hierarchy(ComponentKey.of(ImplementationB.class), 1, ImplementationB.class);
+        cache.put(hierarchyA);
+        cache.put(hierarchyB);
+        Assertions.assertSame(hierarchyB, cache.getOrComputeHierarchy(ComponentKey.of(Contract.class), false));
+
+        Assertions.assertTrue(cache.remove(hierarchyB.key().view()));
+        Assertions.assertSame(hierarchyA, cache.getOrComputeHierarchy(ComponentKey.of(Contract.class), false));
+        Assertions.assertFalse(cache.remove(hierarchyB.key().view()));
+    }
+
+    @Test
+    void testLooseLookupRejectsAmbiguousTopPriority() {
+        HierarchyCache cache = this.cache();
+        cache.put(this.hierarchy(ComponentKey.of(ImplementationA.class), 1, ImplementationA.class));
+        cache.put(this.hierarchy(ComponentKey.of(ImplementationB.class), 1, ImplementationB.class));
+        Assertions.assertThrows(AmbiguousComponentException.class, () -> cache.getOrComputeHierarchy(ComponentKey.of(Contract.class), false));
+    }
+
+    @Test
+    void testRepeatedLooseLookupsAreMemoized() {
+        CountingHierarchyCache cache = new CountingHierarchyCache(HierarchyCache.DEFAULT_LOOSE_MATCH_LIMIT);
+        this.bindUnrelated(cache);
+        BindingHierarchy<ImplementationA> hierarchy = this.hierarchy(ComponentKey.of(ImplementationA.class), 0, ImplementationA.class);
+        cache.put(hierarchy);
+
+        // Alternate between a positive and a negative lookup, which should each only be computed once
+        ComponentKey<Contract> contractKey = ComponentKey.of(Contract.class);
+        ComponentKey<Runnable> absentKey = ComponentKey.of(Runnable.class);
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertSame(hierarchy, cache.getOrComputeHierarchy(contractKey, false));
+            Assertions.assertEquals(0, cache.getOrComputeHierarchy(absentKey, false).size());
+        }
+        Assertions.assertEquals(1, cache.misses(contractKey));
+        Assertions.assertEquals(1, cache.misses(absentKey));
+    }
+
+    @Test
+    void testLooseLookupsAreRecomputedWhenBindingsChange() {
+        CountingHierarchyCache cache = new CountingHierarchyCache(HierarchyCache.DEFAULT_LOOSE_MATCH_LIMIT);
+        ComponentKey<Contract> contractKey = ComponentKey.of(Contract.class);
+        cache.getOrComputeHierarchy(contractKey, false);
+        cache.getOrComputeHierarchy(contractKey, false);
+        Assertions.assertEquals(1, cache.misses(contractKey));
+
+        BindingHierarchy<ImplementationA> hierarchy = this.hierarchy(ComponentKey.of(ImplementationA.class), 0, ImplementationA.class);
+        cache.put(hierarchy);
+        cache.getOrComputeHierarchy(contractKey, false);
+        cache.getOrComputeHierarchy(contractKey, false);
+        Assertions.assertEquals(2, cache.misses(contractKey));
+
+        cache.remove(hierarchy.key().view());
+        cache.getOrComputeHierarchy(contractKey, false);
+        Assertions.assertEquals(3, cache.misses(contractKey));
+    }
+
+    @Test
+    void testLooseLookupsAreBoundedByLimit() {
+        CountingHierarchyCache cache = new CountingHierarchyCache(2);
+        ComponentKey<Contract> contractKey = ComponentKey.of(Contract.class);
+        cache.getOrComputeHierarchy(contractKey, false);
+        cache.getOrComputeHierarchy(ComponentKey.of(Runnable.class), false);
+        cache.getOrComputeHierarchy(contractKey, false);
+        Assertions.assertEquals(1, cache.misses(contractKey));
+
+        // Exceeding the limit clears all memoized lookups
+        cache.getOrComputeHierarchy(ComponentKey.of(CharSequence.class), false);
+        cache.getOrComputeHierarchy(contractKey, false);
+        Assertions.assertEquals(2, cache.misses(contractKey));
+    }
+
+    @Test
+    void testLooseMatchLimitMustBePositive() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new HierarchyCache(() -> false, null, null, 0));
+    }
+
+    private static class CountingHierarchyCache extends HierarchyCache {
+
+        private final Map<ParameterizableType, Integer> misses = new HashMap<>();
+
+        CountingHierarchyCache(int looseMatchLimit) {
+            super(() -> false, null, null, looseMatchLimit);
+        }
+
+        @Override
+        protected Set<ComponentKeyView<?>> computeCompatibleKeys(ParameterizableType type) {
+            this.misses.merge(type, 1, Integer::sum);
+            return super.computeCompatibleKeys(type);
+        }
+
+        int misses(ComponentKey<?> key) {
+            return this.misses.getOrDefault(key.parameterizedType(), 0);
+        }
+    }
+
+    public interface Contract {
+    }
+
+    public static class ImplementationA implements Contract {
+    }
+
+    public static class ImplementationB implements Contract {
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.inject.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dockbox.hartshorn.inject.ComponentKey;
+import org.dockbox.hartshorn.inject.binding.BindingFunction;
+import org.dockbox.hartshorn.inject.graph.ComponentMemberType;
+import org.dockbox.hartshorn.inject.graph.DependencyGraph;
+import org.dockbox.hartshorn.inject.graph.DependencyMap;
+import org.dockbox.hartshorn.inject.graph.DependencyResolutionType;
+import org.dockbox.hartshorn.inject.graph.declaration.AbstractDependencyContext;
+import org.dockbox.hartshorn.inject.graph.declaration.DependencyContext;
+import org.dockbox.hartshorn.inject.graph.support.ComponentDiscoveryList.DiscoveredComponent;
+import org.dockbox.hartshorn.inject.graph.support.CyclicComponentException;
+import org.dockbox.hartshorn.inject.graph.support.CyclicDependencyGraphValidator;
+import org.dockbox.hartshorn.util.graph.GraphNode;
+import org.dockbox.hartshorn.util.graph.SimpleGraphNode;
+import org.dockbox.hartshorn.util.introspect.Introspector;
+import org.dockbox.hartshorn.util.introspect.NativeProxyLookup;
+import org.dockbox.hartshorn.util.introspect.annotations.VirtualHierarchyAnnotationLookup;
+import org.dockbox.hartshorn.util.introspect.reflect.ReflectionIntrospector;
+import org.dockbox.hartshorn.util.introspect.view.View;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+public class CyclicDependencyGraphValidatorTests {
+
+    private static final int LARGE_GRAPH_SIZE = 100_000;
+
+    private final Introspector introspector = new ReflectionIntrospector(new NativeProxyLookup(), new VirtualHierarchyAnnotationLookup());
+
+    @Test
+    void testSharedDependencyIsNotCyclic() {
+        // 0 and 1 both depend on 2, which is immediately required by 3
+        TestGraph graph = new TestGraph(5);
+        graph.immediate(0, 1);
+        graph.immediate(0, 2);
+        graph.immediate(1, 3);
+        graph.immediate(2, 3);
+        graph.immediate(3, 4);
+
+        Assertions.assertDoesNotThrow(() -> new CyclicDependencyGraphValidator().validateBeforeConfiguration(graph.build(), this.introspector));
+    }
+
+    @Test
+    void testCycleIsReported() {
+        TestGraph graph = new TestGraph(4);
+        graph.immediate(0, 1);
+        graph.immediate(1, 2);
+        graph.immediate(2, 0);
+        graph.immediate(3, 0);
+
+        CyclicComponentException exception = Assertions.assertThrows(CyclicComponentException.class,
+                () -> new CyclicDependencyGraphValidator().validateBeforeConfiguration(graph.build(), this.introspector));
+
+        List<DiscoveredComponent> cycle = exception.componentDiscoveryList().discoveredComponentsCyclic();
+        Assertions.assertEquals(4, cycle.size());
+        Assertions.assertEquals(cycle.getFirst(), cycle.getLast());
+        Assertions.assertEquals(0, exception.getSuppressed().length);
+    }
+
+    @Test
+    void testCyclicPathStartsAtCheckedNode() {
+        TestGraph graph = new TestGraph(4);
+        graph.immediate(0, 1);
+        graph.immediate(1, 2);
+        graph.immediate(2, 0);
+        graph.immediate(3, 0);
+
+        GraphNode<DependencyContext<?>> node = graph.node(1);
+        List<GraphNode<DependencyContext<?>>> path = new CyclicDependencyGraphValidator().checkNodeNotCyclicRecursive(node, new ArrayList<>());
+        Assertions.assertEquals(List.of(node, graph.node(0), graph.node(2), node), path);
+    }
+
+    @Test
+    void testDelayedCycleIsNotReported() {
+        TestGraph graph = new TestGraph(2);
+        graph.immediate(0, 1);
+        graph.delayed(1, 0);
+
+        Assertions.assertDoesNotThrow(() -> new CyclicDependencyGraphValidator().validateBeforeConfiguration(graph.build(), this.introspector));
+    }
+
+    @Test
+    void testSelfDependencyIsReported() {
+        TestGraph graph = new TestGraph(1);
+        graph.immediate(0, 0);
+
+        CyclicComponentException exception = Assertions.assertThrows(CyclicComponentException.class,
+                () -> new CyclicDependencyGraphValidator().validateBeforeConfiguration(graph.build(), this.introspector));
+        Assertions.assertEquals(2, exception.componentDiscoveryList().discoveredComponentsCyclic().size());
+    }
+
+    @Test
+    void testEveryCycleIsReported() {
+        TestGraph graph = new TestGraph(5);
+        graph.immediate(0, 1);
+        graph.immediate(1, 0);
+        graph.immediate(2, 3);
+        graph.immediate(3, 4);
+        graph.immediate(4, 2);
+
+        CyclicComponentException exception = Assertions.assertThrows(CyclicComponentException.class,
+                () -> new CyclicDependencyGraphValidator().validateBeforeConfiguration(graph.build(), this.introspector));
+
+        Assertions.assertEquals(1, exception.getSuppressed().length);
+        Assertions.assertInstanceOf(CyclicComponentException.class, exception.getSuppressed()[0]);
+        CyclicComponentException suppressed = (CyclicComponentException) exception.getSuppressed()[0];
+
+        List<Integer> cycleSizes = new ArrayList<>(List.of(
+                exception.componentDiscoveryList().discoveredComponents().size(),
+                suppressed.componentDiscoveryList().discoveredComponents().size()
+        ));
+        cycleSizes.sort(Integer::compareTo);
+        Assertions.assertEquals(List.of(2, 3), cycleSizes);
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testDeepChainIsValidated() {
+        TestGraph graph = new TestGraph(LARGE_GRAPH_SIZE);
+        for (int i = 0; i < LARGE_GRAPH_SIZE - 1; i++) {
+            graph.immediate(i, i + 1);
+        }
+        DependencyGraph acyclicGraph = graph.build();
+        Assertions.assertDoesNotThrow(() -> new CyclicDependencyGraphValidator().validateBeforeConfiguration(acyclicGraph, this.introspector));
+
+        // Close a short cycle at the end of the chain
+        graph.immediate(LARGE_GRAPH_SIZE - 1, LARGE_GRAPH_SIZE - 3);
+        CyclicComponentException exception = Assertions.assertThrows(CyclicComponentException.class,
+                () -> new CyclicDependencyGraphValidator().validateBeforeConfiguration(graph.build(), this.introspector));
+        Assertions.assertEquals(3, exception.componentDiscoveryList().discoveredComponents().size());
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void testLargeGraphIsValidated() {
+        TestGraph graph = new TestGraph(LARGE_GRAPH_SIZE);
+        for (int i = 0; i < LARGE_GRAPH_SIZE; i++) {
+            for (int dependency = i + 1; dependency <= i + 3 && dependency < LARGE_GRAPH_SIZE; dependency++) {
+                graph.immediate(i, dependency);
+            }
+        }
+        Assertions.assertDoesNotThrow(() -> new CyclicDependencyGraphValidator().validateBeforeConfiguration(graph.build(), this.introspector));
+    }
+
+    private class TestGraph {
+
+        private final List<SimpleGraphNode<DependencyContext<?>>> nodes = new ArrayList<>();
+        private final List<DependencyMap> dependencies = new ArrayList<>();
+
+        TestGraph(int size) {
+            View origin = CyclicDependencyGraphValidatorTests.this.introspector.introspect(Object.class);
+            for (int i = 0; i < size; i++) {
+                DependencyMap dependencyMap = DependencyMap.create();
+                this.dependencies.add(dependencyMap);
+                this.nodes.add(new SimpleGraphNode<>(new TestDependencyContext(key(i), dependencyMap, origin)));
+            }
+        }
+
+        void immediate(int dependent, int dependency) {
+            this.dependsOn(dependent, dependency, DependencyResolutionType.IMMEDIATE);
+        }
+
+        void delayed(int dependent, int dependency) {
+            this.dependsOn(dependent, dependency, DependencyResolutionType.DELAYED);
+        }
+
+        private void dependsOn(int dependent, int dependency, DependencyResolutionType resolutionType) {
+            this.dependencies.get(dependent).put(resolutionType, key(dependency));
+            this.nodes.get(dependent).addParent(this.nodes.get(dependency));
+        }
+
+        GraphNode<DependencyContext<?>> node(int index) {
+            return this.nodes.get(index);
+        }
+
+        DependencyGraph build() {
+            DependencyGraph graph = new DependencyGraph();
+            for (GraphNode<DependencyContext<?>> node : this.nodes) {
+                graph.addRoot(node);
+            }
+            return graph;
+        }
+
+        private static ComponentKey<Object> key(int index) {
+            return ComponentKey.of(Object.class, "component" + index);
+        }
+    }
+
+    private static class TestDependencyContext extends AbstractDependencyContext<Object> {
+
+        private final View origin;
+
+        TestDependencyContext(ComponentKey<Object> componentKey, DependencyMap dependencies, View origin) {
+            super(componentKey, dependencies, null, 0, ComponentMemberType.STANDALONE);
+            this.origin = origin;
+        }
+
+        @Override
+        public void configure(BindingFunction<Object> function) {
+            // Not configured in these tests
+        }
+
+        @Override
+        public View origin() {
+            return this.origin;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.inject.provider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dockbox.hartshorn.inject.ComponentKey;
+import org.dockbox.hartshorn.inject.ComponentResolutionException;
+import org.dockbox.hartshorn.inject.provider.LazySingletonInstantiationStrategy;
+import org.dockbox.hartshorn.inject.provider.ObjectContainer;
+import org.dockbox.hartshorn.inject.provider.selection.MaximumPriorityProviderSelectionStrategy;
+import org.dockbox.hartshorn.inject.provider.singleton.ConcurrentHashSingletonCache;
+import org.dockbox.hartshorn.util.ApplicationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentHashSingletonCacheTests {
+
+    private static final int REQUESTERS = 64;
+
+    @Test
+    void testSlowSingletonIsCreatedOnce() throws Exception {
+        ConcurrentHashSingletonCache cache = new ConcurrentHashSingletonCache();
+        ComponentKey<SlowComponent> key = ComponentKey.of(SlowComponent.class);
+        AtomicInteger constructions = new AtomicInteger();
+
+        List<SlowComponent> instances = requestConcurrently(() -> cache.getOrCreate(key, () -> {
+            SlowComponent component = new SlowComponent(constructions);
+            cache.put(key, component);
+            return component;
+        }));
+
+        Assertions.assertEquals(1, constructions.get());
+        for (SlowComponent instance : instances) {
+            Assertions.assertSame(instances.getFirst(), instance);
+        }
+        Assertions.assertSame(instances.getFirst(), cache.get(key).get());
+    }
+
+    @Test
+    void testUncachedInstancesAreNotShared() throws Exception {
+        ConcurrentHashSingletonCache cache = new ConcurrentHashSingletonCache();
+        ComponentKey<SlowComponent> key = ComponentKey.of(SlowComponent.class);
+        AtomicInteger constructions = new AtomicInteger();
+
+        List<SlowComponent> instances = requestConcurrently(() -> cache.getOrCreate(key, () -> new SlowComponent(constructions)));
+
+        Assertions.assertEquals(REQUESTERS, constructions.get());
+        Assertions.assertEquals(REQUESTERS, instances.stream().distinct().count());
+        Assertions.assertFalse(cache.contains(key));
+    }
+
+    @Test
+    void testReentrantCreationIsRejected() throws ApplicationException {
+        ConcurrentHashSingletonCache cache = new ConcurrentHashSingletonCache();
+        ComponentKey<String> first = ComponentKey.of(String.class);
+        ComponentKey<Integer> second = ComponentKey.of(Integer.class);
+
+        ComponentResolutionException exception = Assertions.assertThrows(ComponentResolutionException.class, () -> cache.getOrCreate(first, () -> {
+            cache.getOrCreate(second, () -> Integer.valueOf(cache.getOrCreate(first, () -> "unreachable").length()));
+            return "unreachable";
+        }));
+        Assertions.assertTrue(exception.getMessage().contains(first + " -> " + second + " -> " + first));
+
+        // Failed creations do not leave the key blocked
+        Assertions.assertEquals("value", cache.getOrCreate(first, () -> "value"));
+    }
+
+    @Test
+    void testDifferentPriorityOfSameKeyIsNotReentrant() throws ApplicationException {
+        ConcurrentHashSingletonCache cache = new ConcurrentHashSingletonCache();
+        ComponentKey<String> key = ComponentKey.of(String.class);
+        ComponentKey<String> lowerPriority = ComponentKey.builder(String.class)
+                .strategy(new MaximumPriorityProviderSelectionStrategy(1))
+                .build();
+
+        String value = cache.getOrCreate(key, () -> cache.getOrCreate(lowerPriority, () -> "lower") + "higher");
+        Assertions.assertEquals("lowerhigher", value);
+    }
+
+    @Test
+    void testKnownPrototypesAreCreatedConcurrently() throws Exception {
+        ConcurrentHashSingletonCache cache = new ConcurrentHashSingletonCache();
+        ComponentKey<Integer> key = ComponentKey.of(Integer.class);
+        // First creation is not stored, which marks the key as a prototype
+        Assertions.assertEquals(0, cache.getOrCreate(key, () -> 0));
+
+        // Would time out if requests waited for each other, as each creation waits for all other creations
+        CountDownLatch allCreating = new CountDownLatch(REQUESTERS);
+        List<Boolean> results = requestConcurrently(() -> cache.getOrCreate(key, () -> {
+            allCreating.countDown();
+            try {
+                return allCreating.await(10, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            catch (InterruptedException e) {
+                throw new ApplicationException(e);
+            }
+        }) == 1);
+
+        Assertions.assertTrue(results.stream().allMatch(Boolean::booleanValue));
+    }
+
+    @Test
+    void testCyclicCreationAcrossThreadsIsRejected() throws Exception {
+        ConcurrentHashSingletonCache cache = new ConcurrentHashSingletonCache();
+        ComponentKey<String> first = ComponentKey.of(String.class);
+        ComponentKey<Integer> second = ComponentKey.of(Integer.class);
+        CountDownLatch bothCreating = new CountDownLatch(2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> firstResult = executor.submit(() -> cache.getOrCreate(first, () -> {
+                awaitLatch(bothCreating);
+                return "first" + cache.getOrCreate(second, () -> 2);
+            }));
+            Future<Integer> secondResult = executor.submit(() -> cache.getOrCreate(second, () -> {
+                awaitLatch(bothCreating);
+                return cache.getOrCreate(first, () -> "first").length();
+            }));
+
+            int failures = 0;
+            for (Future<?> result : List.of(firstResult, secondResult)) {
+                try {
+                    result.get(10, TimeUnit.SECONDS);
+                }
+                catch (ExecutionException e) {
+                    Assertions.assertInstanceOf(ComponentResolutionException.class, e.getCause());
+                    failures++;
+                }
+            }
+            Assertions.assertTrue(failures > 0);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLazySingletonIsCreatedOnce() throws Exception {
+        AtomicInteger constructions = new AtomicInteger();
+        LazySingletonInstantiationStrategy<SlowComponent> strategy = new LazySingletonInstantiationStrategy<>(() -> new SlowComponent(constructions));
+
+        List<ObjectContainer<SlowComponent>> containers = requestConcurrently(() -> strategy.provide(null, null).get());
+
+        Assertions.assertEquals(1, constructions.get());
+        for (ObjectContainer<SlowComponent> container : containers) {
+            Assertions.assertSame(containers.getFirst().instance(), container.instance());
+        }
+    }
+
+    private static <T> List<T> requestConcurrently(Callable<T> request) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTERS);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < REQUESTERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return request.call();
+                }));
+            }
+            start.countDown();
+
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitLatch(CountDownLatch latch) throws ApplicationException {
+        latch.countDown();
+        try {
+            latch.await();
+        }
+        catch (InterruptedException e) {
+            throw new ApplicationException(e);
+        }
+    }
+
+    public static class SlowComponent {
+
+        public SlowComponent(AtomicInteger constructions) throws ApplicationException {
+            constructions.incrementAndGet();
+            try {
+                Thread.sleep(50);
+            }
+            catch (InterruptedException e) {
+                throw new ApplicationException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package test.org.dockbox.hartshorn.inject.scope;
+
+import org.dockbox.hartshorn.inject.scope.Scope;
+import org.dockbox.hartshorn.inject.scope.ScopeAdapter;
+import org.dockbox.hartshorn.inject.scope.WeakScopeReference;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class WeakScopeReferenceTests {
+
+    @Test
+    void testReferenceIsNotEqualToReferentInEitherDirection() {
+        Scope scope = ScopeAdapter.of("scope");
+        WeakScopeReference reference = WeakScopeReference.of(scope);
+
+        Assertions.assertNotEquals(reference, scope);
+        Assertions.assertNotEquals(scope, reference);
+    }
+
+    @Test
+    void testReferencesToEqualScopesAreEqualInBothDirections() {
+        WeakScopeReference first = WeakScopeReference.of(ScopeAdapter.of("scope"));
+        WeakScopeReference second = WeakScopeReference.of(ScopeAdapter.of("scope"));
+
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(second, first);
+        Assertions.assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    void testReferencesToDifferentScopesAreNotEqual() {
+        WeakScopeReference first = WeakScopeReference.of(ScopeAdapter.of("first"));
+        WeakScopeReference second = WeakScopeReference.of(ScopeAdapter.of("second"));
+
+        Assertions.assertNotEquals(first, second);
+        Assertions.assertNotEquals(second, first);
+    }
+
+    @Test
+    void testUnwrapReturnsReferent() {
+        Scope scope = ScopeAdapter.of("scope");
+        WeakScopeReference reference = WeakScopeReference.of(scope);
+
+        Assertions.assertSame(scope, WeakScopeReference.unwrap(reference));
+        Assertions.assertSame(scope, WeakScopeReference.unwrap(scope));
+        Assertions.assertSame(reference, WeakScopeReference.of(reference));
+    }
+}
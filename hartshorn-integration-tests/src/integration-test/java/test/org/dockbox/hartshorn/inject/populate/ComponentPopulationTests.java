@@ -17,11 +17,17 @@
 package test.org.dockbox.hartshorn.inject.populate;
 
 import org.dockbox.hartshorn.context.DefaultContext;
+import org.dockbox.hartshorn.inject.ComponentKey;
+import org.dockbox.hartshorn.inject.InjectorEnvironment;
 import org.dockbox.hartshorn.inject.annotations.Inject;
+import org.dockbox.hartshorn.inject.annotations.Required;
 import org.dockbox.hartshorn.inject.populate.ComponentPopulationStrategy;
 import org.dockbox.hartshorn.inject.populate.ComponentPopulator;
 import org.dockbox.hartshorn.inject.populate.InjectPopulationStrategy;
+import org.dockbox.hartshorn.inject.populate.InjectionPlan;
 import org.dockbox.hartshorn.inject.populate.PopulateComponentContext;
+import org.dockbox.hartshorn.inject.populate.StrategyComponentPopulator;
+import org.dockbox.hartshorn.inject.targets.AnnotatedInjectionPointRequireRule;
 import org.dockbox.hartshorn.inject.targets.ComponentFieldInjectionPoint;
 import org.dockbox.hartshorn.inject.targets.ComponentInjectionPoint;
 import org.dockbox.hartshorn.inject.targets.ComponentMethodInjectionPoint;
@@ -35,9 +41,12 @@
 import org.dockbox.hartshorn.util.introspect.view.MethodView;
 import org.dockbox.hartshorn.util.introspect.view.TypeView;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.function.Function;
 
 import test.org.dockbox.hartshorn.inject.provider.SampleImplementation;
@@ -110,17 +119,75 @@ public void testTypesCanBePopulated(@Inject ComponentPopulator populator) {
         Assertions.assertEquals(SampleImplementation.NAME, populatedType.sampleInterface().name());
     }
 
+    @Test
+    void testInjectionPlanContainsAllInjectionPoints() {
+        InjectionPlan<PopulationTestComponent> plan = this.createPlan(PopulationTestComponent.class);
+
+        Set<String> names = plan.injectionPoints().stream()
+                .map(injectionPoint -> injectionPoint.declaration().name())
+                .collect(Collectors.toSet());
+        Assertions.assertEquals(Set.of("context", "applicationContext", "setApplicationContext", "setContexts"), names);
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> plan.injectionPoints().clear());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> plan.entries().clear());
+    }
+
+    @Test
+    void testInjectionPlanContainsResolvedKeysAndRequiredState() {
+        InjectionPlan<RequiredTestComponent> plan = this.createPlan(RequiredTestComponent.class);
+        List<InjectionPlan.Entry<RequiredTestComponent>> entries = plan.entries();
+        Assertions.assertEquals(1, entries.size());
+
+        InjectionPlan.Entry<RequiredTestComponent> entry = entries.getFirst();
+        Assertions.assertTrue(entry.injectable());
+        Assertions.assertEquals(2, entry.dependencies().size());
+
+        InjectionPlan.Dependency required = entry.dependencies().get(0);
+        Assertions.assertEquals(ComponentKey.of(ApplicationContext.class), required.componentKey());
+        Assertions.assertTrue(required.required());
+
+        InjectionPlan.Dependency optional = entry.dependencies().get(1);
+        Assertions.assertEquals(ComponentKey.of(SampleContext.class), optional.componentKey());
+        Assertions.assertFalse(optional.required());
+    }
+
+    @Test
+    @TestComponents(bindings = @TestBinding(type = SampleInterface.class, implementation = SampleImplementation.class))
+    public void testInjectionPlanIsReusedForInstancesOfSameType(@Inject ComponentPopulator populator) {
+        Assumptions.assumeTrue(populator instanceof StrategyComponentPopulator);
+        StrategyComponentPopulator strategyPopulator = (StrategyComponentPopulator) populator;
+
+        PopulatedType first = populator.populate(new PopulatedType());
+        PopulatedType second = populator.populate(new PopulatedType());
+        Assertions.assertNotNull(first.sampleInterface());
+        Assertions.assertNotNull(second.sampleInterface());
+
+        TypeView<PopulatedType> typeView = this.applicationContext.environment().introspector().introspect(PopulatedType.class);
+        InjectionPlan<PopulatedType> plan = strategyPopulator.injectionPlan(typeView);
+        Assertions.assertSame(plan, strategyPopulator.injectionPlan(typeView));
+        Assertions.assertEquals(1, plan.injectionPoints().size());
+        Assertions.assertSame(plan.injectionPoints().getFirst().injectionPoints(), plan.injectionPoints().getFirst().injectionPoints());
+    }
+
     private PopulationTestComponent createAndPopulateComponent(ComponentPopulationStrategy strategy, Function<TypeView<PopulationTestComponent>, ComponentInjectionPoint<PopulationTestComponent>> injectionPointProvider) {
         PopulationTestComponent component = new PopulationTestComponent();
         TypeView<PopulationTestComponent> typeView = this.applicationContext.environment().introspector().introspect(component);
         PopulateComponentContext<PopulationTestComponent> componentContext = new PopulateComponentContext<>(component, component, typeView, applicationContext);
 
         ComponentInjectionPoint<PopulationTestComponent> injectionPoint = injectionPointProvider.apply(typeView);
-        Assertions.assertDoesNotThrow(() -> strategy.populate(componentContext, injectionPoint));
+        InjectorEnvironment environment = this.applicationContext.environment();
+        InjectionPlan.Entry<PopulationTestComponent> entry = InjectionPlan.Entry.create(injectionPoint,
+                environment.injectionPointsResolver(), environment.componentKeyResolver(), Set.of(new AnnotatedInjectionPointRequireRule()));
+        Assertions.assertDoesNotThrow(() -> strategy.populate(componentContext, entry));
 
         return component;
     }
 
+    private <T> InjectionPlan<T> createPlan(Class<T> type) {
+        InjectorEnvironment environment = this.applicationContext.environment();
+        TypeView<T> typeView = environment.introspector().introspect(type);
+        return InjectionPlan.create(typeView, environment.injectionPointsResolver(), environment.componentKeyResolver(), Set.of(new AnnotatedInjectionPointRequireRule()));
+    }
+
     private static ComponentInjectionPoint<PopulationTestComponent> createFieldInjectionPoint(String fieldName, TypeView<PopulationTestComponent> typeView) {
         FieldView<PopulationTestComponent, ?> fieldView = typeView.fields().named(fieldName).get();
         return new ComponentFieldInjectionPoint<>(fieldView);
@@ -151,5 +218,12 @@ public void setContexts(ApplicationContext applicationContext, SampleContext con
         }
     }
 
+    public static class RequiredTestComponent {
+
+        @Inject
+        public void setContexts(@Required ApplicationContext applicationContext, @Required(false) SampleContext context) {
+        }
+    }
+
     public static class SampleContext extends DefaultContext {}
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.inject.provider;
+
+import java.lang.management.ManagementFactory;
+
+import org.dockbox.hartshorn.inject.ComponentKey;
+import org.dockbox.hartshorn.inject.ComponentRequestContext;
+import org.dockbox.hartshorn.inject.annotations.Inject;
+import org.dockbox.hartshorn.inject.provider.ComponentProvider;
+import org.dockbox.hartshorn.inject.provider.ComponentProviderOrchestrator;
+import org.dockbox.hartshorn.inject.provider.strategy.ComponentResolutionPlan;
+import org.dockbox.hartshorn.inject.provider.strategy.StrategyChainComponentProvider;
+import org.dockbox.hartshorn.launchpad.ApplicationContext;
+import org.dockbox.hartshorn.test.junit.HartshornIntegrationTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+@HartshornIntegrationTest(includeBasePackages = false)
+public class ComponentProviderAllocationTests {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 10_000;
+
+    @Inject
+    private ApplicationContext applicationContext;
+
+    @Test
+    void testResolutionPlanIsReusedBetweenRequests() {
+        this.applicationContext.bind(SampleInterface.class).singleton(new SampleImplementation());
+        ComponentProvider provider = this.applicationProvider();
+        Assertions.assertInstanceOf(StrategyChainComponentProvider.class, provider);
+
+        StrategyChainComponentProvider strategyProvider = (StrategyChainComponentProvider) provider;
+        ComponentResolutionPlan plan = strategyProvider.resolutionPlan();
+        Assertions.assertTrue(plan.singletonCacheFirst());
+
+        provider.get(SampleInterface.class);
+        provider.get(SampleInterface.class);
+        Assertions.assertSame(plan, strategyProvider.resolutionPlan());
+    }
+
+    @Test
+    void testCachedSingletonLookupDoesNotAllocate() {
+        SampleImplementation instance = new SampleImplementation();
+        this.applicationContext.bind(SampleInterface.class).singleton(instance);
+
+        ComponentProvider provider = this.applicationProvider();
+        ComponentKey<SampleInterface> key = ComponentKey.of(SampleInterface.class);
+        ComponentRequestContext requestContext = ComponentRequestContext.createForComponent();
+
+        long bytesPerLookup = measureAllocatedBytesPerLookup(provider, key, requestContext);
+        Assertions.assertEquals(0, bytesPerLookup, "Cached singleton lookup allocated " + bytesPerLookup + " bytes per call");
+        Assertions.assertSame(instance, provider.get(key, requestContext));
+    }
+
+    private ComponentProvider applicationProvider() {
+        ComponentProviderOrchestrator orchestrator = (ComponentProviderOrchestrator) this.applicationContext.defaultProvider();
+        return orchestrator.applicationProvider();
+    }
+
+    static long measureAllocatedBytesPerLookup(ComponentProvider provider, ComponentKey<?> key, ComponentRequestContext requestContext) {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            Assertions.assertNotNull(provider.get(key, requestContext));
+        }
+
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            provider.get(key, requestContext);
+        }
+        long after = threadMXBean.getThreadAllocatedBytes(threadId);
+        return (after - before) / MEASURED_ITERATIONS;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.inject.scope;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dockbox.hartshorn.inject.ComponentKey;
+import org.dockbox.hartshorn.inject.InjectionCapableApplication;
+import org.dockbox.hartshorn.inject.annotations.Inject;
+import org.dockbox.hartshorn.inject.binding.HierarchicalBinder;
+import org.dockbox.hartshorn.inject.processing.HierarchicalBinderPostProcessor;
+import org.dockbox.hartshorn.inject.provider.ComponentProviderOrchestrator;
+import org.dockbox.hartshorn.inject.scope.Scope;
+import org.dockbox.hartshorn.inject.scope.ScopeAdapter;
+import org.dockbox.hartshorn.launchpad.ApplicationContext;
+import org.dockbox.hartshorn.test.junit.HartshornIntegrationTest;
+import org.dockbox.hartshorn.util.introspect.ParameterizableType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+@HartshornIntegrationTest(includeBasePackages = false)
+public class ScopeConcurrencyTests {
+
+    private static final int THREADS = 16;
+    private static final int SCOPES = 32;
+    private static final int ITERATIONS = 50;
+
+    @Inject
+    private ApplicationContext applicationContext;
+
+    @Test
+    void testConcurrentScopeResolutionCreatesSingleProviderPerScope() throws Exception {
+        ComponentProviderOrchestrator orchestrator = (ComponentProviderOrchestrator) this.applicationContext.defaultProvider();
+        ScopeCountingPostProcessor counter = new ScopeCountingPostProcessor();
+        orchestrator.binderProcessorRegistry().register(counter);
+
+        List<Scope> scopes = new ArrayList<>();
+        for (int i = 0; i < SCOPES; i++) {
+            scopes.add(scopeFor("scope-" + i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch startGate = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(() -> {
+                    // Each thread uses its own, equal scope instances to verify equality-based lookups
+                    List<Scope> threadScopes = new ArrayList<>();
+                    for (int i = 0; i < SCOPES; i++) {
+                        threadScopes.add(scopeFor("scope-" + i));
+                    }
+                    Collections.shuffle(threadScopes);
+                    startGate.await();
+                    for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                        for (Scope scope : threadScopes) {
+                            ComponentKey<String> key = ComponentKey.builder(String.class).scope(scope).build();
+                            Assertions.assertNotNull(this.applicationContext.get(key));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            startGate.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+            orchestrator.binderProcessorRegistry().unregister(counter);
+        }
+
+        Assertions.assertEquals(SCOPES, counter.creations().size());
+        for (Scope scope : scopes) {
+            Assertions.assertTrue(orchestrator.containsScope(scope));
+            Assertions.assertEquals(1, counter.creations().get(scope).get(), "Provider created more than once for " + scope);
+        }
+    }
+
+    @Test
+    void testApplicationScopeIsNotTrackedAsScopedProvider() {
+        ComponentProviderOrchestrator orchestrator = (ComponentProviderOrchestrator) this.applicationContext.defaultProvider();
+        Scope applicationScope = orchestrator.scope();
+        Assertions.assertTrue(orchestrator.containsScope(applicationScope));
+        Assertions.assertSame(orchestrator.applicationProvider(), orchestrator.applicationProvider());
+    }
+
+    @Test
+    void testProviderDoesNotRetainCollectedScope() throws InterruptedException {
+        ComponentProviderOrchestrator orchestrator = (ComponentProviderOrchestrator) this.applicationContext.defaultProvider();
+        WeakReference<Scope> scopeReference = this.resolveInDiscardedScope(orchestrator);
+
+        for (int attempt = 0; attempt < 50 && scopeReference.get() != null; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assertions.assertNull(scopeReference.get(), "Scope remained reachable through its provider");
+    }
+
+    private WeakReference<Scope> resolveInDiscardedScope(ComponentProviderOrchestrator orchestrator) {
+        Scope scope = ScopeAdapter.of(new Object());
+        ComponentKey<String> key = ComponentKey.builder(String.class).scope(scope).build();
+        Assertions.assertNotNull(this.applicationContext.get(key));
+        Assertions.assertTrue(orchestrator.containsScope(scope));
+        return new WeakReference<>(scope);
+    }
+
+    private static Scope scopeFor(String name) {
+        return ScopeAdapter.of(name, ParameterizableType.create(String.class));
+    }
+
+    private static class ScopeCountingPostProcessor implements HierarchicalBinderPostProcessor {
+
+        private final Map<Scope, AtomicInteger> creations = new ConcurrentHashMap<>();
+
+        @Override
+        public void process(InjectionCapableApplication application, Scope scope, HierarchicalBinder binder) {
+            this.creations.computeIfAbsent(scope, key -> new AtomicInteger()).incrementAndGet();
+        }
+
+        @Override
+        public int priority() {
+            return 0;
+        }
+
+        public Map<Scope, AtomicInteger> creations() {
+            return this.creations;
+        }
+    }
+}
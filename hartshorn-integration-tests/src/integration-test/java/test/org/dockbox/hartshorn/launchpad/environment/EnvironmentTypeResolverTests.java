@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package test.org.dockbox.hartshorn.launchpad.environment;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Collection;
+import java.util.Set;
+
+import org.dockbox.hartshorn.inject.annotations.Inject;
+import org.dockbox.hartshorn.launchpad.ApplicationContext;
+import org.dockbox.hartshorn.launchpad.environment.EnvironmentTypeResolver;
+import org.dockbox.hartshorn.test.junit.HartshornIntegrationTest;
+import org.dockbox.hartshorn.util.introspect.scan.PredefinedSetTypeReferenceCollector;
+import org.dockbox.hartshorn.util.introspect.scan.TypeReferenceCollectorContext;
+import org.dockbox.hartshorn.util.introspect.view.TypeView;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+@HartshornIntegrationTest(includeBasePackages = false)
+public class EnvironmentTypeResolverTests {
+
+    @Inject
+    private ApplicationContext applicationContext;
+
+    @Test
+    void testTypesOfLateCollectorsAreResolved(@Inject TypeReferenceCollectorContext collectorContext) {
+        EnvironmentTypeResolver resolver = this.applicationContext.environment().typeResolver();
+        Assertions.assertTrue(resolver.types(LateAnnotation.class).isEmpty());
+
+        collectorContext.register(PredefinedSetTypeReferenceCollector.of(Set.of(LateAnnotatedType.class)));
+
+        Collection<TypeView<?>> types = resolver.types(LateAnnotation.class);
+        Assertions.assertEquals(1, types.size());
+        Assertions.assertSame(LateAnnotatedType.class, types.iterator().next().type());
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface LateAnnotation {
+    }
+
+    @LateAnnotation
+    public static class LateAnnotatedType {
+    }
+}
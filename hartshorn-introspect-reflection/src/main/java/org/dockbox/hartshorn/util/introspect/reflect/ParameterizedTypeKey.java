@@ -0,0 +1,222 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.util.introspect.reflect;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.dockbox.hartshorn.util.option.Option;
+
+/**
+ * Structural key of a {@link ParameterizedType}. Implementations of {@link ParameterizedType} typically only
+ * consider instances of the same implementation equal, so a type obtained through reflection is not equal to
+ * the same type represented by a {@link org.dockbox.hartshorn.util.introspect.ParameterizableType}. Keys
+ * are canonicalized recursively instead, so two keys are equal if they represent the same raw type with the
+ * same type arguments, regardless of how these types are represented. Parameterized types without type
+ * arguments or owner are considered equal to their raw type.
+ *
+ * <p>Each key is anchored to one of the classes it references. The anchor is the class with the most specific
+ * class loader, so all other referenced classes are visible from the class loader of the anchor. This allows
+ * keys and their views to be cached for as long as the anchor is loaded, without keeping any other class
+ * loader alive. If the referenced classes were loaded by unrelated class loaders, there is no such anchor and
+ * no key is created.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+final class ParameterizedTypeKey {
+
+    private final Object key;
+    private final Class<?> anchor;
+    private final int hashCode;
+
+    private ParameterizedTypeKey(Object key, Class<?> anchor) {
+        this.key = key;
+        this.anchor = anchor;
+        this.hashCode = key.hashCode();
+    }
+
+    /**
+     * Creates a key for the given type. If the type contains types which are not supported, or references
+     * classes of unrelated class loaders, no key is created.
+     *
+     * @param type the type to create a key for
+     * @return the key, if it can be created
+     */
+    static Option<ParameterizedTypeKey> of(ParameterizedType type) {
+        List<Class<?>> classes = new ArrayList<>();
+        Object key = canonicalize(type, classes);
+        if (key == null) {
+            return Option.empty();
+        }
+        return anchor(classes).map(anchor -> new ParameterizedTypeKey(key, anchor));
+    }
+
+    /**
+     * Returns the class to which this key is anchored. All classes referenced by this key are visible from the
+     * class loader of this class.
+     *
+     * @return the anchor of this key
+     */
+    Class<?> anchor() {
+        return this.anchor;
+    }
+
+    private static Object canonicalize(Type type, Collection<Class<?>> classes) {
+        return switch (type) {
+            case null -> null;
+            case Class<?> clazz -> {
+                classes.add(clazz);
+                yield clazz;
+            }
+            case ParameterizedType parameterizedType -> {
+                Object rawType = canonicalize(parameterizedType.getRawType(), classes);
+                Type ownerType = parameterizedType.getOwnerType();
+                if (ownerType == null && parameterizedType.getActualTypeArguments().length == 0) {
+                    // ParameterizableType represents type arguments without parameters as parameterized types,
+                    // while reflection represents them as classes.
+                    yield rawType;
+                }
+                Object owner = ownerType != null ? canonicalize(ownerType, classes) : NoOwner.INSTANCE;
+                List<Object> arguments = canonicalize(parameterizedType.getActualTypeArguments(), classes);
+                yield rawType == null || owner == null || arguments == null
+                        ? null
+                        : new ParameterizedKey(rawType, owner, arguments);
+            }
+            case WildcardType wildcardType -> {
+                List<Object> upperBounds = canonicalize(wildcardType.getUpperBounds(), classes);
+                List<Object> lowerBounds = canonicalize(wildcardType.getLowerBounds(), classes);
+                yield upperBounds == null || lowerBounds == null
+                        ? null
+                        : new WildcardKey(upperBounds, lowerBounds);
+            }
+            case TypeVariable<?> typeVariable -> {
+                // Bounds are not part of the key, as variables are identified by their declaration. This also
+                // avoids infinite recursion for recursive bounds like 'T extends Comparable<T>'.
+                GenericDeclaration declaration = typeVariable.getGenericDeclaration();
+                if (declaration instanceof Class<?> clazz) {
+                    classes.add(clazz);
+                }
+                else if (declaration instanceof Executable executable) {
+                    classes.add(executable.getDeclaringClass());
+                }
+                else {
+                    yield null;
+                }
+                yield new VariableKey(declaration, typeVariable.getName());
+            }
+            case GenericArrayType arrayType -> {
+                Object componentType = canonicalize(arrayType.getGenericComponentType(), classes);
+                yield componentType == null ? null : new ArrayKey(componentType);
+            }
+            default -> null;
+        };
+    }
+
+    private static List<Object> canonicalize(Type[] types, Collection<Class<?>> classes) {
+        List<Object> keys = new ArrayList<>(types.length);
+        for (Type type : types) {
+            Object key = canonicalize(type, classes);
+            if (key == null) {
+                return null;
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private static Option<Class<?>> anchor(Collection<Class<?>> classes) {
+        Class<?> anchor = null;
+        for (Class<?> type : classes) {
+            if (anchor == null) {
+                anchor = type;
+                continue;
+            }
+            ClassLoader anchorLoader = anchor.getClassLoader();
+            ClassLoader typeLoader = type.getClassLoader();
+            if (anchorLoader == typeLoader || isAncestor(typeLoader, anchorLoader)) {
+                continue;
+            }
+            if (isAncestor(anchorLoader, typeLoader)) {
+                anchor = type;
+            }
+            else {
+                return Option.empty();
+            }
+        }
+        return Option.of(anchor);
+    }
+
+    private static boolean isAncestor(ClassLoader ancestor, ClassLoader classLoader) {
+        if (ancestor == null) {
+            // Bootstrap class loader
+            return true;
+        }
+        for (ClassLoader current = classLoader; current != null; current = current.getParent()) {
+            if (current == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof ParameterizedTypeKey that)) {
+            return false;
+        }
+        return this.hashCode == that.hashCode && this.key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return this.key.toString();
+    }
+
+    private enum NoOwner {
+        INSTANCE
+    }
+
+    private record ParameterizedKey(Object rawType, Object ownerType, List<Object> arguments) {
+    }
+
+    private record WildcardKey(List<Object> upperBounds, List<Object> lowerBounds) {
+    }
+
+    private record VariableKey(GenericDeclaration declaration, String name) {
+    }
+
+    private record ArrayKey(Object componentType) {
+    }
+}
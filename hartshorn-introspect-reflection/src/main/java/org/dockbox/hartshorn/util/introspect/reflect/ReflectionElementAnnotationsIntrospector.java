@@ -20,21 +20,30 @@
 import org.dockbox.hartshorn.util.introspect.ElementAnnotationsIntrospector;
 import org.dockbox.hartshorn.util.introspect.Introspector;
 import org.dockbox.hartshorn.util.introspect.annotations.AnnotationLookup;
+import org.dockbox.hartshorn.util.introspect.annotations.CircularHierarchyException;
 import org.dockbox.hartshorn.util.option.Option;
 
 import java.lang.annotation.Annotation;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.AnnotatedElement;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 /**
- * TODO: #1059 Add documentation
+ * Reflection-based implementation of {@link ElementAnnotationsIntrospector}, which supports virtual annotation
+ * hierarchies through the configured {@link AnnotationLookup}.
+ *
+ * <p>The annotations of the element are collected once into an immutable snapshot. Besides the annotations that are
+ * present on the element, this snapshot contains all annotation types that can be resolved on the element through
+ * the hierarchies of these annotations. Annotation types outside this set are known to be absent, so most lookups
+ * are answered without consulting the {@link AnnotationLookup}. Virtual annotations are resolved when they are first
+ * requested, after which both present and absent results are cached.
  *
  * @since 0.4.13
  *
@@ -45,7 +54,10 @@ public class ReflectionElementAnnotationsIntrospector implements ElementAnnotati
     private final Introspector introspector;
     private final AnnotatedElement element;
     private final AnnotationLookup annotationLookup;
-    private Map<Class<?>, Annotation> annotationCache;
+
+    private final Map<Class<?>, Option<Annotation>> virtualAnnotations = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Set<Annotation>> annotatedWith = new ConcurrentHashMap<>();
+    private volatile AnnotationSnapshot snapshot;
 
     public ReflectionElementAnnotationsIntrospector(Introspector introspector, AnnotatedElement element) {
         this(introspector, element, introspector.annotations());
@@ -58,27 +70,38 @@ public ReflectionElementAnnotationsIntrospector(Introspector introspector, Annot
     }
 
     protected Map<Class<?>, Annotation> annotationCache() {
-        if (this.annotationCache == null) {
-            this.annotationCache = new ConcurrentHashMap<>();
-            for (Annotation annotation : this.element.getAnnotations()) {
-                this.annotationCache.put(annotation.annotationType(), annotation);
-            }
+        return this.snapshot().present();
+    }
+
+    private AnnotationSnapshot snapshot() {
+        AnnotationSnapshot snapshot = this.snapshot;
+        if (snapshot == null) {
+            // Snapshots are immutable, so concurrent initialization at worst creates an equal snapshot twice
+            snapshot = AnnotationSnapshot.of(this.element, this.annotationLookup);
+            this.snapshot = snapshot;
         }
-        return this.annotationCache;
+        return snapshot;
     }
 
     @Override
     public Set<Annotation> all() {
-        return this.annotationCache().values().stream()
-            .filter(Objects::nonNull)
-            .collect(Collectors.toSet());
+        return this.snapshot().all();
     }
 
     @Override
     public Set<Annotation> annotedWith(Class<? extends Annotation> annotation) {
-        return this.all().stream()
-                .filter(presentAnnotation -> this.introspector.introspect(presentAnnotation.annotationType()).annotations().has(annotation))
-                .collect(Collectors.toSet());
+        Set<Annotation> annotations = this.annotatedWith.get(annotation);
+        if (annotations == null) {
+            Set<Annotation> matches = new HashSet<>();
+            for (Annotation presentAnnotation : this.all()) {
+                if (this.introspector.introspect(presentAnnotation.annotationType()).annotations().has(annotation)) {
+                    matches.add(presentAnnotation);
+                }
+            }
+            annotations = Set.copyOf(matches);
+            this.annotatedWith.putIfAbsent(annotation, annotations);
+        }
+        return annotations;
     }
 
     @Override
@@ -88,41 +111,62 @@ public boolean has(Class<? extends Annotation> annotation) {
 
     @Override
     public boolean hasAny(Set<Class<? extends Annotation>> annotations) {
-        return annotations.stream().anyMatch(this::has);
+        for (Class<? extends Annotation> annotation : annotations) {
+            if (this.has(annotation)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public boolean hasAll(Set<Class<? extends Annotation>> annotations) {
-        return annotations.stream().allMatch(this::has);
+        for (Class<? extends Annotation> annotation : annotations) {
+            if (!this.has(annotation)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public <T extends Annotation> Option<T> get(Class<T> annotation) {
-        if (!TypeUtils.hasRetentionPolicy(annotation, RetentionPolicy.RUNTIME)) {
-            // Cannot introspect annotations that are not retained at runtime, so don't waste
-            // time looking for them.
-            assert false : "Annotation " + annotation.getName() + " is not retained at runtime";
-            return Option.empty();
+        AnnotationSnapshot snapshot = this.snapshot();
+        Annotation present = snapshot.present().get(annotation);
+        if (present != null) {
+            return Option.of(annotation.cast(present));
         }
-        if (!annotation.isAnnotation()) {
+        if (snapshot.isKnownAbsent(annotation)) {
+            // Only validated for absent annotations, as present annotations are always retained at runtime
+            assert TypeUtils.hasRetentionPolicy(annotation, RetentionPolicy.RUNTIME)
+                    : "Annotation " + annotation.getName() + " is not retained at runtime";
             return Option.empty();
         }
 
-        Map<Class<?>, Annotation> annotations = this.annotationCache();
-        if (annotations.containsKey(annotation)) {
-            return Option.of(() -> annotation.cast(annotations.get(annotation)));
+        Option<Annotation> virtual = this.virtualAnnotations.get(annotation);
+        if (virtual == null) {
+            virtual = Option.of(this.findVirtual(annotation));
+            this.virtualAnnotations.putIfAbsent(annotation, virtual);
         }
+        return virtual.map(annotation::cast);
+    }
 
-        T virtual = this.annotationLookup.find(this.element, annotation);
-        if (virtual != null) {
-            annotations.put(annotation, virtual);
+    private <T extends Annotation> T findVirtual(Class<T> annotation) {
+        if (!TypeUtils.hasRetentionPolicy(annotation, RetentionPolicy.RUNTIME)) {
+            // Cannot introspect annotations that are not retained at runtime, so don't waste
+            // time looking for them.
+            assert false : "Annotation " + annotation.getName() + " is not retained at runtime";
+            return null;
+        }
+        if (!annotation.isAnnotation()) {
+            return null;
         }
-        return Option.of(virtual);
+        return this.annotationLookup.find(this.element, annotation);
     }
 
     @Override
     public <T extends Annotation> Set<T> all(Class<T> annotation) {
-        if (!annotation.isAnnotation()) {
+        if (!annotation.isAnnotation() || this.snapshot().isKnownAbsent(annotation)) {
             return Collections.emptySet();
         }
         List<T> annotations = this.annotationLookup.findAll(this.element, annotation);
@@ -131,6 +175,49 @@ public <T extends Annotation> Set<T> all(Class<T> annotation) {
 
     @Override
     public int count() {
-        return this.annotationCache().size();
+        return this.snapshot().present().size();
+    }
+
+    /**
+     * Immutable view of the annotations of an element.
+     *
+     * @param present the annotations present on the element, by their type
+     * @param all the annotations present on the element
+     * @param resolvable all annotation types which may be resolved on the element, or {@code null} if this could not
+     *                   be determined
+     */
+    private record AnnotationSnapshot(
+            Map<Class<?>, Annotation> present,
+            Set<Annotation> all,
+            Set<Class<?>> resolvable
+    ) {
+
+        private static AnnotationSnapshot of(AnnotatedElement element, AnnotationLookup annotationLookup) {
+            Map<Class<?>, Annotation> present = new HashMap<>();
+            Set<Class<?>> resolvable = new HashSet<>();
+            for (Annotation annotation : element.getAnnotations()) {
+                present.put(annotation.annotationType(), annotation);
+                if (resolvable != null) {
+                    try {
+                        Class<? extends Annotation> actualType = annotationLookup.unproxy(annotation).annotationType();
+                        resolvable.addAll(annotationLookup.annotationHierarchy(actualType));
+                    }
+                    catch (CircularHierarchyException e) {
+                        // Reported by the lookup when the hierarchy is requested, so do not fail on unrelated
+                        // annotations here
+                        resolvable = null;
+                    }
+                }
+            }
+            return new AnnotationSnapshot(
+                    Collections.unmodifiableMap(present),
+                    Collections.unmodifiableSet(new LinkedHashSet<>(present.values())),
+                    resolvable
+            );
+        }
+
+        private boolean isKnownAbsent(Class<?> annotation) {
+            return this.resolvable != null && !this.resolvable.contains(annotation);
+        }
     }
 }
@@ -63,7 +63,9 @@
  * <p>While caches are application specific and non-static by default, this implementation is
  * suitable for multi-application environments. If shared caching is desired (e.g. to reduce
  * memory footprint), a shared cache can be enabled by {@link #enableBatchMode(boolean) enabling
- * batch mode}. Note that this will need to be enabled for all applications.
+ * batch mode}. Note that this will need to be enabled for all applications. The shared cache does
+ * not prevent introspected classes from being unloaded, and can be bounded through the {@value
+ * #SHARED_CACHE_SIZE_PROPERTY} system property.
  *
  * <p>This implementation is proxy-aware, meaning that calls to {@link #introspect(Object)} will
  * return the introspection view of the unproxied type. This is done by using the provided
@@ -76,7 +78,11 @@
  */
 public class ReflectionIntrospector implements BatchCapableIntrospector {
 
-    private static final ConcurrentIntrospectionViewCache SHARED_CACHE = new ConcurrentIntrospectionViewCache();
+    public static final String SHARED_CACHE_SIZE_PROPERTY = "hartshorn.introspect.shared-cache.maximum-size";
+
+    private static final ConcurrentIntrospectionViewCache SHARED_CACHE = ConcurrentIntrospectionViewCache.classBound(
+            Integer.getInteger(SHARED_CACHE_SIZE_PROPERTY, ConcurrentIntrospectionViewCache.UNBOUNDED)
+    );
     private static final ClassLoader DEFAULT_CLASS_LOADER = Thread.currentThread().getContextClassLoader();
 
     private final ConcurrentIntrospectionViewCache viewCache = new ConcurrentIntrospectionViewCache();
@@ -149,8 +155,13 @@ public TypeView<?> introspect(Type type) {
 
     @Override
     public TypeView<?> introspect(ParameterizedType type) {
-        // Do not use cache here, as the type is parameterized
-        return new ReflectionTypeView<>(this, type);
+        // Parameterized types are cached by their structure, as different implementations of the same type are
+        // typically not equal to each other
+        Option<ParameterizedTypeKey> key = ParameterizedTypeKey.of(type);
+        if (key.absent()) {
+            return new ReflectionTypeView<>(this, type);
+        }
+        return this.viewCache().computeIfAbsent(key.get().anchor(), key.get(), () -> new ReflectionTypeView<>(this, type));
     }
 
     @Override
@@ -0,0 +1,387 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.util.introspect.reflect;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.dockbox.hartshorn.util.introspect.MethodInvoker;
+import org.dockbox.hartshorn.util.option.Option;
+
+/**
+ * Compiles fields, methods and constructors into functional accessors which avoid the overhead of
+ * core reflection. Where possible, methods and constructors are compiled into lambdas through the
+ * {@link LambdaMetafactory}, which the JIT compiler can inline like any regular call. Members for
+ * which this is not possible, because they are static, return {@code void}, have too many parameters,
+ * or cannot be accessed through a private {@link Lookup}, are compiled into spreading {@link
+ * MethodHandle}s instead. Fields are always compiled into {@link MethodHandle}s, as the {@link
+ * LambdaMetafactory} does not support field access.
+ *
+ * <p>Compiled accessors rely on the accessibility of the given member. If the member is not
+ * accessible, and cannot be made accessible, compilation fails with an {@link IllegalAccessException}.
+ * Compilation is relatively expensive, so accessors are typically compiled through a {@link
+ * TieredAccessor}, which only compiles members that are used frequently.
+ *
+ * <p>Exceptions thrown by the compiled member are rethrown as-is, similar to the unwrapped cause of
+ * an {@link java.lang.reflect.InvocationTargetException} thrown by reflective calls.
+ *
+ * @see TieredAccessor
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public final class ReflectiveAccessorCompiler {
+
+    /**
+     * The maximum amount of arguments (including the instance for instance methods) that can be
+     * passed to a lambda created by the {@link LambdaMetafactory}.
+     */
+    private static final int MAX_LAMBDA_ARITY = 4;
+    private static final Lookup LOOKUP = MethodHandles.lookup();
+
+    private ReflectiveAccessorCompiler() {
+    }
+
+    /**
+     * Compiles an accessor which reads the value of the given field. Static fields ignore the
+     * instance that is passed to the accessor.
+     *
+     * @param field the field to read
+     * @param <T> the type of the field
+     * @param <P> the type of the instance
+     * @return the compiled accessor
+     * @throws IllegalAccessException if the field is not accessible
+     */
+    public static <T, P> ReflectiveFieldAccess<T, P> fieldAccess(Field field) throws IllegalAccessException {
+        MethodHandle getter = LOOKUP.unreflectGetter(field);
+        if (Modifier.isStatic(field.getModifiers())) {
+            getter = MethodHandles.dropArguments(getter, 0, Object.class);
+        }
+        MethodHandle handle = getter.asType(MethodType.methodType(Object.class, Object.class));
+        return instance -> Option.of((T) handle.invokeExact((Object) instance));
+    }
+
+    /**
+     * Compiles an accessor which writes the value of the given field. Static fields ignore the
+     * instance that is passed to the accessor.
+     *
+     * @param field the field to write
+     * @param <T> the type of the field
+     * @param <P> the type of the instance
+     * @return the compiled accessor
+     * @throws IllegalAccessException if the field is not accessible, or is final
+     */
+    public static <T, P> ReflectiveFieldWriter<T, P> fieldWriter(Field field) throws IllegalAccessException {
+        MethodHandle setter = LOOKUP.unreflectSetter(field);
+        if (Modifier.isStatic(field.getModifiers())) {
+            setter = MethodHandles.dropArguments(setter, 0, Object.class);
+        }
+        MethodHandle handle = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (instance, value) -> {
+            // Statement form is required for the call site to be typed as void
+            handle.invokeExact((Object) instance, (Object) value);
+        };
+    }
+
+    /**
+     * Compiles an accessor which invokes the given method. Static methods ignore the instance that is
+     * passed to the accessor. As the accessor is compiled for a single method, the {@link
+     * org.dockbox.hartshorn.util.introspect.view.MethodView} that is passed to the accessor is ignored.
+     *
+     * @param method the method to invoke
+     * @param <T> the return type of the method
+     * @param <P> the type of the instance
+     * @return the compiled accessor
+     * @throws IllegalAccessException if the method is not accessible
+     */
+    public static <T, P> MethodInvoker<T, P> methodCall(Method method) throws IllegalAccessException {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        int arity = method.getParameterCount();
+        if (!isStatic && method.getReturnType() != void.class && arity + 1 <= MAX_LAMBDA_ARITY) {
+            Option<Object> lambda = lambda(method.getDeclaringClass(), lookup -> lookup.unreflect(method), arity + 1);
+            if (lambda.present()) {
+                return methodLambdaCall(lambda.get(), arity);
+            }
+        }
+
+        MethodHandle handle = LOOKUP.unreflect(method).asFixedArity();
+        if (isStatic) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        MethodHandle spreader = handle
+                .asType(MethodType.genericMethodType(arity + 1))
+                .asSpreader(Object[].class, arity);
+        return (methodView, instance, args) -> Option.of((T) spreader.invokeExact((Object) instance, args));
+    }
+
+    /**
+     * Compiles an accessor which invokes the given constructor.
+     *
+     * @param constructor the constructor to invoke
+     * @param <T> the type that is constructed
+     * @return the compiled accessor
+     * @throws IllegalAccessException if the constructor is not accessible
+     */
+    public static <T> ReflectiveConstructorCall<T> constructorCall(Constructor<T> constructor) throws IllegalAccessException {
+        int arity = constructor.getParameterCount();
+        if (arity <= MAX_LAMBDA_ARITY && !Modifier.isAbstract(constructor.getDeclaringClass().getModifiers())) {
+            Option<Object> lambda = lambda(constructor.getDeclaringClass(), lookup -> lookup.unreflectConstructor(constructor), arity);
+            if (lambda.present()) {
+                return constructorLambdaCall(lambda.get(), arity);
+            }
+        }
+
+        MethodHandle spreader = LOOKUP.unreflectConstructor(constructor)
+                .asFixedArity()
+                .asType(MethodType.genericMethodType(arity))
+                .asSpreader(Object[].class, arity);
+        return args -> (T) spreader.invokeExact(args);
+    }
+
+    private static Option<Object> lambda(Class<?> declaringClass, HandleFactory factory, int arity) {
+        try {
+            // A private lookup is required, as the lambda is defined as a hidden class in the nest of
+            // the declaring class.
+            Lookup lookup = MethodHandles.privateLookupIn(declaringClass, LOOKUP);
+            MethodHandle implementation = factory.create(lookup);
+            Class<?> functionType = functionType(arity);
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "apply",
+                    MethodType.methodType(functionType),
+                    MethodType.genericMethodType(arity),
+                    implementation,
+                    implementation.type().wrap()
+            );
+            return Option.of(site.getTarget().invoke());
+        }
+        catch (Throwable e) {
+            // Typically caused by modules that do not open the package of the declaring class. The
+            // method handle fallback only requires the member to be accessible.
+            if (e instanceof Error error && !(e instanceof LinkageError)) {
+                throw error;
+            }
+            return Option.empty();
+        }
+    }
+
+    private static Class<?> functionType(int arity) {
+        return switch (arity) {
+            case 0 -> Function0.class;
+            case 1 -> Function1.class;
+            case 2 -> Function2.class;
+            case 3 -> Function3.class;
+            case 4 -> Function4.class;
+            default -> throw new IllegalArgumentException("Unsupported lambda arity: " + arity);
+        };
+    }
+
+    private static <T, P> MethodInvoker<T, P> methodLambdaCall(Object lambda, int arity) {
+        return switch (arity) {
+            case 0 -> {
+                Function1 function = (Function1) lambda;
+                yield (methodView, instance, args) -> {
+                    checkArgumentCount(args, 0);
+                    return Option.of((T) function.apply(instance));
+                };
+            }
+            case 1 -> {
+                Function2 function = (Function2) lambda;
+                yield (methodView, instance, args) -> {
+                    checkArgumentCount(args, 1);
+                    return Option.of((T) function.apply(instance, args[0]));
+                };
+            }
+            case 2 -> {
+                Function3 function = (Function3) lambda;
+                yield (methodView, instance, args) -> {
+                    checkArgumentCount(args, 2);
+                    return Option.of((T) function.apply(instance, args[0], args[1]));
+                };
+            }
+            case 3 -> {
+                Function4 function = (Function4) lambda;
+                yield (methodView, instance, args) -> {
+                    checkArgumentCount(args, 3);
+                    return Option.of((T) function.apply(instance, args[0], args[1], args[2]));
+                };
+            }
+            default -> throw new IllegalArgumentException("Unsupported method arity: " + arity);
+        };
+    }
+
+    private static <T> ReflectiveConstructorCall<T> constructorLambdaCall(Object lambda, int arity) {
+        return switch (arity) {
+            case 0 -> {
+                Function0 function = (Function0) lambda;
+                yield args -> {
+                    checkArgumentCount(args, 0);
+                    return (T) function.apply();
+                };
+            }
+            case 1 -> {
+                Function1 function = (Function1) lambda;
+                yield args -> {
+                    checkArgumentCount(args, 1);
+                    return (T) function.apply(args[0]);
+                };
+            }
+            case 2 -> {
+                Function2 function = (Function2) lambda;
+                yield args -> {
+                    checkArgumentCount(args, 2);
+                    return (T) function.apply(args[0], args[1]);
+                };
+            }
+            case 3 -> {
+                Function3 function = (Function3) lambda;
+                yield args -> {
+                    checkArgumentCount(args, 3);
+                    return (T) function.apply(args[0], args[1], args[2]);
+                };
+            }
+            case 4 -> {
+                Function4 function = (Function4) lambda;
+                yield args -> {
+                    checkArgumentCount(args, 4);
+                    return (T) function.apply(args[0], args[1], args[2], args[3]);
+                };
+            }
+            default -> throw new IllegalArgumentException("Unsupported constructor arity: " + arity);
+        };
+    }
+
+    private static void checkArgumentCount(Object[] args, int expected) {
+        int actual = args == null ? 0 : args.length;
+        if (actual != expected) {
+            // Consistent with reflective invocation
+            throw new IllegalArgumentException("wrong number of arguments: " + actual + " expected: " + expected);
+        }
+    }
+
+    @FunctionalInterface
+    private interface HandleFactory {
+        MethodHandle create(Lookup lookup) throws IllegalAccessException;
+    }
+
+    // Functional interfaces implemented by compiled lambdas. These need to be public, as the lambdas
+    // are defined in the package of the compiled member, not in this package.
+
+    /**
+     * Functional interface implemented by compiled lambdas which accept no arguments. This is used for
+     * constructors without parameters. This interface is only public so compiled lambdas can implement
+     * it, and should not be used directly.
+     */
+    @FunctionalInterface
+    public interface Function0 {
+
+        /**
+         * Invokes the compiled member.
+         *
+         * @return the result of the compiled member
+         * @throws Throwable if the compiled member failed
+         */
+        Object apply() throws Throwable;
+    }
+
+    /**
+     * Functional interface implemented by compiled lambdas which accept a single argument. For instance
+     * methods, the first argument is the instance on which the method is invoked. This interface is
+     * only public so compiled lambdas can implement it, and should not be used directly.
+     */
+    @FunctionalInterface
+    public interface Function1 {
+
+        /**
+         * Invokes the compiled member with the given argument.
+         *
+         * @param first the first argument
+         * @return the result of the compiled member
+         * @throws Throwable if the compiled member failed
+         */
+        Object apply(Object first) throws Throwable;
+    }
+
+    /**
+     * Functional interface implemented by compiled lambdas which accept two arguments. For instance
+     * methods, the first argument is the instance on which the method is invoked. This interface is
+     * only public so compiled lambdas can implement it, and should not be used directly.
+     */
+    @FunctionalInterface
+    public interface Function2 {
+
+        /**
+         * Invokes the compiled member with the given arguments.
+         *
+         * @param first the first argument
+         * @param second the second argument
+         * @return the result of the compiled member
+         * @throws Throwable if the compiled member failed
+         */
+        Object apply(Object first, Object second) throws Throwable;
+    }
+
+    /**
+     * Functional interface implemented by compiled lambdas which accept three arguments. For instance
+     * methods, the first argument is the instance on which the method is invoked. This interface is
+     * only public so compiled lambdas can implement it, and should not be used directly.
+     */
+    @FunctionalInterface
+    public interface Function3 {
+
+        /**
+         * Invokes the compiled member with the given arguments.
+         *
+         * @param first the first argument
+         * @param second the second argument
+         * @param third the third argument
+         * @return the result of the compiled member
+         * @throws Throwable if the compiled member failed
+         */
+        Object apply(Object first, Object second, Object third) throws Throwable;
+    }
+
+    /**
+     * Functional interface implemented by compiled lambdas which accept four arguments. For instance
+     * methods, the first argument is the instance on which the method is invoked. This interface is
+     * only public so compiled lambdas can implement it, and should not be used directly.
+     */
+    @FunctionalInterface
+    public interface Function4 {
+
+        /**
+         * Invokes the compiled member with the given arguments.
+         *
+         * @param first the first argument
+         * @param second the second argument
+         * @param third the third argument
+         * @param fourth the fourth argument
+         * @return the result of the compiled member
+         * @throws Throwable if the compiled member failed
+         */
+        Object apply(Object first, Object second, Object third, Object fourth) throws Throwable;
+    }
+}
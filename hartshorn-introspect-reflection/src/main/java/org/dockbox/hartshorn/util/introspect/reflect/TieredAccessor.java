@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.util.introspect.reflect;
+
+/**
+ * Holds two forms of the same accessor: a reflective form which is cheap to create, and a compiled
+ * form which is more expensive to create, but faster to call. The reflective form is used until
+ * the accessor has been requested more often than the configured threshold, after which the
+ * compiled form is created once and used for all subsequent calls. This way members which are only
+ * used a few times, which is the case for most members during application startup, never pay the
+ * cost of compilation.
+ *
+ * <p>If the compiled form cannot be created, for example because access rules prevent it, the
+ * reflective form remains in use. Compilation is not attempted again in that case.
+ *
+ * <p>The threshold defaults to {@code 32}, and can be configured through the
+ * {@value #THRESHOLD_PROPERTY} system property. A threshold of {@code 0} compiles accessors on
+ * first use, and a negative threshold disables compilation entirely.
+ *
+ * @param <A> the type of the accessor
+ *
+ * @see ReflectiveAccessorCompiler
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public final class TieredAccessor<A> {
+
+    public static final String THRESHOLD_PROPERTY = "hartshorn.introspect.accessor.threshold";
+    public static final int DEFAULT_THRESHOLD = Integer.getInteger(THRESHOLD_PROPERTY, 32);
+
+    private final A reflective;
+    private final AccessorCompiler<A> compiler;
+    private final int threshold;
+
+    private volatile A compiled;
+    // Not synchronized, as an approximate count is sufficient to decide when to compile
+    private int invocations;
+
+    private TieredAccessor(A reflective, AccessorCompiler<A> compiler, int threshold) {
+        this.reflective = reflective;
+        this.compiler = compiler;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Creates a new tiered accessor which compiles after the {@link #DEFAULT_THRESHOLD default
+     * threshold} is reached.
+     *
+     * @param reflective the reflective form of the accessor
+     * @param compiler the compiler which creates the compiled form of the accessor
+     * @param <A> the type of the accessor
+     * @return the tiered accessor
+     */
+    public static <A> TieredAccessor<A> of(A reflective, AccessorCompiler<A> compiler) {
+        return of(reflective, compiler, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a new tiered accessor which compiles after the given threshold is reached.
+     *
+     * @param reflective the reflective form of the accessor
+     * @param compiler the compiler which creates the compiled form of the accessor
+     * @param threshold the amount of calls after which the accessor is compiled
+     * @param <A> the type of the accessor
+     * @return the tiered accessor
+     */
+    public static <A> TieredAccessor<A> of(A reflective, AccessorCompiler<A> compiler, int threshold) {
+        return new TieredAccessor<>(reflective, compiler, threshold);
+    }
+
+    /**
+     * Creates a new tiered accessor which is never compiled. This is useful for accessors which
+     * delegate to other accessors that are already tiered themselves.
+     *
+     * @param reflective the accessor to use
+     * @param <A> the type of the accessor
+     * @return the tiered accessor
+     */
+    public static <A> TieredAccessor<A> uncompiled(A reflective) {
+        return of(reflective, () -> reflective, -1);
+    }
+
+    /**
+     * Returns the accessor which should be used for the current call. This counts as a use of the
+     * accessor, and may cause the accessor to be compiled.
+     *
+     * @return the accessor to use
+     */
+    public A accessor() {
+        A compiled = this.compiled;
+        if (compiled != null) {
+            return compiled;
+        }
+        if (this.threshold < 0 || ++this.invocations <= this.threshold) {
+            return this.reflective;
+        }
+        return this.compile();
+    }
+
+    /**
+     * Returns whether the compiled form of the accessor is in use.
+     *
+     * @return {@code true} if the accessor was compiled successfully, {@code false} otherwise
+     */
+    public boolean isCompiled() {
+        A compiled = this.compiled;
+        return compiled != null && compiled != this.reflective;
+    }
+
+    private synchronized A compile() {
+        if (this.compiled == null) {
+            A accessor;
+            try {
+                accessor = this.compiler.compile();
+            }
+            catch (Error e) {
+                if (!(e instanceof LinkageError)) {
+                    throw e;
+                }
+                accessor = this.reflective;
+            }
+            catch (Throwable e) {
+                accessor = this.reflective;
+            }
+            this.compiled = accessor;
+        }
+        return this.compiled;
+    }
+
+    /**
+     * Creates the compiled form of an accessor.
+     *
+     * @param <A> the type of the accessor
+     */
+    @FunctionalInterface
+    public interface AccessorCompiler<A> {
+
+        /**
+         * Creates the compiled form of the accessor.
+         *
+         * @return the compiled accessor
+         * @throws Throwable if the accessor could not be compiled
+         */
+        A compile() throws Throwable;
+    }
+}
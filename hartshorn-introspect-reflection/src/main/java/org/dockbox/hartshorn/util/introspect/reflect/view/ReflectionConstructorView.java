@@ -28,7 +28,9 @@
 import org.dockbox.hartshorn.util.introspect.TypeVariablesIntrospector;
 import org.dockbox.hartshorn.util.introspect.reflect.ReflectionIntrospector;
 import org.dockbox.hartshorn.util.introspect.reflect.ReflectionTypeVariablesIntrospector;
+import org.dockbox.hartshorn.util.introspect.reflect.ReflectiveAccessorCompiler;
 import org.dockbox.hartshorn.util.introspect.reflect.ReflectiveConstructorCall;
+import org.dockbox.hartshorn.util.introspect.reflect.TieredAccessor;
 import org.dockbox.hartshorn.util.introspect.view.ConstructorView;
 import org.dockbox.hartshorn.util.introspect.view.ParameterView;
 import org.dockbox.hartshorn.util.introspect.view.TypeView;
@@ -49,7 +51,7 @@
     private final Introspector introspector;
 
     private TypeVariablesIntrospector typeParametersIntrospector;
-    private ReflectiveConstructorCall<T> invoker;
+    private TieredAccessor<ReflectiveConstructorCall<T>> invoker;
     private String qualifiedName;
     private TypeView<T> type;
 
@@ -61,7 +63,7 @@ public ReflectionConstructorView(ReflectionIntrospector introspector, Constructo
 
     protected ReflectiveConstructorCall<T> invoker() {
         if (this.invoker == null) {
-            this.invoker = args -> {
+            ReflectiveConstructorCall<T> reflectiveCall = args -> {
                 try {
                     return this.constructor.newInstance(args);
                 } catch (InvocationTargetException e) {
@@ -71,8 +73,9 @@ protected ReflectiveConstructorCall<T> invoker() {
                     throw e;
                 }
             };
+            this.invoker = TieredAccessor.of(reflectiveCall, () -> ReflectiveAccessorCompiler.constructorCall(this.constructor));
         }
-        return this.invoker;
+        return this.invoker.accessor();
     }
 
     @Override
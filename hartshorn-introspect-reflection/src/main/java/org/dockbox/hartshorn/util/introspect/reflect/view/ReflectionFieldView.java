@@ -27,8 +27,10 @@
 import org.dockbox.hartshorn.util.introspect.annotations.Property;
 import org.dockbox.hartshorn.util.introspect.reflect.ReflectionElementModifiersIntrospector;
 import org.dockbox.hartshorn.util.introspect.reflect.ReflectionIntrospector;
+import org.dockbox.hartshorn.util.introspect.reflect.ReflectiveAccessorCompiler;
 import org.dockbox.hartshorn.util.introspect.reflect.ReflectiveFieldAccess;
 import org.dockbox.hartshorn.util.introspect.reflect.ReflectiveFieldWriter;
+import org.dockbox.hartshorn.util.introspect.reflect.TieredAccessor;
 import org.dockbox.hartshorn.util.introspect.view.EnclosableView;
 import org.dockbox.hartshorn.util.introspect.view.FieldView;
 import org.dockbox.hartshorn.util.introspect.view.MethodView;
@@ -50,8 +52,8 @@
     private final Field field;
     private final Introspector introspector;
 
-    private ReflectiveFieldAccess<FieldType, Parent> getter;
-    private ReflectiveFieldWriter<FieldType, Parent> setter;
+    private TieredAccessor<ReflectiveFieldAccess<FieldType, Parent>> getter;
+    private TieredAccessor<ReflectiveFieldWriter<FieldType, Parent>> setter;
 
     private TypeView<FieldType> type;
     private TypeView<FieldType> genericType;
@@ -83,21 +85,22 @@ public void set(Object instance, Object value) throws Throwable {
                 String setter = property.get().setter();
                 Option<MethodView<Parent, ?>> method = this.declaredBy().methods().named(setter, List.of(this.type().type()));
                 MethodView<Parent, ?> methodView = method.orElseThrow(() -> new IllegalIntrospectionException(this, "Setter for field '" + this.name() + "' (" + setter + ") does not exist!"));
-                this.setter = (object, propertyValue) -> {
-                    methodView.invoke(this.declaredBy().cast(instance), propertyValue).cast(this.type().type());
-                };
+                // Invocations of the setter method are already tiered by the method view
+                this.setter = TieredAccessor.uncompiled((object, propertyValue) -> {
+                    methodView.invoke(object, propertyValue).cast(this.type().type());
+                });
             } else {
-                this.setter = (object, propertyValue) -> {
+                this.setter = TieredAccessor.of((object, propertyValue) -> {
                     try {
                         this.field.set(object, propertyValue);
                     }
                     catch (IllegalAccessException e) {
                         throw new IllegalIntrospectionException(this, e.getMessage());
                     }
-                };
+                }, () -> ReflectiveAccessorCompiler.fieldWriter(this.field));
             }
         }
-        this.setter.set(this.declaredBy().cast(instance), this.type().cast(value));
+        this.setter.accessor().set(this.declaredBy().cast(instance), this.type().cast(value));
     }
 
     @Override
@@ -108,20 +111,20 @@ public Option<FieldType> get(Object instance) throws Throwable {
                 String getter = property.get().getter();
                 Option<MethodView<Parent, ?>> method = this.declaredBy().methods().named(getter);
                 MethodView<Parent, ?> methodContext = method.orElseThrow(() -> new IllegalIntrospectionException(this, "Getter for field '" + this.name() + "' (" + getter + ") does not exist!"));
-                this.getter = object -> methodContext.invoke(instance)
-                        .map(result -> this.type().cast(result));
+                this.getter = TieredAccessor.uncompiled(object -> methodContext.invoke(object)
+                        .map(result -> this.type().cast(result)));
             } else {
-                this.getter = object -> {
+                this.getter = TieredAccessor.of(object -> {
                     try {
                         return Option.of(this.type().cast(this.field.get(object)));
                     }
                     catch (IllegalAccessException e) {
                         throw new IllegalIntrospectionException(this, e.getMessage());
                     }
-                };
+                }, () -> ReflectiveAccessorCompiler.fieldAccess(this.field));
             }
         }
-        return this.getter.get(this.declaredBy().cast(instance)).orCompute(() -> this.type().defaultOrNull());
+        return this.getter.accessor().get(this.declaredBy().cast(instance)).orCompute(() -> this.type().defaultOrNull());
     }
 
     @Override
@@ -28,6 +28,8 @@
 import org.dockbox.hartshorn.util.introspect.MethodInvoker;
 import org.dockbox.hartshorn.util.introspect.reflect.ReflectionIntrospector;
 import org.dockbox.hartshorn.util.introspect.reflect.ReflectionMethodInvoker;
+import org.dockbox.hartshorn.util.introspect.reflect.ReflectiveAccessorCompiler;
+import org.dockbox.hartshorn.util.introspect.reflect.TieredAccessor;
 import org.dockbox.hartshorn.util.introspect.view.MethodView;
 import org.dockbox.hartshorn.util.introspect.view.TypeView;
 import org.dockbox.hartshorn.util.option.Option;
@@ -47,7 +49,7 @@
     private final Introspector introspector;
     private final Method method;
 
-    private MethodInvoker<ReturnType, Parent> invoker;
+    private TieredAccessor<MethodInvoker<ReturnType, Parent>> invoker;
     private String qualifiedName;
 
     private TypeView<ReturnType> returnType;
@@ -67,10 +69,13 @@ public Option<Method> method() {
     @Override
     public Option<ReturnType> invoke(Object instance, Collection<?> arguments) throws Throwable {
         if (this.invoker == null) {
-            this.invoker = new ReflectionMethodInvoker<>();
+            this.invoker = TieredAccessor.of(
+                    new ReflectionMethodInvoker<>(),
+                    () -> ReflectiveAccessorCompiler.methodCall(this.method)
+            );
         }
         Parent checkedInstance = this.declaredBy().cast(instance);
-        return this.invoker.invoke(this, checkedInstance, arguments.toArray());
+        return this.invoker.accessor().invoke(this, checkedInstance, arguments.toArray());
     }
 
     @Override
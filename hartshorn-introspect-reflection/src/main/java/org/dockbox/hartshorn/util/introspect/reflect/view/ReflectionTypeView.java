@@ -32,6 +32,7 @@
 import org.dockbox.hartshorn.reporting.Reportable;
 import org.dockbox.hartshorn.util.TypeUtils;
 import org.dockbox.hartshorn.util.collections.BiMap;
+import org.dockbox.hartshorn.util.introspect.ElementAnnotationsIntrospector;
 import org.dockbox.hartshorn.util.introspect.ElementModifiersIntrospector;
 import org.dockbox.hartshorn.util.introspect.Introspector;
 import org.dockbox.hartshorn.util.introspect.TypeConstructorsIntrospector;
@@ -122,6 +123,15 @@ protected AnnotatedElement annotatedElement() {
         return this.type;
     }
 
+    @Override
+    public ElementAnnotationsIntrospector annotations() {
+        // Members and annotations only depend on the raw type, so they are shared between all parameterizations
+        // of the same type.
+        return this.parameterizedType == null
+                ? super.annotations()
+                : this.rawType().annotations();
+    }
+
     @Override
     public Class<T> type() {
         return this.type;
@@ -283,7 +293,9 @@ public TypeView<?> genericSuperClass() {
     @Override
     public TypeMethodsIntrospector<T> methods() {
         if (this.methodsIntrospector == null) {
-            this.methodsIntrospector = new ReflectionTypeMethodsIntrospector<>(this.introspector, this);
+            this.methodsIntrospector = this.parameterizedType == null
+                    ? new ReflectionTypeMethodsIntrospector<>(this.introspector, this)
+                    : TypeUtils.unchecked(this.rawType().methods(), TypeMethodsIntrospector.class);
         }
         return this.methodsIntrospector;
     }
@@ -291,7 +303,9 @@ public TypeMethodsIntrospector<T> methods() {
     @Override
     public TypeFieldsIntrospector<T> fields() {
         if (this.fieldsIntrospector == null) {
-            this.fieldsIntrospector = new ReflectionTypeFieldsIntrospector<>(this.introspector, this);
+            this.fieldsIntrospector = this.parameterizedType == null
+                    ? new ReflectionTypeFieldsIntrospector<>(this.introspector, this)
+                    : TypeUtils.unchecked(this.rawType().fields(), TypeFieldsIntrospector.class);
         }
         return this.fieldsIntrospector;
     }
@@ -299,7 +313,9 @@ public TypeFieldsIntrospector<T> fields() {
     @Override
     public TypeConstructorsIntrospector<T> constructors() {
         if (this.constructorsIntrospector == null) {
-            this.constructorsIntrospector = new ReflectionTypeConstructorsIntrospector<>(this.type, this.introspector);
+            this.constructorsIntrospector = this.parameterizedType == null
+                    ? new ReflectionTypeConstructorsIntrospector<>(this.type, this.introspector)
+                    : TypeUtils.unchecked(this.rawType().constructors(), TypeConstructorsIntrospector.class);
         }
         return this.constructorsIntrospector;
     }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.util.introspect;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.AnnotatedElement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dockbox.hartshorn.util.introspect.annotations.Extends;
+import org.dockbox.hartshorn.util.introspect.annotations.VirtualHierarchyAnnotationLookup;
+import org.dockbox.hartshorn.util.introspect.reflect.ReflectionElementAnnotationsIntrospector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ReflectionElementAnnotationsIntrospectorTests {
+
+    @Test
+    void testAbsentAnnotationsDoNotUseLookup() {
+        CountingAnnotationLookup lookup = new CountingAnnotationLookup();
+        ReflectionElementAnnotationsIntrospector introspector = new ReflectionElementAnnotationsIntrospector(null, AnnotatedType.class, lookup);
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertFalse(introspector.has(Unrelated.class));
+            Assertions.assertTrue(introspector.all(Unrelated.class).isEmpty());
+        }
+        Assertions.assertEquals(0, lookup.lookups.get());
+    }
+
+    @Test
+    void testPresentAnnotationsDoNotUseLookup() {
+        CountingAnnotationLookup lookup = new CountingAnnotationLookup();
+        ReflectionElementAnnotationsIntrospector introspector = new ReflectionElementAnnotationsIntrospector(null, AnnotatedType.class, lookup);
+
+        Assertions.assertTrue(introspector.has(Child.class));
+        Assertions.assertEquals("child", introspector.get(Child.class).get().value());
+        Assertions.assertEquals(0, lookup.lookups.get());
+    }
+
+    @Test
+    void testVirtualAnnotationsAreResolvedOnce() {
+        CountingAnnotationLookup lookup = new CountingAnnotationLookup();
+        ReflectionElementAnnotationsIntrospector introspector = new ReflectionElementAnnotationsIntrospector(null, AnnotatedType.class, lookup);
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(introspector.has(Parent.class));
+        }
+        Assertions.assertTrue(introspector.hasAll(Set.of(Parent.class, Child.class)));
+        Assertions.assertTrue(introspector.hasAny(Set.of(Unrelated.class, Parent.class)));
+        Assertions.assertEquals(1, lookup.lookups.get());
+    }
+
+    @Test
+    void testQueriesDoNotChangePresentAnnotations() {
+        ReflectionElementAnnotationsIntrospector introspector = new ReflectionElementAnnotationsIntrospector(
+                null, AnnotatedType.class, new VirtualHierarchyAnnotationLookup()
+        );
+
+        Assertions.assertTrue(introspector.has(Parent.class));
+        Assertions.assertEquals(1, introspector.count());
+        Assertions.assertEquals(1, introspector.all().size());
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Parent {
+        String value() default "parent";
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Extends(Parent.class)
+    public @interface Child {
+        String value();
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Unrelated {
+    }
+
+    @Child("child")
+    private static class AnnotatedType {
+    }
+
+    private static class CountingAnnotationLookup extends VirtualHierarchyAnnotationLookup {
+
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        @Override
+        public <A extends Annotation> A find(AnnotatedElement element, Class<A> annotationType) {
+            this.lookups.incrementAndGet();
+            return super.find(element, annotationType);
+        }
+    }
+}
@@ -16,10 +16,19 @@
 
 package test.org.dockbox.hartshorn.util.introspect;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.ParameterizedType;
+import java.util.List;
+import java.util.Map;
+
 import org.dockbox.hartshorn.util.introspect.NativeProxyLookup;
 import org.dockbox.hartshorn.util.introspect.Introspector;
+import org.dockbox.hartshorn.util.introspect.ParameterizableType;
 import org.dockbox.hartshorn.util.introspect.annotations.VirtualHierarchyAnnotationLookup;
 import org.dockbox.hartshorn.util.introspect.reflect.ReflectionIntrospector;
+import org.dockbox.hartshorn.util.introspect.view.TypeView;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 
 public class ReflectionIntrospectorTests extends IntrospectorTests {
 
@@ -27,4 +36,85 @@ public class ReflectionIntrospectorTests extends IntrospectorTests {
     protected Introspector introspector() {
         return new ReflectionIntrospector(new NativeProxyLookup(), new VirtualHierarchyAnnotationLookup());
     }
+
+    @Test
+    void testDiscardedIntrospectorIsCollected() throws InterruptedException {
+        WeakReference<Introspector> introspectorReference = this.introspectJdkTypes();
+
+        for (int i = 0; i < 50 && introspectorReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assertions.assertNull(introspectorReference.get(), "Introspector was retained by the classes it introspected");
+    }
+
+    private WeakReference<Introspector> introspectJdkTypes() {
+        Introspector introspector = this.introspector();
+        // JDK classes are never unloaded, so views of these classes may not be attached to the classes themselves
+        TypeView<String> type = introspector.introspect(String.class);
+        type.methods().all();
+        type.fields().all();
+        type.constructors().all();
+        introspector.introspect(String.class.getPackage());
+        return new WeakReference<>(introspector);
+    }
+
+    @Test
+    void testParameterizedTypeViewsAreInterned() throws NoSuchFieldException {
+        Introspector introspector = this.introspector();
+        ParameterizedType first = (ParameterizedType) GenericFields.class.getDeclaredField("first").getGenericType();
+        ParameterizedType second = (ParameterizedType) GenericFields.class.getDeclaredField("second").getGenericType();
+
+        Assertions.assertSame(introspector.introspect(first), introspector.introspect(second));
+        Assertions.assertSame(introspector.introspect(first), introspector.introspect(first));
+    }
+
+    @Test
+    void testParameterizableTypeSharesViewWithReflectiveType() throws NoSuchFieldException {
+        Introspector introspector = this.introspector();
+        ParameterizedType reflected = (ParameterizedType) GenericFields.class.getDeclaredField("first").getGenericType();
+        ParameterizableType parameterizable = ParameterizableType.builder(Map.class)
+                .parameters(
+                        ParameterizableType.create(String.class),
+                        ParameterizableType.builder(List.class).parameters(ParameterizableType.create(Integer.class)).build()
+                )
+                .build();
+
+        Assertions.assertSame(introspector.introspect(reflected), introspector.introspect(parameterizable));
+    }
+
+    @Test
+    void testDifferentParameterizationsAreNotShared() throws NoSuchFieldException {
+        Introspector introspector = this.introspector();
+        TypeView<?> first = introspector.introspect(GenericFields.class.getDeclaredField("first").getGenericType());
+        TypeView<?> other = introspector.introspect(GenericFields.class.getDeclaredField("other").getGenericType());
+        TypeView<?> wildcard = introspector.introspect(GenericFields.class.getDeclaredField("wildcard").getGenericType());
+
+        Assertions.assertNotSame(first, other);
+        Assertions.assertNotEquals(first, other);
+        Assertions.assertNotSame(first, wildcard);
+        Assertions.assertNotSame(other, wildcard);
+    }
+
+    @Test
+    void testParameterizedTypeViewsShareMembersWithRawType() throws NoSuchFieldException {
+        Introspector introspector = this.introspector();
+        TypeView<?> parameterized = introspector.introspect(GenericFields.class.getDeclaredField("first").getGenericType());
+        TypeView<?> other = introspector.introspect(GenericFields.class.getDeclaredField("other").getGenericType());
+        TypeView<?> raw = introspector.introspect(Map.class);
+
+        Assertions.assertSame(raw, parameterized.rawType());
+        Assertions.assertSame(raw.methods(), parameterized.methods());
+        Assertions.assertSame(raw.methods(), other.methods());
+        Assertions.assertSame(raw.fields(), parameterized.fields());
+        Assertions.assertSame(raw.annotations(), parameterized.annotations());
+    }
+
+    @SuppressWarnings("unused")
+    private static class GenericFields {
+        private Map<String, List<Integer>> first;
+        private Map<String, List<Integer>> second;
+        private Map<String, List<Long>> other;
+        private Map<String, ? extends List<Integer>> wildcard;
+    }
 }
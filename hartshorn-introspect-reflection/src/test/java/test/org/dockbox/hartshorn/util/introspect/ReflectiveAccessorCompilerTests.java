@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.util.introspect;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dockbox.hartshorn.util.introspect.MethodInvoker;
+import org.dockbox.hartshorn.util.introspect.reflect.ReflectiveAccessorCompiler;
+import org.dockbox.hartshorn.util.introspect.reflect.ReflectiveConstructorCall;
+import org.dockbox.hartshorn.util.introspect.reflect.ReflectiveFieldAccess;
+import org.dockbox.hartshorn.util.introspect.reflect.ReflectiveFieldWriter;
+import org.dockbox.hartshorn.util.introspect.reflect.TieredAccessor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ReflectiveAccessorCompilerTests {
+
+    @Test
+    void testCompiledFieldAccessReadsPrivateField() throws Throwable {
+        Field field = AccessorTarget.class.getDeclaredField("name");
+        field.setAccessible(true);
+        ReflectiveFieldAccess<String, AccessorTarget> access = ReflectiveAccessorCompiler.fieldAccess(field);
+        Assertions.assertEquals("initial", access.get(new AccessorTarget()).get());
+    }
+
+    @Test
+    void testCompiledFieldWriterWritesPrimitiveField() throws Throwable {
+        Field field = AccessorTarget.class.getDeclaredField("count");
+        field.setAccessible(true);
+        ReflectiveFieldWriter<Integer, AccessorTarget> writer = ReflectiveAccessorCompiler.fieldWriter(field);
+        AccessorTarget target = new AccessorTarget();
+        writer.set(target, 12);
+        Assertions.assertEquals(12, target.count);
+    }
+
+    @Test
+    void testCompiledFieldAccessReadsStaticField() throws Throwable {
+        Field field = AccessorTarget.class.getDeclaredField("STATIC_VALUE");
+        field.setAccessible(true);
+        ReflectiveFieldAccess<String, AccessorTarget> access = ReflectiveAccessorCompiler.fieldAccess(field);
+        Assertions.assertEquals(AccessorTarget.STATIC_VALUE, access.get(null).get());
+    }
+
+    @Test
+    void testCompiledMethodWithPrimitiveArguments() throws Throwable {
+        Method method = AccessorTarget.class.getDeclaredMethod("add", int.class, int.class);
+        method.setAccessible(true);
+        MethodInvoker<Integer, AccessorTarget> call = ReflectiveAccessorCompiler.methodCall(method);
+        Assertions.assertEquals(5, call.invoke(null, new AccessorTarget(), new Object[] { 2, 3 }).get());
+    }
+
+    @Test
+    void testCompiledMethodWithManyArguments() throws Throwable {
+        Method method = AccessorTarget.class.getDeclaredMethod("join", String.class, String.class, String.class, String.class, String.class);
+        MethodInvoker<String, AccessorTarget> call = ReflectiveAccessorCompiler.methodCall(method);
+        Assertions.assertEquals("abcde", call.invoke(null, new AccessorTarget(), new Object[] { "a", "b", "c", "d", "e" }).get());
+    }
+
+    @Test
+    void testCompiledStaticAndVoidMethods() throws Throwable {
+        Method staticMethod = AccessorTarget.class.getDeclaredMethod("twice", String.class);
+        MethodInvoker<String, AccessorTarget> staticCall = ReflectiveAccessorCompiler.methodCall(staticMethod);
+        Assertions.assertEquals("abab", staticCall.invoke(null, null, new Object[] { "ab" }).get());
+
+        Method voidMethod = AccessorTarget.class.getDeclaredMethod("increment");
+        MethodInvoker<Object, AccessorTarget> voidCall = ReflectiveAccessorCompiler.methodCall(voidMethod);
+        AccessorTarget target = new AccessorTarget();
+        Assertions.assertTrue(voidCall.invoke(null, target, new Object[0]).absent());
+        Assertions.assertEquals(1, target.count);
+    }
+
+    @Test
+    void testCompiledMethodRethrowsUnwrappedException() throws Throwable {
+        Method method = AccessorTarget.class.getDeclaredMethod("fail");
+        MethodInvoker<Object, AccessorTarget> call = ReflectiveAccessorCompiler.methodCall(method);
+        Assertions.assertThrows(IllegalStateException.class, () -> call.invoke(null, new AccessorTarget(), new Object[0]));
+    }
+
+    @Test
+    void testCompiledMethodRejectsWrongArgumentCount() throws Throwable {
+        Method method = AccessorTarget.class.getDeclaredMethod("add", int.class, int.class);
+        method.setAccessible(true);
+        MethodInvoker<Integer, AccessorTarget> call = ReflectiveAccessorCompiler.methodCall(method);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> call.invoke(null, new AccessorTarget(), new Object[] { 1 }));
+    }
+
+    @Test
+    void testCompiledPrivateConstructor() throws Throwable {
+        Constructor<AccessorTarget> constructor = AccessorTarget.class.getDeclaredConstructor(String.class, int.class);
+        constructor.setAccessible(true);
+        ReflectiveConstructorCall<AccessorTarget> call = ReflectiveAccessorCompiler.constructorCall(constructor);
+        AccessorTarget target = call.invoke(new Object[] { "created", 3 });
+        Assertions.assertEquals("created", target.name);
+        Assertions.assertEquals(3, target.count);
+    }
+
+    @Test
+    void testTieredAccessorCompilesAfterThreshold() {
+        AtomicInteger compilations = new AtomicInteger();
+        TieredAccessor<String> accessor = TieredAccessor.of("reflective", () -> {
+            compilations.incrementAndGet();
+            return "compiled";
+        }, 2);
+
+        Assertions.assertEquals("reflective", accessor.accessor());
+        Assertions.assertEquals("reflective", accessor.accessor());
+        Assertions.assertFalse(accessor.isCompiled());
+
+        Assertions.assertEquals("compiled", accessor.accessor());
+        Assertions.assertEquals("compiled", accessor.accessor());
+        Assertions.assertTrue(accessor.isCompiled());
+        Assertions.assertEquals(1, compilations.get());
+    }
+
+    @Test
+    void testTieredAccessorKeepsReflectiveFormIfCompilationFails() {
+        AtomicInteger compilations = new AtomicInteger();
+        TieredAccessor<String> accessor = TieredAccessor.of("reflective", () -> {
+            compilations.incrementAndGet();
+            throw new IllegalAccessException("Not accessible");
+        }, 0);
+
+        Assertions.assertEquals("reflective", accessor.accessor());
+        Assertions.assertEquals("reflective", accessor.accessor());
+        Assertions.assertFalse(accessor.isCompiled());
+        Assertions.assertEquals(1, compilations.get());
+    }
+
+    @Test
+    void testUncompiledTieredAccessorNeverCompiles() {
+        TieredAccessor<String> accessor = TieredAccessor.uncompiled("reflective");
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals("reflective", accessor.accessor());
+        }
+        Assertions.assertFalse(accessor.isCompiled());
+    }
+
+    public static class AccessorTarget {
+
+        private static final String STATIC_VALUE = "static";
+
+        private String name = "initial";
+        private int count;
+
+        public AccessorTarget() {
+        }
+
+        private AccessorTarget(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+
+        private int add(int left, int right) {
+            return left + right;
+        }
+
+        public String join(String first, String second, String third, String fourth, String fifth) {
+            return first + second + third + fourth + fifth;
+        }
+
+        public static String twice(String value) {
+            return value + value;
+        }
+
+        public void increment() {
+            this.count++;
+        }
+
+        public Object fail() {
+            throw new IllegalStateException("Failed");
+        }
+    }
+}
@@ -16,12 +16,19 @@
 
 package org.dockbox.hartshorn.util.introspect;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 import org.dockbox.hartshorn.util.TypeUtils;
@@ -36,10 +43,31 @@
  * Concurrent implementation of {@link IntrospectionViewCache}. This implementation is thread-safe and performs well in
  * batch mode. It is recommended to use this implementation in multi-threaded environments, or when batch mode is enabled.
  *
+ * <p>Views are stored in segments, one for each introspected class. Views of methods, fields, constructors and
+ * parameters are stored in the segment of their declaring class, and views of parameterized types are stored in the
+ * segment of a class they reference. By default, segments are owned by the cache, so all views are released together
+ * with the cache. As views typically reference the introspector that created them, segments are deliberately not
+ * attached to the classes themselves, as classes which are never unloaded (like those of the JDK) would then keep
+ * the introspector, and everything it references, alive.
+ *
+ * <p>Caches which live as long as the application itself, like a static shared cache, can instead be created through
+ * {@link #classBound(int)}. Segments of these caches are attached to their class through a {@link ClassValue}, so
+ * all views of a class become unreachable together with the class and its class loader, even though views hold
+ * strong references to the elements they represent. This prevents long-lived caches from leaking classes in
+ * environments where class loaders are discarded, such as plugin systems or applications which are redeployed while
+ * running. In turn, these caches remain reachable from the classes they hold views of, so they should not be created
+ * for short-lived introspectors.
+ *
+ * <p>Packages are not bound to a single class, and are therefore not cached. Package views are cheap to create, so
+ * they are created each time they are requested.
+ *
+ * <p>Optionally, the amount of cached segments can be bounded. When the bound is exceeded, segments are evicted using a
+ * second-chance (clock) policy: segments that were used since they were last considered for eviction are kept, and the
+ * first segment that was not used is evicted. Evicted views are created again when they are requested.
+ *
  * <p>Note that it is not guaranteed that the same instance is returned for concurrent calls to the same method. This is
- * because the cache is not synchronized, and the cache may be overwritten by concurrent calls. This is typically not an
- * issue, as the cache is populated with the same effective value. If this is not the case, it is recommended to use a
- * synchronized cache.
+ * because views are created outside of any lock, and concurrent calls may create a view for the same element. Only
+ * one of these views is retained in the cache.
  *
  * @since 0.5.0
  *
@@ -47,40 +75,277 @@
  */
 public class ConcurrentIntrospectionViewCache implements IntrospectionViewCache {
 
-    private final Map<Class<?>, TypeView<?>> typeViewCache = new ConcurrentHashMap<>();
-    private final Map<Method, MethodView<?, ?>> methodViewCache = new ConcurrentHashMap<>();
-    private final Map<Field, FieldView<?, ?>> fieldViewCache = new ConcurrentHashMap<>();
-    private final Map<Parameter, ParameterView<?>> parameterViewCache = new ConcurrentHashMap<>();
-    private final Map<Constructor<?>, ConstructorView<?>> constructorViewCache = new ConcurrentHashMap<>();
-    private final Map<Package, PackageView> packageViewCache = new ConcurrentHashMap<>();
+    /**
+     * Indicates that the amount of cached segments is not bounded.
+     */
+    public static final int UNBOUNDED = -1;
+
+    // Static, as the values of a class value may reference the cache, which would otherwise prevent the class
+    // value from ever being collected (JDK-8136353). Segments are identified by their cache, and only retained for
+    // class-bound caches.
+    private static final ClassValue<Map<ConcurrentIntrospectionViewCache, ClassSegment>> CLASS_BOUND_SEGMENTS = new ClassValue<>() {
+        @Override
+        protected Map<ConcurrentIntrospectionViewCache, ClassSegment> computeValue(Class<?> type) {
+            return Collections.synchronizedMap(new WeakHashMap<>(1));
+        }
+    };
+
+    private final Map<Class<?>, ClassSegment> segments;
+    private final int maximumSize;
+    private final Queue<ClockEntry> clock = new ArrayDeque<>();
+    private int size;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ConcurrentIntrospectionViewCache() {
+        this(UNBOUNDED);
+    }
+
+    /**
+     * Creates a new cache which retains views of at most the given amount of classes. Views of members are counted as
+     * part of the class that declares them.
+     *
+     * @param maximumSize the maximum amount of classes to retain views for, or {@link #UNBOUNDED}
+     */
+    public ConcurrentIntrospectionViewCache(int maximumSize) {
+        this(maximumSize, false);
+    }
+
+    private ConcurrentIntrospectionViewCache(int maximumSize, boolean classBound) {
+        if (maximumSize < 1 && maximumSize != UNBOUNDED) {
+            throw new IllegalArgumentException("Maximum size must be positive or unbounded, but was " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.segments = classBound ? null : new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates a new cache which attaches its views to the classes they belong to, rather than owning them itself.
+     * Views of such caches are released when their class is unloaded, but the cache remains reachable from the
+     * classes it holds views of. This is therefore only suitable for caches which live as long as the application,
+     * such as static shared caches.
+     *
+     * @param maximumSize the maximum amount of classes to retain views for, or {@link #UNBOUNDED}
+     * @return the class-bound cache
+     */
+    public static ConcurrentIntrospectionViewCache classBound(int maximumSize) {
+        return new ConcurrentIntrospectionViewCache(maximumSize, true);
+    }
+
+    /**
+     * Returns whether views of this cache are attached to the classes they belong to. See {@link #classBound(int)}.
+     *
+     * @return {@code true} if this cache is class-bound, {@code false} if this cache owns its views
+     */
+    public boolean isClassBound() {
+        return this.segments == null;
+    }
 
     @Override
     public <T> TypeView<T> computeIfAbsent(Class<T> type, Supplier<TypeView<T>> viewSupplier) {
-        return TypeUtils.unchecked(this.typeViewCache.computeIfAbsent(type, key0 -> viewSupplier.get()), TypeView.class);
+        AtomicReference<TypeView<?>> reference = this.segment(type).typeView;
+        TypeView<?> view = reference.get();
+        if (view != null) {
+            this.hits.increment();
+        }
+        else {
+            this.misses.increment();
+            TypeView<T> created = viewSupplier.get();
+            view = reference.compareAndSet(null, created) ? created : reference.get();
+        }
+        return TypeUtils.unchecked(view, TypeView.class);
     }
 
     @Override
     public MethodView<?, ?> computeIfAbsent(Method method, Supplier<MethodView<?, ?>> viewSupplier) {
-        return this.methodViewCache.computeIfAbsent(method, key0 -> viewSupplier.get());
+        return this.computeMemberIfAbsent(method.getDeclaringClass(), method, viewSupplier);
     }
 
     @Override
     public FieldView<?, ?> computeIfAbsent(Field field, Supplier<FieldView<?, ?>> viewSupplier) {
-        return this.fieldViewCache.computeIfAbsent(field, key0 -> viewSupplier.get());
+        return this.computeMemberIfAbsent(field.getDeclaringClass(), field, viewSupplier);
     }
 
     @Override
     public ParameterView<?> computeIfAbsent(Parameter parameter, Supplier<ParameterView<?>> viewSupplier) {
-        return this.parameterViewCache.computeIfAbsent(parameter, key0 -> viewSupplier.get());
+        return this.computeMemberIfAbsent(parameter.getDeclaringExecutable().getDeclaringClass(), parameter, viewSupplier);
     }
 
     @Override
     public <T> ConstructorView<T> computeIfAbsent(Constructor<T> constructor, Supplier<ConstructorView<T>> viewSupplier) {
-        return TypeUtils.unchecked(this.constructorViewCache.computeIfAbsent(constructor, key0 -> viewSupplier.get()), ConstructorView.class);
+        ConstructorView<?> view = this.computeMemberIfAbsent(constructor.getDeclaringClass(), constructor, viewSupplier);
+        return TypeUtils.unchecked(view, ConstructorView.class);
     }
 
     @Override
     public PackageView computeIfAbsent(Package pkg, Supplier<PackageView> viewSupplier) {
-        return this.packageViewCache.computeIfAbsent(pkg, key0 -> viewSupplier.get());
+        // Not cached, see class documentation
+        this.misses.increment();
+        return viewSupplier.get();
+    }
+
+    /**
+     * Computes a view of a type that is not represented by a single class, such as a parameterized type. Views are
+     * identified by the given key, and are stored in the segment of the given anchor class. The key and view are
+     * therefore retained for as long as the anchor class is, so they should only reference classes which are
+     * visible from the class loader of the anchor class.
+     *
+     * @param anchor the class to which the view is bound
+     * @param key the structural key of the type
+     * @param viewSupplier the supplier of the view, if it is not cached yet
+     * @return the cached or created view
+     */
+    public TypeView<?> computeIfAbsent(Class<?> anchor, Object key, Supplier<TypeView<?>> viewSupplier) {
+        return this.computeMemberIfAbsent(anchor, key, viewSupplier);
+    }
+
+    /**
+     * Returns the amount of times a view was requested and found in this cache.
+     *
+     * @return the amount of cache hits
+     */
+    public long hitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Returns the amount of times a view was requested but not found in this cache, causing it to be created.
+     *
+     * @return the amount of cache misses
+     */
+    public long missCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Returns the amount of classes for which views were evicted from this cache because the maximum size was
+     * exceeded. Classes that were collected together with their class loader are not counted as evictions.
+     *
+     * @return the amount of evictions
+     */
+    public long evictionCount() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * Returns the maximum amount of classes for which views are retained, or {@link #UNBOUNDED} if there is no such
+     * limit.
+     *
+     * @return the maximum size of this cache
+     */
+    public int maximumSize() {
+        return this.maximumSize;
+    }
+
+    private <V> V computeMemberIfAbsent(Class<?> declaringClass, Object member, Supplier<? extends V> viewSupplier) {
+        Map<Object, Object> memberViews = this.segment(declaringClass).memberViews();
+        Object view = memberViews.get(member);
+        if (view != null) {
+            this.hits.increment();
+        }
+        else {
+            this.misses.increment();
+            // Not using computeIfAbsent, as creating a view may recursively introspect other members of the
+            // same class.
+            V created = viewSupplier.get();
+            Object existing = memberViews.putIfAbsent(member, created);
+            view = existing != null ? existing : created;
+        }
+        //noinspection unchecked
+        return (V) view;
+    }
+
+    private ClassSegment segment(Class<?> type) {
+        ClassSegment segment = this.isClassBound()
+                ? CLASS_BOUND_SEGMENTS.get(type).computeIfAbsent(this, cache -> new ClassSegment())
+                : this.segments.computeIfAbsent(type, key -> new ClassSegment());
+        if (this.maximumSize != UNBOUNDED) {
+            this.track(type, segment);
+        }
+        return segment;
+    }
+
+    private void track(Class<?> type, ClassSegment segment) {
+        ClockEntry entry = segment.clockEntry;
+        if (entry != null) {
+            entry.referenced = true;
+            return;
+        }
+        synchronized (this.clock) {
+            if (segment.clockEntry == null) {
+                segment.clockEntry = new ClockEntry(type);
+                this.clock.offer(segment.clockEntry);
+                this.size++;
+                this.evictIfNecessary();
+            }
+        }
+    }
+
+    private void evictIfNecessary() {
+        while (this.size > this.maximumSize) {
+            ClockEntry entry = this.clock.poll();
+            if (entry == null) {
+                return;
+            }
+            Class<?> type = entry.get();
+            if (type == null) {
+                // Class was unloaded, so its segment is already gone
+                this.size--;
+            }
+            else if (entry.referenced) {
+                entry.referenced = false;
+                this.clock.offer(entry);
+            }
+            else {
+                if (this.isClassBound()) {
+                    CLASS_BOUND_SEGMENTS.get(type).remove(this);
+                }
+                else {
+                    this.segments.remove(type);
+                }
+                this.size--;
+                this.evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * All cached views for a single class. Segments are referenced either by the cache, or by the class itself
+     * through a class value if the cache is class-bound.
+     */
+    private static final class ClassSegment {
+
+        private final AtomicReference<TypeView<?>> typeView = new AtomicReference<>();
+        private volatile Map<Object, Object> memberViews;
+        private volatile ClockEntry clockEntry;
+
+        private Map<Object, Object> memberViews() {
+            Map<Object, Object> memberViews = this.memberViews;
+            if (memberViews == null) {
+                synchronized (this) {
+                    memberViews = this.memberViews;
+                    if (memberViews == null) {
+                        memberViews = new ConcurrentHashMap<>();
+                        this.memberViews = memberViews;
+                    }
+                }
+            }
+            return memberViews;
+        }
+    }
+
+    /**
+     * Position of a segment in the eviction clock. The class is referenced weakly, so the clock itself does not keep
+     * classes alive.
+     */
+    private static final class ClockEntry extends WeakReference<Class<?>> {
+
+        private volatile boolean referenced;
+
+        private ClockEntry(Class<?> type) {
+            super(type);
+        }
     }
 }
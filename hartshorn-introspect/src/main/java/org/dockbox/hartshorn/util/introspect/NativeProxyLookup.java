@@ -22,6 +22,7 @@
 import org.dockbox.hartshorn.util.introspect.annotations.AnnotationAdapterProxy;
 import org.dockbox.hartshorn.util.introspect.annotations.AnnotationAdapterProxyIntrospector;
 import org.dockbox.hartshorn.util.introspect.annotations.AnnotationProxyIntrospector;
+import org.dockbox.hartshorn.util.introspect.annotations.GeneratedAnnotationAdapter;
 import org.dockbox.hartshorn.util.option.Option;
 
 import java.lang.annotation.Annotation;
@@ -64,7 +65,7 @@ public boolean isProxy(Object instance) {
 
     @Override
     public boolean isProxy(Class<?> candidate) {
-        return Proxy.isProxyClass(candidate);
+        return Proxy.isProxyClass(candidate) || GeneratedAnnotationAdapter.class.isAssignableFrom(candidate);
     }
 
     @Override
@@ -77,6 +78,10 @@ public <T> Option<ProxyIntrospector<T>> introspector(T instance) {
                         annotation, adapterProxy);
             }
         }
+        else if(instance instanceof GeneratedAnnotationAdapter generatedAdapter) {
+            introspector = new AnnotationAdapterProxyIntrospector<>(
+                    generatedAdapter, generatedAdapter.adapterProxy());
+        }
 
         if(introspector == null && instance instanceof Annotation annotation) {
             introspector = new AnnotationProxyIntrospector<>(annotation);
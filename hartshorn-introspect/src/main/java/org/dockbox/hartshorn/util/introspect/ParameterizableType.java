@@ -49,10 +49,13 @@ public final class ParameterizableType implements Reportable {
 
     private final Class<?> type;
     private final List<ParameterizableType> parameters;
+    // Types are immutable and frequently used as (part of) map keys, so the hash is computed once
+    private final int hashCode;
 
     private ParameterizableType(Class<?> type, List<ParameterizableType> parameters) {
         this.type = type;
-        this.parameters = parameters;
+        this.parameters = List.copyOf(parameters);
+        this.hashCode = 31 * Objects.hashCode(type) + this.parameters.hashCode();
     }
 
     /**
@@ -155,12 +158,12 @@ public boolean equals(Object o) {
             return false;
         }
         ParameterizableType that = (ParameterizableType) o;
-        return Objects.equals(this.type, that.type) && Objects.equals(this.parameters, that.parameters);
+        return this.hashCode == that.hashCode && Objects.equals(this.type, that.type) && Objects.equals(this.parameters, that.parameters);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.type, this.parameters);
+        return this.hashCode;
     }
 
     /**
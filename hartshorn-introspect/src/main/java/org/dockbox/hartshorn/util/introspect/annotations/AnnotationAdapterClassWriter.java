@@ -0,0 +1,351 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.util.introspect.annotations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal class file writer for {@link GeneratedAnnotationAdapter} implementations. Generated classes extend
+ * {@link GeneratedAnnotationAdapter}, implement a given set of annotation interfaces, and store the value of each
+ * attribute in a final field. The generated constructor accepts the {@link AnnotationAdapterProxy} which resolved
+ * the attribute values, and an array containing the values in the order of the given attributes.
+ *
+ * <p>Generated code does not contain any branches, so no stack map frames are required. This keeps the writer small
+ * enough to not require a bytecode library.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+final class AnnotationAdapterClassWriter {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    // Java 17 class files. Generated classes use no features of newer versions.
+    private static final int MAJOR_VERSION = 61;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int AALOAD = 0x32;
+    private static final int IRETURN = 0xac;
+    private static final int LRETURN = 0xad;
+    private static final int FRETURN = 0xae;
+    private static final int DRETURN = 0xaf;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int GETFIELD = 0xb4;
+    private static final int PUTFIELD = 0xb5;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int CHECKCAST = 0xc0;
+
+    private static final String SUPER_CLASS = internalName(GeneratedAnnotationAdapter.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = "(" + AnnotationAdapterProxy.class.descriptorString() + "[Ljava/lang/Object;)V";
+    private static final String SUPER_CONSTRUCTOR_DESCRIPTOR = "(" + AnnotationAdapterProxy.class.descriptorString() + ")V";
+
+    private final ConstantPool constantPool = new ConstantPool();
+    private final String className;
+    private final Collection<Class<?>> interfaces;
+    private final List<Method> attributes;
+
+    /**
+     * Creates a new writer for a class with the given name.
+     *
+     * @param className the binary name of the class, which must be in the package of the lookup that defines it
+     * @param interfaces the annotation interfaces to implement
+     * @param attributes the attributes to implement, with unique names
+     */
+    AnnotationAdapterClassWriter(String className, Collection<Class<?>> interfaces, List<Method> attributes) {
+        this.className = className.replace('.', '/');
+        this.interfaces = interfaces;
+        this.attributes = attributes;
+    }
+
+    /**
+     * Writes the class file.
+     *
+     * @return the bytes of the class file
+     */
+    byte[] write() {
+        try {
+            // Methods and fields are written first, so all constants are known before the constant pool is written
+            ByteArrayOutputStream members = new ByteArrayOutputStream();
+            DataOutputStream memberOutput = new DataOutputStream(members);
+            this.writeFields(memberOutput);
+            this.writeMethods(memberOutput);
+
+            int thisClass = this.constantPool.classRef(this.className);
+            int superClass = this.constantPool.classRef(SUPER_CLASS);
+            List<Integer> interfaceIndices = new ArrayList<>();
+            for (Class<?> type : this.interfaces) {
+                interfaceIndices.add(this.constantPool.classRef(internalName(type)));
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeInt(MAGIC);
+            output.writeShort(0);
+            output.writeShort(MAJOR_VERSION);
+            this.constantPool.write(output);
+            output.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC);
+            output.writeShort(thisClass);
+            output.writeShort(superClass);
+            output.writeShort(interfaceIndices.size());
+            for (int index : interfaceIndices) {
+                output.writeShort(index);
+            }
+            members.writeTo(output);
+            // No class attributes
+            output.writeShort(0);
+            output.flush();
+            return bytes.toByteArray();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeFields(DataOutputStream output) throws IOException {
+        output.writeShort(this.attributes.size());
+        for (Method attribute : this.attributes) {
+            output.writeShort(ACC_PRIVATE | ACC_FINAL);
+            output.writeShort(this.constantPool.utf8(attribute.getName()));
+            output.writeShort(this.constantPool.utf8(attribute.getReturnType().descriptorString()));
+            output.writeShort(0);
+        }
+    }
+
+    private void writeMethods(DataOutputStream output) throws IOException {
+        output.writeShort(this.attributes.size() + 1);
+        this.writeConstructor(output);
+        for (Method attribute : this.attributes) {
+            this.writeAccessor(output, attribute);
+        }
+    }
+
+    private void writeConstructor(DataOutputStream output) throws IOException {
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        code.write(ALOAD_0);
+        code.write(ALOAD_1);
+        writeIndexed(code, INVOKESPECIAL, this.constantPool.methodRef(SUPER_CLASS, "<init>", SUPER_CONSTRUCTOR_DESCRIPTOR));
+
+        for (int i = 0; i < this.attributes.size(); i++) {
+            Method attribute = this.attributes.get(i);
+            Class<?> type = attribute.getReturnType();
+            code.write(ALOAD_0);
+            code.write(ALOAD_2);
+            writeInt(code, i);
+            code.write(AALOAD);
+            if (type.isPrimitive()) {
+                Class<?> wrapper = wrapper(type);
+                writeIndexed(code, CHECKCAST, this.constantPool.classRef(internalName(wrapper)));
+                String unboxMethod = type.getName() + "Value";
+                writeIndexed(code, INVOKEVIRTUAL, this.constantPool.methodRef(internalName(wrapper), unboxMethod, "()" + type.descriptorString()));
+            }
+            else if (type != Object.class) {
+                writeIndexed(code, CHECKCAST, this.constantPool.classRef(internalName(type)));
+            }
+            writeIndexed(code, PUTFIELD, this.constantPool.fieldRef(this.className, attribute.getName(), type.descriptorString()));
+        }
+        code.write(RETURN);
+
+        // At most: this, unboxed wide value
+        this.writeMethod(output, "<init>", CONSTRUCTOR_DESCRIPTOR, code.toByteArray(), 4, 3);
+    }
+
+    private void writeAccessor(DataOutputStream output, Method attribute) throws IOException {
+        Class<?> type = attribute.getReturnType();
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        code.write(ALOAD_0);
+        writeIndexed(code, GETFIELD, this.constantPool.fieldRef(this.className, attribute.getName(), type.descriptorString()));
+        code.write(returnInstruction(type));
+        this.writeMethod(output, attribute.getName(), "()" + type.descriptorString(), code.toByteArray(), 2, 1);
+    }
+
+    private void writeMethod(DataOutputStream output, String name, String descriptor, byte[] code, int maxStack, int maxLocals) throws IOException {
+        output.writeShort(ACC_PUBLIC);
+        output.writeShort(this.constantPool.utf8(name));
+        output.writeShort(this.constantPool.utf8(descriptor));
+        output.writeShort(1);
+        output.writeShort(this.constantPool.utf8("Code"));
+        // max_stack, max_locals, code_length, code, exception_table_length, attributes_count
+        output.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+        output.writeShort(maxStack);
+        output.writeShort(maxLocals);
+        output.writeInt(code.length);
+        output.write(code);
+        output.writeShort(0);
+        output.writeShort(0);
+    }
+
+    private static void writeIndexed(ByteArrayOutputStream code, int instruction, int index) {
+        code.write(instruction);
+        code.write(index >> 8);
+        code.write(index);
+    }
+
+    private static void writeInt(ByteArrayOutputStream code, int value) {
+        if (value <= 5) {
+            code.write(ICONST_0 + value);
+        }
+        else if (value <= Byte.MAX_VALUE) {
+            code.write(BIPUSH);
+            code.write(value);
+        }
+        else {
+            code.write(SIPUSH);
+            code.write(value >> 8);
+            code.write(value);
+        }
+    }
+
+    private static int returnInstruction(Class<?> type) {
+        if (type == long.class) {
+            return LRETURN;
+        }
+        else if (type == float.class) {
+            return FRETURN;
+        }
+        else if (type == double.class) {
+            return DRETURN;
+        }
+        else if (type.isPrimitive()) {
+            return IRETURN;
+        }
+        else {
+            return ARETURN;
+        }
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.isArray()
+                ? type.descriptorString()
+                : type.getName().replace('.', '/');
+    }
+
+    private static Class<?> wrapper(Class<?> primitive) {
+        return MethodType.methodType(primitive).wrap().returnType();
+    }
+
+    /**
+     * Constant pool of the generated class. Constants are deduplicated, and written in the order in which they
+     * were first requested.
+     */
+    private static final class ConstantPool {
+
+        private static final int CONSTANT_UTF8 = 1;
+        private static final int CONSTANT_CLASS = 7;
+        private static final int CONSTANT_FIELDREF = 9;
+        private static final int CONSTANT_METHODREF = 10;
+        private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream output = new DataOutputStream(this.bytes);
+        // Index 0 is reserved by the class file format
+        private int size = 1;
+
+        private int utf8(String value) {
+            return this.constant("U" + value, output -> {
+                output.writeByte(CONSTANT_UTF8);
+                output.writeUTF(value);
+            });
+        }
+
+        private int classRef(String internalName) {
+            int name = this.utf8(internalName);
+            return this.constant("C" + internalName, output -> {
+                output.writeByte(CONSTANT_CLASS);
+                output.writeShort(name);
+            });
+        }
+
+        private int nameAndType(String name, String descriptor) {
+            int nameIndex = this.utf8(name);
+            int descriptorIndex = this.utf8(descriptor);
+            return this.constant("N" + name + ":" + descriptor, output -> {
+                output.writeByte(CONSTANT_NAME_AND_TYPE);
+                output.writeShort(nameIndex);
+                output.writeShort(descriptorIndex);
+            });
+        }
+
+        private int fieldRef(String owner, String name, String descriptor) {
+            return this.memberRef(CONSTANT_FIELDREF, "F", owner, name, descriptor);
+        }
+
+        private int methodRef(String owner, String name, String descriptor) {
+            return this.memberRef(CONSTANT_METHODREF, "M", owner, name, descriptor);
+        }
+
+        private int memberRef(int tag, String kind, String owner, String name, String descriptor) {
+            int ownerIndex = this.classRef(owner);
+            int nameAndType = this.nameAndType(name, descriptor);
+            return this.constant(kind + owner + "." + name + ":" + descriptor, output -> {
+                output.writeByte(tag);
+                output.writeShort(ownerIndex);
+                output.writeShort(nameAndType);
+            });
+        }
+
+        private int constant(String key, ConstantWriter writer) {
+            Integer existing = this.indices.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                writer.write(this.output);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int index = this.size++;
+            this.indices.put(key, index);
+            return index;
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            output.writeShort(this.size);
+            this.output.flush();
+            this.bytes.writeTo(output);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConstantWriter {
+        void write(DataOutputStream output) throws IOException;
+    }
+}
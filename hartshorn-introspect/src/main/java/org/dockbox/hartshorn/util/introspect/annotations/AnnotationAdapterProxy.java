@@ -21,6 +21,7 @@
 import org.dockbox.hartshorn.util.option.Option;
 
 import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.Collection;
@@ -52,14 +53,15 @@
     private final Annotation actual;
     private final Class<A> targetAnnotationClass;
     private final SequencedSet<Class<? extends Annotation>> actualAnnotationHierarchy;
-    private final AnnotationLookup owner;
+    // Weak, as adapters are cached with the classes they are resolved for, which should not retain the lookup
+    private final WeakReference<AnnotationLookup> owner;
     private final Map<String, Option<Object>> methodsCache = new ConcurrentHashMap<>();
 
     AnnotationAdapterProxy(Annotation actual, Class<A> targetAnnotationClass, SequencedSet<Class<? extends Annotation>> actualAnnotationHierarchy, AnnotationLookup owner) {
         this.actual = actual;
         this.targetAnnotationClass = targetAnnotationClass;
         this.actualAnnotationHierarchy = actualAnnotationHierarchy;
-        this.owner = owner;
+        this.owner = new WeakReference<>(owner);
     }
 
     @Override
@@ -69,19 +71,11 @@ public Object invoke(Object proxy, Method method, Object[] args) {
         }
 
         if ("hashCode".equals(method.getName())) {
-            return Objects.hash(
-                    this.owner.unproxy(this.actual),
-                    this.targetAnnotationClass
-            );
+            return this.adapterHashCode();
         }
 
         if ("equals".equals(method.getName()) && method.getParameters().length == 1) {
-            if (args[0] instanceof Annotation annotation) {
-                return this.targetAnnotationClass == annotation.annotationType() && this.actual.equals(this.owner.unproxy(annotation));
-            }
-            else {
-                return this.actual.equals(args[0]);
-            }
+            return this.adapterEquals(args[0]);
         }
 
         Option<Object> cachedField = this.methodsCache.get(method.getName());
@@ -92,6 +86,22 @@ public Object invoke(Object proxy, Method method, Object[] args) {
         return cachedField.orNull();
     }
 
+    int adapterHashCode() {
+        return Objects.hash(
+                unproxy(this.actual),
+                this.targetAnnotationClass
+        );
+    }
+
+    boolean adapterEquals(Object other) {
+        if (other instanceof Annotation annotation) {
+            return this.targetAnnotationClass == annotation.annotationType() && this.actual.equals(unproxy(annotation));
+        }
+        else {
+            return this.actual.equals(other);
+        }
+    }
+
     /**
      * Returns the target annotation class for this proxy.
      * @return The target annotation class
@@ -110,11 +120,20 @@ public SequencedSet<Class<? extends Annotation>> actualAnnotationHierarchy() {
 
     /**
      * Returns the owner of this proxy. The owner is expected to be a {@link VirtualHierarchyAnnotationLookup},
-     * but this is not enforced.
-     * @return The owner of this proxy
+     * but this is not enforced. The owner is referenced weakly, so this returns {@code null} if the owner is no
+     * longer reachable.
+     * @return The owner of this proxy, or {@code null}
      */
     public AnnotationLookup owner() {
-        return this.owner;
+        return this.owner.get();
+    }
+
+    private static Annotation unproxy(Annotation annotation) {
+        // Same as VirtualHierarchyAnnotationLookup#unproxy, so equality does not depend on the owner still being reachable
+        if (annotation instanceof AnnotationAdapter adapter) {
+            return adapter.actualAnnotation();
+        }
+        return annotation;
     }
 
     private Option<Object> searchInHierarchy(Annotation actual, Class<? extends Annotation> targetAnnotationClass, Collection<Class<? extends Annotation>> hierarchy, Method proxyMethod) {
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.util.introspect.annotations;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Base class of generated virtual annotations. Generated subclasses implement the interfaces of an annotation
+ * hierarchy, and store the value of each attribute in a final field. Reading an attribute is therefore a plain
+ * field read, rather than a reflective lookup through an {@link AnnotationAdapterProxy}. Attribute values are
+ * resolved once by the {@link AnnotationAdapterProxy} when the annotation is created, so generated annotations are
+ * equivalent to proxied annotations with the same adapter.
+ *
+ * <p>Implementation note: this class is an internal implementation detail of {@link VirtualHierarchyAnnotationLookup},
+ * and is not intended for direct use. It is public so that generated subclasses can extend it, as these are defined
+ * in the package of the annotation they implement.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+// The adapter is only used to compare and describe this annotation, which does not change its observable state.
+// It cannot be annotated as immutable, as it resolves attribute values lazily for proxied annotations.
+@SuppressWarnings("ImmutableAnnotationChecker")
+public abstract class GeneratedAnnotationAdapter implements Annotation, AnnotationAdapter {
+
+    private final AnnotationAdapterProxy<?> adapterProxy;
+
+    protected GeneratedAnnotationAdapter(AnnotationAdapterProxy<?> adapterProxy) {
+        this.adapterProxy = adapterProxy;
+    }
+
+    /**
+     * Returns the adapter which resolved the attribute values of this annotation.
+     *
+     * @return the adapter of this annotation
+     */
+    public AnnotationAdapterProxy<?> adapterProxy() {
+        return this.adapterProxy;
+    }
+
+    @Override
+    public Annotation actualAnnotation() {
+        return this.adapterProxy.actualAnnotation();
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        // Consistent with proxied adapters, which delegate to the actual annotation
+        return this.actualAnnotation().annotationType();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this.adapterProxy.adapterEquals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.adapterProxy.adapterHashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.actualAnnotation().toString();
+    }
+}
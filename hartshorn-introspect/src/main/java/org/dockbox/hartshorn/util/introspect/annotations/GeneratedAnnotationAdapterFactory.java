@@ -0,0 +1,154 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.util.introspect.annotations;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.dockbox.hartshorn.util.option.Option;
+
+/**
+ * Creates {@link GeneratedAnnotationAdapter generated annotations} for virtual annotation hierarchies. A class is
+ * generated once for each annotation type, and defined as a hidden class in the package of that type. Generation
+ * is not possible if the package of the annotation is not open to this module, or if the annotations in its hierarchy
+ * declare attributes with the same name but different types. In these cases no annotation is created, and callers
+ * are expected to fall back to a proxied annotation.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+final class GeneratedAnnotationAdapterFactory {
+
+    private static final Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, AnnotationAdapterProxy.class, Object[].class);
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(Annotation.class, AnnotationAdapterProxy.class, Object[].class);
+
+    private static final ClassValue<Option<GeneratedType>> GENERATED_TYPES = new ClassValue<>() {
+        @Override
+        protected Option<GeneratedType> computeValue(Class<?> type) {
+            return generate(type.asSubclass(Annotation.class));
+        }
+    };
+
+    private GeneratedAnnotationAdapterFactory() {
+    }
+
+    /**
+     * Creates a generated annotation which is equivalent to a proxy with the given adapter. The values of all
+     * attributes are resolved immediately. If any attribute cannot be resolved, no annotation is created, so the
+     * failure is reported when the attribute is accessed on the proxied annotation instead.
+     *
+     * @param adapter the adapter which resolves the attribute values
+     * @return the generated annotation, if it could be created
+     */
+    static Option<Annotation> create(AnnotationAdapterProxy<?> adapter) {
+        Class<? extends Annotation> annotationType = adapter.actualAnnotation().annotationType();
+        Option<GeneratedType> generatedType = GENERATED_TYPES.get(annotationType);
+        if (generatedType.absent() || !generatedType.get().implementsHierarchy(adapter.actualAnnotationHierarchy())) {
+            return Option.empty();
+        }
+
+        List<Method> attributes = generatedType.get().attributes();
+        Object[] values = new Object[attributes.size()];
+        try {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = adapter.invoke(null, attributes.get(i), null);
+            }
+            return Option.of((Annotation) generatedType.get().constructor().invokeExact(adapter, values));
+        }
+        catch (RuntimeException e) {
+            // Includes unresolvable attributes, and missing values for primitive attributes
+            return Option.empty();
+        }
+        catch (Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            // Generated constructors do not declare checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Option<GeneratedType> generate(Class<? extends Annotation> annotationType) {
+        try {
+            Set<Class<? extends Annotation>> hierarchy = VirtualHierarchyAnnotationLookup.virtualHierarchy(annotationType);
+            List<Method> attributes = attributes(hierarchy);
+            if (attributes == null) {
+                return Option.empty();
+            }
+
+            String className = annotationType.getName() + "$$HartshornAnnotation";
+            List<Class<?>> interfaces = new ArrayList<>(hierarchy);
+            byte[] bytes = new AnnotationAdapterClassWriter(className, interfaces, attributes).write();
+
+            // Defined in the package of the annotation, so the generated class can access the annotation and its
+            // attribute types from the class loader of the annotation, even if these are not public.
+            Lookup annotationLookup = MethodHandles.privateLookupIn(annotationType, LOOKUP);
+            Lookup generatedLookup = annotationLookup.defineHiddenClass(bytes, true);
+            MethodHandle constructor = generatedLookup.findConstructor(generatedLookup.lookupClass(), CONSTRUCTOR_TYPE)
+                    .asType(FACTORY_TYPE);
+            return Option.of(new GeneratedType(Set.copyOf(hierarchy), attributes, constructor));
+        }
+        catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return Option.empty();
+        }
+    }
+
+    private static List<Method> attributes(Collection<Class<? extends Annotation>> hierarchy) {
+        Map<String, Method> attributes = new HashMap<>();
+        for (Class<? extends Annotation> type : hierarchy) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (!Modifier.isAbstract(method.getModifiers()) || method.getParameterCount() != 0) {
+                    continue;
+                }
+                Method existing = attributes.putIfAbsent(method.getName(), method);
+                if (existing != null && existing.getReturnType() != method.getReturnType()) {
+                    // Cannot implement both attributes with a single method
+                    return null;
+                }
+                if (isReserved(method.getName())) {
+                    return null;
+                }
+            }
+        }
+        return List.copyOf(attributes.values());
+    }
+
+    private static boolean isReserved(String name) {
+        // Methods implemented by GeneratedAnnotationAdapter
+        return "actualAnnotation".equals(name) || "adapterProxy".equals(name);
+    }
+
+    private record GeneratedType(Set<Class<?>> interfaces, List<Method> attributes, MethodHandle constructor) {
+
+        private boolean implementsHierarchy(Collection<Class<? extends Annotation>> hierarchy) {
+            return this.interfaces.size() == hierarchy.size() && this.interfaces.containsAll(hierarchy);
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.dockbox.hartshorn.util.introspect.annotations;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -24,12 +25,17 @@
 import java.util.Objects;
 import java.util.SequencedSet;
 import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.dockbox.hartshorn.util.TypeUtils;
 import org.dockbox.hartshorn.util.option.Option;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
-import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Member;
+import java.lang.reflect.Parameter;
 import java.lang.reflect.Proxy;
+import java.lang.reflect.RecordComponent;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
@@ -60,13 +66,39 @@
  * for requested attributes. In this example, the {@code name} attribute will be resolved to
  * {@code "meta"}, and the {@code id} attribute will be resolved to {@code "foo"}.
  *
+ * <p>Where possible, virtual annotations are not proxies, but instances of a class which is generated
+ * for each annotation type. These store the resolved attribute values in fields, so accessing an
+ * attribute does not require a reflective lookup. If no class can be generated, for example because
+ * the package of the annotation is not accessible, a proxy is used instead.
+ *
+ * <p>Resolved annotations are cached by each lookup instance, so separate applications using their own
+ * lookup do not share state. Cached annotations are kept for as long as both the lookup and the class
+ * declaring the element are reachable, and are resolved at most once, even if an element is looked up
+ * concurrently. Resolved annotations do not reference the lookup that resolved them, so cached
+ * annotations of classes which are never unloaded do not keep the lookup alive.
+ *
  * @since 0.4.13
  *
  * @author Guus Lieben
  */
 public class VirtualHierarchyAnnotationLookup implements AnnotationLookup {
 
-    private static final Map<HierarchyKey, Option<Object>> cache = new ConcurrentHashMap<>();
+    private static final ClassValue<SequencedSet<Class<? extends Annotation>>> HIERARCHIES = new ClassValue<>() {
+        @Override
+        protected SequencedSet<Class<? extends Annotation>> computeValue(Class<?> type) {
+            return Collections.unmodifiableSequencedSet(computeHierarchy(type.asSubclass(Annotation.class)));
+        }
+    };
+
+    // Results are stored with the class that declares the element, so they do not outlive that class. Static and
+    // weakly keyed by lookup, as values of an instance class value could keep that class value, and thus the
+    // lookup, reachable for as long as the class exists (JDK-8136353).
+    private static final ClassValue<Map<VirtualHierarchyAnnotationLookup, Map<HierarchyKey, CachedValue>>> CACHE = new ClassValue<>() {
+        @Override
+        protected Map<VirtualHierarchyAnnotationLookup, Map<HierarchyKey, CachedValue>> computeValue(Class<?> type) {
+            return Collections.synchronizedMap(new WeakHashMap<>(1));
+        }
+    };
 
     @Override
     public <A extends Annotation> A find(AnnotatedElement element, Class<A> annotationType) throws DuplicateAnnotationCompositeException {
@@ -83,13 +115,37 @@ public <A extends Annotation> List<A> findAll(AnnotatedElement element, Class<A>
         return this.fromCache(key, () -> this.annotationsOnElement(element, annotationType));
     }
 
+    /**
+     * Returns the cached value for the given key, or computes and caches it if it is not yet cached. Values are
+     * computed at most once for each key, even if the key is requested concurrently. Values are cached with the
+     * class that declares the element of the key, so values for classes of different class loaders are released
+     * independently. Elements that are not declared by a class, such as packages, are not cached. Values may not
+     * reference this lookup, as they would otherwise keep this lookup reachable from the declaring class.
+     *
+     * @param key the key of the value
+     * @param supplier the supplier which computes the value
+     * @param <T> the type of the value
+     *
+     * @return the cached or computed value
+     */
     protected <T> T fromCache(HierarchyKey key, Supplier<T> supplier) {
-        Option<Object> ret = cache.get(key);
-        if (ret == null) {
-            ret = Option.of(supplier::get);
-            cache.put(key, ret);
+        Class<?> declaringClass = declaringClass(key.element());
+        if (declaringClass == null) {
+            return supplier.get();
         }
-        return (T) ret.get();
+        Map<HierarchyKey, CachedValue> values = CACHE.get(declaringClass).computeIfAbsent(this, lookup -> new ConcurrentHashMap<>());
+        CachedValue cachedValue = values.computeIfAbsent(key, k -> new CachedValue());
+        return TypeUtils.unchecked(cachedValue.get(supplier), Object.class);
+    }
+
+    private static Class<?> declaringClass(AnnotatedElement element) {
+        return switch (element) {
+            case Class<?> clazz -> clazz;
+            case Member member -> member.getDeclaringClass();
+            case Parameter parameter -> parameter.getDeclaringExecutable().getDeclaringClass();
+            case RecordComponent recordComponent -> recordComponent.getDeclaringRecord();
+            default -> null;
+        };
     }
 
     /**
@@ -132,7 +188,12 @@ protected <A extends Annotation> A examineAnnotation(Annotation actual, Class<A>
             return null;
         }
 
-        InvocationHandler adapter = new AnnotationAdapterProxy<>(actual, targetAnnotationClass, hierarchy, this);
+        AnnotationAdapterProxy<A> adapter = new AnnotationAdapterProxy<>(actual, targetAnnotationClass, hierarchy, this);
+        Option<Annotation> generated = GeneratedAnnotationAdapterFactory.create(adapter);
+        if (generated.present()) {
+            return targetAnnotationClass.cast(generated.get());
+        }
+
         Set<Class<?>> parentInterfaces = new HashSet<>(hierarchy);
         parentInterfaces.add(AnnotationAdapter.class);
 
@@ -152,8 +213,24 @@ public Annotation unproxy(Annotation annotation) {
         return annotation;
     }
 
+    /**
+     * Returns the hierarchy of the given annotation type. Hierarchies are computed once for each annotation type,
+     * and cannot be modified.
+     *
+     * @param type the annotation type
+     * @return the hierarchy of the annotation type
+     * @throws CircularHierarchyException if the hierarchy of the annotation type is circular
+     */
     @Override
     public SequencedSet<Class<? extends Annotation>> annotationHierarchy(Class<? extends Annotation> type) {
+        return virtualHierarchy(type);
+    }
+
+    static SequencedSet<Class<? extends Annotation>> virtualHierarchy(Class<? extends Annotation> type) {
+        return HIERARCHIES.get(type);
+    }
+
+    private static SequencedSet<Class<? extends Annotation>> computeHierarchy(Class<? extends Annotation> type) {
         Class<? extends Annotation> currentClass = type;
         SequencedSet<Class<? extends Annotation>> hierarchy = new LinkedHashSet<>();
         while (currentClass != null) {
@@ -170,4 +247,26 @@ private static Class<? extends Annotation> superAnnotationOrNull(Class<? extends
         Extends extendsAnnotation = currentClass.getAnnotation(Extends.class);
         return extendsAnnotation == null ? null : extendsAnnotation.value();
     }
+
+    /**
+     * Holder of a cached value, which is computed once when it is first requested. Values are computed outside of
+     * the cache map, so computing a value may look up other elements without blocking the map.
+     */
+    private static final class CachedValue {
+
+        private volatile Object value;
+        private volatile boolean computed;
+
+        private Object get(Supplier<?> supplier) {
+            if (!this.computed) {
+                synchronized (this) {
+                    if (!this.computed) {
+                        this.value = supplier.get();
+                        this.computed = true;
+                    }
+                }
+            }
+            return this.value;
+        }
+    }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.util.introspect.scan;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Set;
+
+import org.dockbox.hartshorn.util.option.Option;
+
+/**
+ * A {@link ClassNameReference} which is enriched with information that was read directly from the class file of the
+ * referenced class. This allows callers to filter types by their supertypes or annotations, without having to load
+ * the class first.
+ *
+ * <p>Only annotations that are visible at runtime are tracked, as these are the only annotations which would be
+ * available through reflection after the class is loaded. Annotations are tracked as they are declared on the class,
+ * meaning that inherited annotations and meta-annotations are not included.
+ *
+ * <p>As this reference is a {@link ClassNameReference}, it is considered equal to any other {@link ClassNameReference}
+ * with the same name.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public class ClassFileTypeReference extends ClassNameReference {
+
+    private static final int ACC_ANNOTATION = 0x2000;
+    private static final int ACC_ENUM = 0x4000;
+
+    private final int accessFlags;
+    private final String superclassName;
+    private final List<String> interfaceNames;
+    private final Set<String> annotationNames;
+
+    public ClassFileTypeReference(String name, int accessFlags, String superclassName, List<String> interfaceNames, Set<String> annotationNames) {
+        super(name);
+        this.accessFlags = accessFlags;
+        this.superclassName = superclassName;
+        this.interfaceNames = List.copyOf(interfaceNames);
+        this.annotationNames = Set.copyOf(annotationNames);
+    }
+
+    /**
+     * Returns the access flags of the class, as declared in the class file. These flags can be inspected using
+     * {@link Modifier}.
+     *
+     * @return The access flags of the class
+     */
+    public int accessFlags() {
+        return this.accessFlags;
+    }
+
+    /**
+     * Returns the fully qualified name of the direct superclass of the referenced class. If the class is
+     * {@link Object}, an empty {@link Option} is returned. Interfaces report {@link Object} as their superclass.
+     *
+     * @return The name of the superclass, if any
+     */
+    public Option<String> superclassName() {
+        return Option.of(this.superclassName);
+    }
+
+    /**
+     * Returns the fully qualified names of the interfaces that are directly implemented by the referenced class, in
+     * the order in which they are declared.
+     *
+     * @return The names of the direct interfaces
+     */
+    public List<String> interfaceNames() {
+        return this.interfaceNames;
+    }
+
+    /**
+     * Returns the fully qualified names of the annotations that are directly present on the referenced class, and
+     * are retained at runtime.
+     *
+     * @return The names of the annotations on the class
+     */
+    public Set<String> annotationNames() {
+        return this.annotationNames;
+    }
+
+    /**
+     * Returns whether an annotation with the given fully qualified name is directly present on the referenced class.
+     *
+     * @param annotationName The fully qualified name of the annotation
+     * @return {@code true} if the annotation is present, {@code false} otherwise
+     */
+    public boolean isAnnotationPresent(String annotationName) {
+        return this.annotationNames.contains(annotationName);
+    }
+
+    /**
+     * Returns whether the given annotation is directly present on the referenced class.
+     *
+     * @param annotation The annotation type
+     * @return {@code true} if the annotation is present, {@code false} otherwise
+     */
+    public boolean isAnnotationPresent(Class<? extends Annotation> annotation) {
+        return this.isAnnotationPresent(annotation.getName());
+    }
+
+    /**
+     * Returns whether the referenced class is an interface. This includes annotation types.
+     *
+     * @return {@code true} if the class is an interface, {@code false} otherwise
+     */
+    public boolean isInterface() {
+        return Modifier.isInterface(this.accessFlags);
+    }
+
+    /**
+     * Returns whether the referenced class is an annotation type.
+     *
+     * @return {@code true} if the class is an annotation type, {@code false} otherwise
+     */
+    public boolean isAnnotation() {
+        return (this.accessFlags & ACC_ANNOTATION) != 0;
+    }
+
+    /**
+     * Returns whether the referenced class is an enum. Like {@link Class#isEnum()}, this does not include the
+     * classes that are generated for enum constants with a body.
+     *
+     * @return {@code true} if the class is an enum, {@code false} otherwise
+     */
+    public boolean isEnum() {
+        return (this.accessFlags & ACC_ENUM) != 0 && Enum.class.getName().equals(this.superclassName);
+    }
+
+    /**
+     * Returns whether the referenced class is abstract. This includes interfaces.
+     *
+     * @return {@code true} if the class is abstract, {@code false} otherwise
+     */
+    public boolean isAbstract() {
+        return Modifier.isAbstract(this.accessFlags);
+    }
+}
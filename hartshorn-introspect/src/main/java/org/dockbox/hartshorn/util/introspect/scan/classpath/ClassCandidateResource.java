@@ -16,9 +16,11 @@
 
 package org.dockbox.hartshorn.util.introspect.scan.classpath;
 
-import java.net.URLClassLoader;
 import java.nio.file.Path;
 
+import org.dockbox.hartshorn.util.introspect.scan.ClassFileTypeReference;
+import org.dockbox.hartshorn.util.option.Option;
+
 /**
  * Represents a resource on the classpath. Resources are provided by {@link ClassPathScanner}s and handed
  * over to {@link ResourceHandler}s for further processing.
@@ -27,14 +29,26 @@
  * @param path The path to the resource. This is the path as it is found on the classpath, and may be inside
  * @param resourceName The name of the resource. For classes this is the fully qualified class name, for other
  * @param isClassResource Whether this resource is a class. If {@code true}, the resource can be loaded as a class.
+ * @param classFile The type reference that was read from the class file, or {@code null} if the class file was not read.
  *
  * @since 0.4.13
  *
  * @author Guus Lieben
  */
 record ClassCandidateResource(
-        URLClassLoader classLoader,
+        ClassLoader classLoader,
         Path path,
         String resourceName,
-        boolean isClassResource
-) implements ClassPathResource { }
+        boolean isClassResource,
+        ClassFileTypeReference classFile
+) implements ClassPathResource {
+
+    ClassCandidateResource(ClassLoader classLoader, Path path, String resourceName, boolean isClassResource) {
+        this(classLoader, path, resourceName, isClassResource, null);
+    }
+
+    @Override
+    public Option<ClassFileTypeReference> typeReference() {
+        return Option.of(this.classFile);
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.util.introspect.scan.classpath;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.dockbox.hartshorn.util.introspect.scan.ClassFileTypeReference;
+
+/**
+ * A minimal reader for class files, which only reads the information that is required to create a {@link
+ * ClassFileTypeReference}. This includes the name of the class, its access flags, its direct supertypes, and the
+ * annotations that are visible at runtime. All other information, such as fields, methods and their attributes,
+ * is skipped without being decoded.
+ *
+ * <p>The reader follows the class file format as described in chapter 4 of the Java Virtual Machine Specification.
+ * Strings in the constant pool are only decoded when they are referenced by the information above, which keeps the
+ * cost of reading a class file close to the cost of reading its bytes.
+ *
+ * <p>Instances of this class are not thread-safe, and should only be used to read a single class file. Use {@link
+ * #read(byte[])} to read a class file.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public final class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELD_REF = 9;
+    private static final int CONSTANT_METHOD_REF = 10;
+    private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private final byte[] bytes;
+    private int position;
+
+    // Offset of each constant pool entry, pointing to the first byte after its tag
+    private int[] constantOffsets;
+
+    private ClassFileReader(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Reads the given class file, and creates a {@link ClassFileTypeReference} for the class it declares.
+     *
+     * @param bytes The contents of the class file
+     * @return The type reference for the class
+     * @throws ClassFileFormatException When the given bytes are not a valid class file
+     */
+    public static ClassFileTypeReference read(byte[] bytes) throws ClassFileFormatException {
+        try {
+            return new ClassFileReader(bytes).readClassFile();
+        }
+        catch (IndexOutOfBoundsException e) {
+            throw new ClassFileFormatException("Class file is truncated", e);
+        }
+    }
+
+    private ClassFileTypeReference readClassFile() throws ClassFileFormatException {
+        if (this.readInt() != MAGIC) {
+            throw new ClassFileFormatException("Not a class file, magic number does not match");
+        }
+        // Minor and major version, any version is accepted as long as the structure is compatible
+        this.skip(4);
+        this.readConstantPool();
+
+        int accessFlags = this.readUnsignedShort();
+        String name = this.readClassName(this.readUnsignedShort());
+        int superclassIndex = this.readUnsignedShort();
+        String superclassName = superclassIndex == 0 ? null : this.readClassName(superclassIndex);
+
+        int interfaceCount = this.readUnsignedShort();
+        List<String> interfaceNames = new ArrayList<>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaceNames.add(this.readClassName(this.readUnsignedShort()));
+        }
+
+        this.skipMembers(); // Fields
+        this.skipMembers(); // Methods
+
+        Set<String> annotationNames = new HashSet<>();
+        int attributeCount = this.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            int nameIndex = this.readUnsignedShort();
+            int length = this.readInt();
+            int end = this.position + length;
+            if (this.isUtf8(nameIndex, RUNTIME_VISIBLE_ANNOTATIONS)) {
+                this.readAnnotationNames(annotationNames);
+            }
+            this.position = end;
+        }
+        return new ClassFileTypeReference(name, accessFlags, superclassName, interfaceNames, annotationNames);
+    }
+
+    private void readConstantPool() throws ClassFileFormatException {
+        int constantCount = this.readUnsignedShort();
+        this.constantOffsets = new int[constantCount];
+        for (int i = 1; i < constantCount; i++) {
+            int tag = this.readUnsignedByte();
+            this.constantOffsets[i] = this.position;
+            switch (tag) {
+                case CONSTANT_UTF8 -> this.skip(this.readUnsignedShort());
+                case CONSTANT_CLASS, CONSTANT_STRING, CONSTANT_METHOD_TYPE, CONSTANT_MODULE, CONSTANT_PACKAGE -> this.skip(2);
+                case CONSTANT_METHOD_HANDLE -> this.skip(3);
+                case CONSTANT_INTEGER, CONSTANT_FLOAT, CONSTANT_FIELD_REF, CONSTANT_METHOD_REF,
+                        CONSTANT_INTERFACE_METHOD_REF, CONSTANT_NAME_AND_TYPE, CONSTANT_DYNAMIC,
+                        CONSTANT_INVOKE_DYNAMIC -> this.skip(4);
+                case CONSTANT_LONG, CONSTANT_DOUBLE -> {
+                    this.skip(8);
+                    // Long and double constants take up two entries in the constant pool
+                    i++;
+                }
+                default -> throw new ClassFileFormatException("Unknown constant pool tag " + tag + " at entry " + i);
+            }
+        }
+    }
+
+    private void skipMembers() {
+        int memberCount = this.readUnsignedShort();
+        for (int i = 0; i < memberCount; i++) {
+            // Access flags, name index and descriptor index
+            this.skip(6);
+            this.skipAttributes();
+        }
+    }
+
+    private void skipAttributes() {
+        int attributeCount = this.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            // Name index
+            this.skip(2);
+            this.skip(this.readInt());
+        }
+    }
+
+    private void readAnnotationNames(Set<String> annotationNames) throws ClassFileFormatException {
+        int annotationCount = this.readUnsignedShort();
+        for (int i = 0; i < annotationCount; i++) {
+            String descriptor = this.readUtf8(this.readUnsignedShort());
+            annotationNames.add(this.descriptorToName(descriptor));
+            this.skipElementValuePairs();
+        }
+    }
+
+    private void skipAnnotation() throws ClassFileFormatException {
+        // Type index
+        this.skip(2);
+        this.skipElementValuePairs();
+    }
+
+    private void skipElementValuePairs() throws ClassFileFormatException {
+        int pairCount = this.readUnsignedShort();
+        for (int i = 0; i < pairCount; i++) {
+            // Element name index
+            this.skip(2);
+            this.skipElementValue();
+        }
+    }
+
+    private void skipElementValue() throws ClassFileFormatException {
+        int tag = this.readUnsignedByte();
+        switch (tag) {
+            case 'B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z', 's', 'c' -> this.skip(2);
+            case 'e' -> this.skip(4);
+            case '@' -> this.skipAnnotation();
+            case '[' -> {
+                int valueCount = this.readUnsignedShort();
+                for (int i = 0; i < valueCount; i++) {
+                    this.skipElementValue();
+                }
+            }
+            default -> throw new ClassFileFormatException("Unknown annotation element value tag " + (char) tag);
+        }
+    }
+
+    private String readClassName(int classIndex) throws ClassFileFormatException {
+        int nameIndex = this.readUnsignedShort(this.constantOffset(classIndex));
+        return this.readUtf8(nameIndex).replace('/', '.');
+    }
+
+    private String descriptorToName(String descriptor) throws ClassFileFormatException {
+        if (descriptor.length() < 3 || descriptor.charAt(0) != 'L' || descriptor.charAt(descriptor.length() - 1) != ';') {
+            throw new ClassFileFormatException("Invalid annotation type descriptor " + descriptor);
+        }
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    private boolean isUtf8(int index, String expected) throws ClassFileFormatException {
+        int offset = this.constantOffset(index);
+        int length = this.readUnsignedShort(offset);
+        if (length != expected.length()) {
+            return false;
+        }
+        // Attribute names are ASCII, so a byte-wise comparison is sufficient
+        for (int i = 0; i < length; i++) {
+            if (this.bytes[offset + 2 + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readUtf8(int index) throws ClassFileFormatException {
+        int offset = this.constantOffset(index);
+        int length = this.readUnsignedShort(offset);
+        int start = offset + 2;
+        for (int i = start; i < start + length; i++) {
+            if (this.bytes[i] < 0) {
+                return this.readModifiedUtf8(offset);
+            }
+        }
+        // Most names in class files are pure ASCII, which can be decoded without going through DataInputStream
+        return new String(this.bytes, start, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private String readModifiedUtf8(int offset) throws ClassFileFormatException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(this.bytes, offset, this.bytes.length - offset))) {
+            return input.readUTF();
+        }
+        catch (IOException e) {
+            throw new ClassFileFormatException("Invalid string constant at offset " + offset, e);
+        }
+    }
+
+    private int constantOffset(int index) throws ClassFileFormatException {
+        if (index <= 0 || index >= this.constantOffsets.length || this.constantOffsets[index] == 0) {
+            throw new ClassFileFormatException("Invalid constant pool index " + index);
+        }
+        return this.constantOffsets[index];
+    }
+
+    private void skip(int length) {
+        if (length < 0 || this.position + length > this.bytes.length) {
+            throw new IndexOutOfBoundsException("Cannot skip " + length + " bytes at offset " + this.position);
+        }
+        this.position += length;
+    }
+
+    private int readUnsignedByte() {
+        return this.bytes[this.position++] & 0xFF;
+    }
+
+    private int readUnsignedShort() {
+        int value = this.readUnsignedShort(this.position);
+        this.position += 2;
+        return value;
+    }
+
+    private int readUnsignedShort(int offset) {
+        return ((this.bytes[offset] & 0xFF) << 8) | (this.bytes[offset + 1] & 0xFF);
+    }
+
+    private int readInt() {
+        int value = ((this.bytes[this.position] & 0xFF) << 24)
+                | ((this.bytes[this.position + 1] & 0xFF) << 16)
+                | ((this.bytes[this.position + 2] & 0xFF) << 8)
+                | (this.bytes[this.position + 3] & 0xFF);
+        this.position += 4;
+        return value;
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.util.introspect.scan.classpath;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.dockbox.hartshorn.util.introspect.scan.ClassFileTypeReference;
+import org.dockbox.hartshorn.util.option.Option;
+
+/**
+ * A persistent index of the classes found in classpath archives, stored as compact binary files in a directory. The
+ * index allows a {@link ClassPathScanner} to skip archives that were scanned before and have not changed since, by
+ * reusing the {@link ClassFileTypeReference}s that were found during the previous scan.
+ *
+ * <p>Each archive is stored in its own index file, named after a fingerprint of the archive and the scan
+ * configuration. The fingerprint includes the canonical path, size and last modification time of the archive, so any
+ * change to the archive results in a new fingerprint, and thus a full scan of that archive. Different scan
+ * configurations, such as different prefix filters, are stored separately. When a new index is written for an
+ * archive, index files of previous versions of the same archive and scan configuration are removed.
+ *
+ * <p>Index files start with a magic number and format version, followed by a CRC32 checksum of the payload. Index
+ * files which cannot be read, use another format version, or do not match their checksum are considered corrupt. A
+ * corrupt index file is removed, and the archive is scanned as if it was never indexed. Failures while writing index
+ * files are ignored, as the index is only used to speed up scanning.
+ *
+ * @see ClassPathScanner#index(ClassPathIndex)
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public final class ClassPathIndex {
+
+    static final int MAGIC = 0x48534958; // HSIX
+    static final int VERSION = 1;
+
+    private static final String FILE_EXTENSION = ".idx";
+
+    private final Path directory;
+
+    public ClassPathIndex(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the directory in which index files are stored.
+     *
+     * @return The index directory
+     */
+    public Path directory() {
+        return this.directory;
+    }
+
+    /**
+     * Reads the indexed type references for the given archive. If the archive was not indexed with the same scan
+     * configuration, or if the archive changed since it was indexed, an empty {@link Option} is returned.
+     *
+     * @param archive The archive to read the index for
+     * @param scanKey A key that identifies the scan configuration
+     * @return The indexed type references, if the archive is indexed
+     */
+    public Option<List<ClassFileTypeReference>> read(File archive, String scanKey) {
+        Path indexFile;
+        ArchiveFingerprint fingerprint;
+        try {
+            fingerprint = ArchiveFingerprint.of(archive);
+            indexFile = this.indexFile(fingerprint, scanKey);
+        }
+        catch (IOException e) {
+            return Option.empty();
+        }
+
+        if (!Files.isRegularFile(indexFile)) {
+            return Option.empty();
+        }
+
+        try {
+            return Option.of(this.readIndexFile(indexFile, fingerprint, scanKey));
+        }
+        catch (IOException e) {
+            // Corrupt or outdated index, remove it so it is replaced after the next full scan of the archive
+            try {
+                Files.deleteIfExists(indexFile);
+            }
+            catch (IOException ignored) {
+                // Will be overwritten when the archive is indexed again
+            }
+            return Option.empty();
+        }
+    }
+
+    /**
+     * Writes the given type references to the index of the given archive. Any existing index for the same archive
+     * and scan configuration is replaced, including indexes of previous versions of the archive.
+     *
+     * @param archive The archive that was scanned
+     * @param scanKey A key that identifies the scan configuration
+     * @param references The type references that were found in the archive
+     * @return {@code true} if the index was written, {@code false} otherwise
+     */
+    public boolean write(File archive, String scanKey, Collection<ClassFileTypeReference> references) {
+        try {
+            ArchiveFingerprint fingerprint = ArchiveFingerprint.of(archive);
+            Path indexFile = this.indexFile(fingerprint, scanKey);
+            byte[] payload = this.writePayload(fingerprint, scanKey, references);
+
+            CRC32 checksum = new CRC32();
+            checksum.update(payload);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 20);
+            try (DataOutputStream output = new DataOutputStream(bytes)) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeLong(checksum.getValue());
+                output.writeInt(payload.length);
+                output.write(payload);
+            }
+
+            // Write to a temporary file first, so concurrent readers never observe a partially written index
+            Files.createDirectories(this.directory);
+            Path temporaryFile = Files.createTempFile(this.directory, indexFile.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temporaryFile, bytes.toByteArray());
+                try {
+                    Files.move(temporaryFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+                catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporaryFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+            this.removeSupersededIndexFiles(indexFile, this.archiveKey(fingerprint, scanKey));
+            return true;
+        }
+        catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Path indexFile(ArchiveFingerprint fingerprint, String scanKey) {
+        // Archive key is shared by all versions of the archive, so superseded index files can be located when
+        // a new version is indexed
+        String fileName = this.archiveKey(fingerprint, scanKey)
+                + '-' + Long.toHexString(fingerprint.size())
+                + '-' + Long.toHexString(fingerprint.lastModified())
+                + FILE_EXTENSION;
+        return this.directory.resolve(fileName);
+    }
+
+    private String archiveKey(ArchiveFingerprint fingerprint, String scanKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(fingerprint.path().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(scanKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        }
+        catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required to be supported by every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void removeSupersededIndexFiles(Path indexFile, String archiveKey) {
+        try (DirectoryStream<Path> indexFiles = Files.newDirectoryStream(this.directory, archiveKey + "-*" + FILE_EXTENSION)) {
+            for (Path file : indexFiles) {
+                if (!file.equals(indexFile)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        catch (IOException | DirectoryIteratorException e) {
+            // Superseded index files are never read, so failing to remove them does not affect the index
+        }
+    }
+
+    private byte[] writePayload(ArchiveFingerprint fingerprint, String scanKey, Collection<ClassFileTypeReference> references) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeUTF(fingerprint.path());
+            output.writeLong(fingerprint.size());
+            output.writeLong(fingerprint.lastModified());
+            output.writeUTF(scanKey);
+
+            output.writeInt(references.size());
+            for (ClassFileTypeReference reference : references) {
+                output.writeUTF(reference.qualifiedName());
+                output.writeInt(reference.accessFlags());
+                output.writeUTF(reference.superclassName().orElse(""));
+                this.writeStrings(output, reference.interfaceNames());
+                this.writeStrings(output, reference.annotationNames());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeStrings(DataOutputStream output, Collection<String> values) throws IOException {
+        output.writeShort(values.size());
+        for (String value : values) {
+            output.writeUTF(value);
+        }
+    }
+
+    private List<ClassFileTypeReference> readIndexFile(Path indexFile, ArchiveFingerprint fingerprint, String scanKey) throws IOException {
+        byte[] bytes = Files.readAllBytes(indexFile);
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Not a classpath index file: " + indexFile);
+            }
+            int version = input.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported classpath index version " + version + ", expected " + VERSION);
+            }
+            long expectedChecksum = input.readLong();
+            int length = input.readInt();
+            if (length < 0 || length != input.available()) {
+                throw new IOException("Invalid payload length in classpath index file " + indexFile);
+            }
+            byte[] payload = new byte[length];
+            input.readFully(payload);
+
+            CRC32 checksum = new CRC32();
+            checksum.update(payload);
+            if (checksum.getValue() != expectedChecksum) {
+                throw new IOException("Checksum mismatch in classpath index file " + indexFile);
+            }
+            return this.readPayload(payload, fingerprint, scanKey);
+        }
+    }
+
+    private List<ClassFileTypeReference> readPayload(byte[] payload, ArchiveFingerprint fingerprint, String scanKey) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload))) {
+            // Guards against hash collisions, which would otherwise yield the types of another archive
+            ArchiveFingerprint indexedFingerprint = new ArchiveFingerprint(input.readUTF(), input.readLong(), input.readLong());
+            String indexedScanKey = input.readUTF();
+            if (!indexedFingerprint.equals(fingerprint) || !indexedScanKey.equals(scanKey)) {
+                throw new IOException("Classpath index does not match archive " + fingerprint.path());
+            }
+
+            int count = input.readInt();
+            List<ClassFileTypeReference> references = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String name = input.readUTF();
+                int accessFlags = input.readInt();
+                String superclassName = input.readUTF();
+                List<String> interfaceNames = this.readStrings(input);
+                Set<String> annotationNames = new HashSet<>(this.readStrings(input));
+                references.add(new ClassFileTypeReference(name, accessFlags, superclassName.isEmpty() ? null : superclassName, interfaceNames, annotationNames));
+            }
+            if (input.available() != 0) {
+                throw new IOException("Unexpected trailing data in classpath index for archive " + fingerprint.path());
+            }
+            return references;
+        }
+    }
+
+    private List<String> readStrings(DataInputStream input) throws IOException {
+        int count = input.readUnsignedShort();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(input.readUTF());
+        }
+        return values;
+    }
+
+    /**
+     * Identifies a specific version of an archive on the file system.
+     *
+     * @param path The canonical path of the archive
+     * @param size The size of the archive, in bytes
+     * @param lastModified The last modification time of the archive
+     */
+    private record ArchiveFingerprint(String path, long size, long lastModified) {
+
+        static ArchiveFingerprint of(File archive) throws IOException {
+            File canonicalFile = archive.getCanonicalFile();
+            if (!canonicalFile.isFile()) {
+                throw new IOException("Not an archive: " + archive);
+            }
+            return new ArchiveFingerprint(canonicalFile.getPath(), canonicalFile.length(), canonicalFile.lastModified());
+        }
+    }
+}
@@ -18,6 +18,9 @@
 
 import java.nio.file.Path;
 
+import org.dockbox.hartshorn.util.introspect.scan.ClassFileTypeReference;
+import org.dockbox.hartshorn.util.option.Option;
+
 /**
  * Represents a resource on the classpath. Resources are provided by {@link ClassPathScanner}s and handed
  * over to {@link ResourceHandler}s for further processing.
@@ -59,4 +62,15 @@ public interface ClassPathResource {
      * @return {@code true} if this resource is a class, {@code false} otherwise.
      */
     boolean isClassResource();
+
+    /**
+     * The type reference that was read from the class file of this resource. This is only available if this
+     * resource is a class, and the {@link ClassPathScanner} was configured to {@link ClassPathScanner#readClassHeaders()
+     * read class headers}.
+     *
+     * @return The type reference, or an empty {@link Option} if the class file was not read.
+     */
+    default Option<ClassFileTypeReference> typeReference() {
+        return Option.empty();
+    }
 }
@@ -18,6 +18,8 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -25,15 +27,27 @@
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dockbox.hartshorn.util.introspect.scan.ClassFileTypeReference;
+import org.dockbox.hartshorn.util.option.Option;
 
 /**
  * A classpath scanner that can be used to scan the classpath for resources. This scanner is capable of scanning both
@@ -52,6 +66,13 @@
  * each file to a given {@link ResourceHandler}. The scanner will only process files that are compatible with the
  * configured scan settings.
  *
+ * <p>The scanner can optionally {@link #readClassHeaders() read the class file} of each class it finds, and expose the
+ * result as a {@link ClassFileTypeReference} through {@link ClassPathResource#typeReference()}. This allows handlers
+ * to inspect the supertypes and annotations of a class without loading it, and allows the scanner to {@link
+ * #filterAnnotation(String) filter classes by their annotations}. When configured to scan in {@link #parallel()
+ * parallel}, classpath entries and the resources inside them are processed concurrently by a {@link ForkJoinPool}.
+ * Jar files can be {@link #index(ClassPathIndex) indexed}, so unchanged jar files do not need to be scanned again.
+ *
  * <p>Typically, {@link ClassPathScanner} should not be used directly, but rather be used through the {@link
  * ClassPathScannerTypeReferenceCollector}.
  *
@@ -64,11 +85,17 @@ public final class ClassPathScanner {
     private final Set<String> classNames = new HashSet<>();
     private final Set<URLClassLoader> classLoaders = new HashSet<>();
     private final Set<String> prefixFilters = new HashSet<>();
+    private final PrefixTrie prefixTrie = new PrefixTrie();
+    private final Set<String> annotationFilters = new HashSet<>();
 
     private boolean resourcesOnly = false;
     private boolean classesOnly = true;
     private boolean excludeInnerClasses = false;
     private boolean excludePackageInfo = true;
+    private boolean readClassHeaders = false;
+    private ForkJoinPool pool;
+    private ClassPathIndex index;
+    private String indexKey;
     private long scanTime = -1;
 
     private ClassPathScanner() {
@@ -88,7 +115,7 @@ public static ClassPathScanner create() {
     /**
      * Adds the value of a system property to the scanner. The value of the system property is expected to be a
      * classpath entry. The value of the system property is split on the {@link File#pathSeparatorChar} character.
-     * Each resulting path is added to the scanner if it is a valid path.
+     * All resulting paths that are valid are added to the scanner, sharing a single classloader.
      *
      * @param key The name of the system property
      * @return The scanner instance
@@ -99,6 +126,7 @@ public synchronized ClassPathScanner addSystemPropertyPaths(String key) {
             return this;
         }
 
+        List<URL> urls = new ArrayList<>();
         for (String path : value.split(String.valueOf(File.pathSeparatorChar), -1)) {
             if (path == null || path.trim().isEmpty()) {
                 continue;
@@ -109,13 +137,21 @@ public synchronized ClassPathScanner addSystemPropertyPaths(String key) {
             }
 
             try {
-                URL url = file.toURI().toURL();
-                this.addUrlForScanning(url);
+                urls.add(file.toURI().toURL());
             }
             catch (MalformedURLException e) {
                 // Ignore
             }
         }
+
+        if (!urls.isEmpty()) {
+            this.addClassLoaderForScanning(new URLClassLoader(urls.toArray(URL[]::new)) {
+                @Override
+                public String toString() {
+                    return super.toString() + " [property=" + key + "]";
+                }
+            });
+        }
         return this;
     }
 
@@ -150,16 +186,26 @@ public synchronized ClassPathScanner addClassLoaderForScanning(URLClassLoader cl
      * Scans the classpath for resources. The scanner will delegate the processing of each file to the provided {@link
      * ResourceHandler}. The scanner will only process files that are compatible with the configured scan settings.
      *
+     * <p>If the scanner is configured to scan in {@link #parallel() parallel}, the handler may be invoked concurrently
+     * from multiple threads, and is therefore expected to be thread-safe. This method always returns after all
+     * resources have been handled.
+     *
      * @param handler The handler that will consume the file if it is compatible
      * @return The scanner instance
      * @throws ClassPathWalkingException When an error occurs while scanning the classpath
      */
     public synchronized ClassPathScanner scan(ResourceHandler handler) throws ClassPathWalkingException {
         this.classNames.clear();
+        this.indexKey = this.index != null ? this.indexKey() : null;
 
         long start = System.currentTimeMillis();
-        for (URLClassLoader classLoader : this.classLoaders) {
-            this.scanClassLoaderResources(handler, classLoader);
+        if (this.pool == null) {
+            for (URLClassLoader classLoader : this.classLoaders) {
+                this.scanClassLoaderResources(handler, classLoader);
+            }
+        }
+        else {
+            this.scanInParallel(handler);
         }
 
         this.scanTime = System.currentTimeMillis() - start;
@@ -177,25 +223,94 @@ public synchronized ClassPathScanner scan(ResourceHandler handler) throws ClassP
      */
     private void scanClassLoaderResources(ResourceHandler handler, URLClassLoader classLoader) throws ClassPathWalkingException {
         for (URL url : classLoader.getURLs()) {
-            if (url.getFile() != null && !url.getFile().isEmpty()) {
-
-                // Physical files can have escaped characters in the URL representation. The simplest form of this is
-                // %20 instead of a space. This is not valid in a URI, so we need to decode the URL to get the correct
-                // file path.
-                String decodedUrl = URLDecoder.decode(url.getFile(), Charset.defaultCharset());
-                File file = new File(decodedUrl);
-                if (file.exists()) {
-                    if (file.isDirectory()) {
-                        this.processDirectoryResource(handler, classLoader, file);
-                    }
-                    else if (file.isFile() && file.getName().toLowerCase(Locale.ROOT).endsWith(".jar")) {
-                        this.processJarFileResource(handler, classLoader, file);
-                    }
+            File file = this.classPathEntry(url);
+            if (file != null) {
+                this.processClassPathEntry(handler, classLoader, file);
+            }
+        }
+    }
+
+    /**
+     * Scans all configured {@link URLClassLoader}s for resources, using the configured {@link ForkJoinPool}. Each
+     * classpath entry is processed as a separate task, which in turn processes the resources it contains in
+     * parallel. Classpath entries are validated before any task is started, so unsupported entries are reported
+     * before any resource is handled.
+     *
+     * @param handler The handler that will consume the file if it is compatible
+     * @throws ClassPathWalkingException When an error occurs while scanning the classpath
+     */
+    private void scanInParallel(ResourceHandler handler) throws ClassPathWalkingException {
+        List<ForkJoinTask<Void>> tasks = new ArrayList<>();
+        for (URLClassLoader classLoader : this.classLoaders) {
+            for (URL url : classLoader.getURLs()) {
+                File file = this.classPathEntry(url);
+                if (file != null) {
+                    tasks.add(ForkJoinTask.adapt(() -> {
+                        this.processClassPathEntry(handler, classLoader, file);
+                        return null;
+                    }));
                 }
-                else {
-                    throw new ClassPathWalkingException("Unsupported classpath resource: " + url);
+            }
+        }
+
+        try {
+            this.pool.invoke(ForkJoinTask.adapt(() -> {
+                ForkJoinTask.invokeAll(tasks);
+            }));
+        }
+        catch (RuntimeException e) {
+            // Checked exceptions are wrapped by the pool, and may be wrapped again when rethrown to this thread
+            Throwable cause = e;
+            while (cause != null) {
+                if (cause instanceof ClassPathWalkingException walkingException) {
+                    throw walkingException;
                 }
+                cause = cause.getCause();
             }
+            throw e;
+        }
+    }
+
+    /**
+     * Resolves the given {@link URL} to a classpath entry on the file system. If the URL does not represent a
+     * file, {@code null} is returned.
+     *
+     * @param url The URL to resolve
+     * @return The file, or {@code null} if the URL does not represent a file
+     * @throws ClassPathWalkingException When the file does not exist
+     */
+    @Nullable
+    private File classPathEntry(URL url) throws ClassPathWalkingException {
+        if (url.getFile() == null || url.getFile().isEmpty()) {
+            return null;
+        }
+
+        // Physical files can have escaped characters in the URL representation. The simplest form of this is
+        // %20 instead of a space. This is not valid in a URI, so we need to decode the URL to get the correct
+        // file path.
+        String decodedUrl = URLDecoder.decode(url.getFile(), Charset.defaultCharset());
+        File file = new File(decodedUrl);
+        if (!file.exists()) {
+            throw new ClassPathWalkingException("Unsupported classpath resource: " + url);
+        }
+        return file;
+    }
+
+    /**
+     * Processes a single classpath entry, which may either be a directory or a jar file. Any other type of file is
+     * ignored.
+     *
+     * @param handler The handler that will consume the file if it is compatible
+     * @param classLoader The classloader which contains the classpath entry
+     * @param file The classpath entry
+     * @throws ClassPathWalkingException When an error occurs while scanning the classpath
+     */
+    private void processClassPathEntry(ResourceHandler handler, URLClassLoader classLoader, File file) throws ClassPathWalkingException {
+        if (file.isDirectory()) {
+            this.processDirectoryResource(handler, classLoader, file);
+        }
+        else if (file.isFile() && file.getName().toLowerCase(Locale.ROOT).endsWith(".jar")) {
+            this.processJarFileResource(handler, classLoader, file);
         }
     }
 
@@ -208,15 +323,39 @@ else if (file.isFile() && file.getName().toLowerCase(Locale.ROOT).endsWith(".jar
      * @param jarFile The jar file
      */
     private void processJarFileResource(ResourceHandler handler, URLClassLoader classLoader, File jarFile) {
+        // Indexes only contain classes, so they cannot be used if other resources are requested
+        boolean useIndex = this.index != null && this.classesOnly && handler != null;
+        if (useIndex) {
+            Option<List<ClassFileTypeReference>> indexedReferences = this.index.read(jarFile, this.indexKey);
+            if (indexedReferences.present()) {
+                for (ClassFileTypeReference reference : indexedReferences.get()) {
+                    handler.handle(new ClassCandidateResource(classLoader, jarFile.toPath(), reference.qualifiedName(), true, reference));
+                }
+                return;
+            }
+        }
+
         try(JarFile file = new JarFile(jarFile)) {
+            List<PendingResource> resources = new ArrayList<>();
             Enumeration<JarEntry> entries = file.entries();
             while(entries.hasMoreElements()) {
                 JarEntry entry = entries.nextElement();
                 if(!entry.isDirectory()) {
                     String name = entry.getName();
-                    this.processPathResource(handler, classLoader, name, jarFile.toPath());
+                    this.processPathResource(resource -> resources.add(new PendingResource(resource, () -> {
+                        try (InputStream inputStream = file.getInputStream(entry)) {
+                            return inputStream.readAllBytes();
+                        }
+                    })), classLoader, name, jarFile.toPath());
                 }
             }
+            // Resources are handled before the jar file is closed, as their content may still need to be read
+            if (useIndex) {
+                this.handleAndIndexResources(handler, jarFile, resources);
+            }
+            else {
+                this.handleResources(handler, resources);
+            }
         }
         catch(IOException e) {
             // Handle exception
@@ -237,7 +376,10 @@ private void processDirectoryResource(ResourceHandler handler, URLClassLoader cl
         try {
             File rootDir = directory.getCanonicalFile();
             int rootDirNameLen = rootDir.getCanonicalPath().length();
-            Files.walkFileTree(rootDir.toPath(), new DirectoryFileTreeWalker(this, rootDirNameLen, handler, classLoader));
+            List<PendingResource> resources = new ArrayList<>();
+            ResourceHandler collector = resource -> resources.add(new PendingResource(resource, () -> Files.readAllBytes(resource.path())));
+            Files.walkFileTree(rootDir.toPath(), new DirectoryFileTreeWalker(this, rootDirNameLen, collector, classLoader));
+            this.handleResources(handler, resources);
         }
         catch (IOException e) {
             throw new ClassPathWalkingException("Could not process directory resource " + directory.getPath(), e);
@@ -272,6 +414,114 @@ void processPathResource(ResourceHandler handler, URLClassLoader classLoader, St
         handler.handle(resource);
     }
 
+    /**
+     * Handles all given resources. If the scanner is configured to scan in parallel, resources are handled by a
+     * {@link ResourceHandlingTask} in the current {@link ForkJoinPool}, otherwise they are handled in order on the
+     * current thread.
+     *
+     * @param handler The handler that will consume the resources
+     * @param resources The resources to handle
+     */
+    private void handleResources(ResourceHandler handler, List<PendingResource> resources) {
+        if (handler == null || resources.isEmpty()) {
+            return;
+        }
+        if (this.pool == null) {
+            for (PendingResource resource : resources) {
+                this.handleResource(handler, resource);
+            }
+        }
+        else {
+            // Always invoked from a classpath entry task, so this runs in the configured pool
+            new ResourceHandlingTask(handler, resources, 0, resources.size()).invoke();
+        }
+    }
+
+    /**
+     * Handles all given resources, and records the handled classes in the configured {@link ClassPathIndex}. If the
+     * class file of any handled class could not be read, the jar file is not indexed, as the index would otherwise be
+     * incomplete.
+     *
+     * @param handler The handler that will consume the resources
+     * @param jarFile The jar file that contains the resources
+     * @param resources The resources to handle
+     */
+    private void handleAndIndexResources(ResourceHandler handler, File jarFile, List<PendingResource> resources) {
+        Collection<ClassFileTypeReference> references = new ConcurrentLinkedQueue<>();
+        AtomicBoolean complete = new AtomicBoolean(true);
+        this.handleResources(resource -> {
+            Option<ClassFileTypeReference> reference = resource.typeReference();
+            if (reference.present()) {
+                references.add(reference.get());
+            }
+            else {
+                complete.set(false);
+            }
+            handler.handle(resource);
+        }, resources);
+
+        if (complete.get()) {
+            this.index.write(jarFile, this.indexKey, references);
+        }
+    }
+
+    /**
+     * Creates a key which identifies the configuration of this scanner, insofar it affects which classes are
+     * handled. Indexed jar files are only reused by scanners with the same key.
+     *
+     * @return The index key
+     */
+    private String indexKey() {
+        return String.join(",", new TreeSet<>(this.prefixFilters))
+                + ';' + String.join(",", new TreeSet<>(this.annotationFilters))
+                + ';' + this.excludeInnerClasses
+                + ';' + this.excludePackageInfo;
+    }
+
+    /**
+     * Handles a single resource. If the scanner is configured to read class headers, the class file of the resource
+     * is read before it is handed over to the handler. If the class file cannot be read, the resource is handed over
+     * without a {@link ClassFileTypeReference}, so handlers may still fall back to loading the class.
+     *
+     * @param handler The handler that will consume the resource
+     * @param pending The resource to handle
+     */
+    private void handleResource(ResourceHandler handler, PendingResource pending) {
+        ClassPathResource resource = pending.resource();
+        if (this.readClassHeaders && resource.isClassResource()) {
+            ClassFileTypeReference typeReference = this.readClassFile(pending);
+            if (typeReference != null) {
+                if (!this.matchesAnnotationFilters(typeReference)) {
+                    return;
+                }
+                resource = new ClassCandidateResource(resource.classLoader(), resource.path(), resource.resourceName(), true, typeReference);
+            }
+        }
+        handler.handle(resource);
+    }
+
+    @Nullable
+    private ClassFileTypeReference readClassFile(PendingResource pending) {
+        try {
+            return ClassFileReader.read(pending.content().read());
+        }
+        catch (IOException | ClassFileFormatException e) {
+            return null;
+        }
+    }
+
+    private boolean matchesAnnotationFilters(ClassFileTypeReference typeReference) {
+        if (this.annotationFilters.isEmpty()) {
+            return true;
+        }
+        for (String annotationFilter : this.annotationFilters) {
+            if (typeReference.isAnnotationPresent(annotationFilter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Determines if a resource should be processed by the scanner. The scanner will only process files that are
      * compatible with the configured scan settings.
@@ -284,10 +534,8 @@ void processPathResource(ResourceHandler handler, URLClassLoader classLoader, St
      */
     private boolean shouldProcessResource(boolean isClassResource, String checkedResourceName) {
         // If we're filtering by prefix, and the resource name doesn't start with any of the prefixes, don't process it
-        for (String beginFilterName : this.prefixFilters) {
-            if (!checkedResourceName.startsWith(beginFilterName)) {
-                return false;
-            }
+        if (!this.prefixTrie.isEmpty() && !this.prefixTrie.matches(checkedResourceName)) {
+            return false;
         }
 
         // If we're scanning for classes, and the resource is a class that was previously scanned, don't
@@ -326,7 +574,7 @@ private String resourceToCanonicalName(String resourceName) {
 
     /**
      * Adds a prefix filter to the scanner. The scanner will only process files that start with any of the provided
-     * prefixes.
+     * prefixes. Prefixes may overlap, in which case each classpath entry is still only walked once.
      *
      * @param prefix The prefix to add
      * @return The scanner instance
@@ -334,6 +582,7 @@ private String resourceToCanonicalName(String resourceName) {
     public synchronized ClassPathScanner filterPrefix(String prefix) {
         if (prefix != null) {
             this.prefixFilters.add(prefix);
+            this.prefixTrie.add(prefix);
         }
         return this;
     }
@@ -348,6 +597,115 @@ public synchronized Set<String> filteredPrefixes() {
         return this.prefixFilters;
     }
 
+    /**
+     * Returns whether a package with the given name may contain resources that match any of the configured
+     * prefixes. This is the case if the package name starts with a prefix, or if the package name is the start of
+     * a prefix. If no prefixes are configured, all packages are considered candidates.
+     *
+     * <p>This method does not acquire the lock of this scanner, as it is used by {@link DirectoryFileTreeWalker}s,
+     * which may run on other threads while a scan holds the lock.
+     *
+     * @param packageName The name of the package
+     * @return {@code true} if the package may contain matching resources, {@code false} otherwise
+     */
+    boolean isCandidatePackage(String packageName) {
+        return this.prefixTrie.isEmpty() || this.prefixTrie.mayMatch(packageName);
+    }
+
+    /**
+     * Adds an annotation filter to the scanner. The scanner will only process classes that are directly annotated
+     * with any of the configured annotations. As this requires the class file of each class to be read, this also
+     * enables {@link #readClassHeaders()}.
+     *
+     * <p>Only annotations that are retained at runtime are considered, and meta-annotations are not resolved. Classes
+     * which are only annotated with an annotation that is itself annotated with a filtered annotation will not be
+     * processed. Classes of which the class file cannot be read are always processed.
+     *
+     * @param annotationName The fully qualified name of the annotation
+     * @return The scanner instance
+     */
+    public synchronized ClassPathScanner filterAnnotation(String annotationName) {
+        if (annotationName != null) {
+            this.annotationFilters.add(annotationName);
+            this.readClassHeaders = true;
+        }
+        return this;
+    }
+
+    /**
+     * Adds an annotation filter to the scanner. See {@link #filterAnnotation(String)} for details.
+     *
+     * @param annotation The annotation type
+     * @return The scanner instance
+     */
+    public synchronized ClassPathScanner filterAnnotation(Class<? extends Annotation> annotation) {
+        return this.filterAnnotation(annotation.getName());
+    }
+
+    /**
+     * Returns the set of annotation names that are configured in the scanner. When scanning the classpath, the scanner
+     * will only process classes that are directly annotated with any of these annotations.
+     *
+     * @return The set of annotation names
+     */
+    public synchronized Set<String> filteredAnnotations() {
+        return Collections.unmodifiableSet(this.annotationFilters);
+    }
+
+    /**
+     * Configures the scanner to read the class file of each class it processes. The result is made available through
+     * {@link ClassPathResource#typeReference()}, without loading the class.
+     *
+     * @return The scanner instance
+     */
+    public synchronized ClassPathScanner readClassHeaders() {
+        this.readClassHeaders = true;
+        return this;
+    }
+
+    /**
+     * Configures the scanner to use the given {@link ClassPathIndex} for jar files. Jar files which were indexed
+     * before, and have not changed since, are not opened, and their classes are handled using the indexed {@link
+     * ClassFileTypeReference}s instead. Jar files which are not indexed yet are scanned as usual, and added to the
+     * index afterwards. As the index stores the class file information of each class, this also enables {@link
+     * #readClassHeaders()}.
+     *
+     * <p>Directories are never indexed, as changes to their contents cannot be detected reliably without visiting
+     * them. Indexes are only used when the scanner is configured to scan for {@link #classesOnly() classes only}.
+     *
+     * @param index The index to use, or {@code null} to disable indexing
+     * @return The scanner instance
+     */
+    public synchronized ClassPathScanner index(ClassPathIndex index) {
+        this.index = index;
+        if (index != null) {
+            this.readClassHeaders = true;
+        }
+        return this;
+    }
+
+    /**
+     * Configures the scanner to process classpath entries and their resources in parallel, using the {@link
+     * ForkJoinPool#commonPool() common pool}.
+     *
+     * @return The scanner instance
+     */
+    public synchronized ClassPathScanner parallel() {
+        return this.parallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Configures the scanner to process classpath entries and their resources in parallel, using the given {@link
+     * ForkJoinPool}. If the given pool is {@code null}, the scanner will process all resources on the calling thread.
+     *
+     * @param pool The pool to use
+     * @return The scanner instance
+     */
+    public synchronized ClassPathScanner parallel(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
     /**
      * Includes the default classpath in the scanner. The default classpath is determined by the value of the {@code
      * java.class.path} system property.
@@ -421,4 +779,59 @@ public synchronized Set<ClassLoader> classLoaders() {
     public synchronized long scanTime() {
         return this.scanTime;
     }
+
+    /**
+     * Provides the content of a resource, which is only read when it is needed.
+     */
+    @FunctionalInterface
+    private interface ResourceContent {
+        byte[] read() throws IOException;
+    }
+
+    /**
+     * A resource that was found on the classpath and passed all name-based filters, but has not yet been handed over
+     * to a {@link ResourceHandler}.
+     *
+     * @param resource The resource
+     * @param content The content of the resource
+     */
+    private record PendingResource(ClassPathResource resource, ResourceContent content) {
+    }
+
+    /**
+     * A {@link RecursiveAction} that handles a range of {@link PendingResource}s, splitting the range until it is
+     * small enough to be handled on a single thread.
+     */
+    private final class ResourceHandlingTask extends RecursiveAction {
+
+        private static final int THRESHOLD = 64;
+
+        private final ResourceHandler handler;
+        private final List<PendingResource> resources;
+        private final int from;
+        private final int to;
+
+        private ResourceHandlingTask(ResourceHandler handler, List<PendingResource> resources, int from, int to) {
+            this.handler = handler;
+            this.resources = resources;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= THRESHOLD) {
+                for (int i = this.from; i < this.to; i++) {
+                    ClassPathScanner.this.handleResource(this.handler, this.resources.get(i));
+                }
+            }
+            else {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(
+                        new ResourceHandlingTask(this.handler, this.resources, this.from, middle),
+                        new ResourceHandlingTask(this.handler, this.resources, middle, this.to)
+                );
+            }
+        }
+    }
 }
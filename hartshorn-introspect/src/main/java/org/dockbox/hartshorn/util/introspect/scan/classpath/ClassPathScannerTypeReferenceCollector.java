@@ -17,47 +17,75 @@
 package org.dockbox.hartshorn.util.introspect.scan.classpath;
 
 import org.dockbox.hartshorn.reporting.DiagnosticsPropertyCollector;
-import org.dockbox.hartshorn.util.introspect.scan.ClassNameReference;
+import org.dockbox.hartshorn.util.introspect.scan.ClassFileTypeReference;
 import org.dockbox.hartshorn.util.introspect.scan.TypeCollectionException;
 import org.dockbox.hartshorn.util.introspect.scan.TypeReference;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * A {@link ClasspathTypeReferenceCollector} that collects {@link TypeReference}s from a classpath using a
  * {@link ClassPathScanner}. This automatically includes the default classpath, and filters on the configured
  * package name. Scanning does not include any non-class resources.
  *
+ * <p>The classpath is scanned in parallel, and the class file of each class is read while scanning. Collected
+ * references are therefore {@link ClassFileTypeReference}s where possible, which allows consumers to filter them
+ * without loading the referenced classes.
+ *
+ * <p>Collectors for multiple packages can share a single {@link MultiPrefixClassPathScan}, so the classpath is only
+ * walked once for all of them. Use {@link #forPackages(Set)} to create such collectors.
+ *
  * @since 0.4.13
  *
  * @author Guus Lieben
  */
 public class ClassPathScannerTypeReferenceCollector extends ClasspathTypeReferenceCollector {
 
+    private final MultiPrefixClassPathScan scan;
+
     public ClassPathScannerTypeReferenceCollector(String packageName) {
+        this(packageName, new MultiPrefixClassPathScan(Set.of(packageName)));
+    }
+
+    public ClassPathScannerTypeReferenceCollector(String packageName, MultiPrefixClassPathScan scan) {
         super(packageName);
+        if (!scan.prefixes().contains(packageName)) {
+            throw new IllegalArgumentException("Package " + packageName + " is not part of the provided scan");
+        }
+        this.scan = scan;
+    }
+
+    /**
+     * Creates a collector for each of the given packages. All collectors share a single {@link
+     * MultiPrefixClassPathScan}, so the classpath is walked at most once for all packages combined.
+     *
+     * @param packageNames The packages to create collectors for
+     * @return The collectors, one for each package
+     */
+    public static Set<ClassPathScannerTypeReferenceCollector> forPackages(Set<String> packageNames) {
+        return forPackages(packageNames, null);
+    }
+
+    /**
+     * Creates a collector for each of the given packages. All collectors share a single {@link
+     * MultiPrefixClassPathScan}, so the classpath is walked at most once for all packages combined. Jar files which
+     * are present in the given {@link ClassPathIndex} are not scanned again.
+     *
+     * @param packageNames The packages to create collectors for
+     * @param index The index to use, or {@code null} to disable indexing
+     * @return The collectors, one for each package
+     */
+    public static Set<ClassPathScannerTypeReferenceCollector> forPackages(Set<String> packageNames, ClassPathIndex index) {
+        MultiPrefixClassPathScan scan = new MultiPrefixClassPathScan(packageNames, index);
+        return packageNames.stream()
+                .map(packageName -> new ClassPathScannerTypeReferenceCollector(packageName, scan))
+                .collect(Collectors.toSet());
     }
 
     @Override
     protected Set<TypeReference> createCache() throws TypeCollectionException {
-        Set<TypeReference> typeReferences = new HashSet<>();
-        ClassPathScanner classpathScanner = ClassPathScanner.create()
-                .includeDefaultClassPath()
-                .filterPrefix(this.packageName())
-                .classesOnly();
-
-        try {
-            classpathScanner.scan(resource -> {
-                if(resource.isClassResource()) {
-                    typeReferences.add(new ClassNameReference(resource.resourceName()));
-                }
-            });
-        }
-        catch(ClassPathWalkingException e) {
-            throw new TypeCollectionException("Failed to collect types in package " + this.packageName(), e);
-        }
-        return typeReferences;
+        return this.scan.collect(this.packageName());
     }
 
     @Override
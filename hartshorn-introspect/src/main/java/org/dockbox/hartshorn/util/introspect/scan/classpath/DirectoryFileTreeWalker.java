@@ -60,14 +60,11 @@ public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) th
                 .replace('/', '.')
                 .replace('\\', '.');
 
-        for (String beginFilterName : this.classPathScanner.filteredPrefixes()) {
-            // If path starts with a filtered prefix, continue
-            // If the path is part of a filtered package, continue, may match later
-            if (canonicalName.startsWith(beginFilterName) || beginFilterName.startsWith(canonicalName)) {
-                return FileVisitResult.CONTINUE;
-            }
-        }
-        return FileVisitResult.SKIP_SUBTREE;
+        // If path starts with a filtered prefix, continue
+        // If the path is part of a filtered package, continue, may match later
+        return this.classPathScanner.isCandidatePackage(canonicalName)
+                ? FileVisitResult.CONTINUE
+                : FileVisitResult.SKIP_SUBTREE;
     }
 
     @Override
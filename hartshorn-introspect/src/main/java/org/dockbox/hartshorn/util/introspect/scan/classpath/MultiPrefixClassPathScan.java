@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.util.introspect.scan.classpath;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.dockbox.hartshorn.util.introspect.scan.ClassNameReference;
+import org.dockbox.hartshorn.util.introspect.scan.TypeCollectionException;
+import org.dockbox.hartshorn.util.introspect.scan.TypeReference;
+
+/**
+ * A scan of the default classpath which collects {@link TypeReference}s for multiple prefixes at once. The classpath
+ * is walked exactly once, on the first request for any of the prefixes, after which each class is dispatched to all
+ * prefixes it matches. Overlapping prefixes, like {@code com.example} and {@code com.example.service}, do not cause
+ * any part of the classpath to be walked more than once.
+ *
+ * <p>Typically, a single scan is shared between multiple {@link ClassPathScannerTypeReferenceCollector}s, one for each
+ * prefix. This way the startup cost of scanning scales with the size of the classpath, rather than with the size of
+ * the classpath multiplied by the amount of prefixes.
+ *
+ * <p>If a {@link ClassPathIndex} is provided, jar files on the classpath which were indexed during a previous scan, and
+ * did not change since, are not scanned again.
+ *
+ * @see ClassPathScannerTypeReferenceCollector
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public final class MultiPrefixClassPathScan {
+
+    private final Set<String> prefixes;
+    private final ClassPathIndex index;
+    private Map<String, Set<TypeReference>> references;
+
+    public MultiPrefixClassPathScan(Set<String> prefixes) {
+        this(prefixes, null);
+    }
+
+    public MultiPrefixClassPathScan(Set<String> prefixes, ClassPathIndex index) {
+        this.prefixes = Set.copyOf(prefixes);
+        this.index = index;
+    }
+
+    /**
+     * Returns the prefixes that are collected by this scan.
+     *
+     * @return The prefixes
+     */
+    public Set<String> prefixes() {
+        return this.prefixes;
+    }
+
+    /**
+     * Returns all {@link TypeReference}s on the classpath that match the given prefix. If the classpath was not yet
+     * scanned, this will scan the classpath for all prefixes of this scan. A type matches a prefix if its name starts
+     * with that prefix, so a type which matches multiple (overlapping) prefixes is returned for each of them.
+     *
+     * @param prefix The prefix to collect references for
+     * @return An unmodifiable view of the references that match the prefix
+     * @throws TypeCollectionException When the classpath could not be scanned
+     * @throws IllegalArgumentException When the prefix is not part of this scan
+     */
+    public synchronized Set<TypeReference> collect(String prefix) throws TypeCollectionException {
+        if (!this.prefixes.contains(prefix)) {
+            throw new IllegalArgumentException("Prefix " + prefix + " is not part of this scan, expected one of " + this.prefixes);
+        }
+        if (this.references == null) {
+            this.references = this.scan();
+        }
+        return this.references.get(prefix);
+    }
+
+    private Map<String, Set<TypeReference>> scan() throws TypeCollectionException {
+        PrefixTrie trie = new PrefixTrie();
+        Map<String, Set<TypeReference>> references = new ConcurrentHashMap<>();
+        ClassPathScanner classpathScanner = ClassPathScanner.create()
+                .includeDefaultClassPath()
+                .classesOnly()
+                .readClassHeaders()
+                .index(this.index)
+                .parallel();
+
+        for (String prefix : this.prefixes) {
+            trie.add(prefix);
+            references.put(prefix, ConcurrentHashMap.newKeySet());
+            classpathScanner.filterPrefix(prefix);
+        }
+
+        try {
+            classpathScanner.scan(resource -> {
+                if(resource.isClassResource()) {
+                    TypeReference reference = resource.typeReference()
+                            .map(TypeReference.class::cast)
+                            .orElseGet(() -> new ClassNameReference(resource.resourceName()));
+                    for (String prefix : trie.matchingPrefixes(resource.resourceName())) {
+                        references.get(prefix).add(reference);
+                    }
+                }
+            });
+        }
+        catch(ClassPathWalkingException e) {
+            throw new TypeCollectionException("Failed to collect types in packages " + this.prefixes, e);
+        }
+
+        Map<String, Set<TypeReference>> views = new HashMap<>();
+        references.forEach((prefix, prefixReferences) -> views.put(prefix, Collections.unmodifiableSet(prefixReferences)));
+        return views;
+    }
+}
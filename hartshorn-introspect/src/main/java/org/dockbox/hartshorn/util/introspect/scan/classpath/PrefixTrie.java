@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.util.introspect.scan.classpath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A character-based trie of name prefixes. Names are matched against the trie in a single pass, regardless of
+ * the amount of registered prefixes. Prefixes are matched as plain strings, so the prefix {@code com.example}
+ * matches both {@code com.example.Type} and {@code com.examples.Type}, consistent with {@link String#startsWith(String)}.
+ *
+ * <p>Tries are not thread-safe while prefixes are being added, but can safely be read concurrently once all prefixes
+ * have been added.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+final class PrefixTrie {
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * Adds a prefix to the trie. Adding a prefix that is already present has no effect.
+     *
+     * @param prefix The prefix to add
+     * @return {@code true} if the prefix was added, {@code false} if it was already present
+     */
+    boolean add(String prefix) {
+        Node node = this.root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i), character -> new Node());
+        }
+        if (node.prefix != null) {
+            return false;
+        }
+        node.prefix = prefix;
+        this.size++;
+        return true;
+    }
+
+    /**
+     * Returns whether the trie contains any prefixes.
+     *
+     * @return {@code true} if the trie is empty, {@code false} otherwise
+     */
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns whether the given name starts with any of the prefixes in this trie.
+     *
+     * @param name The name to match
+     * @return {@code true} if any prefix matches, {@code false} otherwise
+     */
+    boolean matches(String name) {
+        Node node = this.root;
+        for (int i = 0; ; i++) {
+            if (node.prefix != null) {
+                return true;
+            }
+            if (i == name.length()) {
+                return false;
+            }
+            node = node.children.get(name.charAt(i));
+            if (node == null) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns all prefixes in this trie which the given name starts with, from shortest to longest.
+     *
+     * @param name The name to match
+     * @return The matching prefixes
+     */
+    List<String> matchingPrefixes(String name) {
+        List<String> prefixes = null;
+        Node node = this.root;
+        for (int i = 0; ; i++) {
+            if (node.prefix != null) {
+                if (prefixes == null) {
+                    prefixes = new ArrayList<>();
+                }
+                prefixes.add(node.prefix);
+            }
+            if (i == name.length()) {
+                break;
+            }
+            node = node.children.get(name.charAt(i));
+            if (node == null) {
+                break;
+            }
+        }
+        return prefixes == null ? Collections.emptyList() : prefixes;
+    }
+
+    /**
+     * Returns whether the given name starts with any of the prefixes in this trie, or is itself the start of any
+     * of the prefixes. This is used to determine whether a package may contain matching names.
+     *
+     * @param name The name to match
+     * @return {@code true} if the name may lead to a match, {@code false} otherwise
+     */
+    boolean mayMatch(String name) {
+        Node node = this.root;
+        for (int i = 0; i < name.length(); i++) {
+            if (node.prefix != null) {
+                return true;
+            }
+            node = node.children.get(name.charAt(i));
+            if (node == null) {
+                return false;
+            }
+        }
+        // Name is fully consumed, so the node is either a prefix, or leads to one
+        return true;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private String prefix;
+    }
+}
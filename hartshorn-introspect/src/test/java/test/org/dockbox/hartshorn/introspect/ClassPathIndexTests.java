@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.introspect;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import org.dockbox.hartshorn.util.introspect.scan.ClassFileTypeReference;
+import org.dockbox.hartshorn.util.introspect.scan.classpath.ClassPathIndex;
+import org.dockbox.hartshorn.util.introspect.scan.classpath.ClassPathScanner;
+import org.dockbox.hartshorn.util.introspect.scan.classpath.ClassPathWalkingException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import test.org.dockbox.hartshorn.introspect.types.ScanClass;
+import test.org.dockbox.hartshorn.introspect.types.ScanEnum;
+import test.org.dockbox.hartshorn.introspect.types.ScanRecord;
+
+public class ClassPathIndexTests {
+
+    private static final String PREFIX = "test.org.dockbox.hartshorn.introspect.types";
+
+    @TempDir
+    Path temporaryDirectory;
+
+    @Test
+    void testIndexIsWrittenAfterFirstScan() throws IOException, ClassPathWalkingException {
+        Path jar = this.createJar("types.jar", ScanClass.class, ScanEnum.class);
+        Path indexDirectory = this.temporaryDirectory.resolve("index");
+
+        Map<String, ClassFileTypeReference> references = this.scan(jar, new ClassPathIndex(indexDirectory));
+        Assertions.assertEquals(Set.of(ScanClass.class.getName(), ScanEnum.class.getName()), references.keySet());
+        Assertions.assertEquals(1, this.indexFiles(indexDirectory).size());
+    }
+
+    @Test
+    void testUnchangedJarIsLoadedFromIndex() throws IOException, ClassPathWalkingException {
+        Path jar = this.createJar("types.jar", ScanClass.class, ScanEnum.class);
+        ClassPathIndex index = new ClassPathIndex(this.temporaryDirectory.resolve("index"));
+        Map<String, ClassFileTypeReference> scanned = this.scan(jar, index);
+
+        // As the fingerprint is unchanged, the jar should not be opened at all
+        this.invalidateContent(jar);
+
+        Map<String, ClassFileTypeReference> indexed = this.scan(jar, index);
+        Assertions.assertEquals(scanned.keySet(), indexed.keySet());
+
+        ClassFileTypeReference enumReference = indexed.get(ScanEnum.class.getName());
+        Assertions.assertTrue(enumReference.isEnum());
+        Assertions.assertEquals(Enum.class.getName(), enumReference.superclassName().get());
+    }
+
+    @Test
+    void testChangedJarIsScannedAgain() throws IOException, ClassPathWalkingException {
+        Path jar = this.createJar("types.jar", ScanClass.class);
+        ClassPathIndex index = new ClassPathIndex(this.temporaryDirectory.resolve("index"));
+        Assertions.assertEquals(Set.of(ScanClass.class.getName()), this.scan(jar, index).keySet());
+
+        this.createJar("types.jar", ScanClass.class, ScanRecord.class);
+        // Ensure the modification time changes, even on file systems with a coarse timestamp resolution
+        Assertions.assertTrue(jar.toFile().setLastModified(jar.toFile().lastModified() + 2000));
+
+        Assertions.assertEquals(Set.of(ScanClass.class.getName(), ScanRecord.class.getName()), this.scan(jar, index).keySet());
+    }
+
+    @Test
+    void testSupersededIndexIsRemoved() throws IOException, ClassPathWalkingException {
+        Path jar = this.createJar("types.jar", ScanClass.class);
+        Path indexDirectory = this.temporaryDirectory.resolve("index");
+        ClassPathIndex index = new ClassPathIndex(indexDirectory);
+        this.scan(jar, index);
+        Path previousIndexFile = this.indexFiles(indexDirectory).get(0);
+
+        this.createJar("types.jar", ScanClass.class, ScanRecord.class);
+        Assertions.assertTrue(jar.toFile().setLastModified(jar.toFile().lastModified() + 2000));
+        this.scan(jar, index);
+
+        List<Path> indexFiles = this.indexFiles(indexDirectory);
+        Assertions.assertEquals(1, indexFiles.size());
+        Assertions.assertNotEquals(previousIndexFile, indexFiles.get(0));
+    }
+
+    @Test
+    void testIndexOfOtherScanKeyIsNotRemoved() throws IOException {
+        Path jar = this.createJar("types.jar", ScanClass.class);
+        Path indexDirectory = this.temporaryDirectory.resolve("index");
+        ClassPathIndex index = new ClassPathIndex(indexDirectory);
+        Assertions.assertTrue(index.write(jar.toFile(), "first", List.of()));
+        Assertions.assertTrue(index.write(jar.toFile(), "second", List.of()));
+
+        Assertions.assertEquals(2, this.indexFiles(indexDirectory).size());
+        Assertions.assertTrue(index.read(jar.toFile(), "first").present());
+        Assertions.assertTrue(index.read(jar.toFile(), "second").present());
+    }
+
+    @Test
+    void testCorruptIndexFallsBackToFullScan() throws IOException, ClassPathWalkingException {
+        Path jar = this.createJar("types.jar", ScanClass.class, ScanEnum.class);
+        Path indexDirectory = this.temporaryDirectory.resolve("index");
+        ClassPathIndex index = new ClassPathIndex(indexDirectory);
+        this.scan(jar, index);
+
+        Path indexFile = this.indexFiles(indexDirectory).get(0);
+        byte[] content = Files.readAllBytes(indexFile);
+        // Flip a bit in the payload, so only the checksum can detect the corruption
+        content[content.length - 1] ^= 1;
+        Files.write(indexFile, content);
+
+        Assertions.assertEquals(Set.of(ScanClass.class.getName(), ScanEnum.class.getName()), this.scan(jar, index).keySet());
+
+        // Corrupt index is replaced with a valid index after the full scan, so the jar no longer needs to be read
+        this.invalidateContent(jar);
+        Assertions.assertEquals(Set.of(ScanClass.class.getName(), ScanEnum.class.getName()), this.scan(jar, index).keySet());
+    }
+
+    @Test
+    void testIndexWithUnknownVersionIsIgnored() throws IOException {
+        Path jar = this.createJar("types.jar", ScanClass.class);
+        Path indexDirectory = this.temporaryDirectory.resolve("index");
+        ClassPathIndex index = new ClassPathIndex(indexDirectory);
+        Assertions.assertTrue(index.write(jar.toFile(), "key", List.of()));
+        Assertions.assertTrue(index.read(jar.toFile(), "key").present());
+
+        Path indexFile = this.indexFiles(indexDirectory).get(0);
+        byte[] content = Files.readAllBytes(indexFile);
+        // Version follows the 4-byte magic number
+        content[7] = 99;
+        Files.write(indexFile, content);
+
+        Assertions.assertTrue(index.read(jar.toFile(), "key").absent());
+        Assertions.assertFalse(Files.exists(indexFile));
+    }
+
+    @Test
+    void testIndexIsSeparatedByScanKey() throws IOException {
+        Path jar = this.createJar("types.jar", ScanClass.class);
+        ClassPathIndex index = new ClassPathIndex(this.temporaryDirectory.resolve("index"));
+        ClassFileTypeReference reference = new ClassFileTypeReference("a.B", 0, "java.lang.Object", List.of(), Set.of("a.C"));
+        Assertions.assertTrue(index.write(jar.toFile(), "first", List.of(reference)));
+
+        Assertions.assertTrue(index.read(jar.toFile(), "second").absent());
+        List<ClassFileTypeReference> references = index.read(jar.toFile(), "first").get();
+        Assertions.assertEquals(1, references.size());
+        Assertions.assertEquals("a.B", references.get(0).qualifiedName());
+        Assertions.assertTrue(references.get(0).isAnnotationPresent("a.C"));
+    }
+
+    private void invalidateContent(Path jar) throws IOException {
+        // Replace the jar with invalid content of the same size and modification time, so it can only be scanned
+        // through the index
+        long lastModified = Files.getLastModifiedTime(jar).toMillis();
+        Files.write(jar, new byte[(int) Files.size(jar)]);
+        Assertions.assertTrue(jar.toFile().setLastModified(lastModified));
+    }
+
+    private Map<String, ClassFileTypeReference> scan(Path jar, ClassPathIndex index) throws IOException, ClassPathWalkingException {
+        Map<String, ClassFileTypeReference> references = new ConcurrentHashMap<>();
+        ClassPathScanner.create()
+                .addUrlForScanning(jar.toUri().toURL())
+                .filterPrefix(PREFIX)
+                .index(index)
+                .scan(resource -> references.put(resource.resourceName(), resource.typeReference().get()));
+        return references;
+    }
+
+    private List<Path> indexFiles(Path indexDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(indexDirectory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".idx")).toList();
+        }
+    }
+
+    private Path createJar(String name, Class<?>... types) throws IOException {
+        Path jar = this.temporaryDirectory.resolve(name);
+        try (OutputStream outputStream = Files.newOutputStream(jar);
+             JarOutputStream jarOutputStream = new JarOutputStream(outputStream)) {
+            for (Class<?> type : types) {
+                String entryName = type.getName().replace('.', '/') + ".class";
+                jarOutputStream.putNextEntry(new JarEntry(entryName));
+                try (InputStream classFile = type.getClassLoader().getResourceAsStream(entryName)) {
+                    Assertions.assertNotNull(classFile);
+                    classFile.transferTo(jarOutputStream);
+                }
+                jarOutputStream.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
@@ -17,11 +17,18 @@
 package test.org.dockbox.hartshorn.introspect;
 
 import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import org.dockbox.hartshorn.util.introspect.scan.ClassFileTypeReference;
 import org.dockbox.hartshorn.util.introspect.scan.classpath.ClassPathScanner;
 import org.dockbox.hartshorn.util.introspect.scan.classpath.ClassPathWalkingException;
 import org.junit.jupiter.api.Assertions;
@@ -69,8 +76,126 @@ void testCanScanWithEncodedCharacters() throws IOException, ClassPathWalkingExce
         scanner.scan(resource -> Assertions.fail("Should not have found any resources"));
     }
 
+    @Test
+    void testCanScanWithMultiplePrefixes() throws ClassPathWalkingException {
+        ClassPathScanner scanner = ClassPathScanner.create()
+                .includeDefaultClassPath()
+                .filterPrefix("test.org.dockbox.hartshorn.introspect.types")
+                .filterPrefix(ClassPathScannerTests.class.getName() + "$");
+
+        Set<String> classes = new HashSet<>();
+        scanner.scan(resource -> classes.add(resource.resourceName()));
+
+        // 7 classes in the types package, and 3 nested types in this class
+        Assertions.assertEquals(10, classes.size());
+        Assertions.assertTrue(classes.contains(ScanClass.class.getName()));
+        Assertions.assertTrue(classes.contains(AnnotatedType.class.getName()));
+        Assertions.assertFalse(classes.contains(ClassPathScannerTests.class.getName()));
+    }
+
+    @Test
+    void testResourceMatchingAnyPrefixIsProcessed() throws ClassPathWalkingException {
+        String typesPackage = "test.org.dockbox.hartshorn.introspect.types";
+        String componentsPackage = "test.org.dockbox.hartshorn.introspect.components";
+        ClassPathScanner scanner = ClassPathScanner.create()
+                .includeDefaultClassPath()
+                .filterPrefix(typesPackage)
+                .filterPrefix(componentsPackage);
+
+        Set<String> classes = new HashSet<>();
+        scanner.scan(resource -> classes.add(resource.resourceName()));
+
+        // No resource starts with both prefixes, so resources only need to match one of them
+        Assertions.assertTrue(classes.stream().anyMatch(name -> name.startsWith(typesPackage)));
+        Assertions.assertTrue(classes.stream().anyMatch(name -> name.startsWith(componentsPackage)));
+        Assertions.assertTrue(classes.stream().allMatch(name -> name.startsWith(typesPackage) || name.startsWith(componentsPackage)));
+    }
+
+    @Test
+    void testCanReadClassHeaders() throws ClassPathWalkingException {
+        ClassPathScanner scanner = ClassPathScanner.create()
+                .includeDefaultClassPath()
+                .filterPrefix("test.org.dockbox.hartshorn.introspect.types")
+                .readClassHeaders();
+
+        Map<String, ClassFileTypeReference> references = new ConcurrentHashMap<>();
+        scanner.scan(resource -> references.put(resource.resourceName(), resource.typeReference().get()));
+        Assertions.assertEquals(7, references.size());
+
+        ClassFileTypeReference record = references.get(ScanRecord.class.getName());
+        Assertions.assertEquals(Record.class.getName(), record.superclassName().get());
+        Assertions.assertTrue(record.interfaceNames().isEmpty());
+
+        ClassFileTypeReference enumeration = references.get(ScanEnum.class.getName());
+        Assertions.assertTrue(enumeration.isEnum());
+        Assertions.assertEquals(Enum.class.getName(), enumeration.superclassName().get());
+
+        ClassFileTypeReference annotation = references.get(ScanAnnotation.class.getName());
+        Assertions.assertTrue(annotation.isAnnotation());
+        Assertions.assertTrue(annotation.isInterface());
+        Assertions.assertEquals(List.of("java.lang.annotation.Annotation"), annotation.interfaceNames());
+
+        ClassFileTypeReference innerClass = references.get(NonStaticInnerClass.class.getName());
+        Assertions.assertEquals(NonStaticInnerClass.class.getName(), innerClass.qualifiedName());
+        Assertions.assertFalse(innerClass.isAbstract());
+    }
+
+    @Test
+    void testCanFilterByAnnotation() throws ClassPathWalkingException {
+        ClassPathScanner scanner = ClassPathScanner.create()
+                .includeDefaultClassPath()
+                .filterPrefix(ClassPathScannerTests.class.getName() + "$")
+                .filterAnnotation(HeaderAnnotation.class);
+
+        Set<String> classes = new HashSet<>();
+        scanner.scan(resource -> classes.add(resource.resourceName()));
+
+        Assertions.assertEquals(Set.of(AnnotatedType.class.getName()), classes);
+    }
+
+    @Test
+    void testParallelScanYieldsSameResources() throws ClassPathWalkingException {
+        Set<String> sequential = new HashSet<>();
+        ClassPathScanner.create()
+                .includeDefaultClassPath()
+                .filterPrefix("test.org.dockbox.hartshorn.introspect")
+                .readClassHeaders()
+                .scan(resource -> sequential.add(resource.resourceName()));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Set<String> parallel = ConcurrentHashMap.newKeySet();
+            ClassPathScanner.create()
+                    .includeDefaultClassPath()
+                    .filterPrefix("test.org.dockbox.hartshorn.introspect")
+                    .readClassHeaders()
+                    .parallel(pool)
+                    .scan(resource -> {
+                        Assertions.assertTrue(resource.typeReference().present());
+                        parallel.add(resource.resourceName());
+                    });
+
+            Assertions.assertFalse(sequential.isEmpty());
+            Assertions.assertEquals(sequential, parallel);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
     private String resourceNameFromCanonicalName(String canonicalName) {
         int lastIndex = canonicalName.lastIndexOf('.');
         return canonicalName.substring(0, lastIndex) + '$' + canonicalName.substring(lastIndex + 1);
     }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface HeaderAnnotation {
+    }
+
+    @HeaderAnnotation
+    public static class AnnotatedType {
+    }
+
+    public static class NonAnnotatedType {
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.introspect;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.dockbox.hartshorn.util.introspect.ConcurrentIntrospectionViewCache;
+import org.dockbox.hartshorn.util.introspect.view.ConstructorView;
+import org.dockbox.hartshorn.util.introspect.view.MethodView;
+import org.dockbox.hartshorn.util.introspect.view.TypeView;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import test.org.dockbox.hartshorn.introspect.types.ScanClass;
+import test.org.dockbox.hartshorn.introspect.types.ScanEnum;
+import test.org.dockbox.hartshorn.introspect.types.ScanRecord;
+
+public class ConcurrentIntrospectionViewCacheTests {
+
+    @Test
+    void testTypeViewsAreCached() {
+        ConcurrentIntrospectionViewCache cache = new ConcurrentIntrospectionViewCache();
+        TypeView<ScanClass> first = cache.computeIfAbsent(ScanClass.class, () -> view(TypeView.class, ScanClass.class));
+        TypeView<ScanClass> second = cache.computeIfAbsent(ScanClass.class, () -> view(TypeView.class, ScanClass.class));
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, cache.missCount());
+        Assertions.assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    void testMemberViewsAreCachedSeparately() throws NoSuchMethodException {
+        ConcurrentIntrospectionViewCache cache = new ConcurrentIntrospectionViewCache();
+        Method toString = Object.class.getMethod("toString");
+        Method hashCode = Object.class.getMethod("hashCode");
+
+        MethodView<?, ?> toStringView = cache.computeIfAbsent(toString, () -> view(MethodView.class, toString));
+        MethodView<?, ?> hashCodeView = cache.computeIfAbsent(hashCode, () -> view(MethodView.class, hashCode));
+
+        Assertions.assertNotSame(toStringView, hashCodeView);
+        // Method instances are copied by reflection, but are equal to the original method
+        Method toStringCopy = Object.class.getMethod("toString");
+        Assertions.assertSame(toStringView, cache.computeIfAbsent(toStringCopy, () -> view(MethodView.class, toStringCopy)));
+        Assertions.assertEquals(2, cache.missCount());
+        Assertions.assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    void testBoundedCacheGivesRecentlyUsedClassesSecondChance() {
+        ConcurrentIntrospectionViewCache cache = new ConcurrentIntrospectionViewCache(2);
+        TypeView<ScanClass> classView = cache.computeIfAbsent(ScanClass.class, () -> view(TypeView.class, ScanClass.class));
+        TypeView<ScanEnum> enumView = cache.computeIfAbsent(ScanEnum.class, () -> view(TypeView.class, ScanEnum.class));
+
+        // Marks the class as recently used, so the enum is evicted first
+        Assertions.assertSame(classView, cache.computeIfAbsent(ScanClass.class, () -> view(TypeView.class, ScanClass.class)));
+        cache.computeIfAbsent(ScanRecord.class, () -> view(TypeView.class, ScanRecord.class));
+
+        Assertions.assertEquals(1, cache.evictionCount());
+        Assertions.assertSame(classView, cache.computeIfAbsent(ScanClass.class, () -> view(TypeView.class, ScanClass.class)));
+        Assertions.assertNotSame(enumView, cache.computeIfAbsent(ScanEnum.class, () -> view(TypeView.class, ScanEnum.class)));
+    }
+
+    @Test
+    void testBoundedClassBoundCacheEvicts() {
+        ConcurrentIntrospectionViewCache cache = ConcurrentIntrospectionViewCache.classBound(1);
+        TypeView<ScanClass> classView = cache.computeIfAbsent(ScanClass.class, () -> view(TypeView.class, ScanClass.class));
+        cache.computeIfAbsent(ScanEnum.class, () -> view(TypeView.class, ScanEnum.class));
+
+        Assertions.assertEquals(1, cache.evictionCount());
+        Assertions.assertNotSame(classView, cache.computeIfAbsent(ScanClass.class, () -> view(TypeView.class, ScanClass.class)));
+    }
+
+    @Test
+    void testUnboundedCacheDoesNotEvict() {
+        ConcurrentIntrospectionViewCache cache = new ConcurrentIntrospectionViewCache();
+        for (Class<?> type : new Class<?>[] { ScanClass.class, ScanEnum.class, ScanRecord.class }) {
+            cache.computeIfAbsent(type, () -> view(TypeView.class, type));
+        }
+        Assertions.assertEquals(0, cache.evictionCount());
+    }
+
+    @Test
+    void testDiscardedCacheIsCollected() throws Exception {
+        WeakReference<ConcurrentIntrospectionViewCache> cacheReference = this.cacheJdkViews();
+
+        for (int i = 0; i < 50 && cacheReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assertions.assertNull(cacheReference.get(), "Cache was retained by the classes it holds views of");
+    }
+
+    private WeakReference<ConcurrentIntrospectionViewCache> cacheJdkViews() throws NoSuchMethodException {
+        ConcurrentIntrospectionViewCache cache = new ConcurrentIntrospectionViewCache();
+        // Views typically reference their introspector, and therefore the cache. JDK classes are never unloaded, so
+        // this reference would retain the cache if views were attached to the class.
+        cache.computeIfAbsent(String.class, () -> view(TypeView.class, cache));
+        Method length = String.class.getMethod("length");
+        cache.computeIfAbsent(length, () -> view(MethodView.class, cache));
+        return new WeakReference<>(cache);
+    }
+
+    @Test
+    void testClassBoundViewsDoNotPreventClassLoaderCollection() throws Exception {
+        ConcurrentIntrospectionViewCache cache = ConcurrentIntrospectionViewCache.classBound(ConcurrentIntrospectionViewCache.UNBOUNDED);
+        Assertions.assertTrue(cache.isClassBound());
+        WeakReference<ClassLoader> loaderReference = this.introspectInDiscardedClassLoader(cache);
+
+        for (int i = 0; i < 50 && loaderReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assertions.assertNull(loaderReference.get(), "Class loader was retained by the view cache");
+    }
+
+    private WeakReference<ClassLoader> introspectInDiscardedClassLoader(ConcurrentIntrospectionViewCache cache) throws IOException, ReflectiveOperationException {
+        URL location = ScanClass.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { location }, null)) {
+            Class<?> type = classLoader.loadClass(ScanClass.class.getName());
+            Assertions.assertNotSame(ScanClass.class, type);
+
+            cache.computeIfAbsent(type, () -> view(TypeView.class, type));
+            cache.computeIfAbsent(type.getDeclaredConstructor(), () -> view(ConstructorView.class, type));
+            return new WeakReference<>(classLoader);
+        }
+    }
+
+    private static <V> V view(Class<? super V> viewType, Object element) {
+        // Views typically hold a strong reference to the element they represent, which should not prevent the
+        // element from being collected.
+        Object view = Proxy.newProxyInstance(
+                ConcurrentIntrospectionViewCacheTests.class.getClassLoader(),
+                new Class<?>[] { viewType },
+                (proxy, method, args) -> "toString".equals(method.getName()) ? String.valueOf(element) : null
+        );
+        //noinspection unchecked
+        return (V) view;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.introspect;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashSet;
+import java.util.SequencedSet;
+
+import org.dockbox.hartshorn.util.introspect.NativeProxyLookup;
+import org.dockbox.hartshorn.util.introspect.ProxyIntrospector;
+import org.dockbox.hartshorn.util.introspect.annotations.AnnotationAdapter;
+import org.dockbox.hartshorn.util.introspect.annotations.AttributeAlias;
+import org.dockbox.hartshorn.util.introspect.annotations.Extends;
+import org.dockbox.hartshorn.util.introspect.annotations.GeneratedAnnotationAdapter;
+import org.dockbox.hartshorn.util.introspect.annotations.VirtualHierarchyAnnotationLookup;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import test.org.dockbox.hartshorn.introspect.annotations.HttpMethod;
+
+public class GeneratedAnnotationAdapterTests {
+
+    @Test
+    void testVirtualAnnotationIsGenerated() {
+        Values values = new VirtualHierarchyAnnotationLookup().find(AnnotatedType.class, Values.class);
+        Assertions.assertNotNull(values);
+        Assertions.assertTrue(values instanceof GeneratedAnnotationAdapter);
+        Assertions.assertFalse(Proxy.isProxyClass(((Object) values).getClass()));
+    }
+
+    @Test
+    void testGeneratedAnnotationResolvesValues() {
+        Values values = new VirtualHierarchyAnnotationLookup().find(AnnotatedType.class, Values.class);
+        Assertions.assertEquals("aliased", values.name());
+        Assertions.assertEquals(42, values.number());
+        Assertions.assertEquals(42L, values.longNumber());
+        Assertions.assertEquals(1.5D, values.decimal());
+        Assertions.assertTrue(values.enabled());
+        Assertions.assertEquals('c', values.character());
+        Assertions.assertEquals(HttpMethod.POST, values.method());
+        Assertions.assertArrayEquals(new String[] {"a", "b"}, values.tags());
+        Assertions.assertArrayEquals(new int[] {1, 2}, values.numbers());
+        Assertions.assertEquals(String.class, values.type());
+    }
+
+    @Test
+    void testGeneratedAnnotationIsEquivalentToProxy() {
+        VirtualHierarchyAnnotationLookup lookup = new VirtualHierarchyAnnotationLookup();
+        Values generated = lookup.find(AnnotatedType.class, Values.class);
+        Values proxy = new ExtendedHierarchyAnnotationLookup().find(AnnotatedType.class, Values.class);
+
+        Assertions.assertEquals(proxy.name(), generated.name());
+        Assertions.assertEquals(proxy.hashCode(), generated.hashCode());
+        Assertions.assertEquals(proxy.annotationType(), generated.annotationType());
+        Assertions.assertEquals(proxy.toString(), generated.toString());
+
+        Annotation actual = AnnotatedType.class.getAnnotation(ExtendedValues.class);
+        Assertions.assertSame(actual, ((AnnotationAdapter) generated).actualAnnotation());
+        Assertions.assertSame(actual, lookup.unproxy(generated));
+    }
+
+    @Test
+    void testGeneratedAnnotationCanBeIntrospected() {
+        Values values = new VirtualHierarchyAnnotationLookup().find(AnnotatedType.class, Values.class);
+        NativeProxyLookup proxyLookup = new NativeProxyLookup();
+        Assertions.assertTrue(proxyLookup.isProxy(values));
+
+        ProxyIntrospector<Values> introspector = proxyLookup.introspector(values).get();
+        Assertions.assertEquals(Values.class, introspector.targetClass());
+        Assertions.assertSame(values, introspector.proxy());
+    }
+
+    @Test
+    void testModifiedHierarchyUsesProxy() {
+        Values values = new ExtendedHierarchyAnnotationLookup().find(AnnotatedType.class, Values.class);
+        Assertions.assertTrue(Proxy.isProxyClass(((Object) values).getClass()));
+        Assertions.assertEquals("aliased", values.name());
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Values {
+        String name() default "";
+        int number() default 0;
+        long longNumber() default 0;
+        double decimal() default 0;
+        boolean enabled() default false;
+        char character() default 'a';
+        HttpMethod method() default HttpMethod.GET;
+        String[] tags() default {};
+        int[] numbers() default {};
+        Class<?> type() default Object.class;
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Extends(Values.class)
+    public @interface ExtendedValues {
+        @AttributeAlias("name")
+        String alias();
+        int number() default 42;
+        long longNumber() default 42;
+        double decimal() default 1.5;
+        boolean enabled() default true;
+        char character() default 'c';
+        HttpMethod method() default HttpMethod.POST;
+        String[] tags() default {"a", "b"};
+        int[] numbers() default {1, 2};
+        Class<?> type() default String.class;
+    }
+
+    @ExtendedValues(alias = "aliased")
+    private static class AnnotatedType {
+    }
+
+    private static class ExtendedHierarchyAnnotationLookup extends VirtualHierarchyAnnotationLookup {
+
+        @Override
+        public SequencedSet<Class<? extends Annotation>> annotationHierarchy(Class<? extends Annotation> type) {
+            SequencedSet<Class<? extends Annotation>> hierarchy = new LinkedHashSet<>(super.annotationHierarchy(type));
+            // Not part of the hierarchy of generated classes
+            hierarchy.add(Deprecated.class);
+            return hierarchy;
+        }
+    }
+}
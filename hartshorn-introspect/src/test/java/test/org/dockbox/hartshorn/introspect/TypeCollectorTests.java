@@ -16,17 +16,21 @@
 
 package test.org.dockbox.hartshorn.introspect;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.dockbox.hartshorn.util.introspect.scan.AggregateTypeReferenceCollector;
 import org.dockbox.hartshorn.util.introspect.scan.CachedTypeReferenceCollector;
+import org.dockbox.hartshorn.util.introspect.scan.ClassNameReference;
 import org.dockbox.hartshorn.util.introspect.scan.ClassReferenceLoadException;
 import org.dockbox.hartshorn.util.introspect.scan.PredefinedSetTypeReferenceCollector;
 import org.dockbox.hartshorn.util.introspect.scan.TypeCollectionException;
 import org.dockbox.hartshorn.util.introspect.scan.TypeReference;
 import org.dockbox.hartshorn.util.introspect.scan.TypeReferenceCollector;
 import org.dockbox.hartshorn.util.introspect.scan.classpath.ClassPathScannerTypeReferenceCollector;
+import org.dockbox.hartshorn.util.introspect.scan.classpath.MultiPrefixClassPathScan;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -66,6 +70,50 @@ void testClassPathScannerTypeCollector() throws TypeCollectionException {
         Assertions.assertTrue(types.contains(ScanRecord.class));
     }
 
+    @Test
+    void testMultiPrefixScanDispatchesToOverlappingPrefixes() throws TypeCollectionException {
+        String typesPackage = "test.org.dockbox.hartshorn.introspect.types";
+        String scanClassPrefix = ScanClass.class.getName();
+        MultiPrefixClassPathScan scan = new MultiPrefixClassPathScan(Set.of(typesPackage, scanClassPrefix));
+
+        Set<TypeReference> types = scan.collect(typesPackage);
+        Assertions.assertEquals(7, types.size());
+
+        Set<String> scanClassTypes = scan.collect(scanClassPrefix).stream()
+                .map(TypeReference::qualifiedName)
+                .collect(Collectors.toSet());
+        Assertions.assertEquals(Set.of(
+                ScanClass.class.getName(),
+                NonStaticInnerClass.class.getName(),
+                StaticInnerClass.class.getName()
+        ), scanClassTypes);
+
+        // Classpath is only walked once, so repeated lookups yield the same result
+        Assertions.assertSame(types, scan.collect(typesPackage));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> types.add(new ClassNameReference(ScanEnum.class.getName())));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> scan.collect("test.org.dockbox.hartshorn.introspect.components"));
+    }
+
+    @Test
+    void testCollectorsForPackagesShareScan() throws TypeCollectionException {
+        Set<ClassPathScannerTypeReferenceCollector> collectors = ClassPathScannerTypeReferenceCollector.forPackages(Set.of(
+                "test.org.dockbox.hartshorn.introspect.types",
+                "test.org.dockbox.hartshorn.introspect.components"
+        ));
+        Map<String, ClassPathScannerTypeReferenceCollector> collectorsByPackage = collectors.stream()
+                .collect(Collectors.toMap(ClassPathScannerTypeReferenceCollector::packageName, Function.identity()));
+        Assertions.assertEquals(2, collectorsByPackage.size());
+
+        Set<TypeReference> types = collectorsByPackage.get("test.org.dockbox.hartshorn.introspect.types").collect();
+        Assertions.assertEquals(7, types.size());
+
+        Set<TypeReference> components = collectorsByPackage.get("test.org.dockbox.hartshorn.introspect.components").collect();
+        Assertions.assertFalse(components.isEmpty());
+        for (TypeReference component : components) {
+            Assertions.assertEquals("test.org.dockbox.hartshorn.introspect.components", component.packageName());
+        }
+    }
+
     @Test
     void testCachedTypeCollector() throws TypeCollectionException {
         TypeReferenceCollector collector = new ClassPathScannerTypeReferenceCollector("test.org.dockbox.hartshorn.introspect.types");
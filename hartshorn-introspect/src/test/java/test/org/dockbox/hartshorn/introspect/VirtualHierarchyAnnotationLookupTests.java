@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.introspect;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dockbox.hartshorn.util.introspect.annotations.VirtualHierarchyAnnotationLookup;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import test.org.dockbox.hartshorn.introspect.annotations.Base;
+import test.org.dockbox.hartshorn.introspect.annotations.Mid;
+import test.org.dockbox.hartshorn.introspect.annotations.Sub;
+import test.org.dockbox.hartshorn.introspect.components.TestClassWithSub;
+
+public class VirtualHierarchyAnnotationLookupTests {
+
+    private static final int THREADS = 8;
+
+    @Test
+    void testConcurrentLookupsComputeOnce() throws Exception {
+        CountingAnnotationLookup lookup = new CountingAnnotationLookup();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<Base>>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Callable<List<Base>> task = () -> {
+                    start.await();
+                    return lookup.findAll(TestClassWithSub.class, Base.class);
+                };
+                results.add(executor.submit(task));
+            }
+            start.countDown();
+
+            List<Base> first = results.getFirst().get(10, TimeUnit.SECONDS);
+            for (Future<List<Base>> result : results) {
+                Assertions.assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+            Assertions.assertEquals(1, lookup.computations.get());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLookupsDoNotShareCache() {
+        CountingAnnotationLookup first = new CountingAnnotationLookup();
+        CountingAnnotationLookup second = new CountingAnnotationLookup();
+
+        first.findAll(TestClassWithSub.class, Base.class);
+        first.findAll(TestClassWithSub.class, Base.class);
+        second.findAll(TestClassWithSub.class, Base.class);
+
+        Assertions.assertEquals(1, first.computations.get());
+        Assertions.assertEquals(1, second.computations.get());
+    }
+
+    @Test
+    void testDiscardedLookupIsCollected() throws InterruptedException {
+        WeakReference<VirtualHierarchyAnnotationLookup> lookupReference = this.lookupVirtualAnnotation();
+
+        for (int i = 0; i < 50 && lookupReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assertions.assertNull(lookupReference.get(), "Lookup was retained by the classes it resolved annotations for");
+    }
+
+    private WeakReference<VirtualHierarchyAnnotationLookup> lookupVirtualAnnotation() {
+        VirtualHierarchyAnnotationLookup lookup = new VirtualHierarchyAnnotationLookup();
+        // Resolves an adapter, which is cached with a class that is not unloaded during the test
+        List<Base> annotations = lookup.findAll(TestClassWithSub.class, Base.class);
+        Assertions.assertFalse(annotations.isEmpty());
+        return new WeakReference<>(lookup);
+    }
+
+    @Test
+    void testDifferentAnnotationTypesAreCachedSeparately() {
+        CountingAnnotationLookup lookup = new CountingAnnotationLookup();
+        lookup.findAll(TestClassWithSub.class, Base.class);
+        lookup.findAll(TestClassWithSub.class, Sub.class);
+        lookup.findAll(TestClassWithSub.class, Base.class);
+
+        Assertions.assertEquals(2, lookup.computations.get());
+    }
+
+    @Test
+    void testAnnotationHierarchyIsMemoized() {
+        VirtualHierarchyAnnotationLookup lookup = new VirtualHierarchyAnnotationLookup();
+        Set<Class<? extends Annotation>> hierarchy = lookup.annotationHierarchy(Sub.class);
+
+        Assertions.assertSame(hierarchy, lookup.annotationHierarchy(Sub.class));
+        Assertions.assertSame(hierarchy, new VirtualHierarchyAnnotationLookup().annotationHierarchy(Sub.class));
+        Assertions.assertEquals(List.of(Sub.class, Mid.class, Base.class), List.copyOf(hierarchy));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> hierarchy.add(Sub.class));
+    }
+
+    private static class CountingAnnotationLookup extends VirtualHierarchyAnnotationLookup {
+
+        private final AtomicInteger computations = new AtomicInteger();
+
+        @Override
+        protected <A extends Annotation> List<A> annotationsOnElement(AnnotatedElement element, Class<A> annotationType) {
+            this.computations.incrementAndGet();
+            return super.annotationsOnElement(element, annotationType);
+        }
+    }
+}
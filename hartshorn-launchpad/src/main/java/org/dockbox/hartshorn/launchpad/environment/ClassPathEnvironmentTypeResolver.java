@@ -22,7 +22,10 @@
 import org.dockbox.hartshorn.util.introspect.view.TypeView;
 
 /**
- * TODO: #1060 Add documentation
+ * An {@link EnvironmentTypeResolver} which resolves types from the classpath, using an {@link EnvironmentTypeCollector}.
+ * All lookups are served from the {@link EnvironmentTypeIndex} of the collector, which is rebuilt only when the
+ * registered {@link org.dockbox.hartshorn.util.introspect.scan.TypeReferenceCollector type reference collectors}
+ * change.
  *
  * @since 0.6.0
  *
@@ -38,6 +41,6 @@ public ClassPathEnvironmentTypeResolver(EnvironmentTypeCollector typeCollector)
 
     @Override
     public <A extends Annotation> Collection<TypeView<?>> types(Class<A> annotation) {
-        return this.typeCollector.types(type -> type.annotations().has(annotation));
+        return this.typeCollector.index().annotatedWith(annotation);
     }
 }
@@ -17,13 +17,14 @@
 package org.dockbox.hartshorn.launchpad.environment;
 
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.dockbox.hartshorn.launchpad.ApplicationContext;
+import org.dockbox.hartshorn.util.introspect.Introspector;
 import org.dockbox.hartshorn.util.introspect.scan.ClassReferenceLoadException;
 import org.dockbox.hartshorn.util.introspect.scan.TypeCollectionException;
 import org.dockbox.hartshorn.util.introspect.scan.TypeReference;
@@ -42,6 +43,10 @@
  * {@link org.dockbox.hartshorn.util.introspect.Introspector}. Note that while classes are loaded, it is not ensured they
  * are immediately initialized.
  *
+ * <p>Types are collected, loaded and introspected only once for each set of registered collectors, after which they are
+ * kept in an {@link EnvironmentTypeIndex}. If a collector is registered after the index was built, the index is built
+ * again on the next lookup.
+ *
  * @see TypeReferenceCollector
  * @see TypeReferenceCollectorContext
  *
@@ -56,15 +61,16 @@ public class EnvironmentTypeCollector {
     private final ApplicationEnvironment environment;
     private final TypeReferenceCollectorContext collectorContext;
 
+    private volatile IndexedTypes indexedTypes;
+
     public EnvironmentTypeCollector(ApplicationEnvironment environment, TypeReferenceCollectorContext collectorContext) {
         this.environment = environment;
         this.collectorContext = collectorContext;
     }
 
     /**
-     * Collects all types that match the given predicate. The collection is performed by delegating to the
-     * {@link TypeReferenceCollector type reference collectors} defined in the {@link TypeReferenceCollectorContext}
-     * attached to the environment's {@link ApplicationContext}.
+     * Collects all types that match the given predicate. Types are matched against the {@link #index() index} of
+     * the environment, so repeated calls do not collect, load or introspect types again.
      *
      * @param predicate the predicate to match
      * @param <T> the type of the elements in the collection
@@ -72,18 +78,50 @@ public EnvironmentTypeCollector(ApplicationEnvironment environment, TypeReferenc
      * @return a collection of types that match the given predicate
      */
     public <T> Collection<TypeView<? extends T>> types(Predicate<TypeView<?>> predicate) {
+        return this.index().types().stream()
+                .filter(predicate)
+                .map(reference -> (TypeView<T>) reference)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the index of all types in the environment. The index is built on first use, by delegating to the
+     * {@link TypeReferenceCollector type reference collectors} defined in the {@link TypeReferenceCollectorContext}
+     * attached to the environment's {@link ApplicationContext}. The index is built again if collectors were
+     * registered since it was last built. If collecting types fails, the failure is handled by the environment and
+     * an empty index is used instead.
+     *
+     * @return the index of all types in the environment
+     */
+    public EnvironmentTypeIndex index() {
+        // The context creates a new aggregate collector whenever a collector is registered
+        TypeReferenceCollector collector = this.collectorContext.collector();
+        IndexedTypes indexedTypes = this.indexedTypes;
+        if (indexedTypes == null || indexedTypes.collector() != collector) {
+            synchronized (this) {
+                indexedTypes = this.indexedTypes;
+                if (indexedTypes == null || indexedTypes.collector() != collector) {
+                    indexedTypes = new IndexedTypes(collector, this.createIndex(collector));
+                    this.indexedTypes = indexedTypes;
+                }
+            }
+        }
+        return indexedTypes.index();
+    }
+
+    private EnvironmentTypeIndex createIndex(TypeReferenceCollector collector) {
+        Introspector introspector = this.environment.introspector();
         try {
-            Set<TypeReference> references = this.collectorContext.collector().collect();
+            Set<TypeReference> references = collector.collect();
             Collection<Class<?>> classes = this.loadClasses(references);
-            return classes.stream()
-                    .map(this.environment.introspector()::introspect)
-                    .filter(predicate)
-                    .map(reference -> (TypeView<T>) reference)
-                    .collect(Collectors.toSet());
+            List<TypeView<?>> types = classes.stream()
+                    .<TypeView<?>>map(introspector::introspect)
+                    .toList();
+            return EnvironmentTypeIndex.of(types, introspector.annotations());
         }
         catch (TypeCollectionException e) {
             this.environment.handle(e);
-            return Collections.emptyList();
+            return EnvironmentTypeIndex.of(List.of(), introspector.annotations());
         }
     }
 
@@ -102,4 +140,7 @@ private Collection<Class<?>> loadClasses(Collection<TypeReference> references) {
                 .filter(Objects::nonNull)
                 .collect(Collectors.toSet());
     }
+
+    private record IndexedTypes(TypeReferenceCollector collector, EnvironmentTypeIndex index) {
+    }
 }
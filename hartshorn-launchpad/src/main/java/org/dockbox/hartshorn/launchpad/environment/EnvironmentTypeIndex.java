@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.launchpad.environment;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.dockbox.hartshorn.util.introspect.annotations.AnnotationLookup;
+import org.dockbox.hartshorn.util.introspect.view.TypeView;
+
+/**
+ * An immutable inverted index of the types in an environment. The index maps annotation types to the types they are
+ * present on, and supertypes to their subtypes. This allows repeated lookups of annotated types or subtypes to be
+ * performed in time proportional to the size of the result, rather than the amount of types in the environment.
+ *
+ * <p>Annotations are indexed through the {@link AnnotationLookup#annotationHierarchy(Class) annotation hierarchy} of
+ * each annotation that is present on a type. This means a type annotated with an annotation that {@link
+ * org.dockbox.hartshorn.util.introspect.annotations.Extends extends} another annotation is indexed for both
+ * annotations, consistent with {@link org.dockbox.hartshorn.util.introspect.ElementAnnotationsIntrospector#has(Class)}.
+ * The hierarchy of each annotation type is resolved only once while the index is built.
+ *
+ * <p>Supertypes include all superclasses and (indirectly) implemented interfaces of a type, excluding {@link Object}
+ * and the type itself.
+ *
+ * @see EnvironmentTypeCollector#index()
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public final class EnvironmentTypeIndex {
+
+    private static final TypeView<?>[] NO_TYPES = new TypeView<?>[0];
+
+    private final TypeView<?>[] types;
+    private final Map<Class<? extends Annotation>, TypeView<?>[]> annotatedTypes;
+    private final Map<Class<?>, TypeView<?>[]> subtypes;
+
+    private EnvironmentTypeIndex(TypeView<?>[] types, Map<Class<? extends Annotation>, TypeView<?>[]> annotatedTypes, Map<Class<?>, TypeView<?>[]> subtypes) {
+        this.types = types;
+        this.annotatedTypes = annotatedTypes;
+        this.subtypes = subtypes;
+    }
+
+    /**
+     * Builds a new index for the given types. Annotation hierarchies are resolved through the given {@link
+     * AnnotationLookup}.
+     *
+     * @param types the types to index
+     * @param annotationLookup the lookup to resolve annotation hierarchies with
+     * @return the index
+     */
+    public static EnvironmentTypeIndex of(Collection<? extends TypeView<?>> types, AnnotationLookup annotationLookup) {
+        Map<Class<? extends Annotation>, Set<Class<? extends Annotation>>> hierarchies = new HashMap<>();
+        Map<Class<? extends Annotation>, Set<TypeView<?>>> annotatedTypes = new HashMap<>();
+        Map<Class<?>, Set<TypeView<?>>> subtypes = new HashMap<>();
+
+        for (TypeView<?> type : types) {
+            Class<?> rawType = type.type();
+            for (Annotation annotation : rawType.getAnnotations()) {
+                Class<? extends Annotation> annotationType = annotationLookup.unproxy(annotation).annotationType();
+                Set<Class<? extends Annotation>> hierarchy = hierarchies.computeIfAbsent(annotationType, annotationLookup::annotationHierarchy);
+                for (Class<? extends Annotation> compatibleType : hierarchy) {
+                    annotatedTypes.computeIfAbsent(compatibleType, key -> new LinkedHashSet<>()).add(type);
+                }
+            }
+            for (Class<?> supertype : supertypes(rawType)) {
+                subtypes.computeIfAbsent(supertype, key -> new LinkedHashSet<>()).add(type);
+            }
+        }
+
+        return new EnvironmentTypeIndex(
+                types.toArray(NO_TYPES),
+                toArrays(annotatedTypes),
+                toArrays(subtypes)
+        );
+    }
+
+    /**
+     * Returns all types in this index.
+     *
+     * @return all indexed types
+     */
+    public List<TypeView<?>> types() {
+        return asList(this.types);
+    }
+
+    /**
+     * Returns all types on which the given annotation is present, either directly or through the annotation
+     * hierarchy of another annotation.
+     *
+     * @param annotation the annotation type
+     * @return the annotated types
+     */
+    public List<TypeView<?>> annotatedWith(Class<? extends Annotation> annotation) {
+        return asList(this.annotatedTypes.getOrDefault(annotation, NO_TYPES));
+    }
+
+    /**
+     * Returns all types which extend or implement the given type, excluding the type itself.
+     *
+     * @param type the supertype
+     * @param <T> the supertype
+     * @return the subtypes of the given type
+     */
+    public <T> List<TypeView<? extends T>> subtypes(Class<T> type) {
+        List<? extends TypeView<?>> subtypes = asList(this.subtypes.getOrDefault(type, NO_TYPES));
+        // Safe, as only types which are assignable to T are indexed for T
+        return (List<TypeView<? extends T>>) subtypes;
+    }
+
+    private static List<TypeView<?>> asList(TypeView<?>[] types) {
+        // Read-only view on the backing array, so results do not need to be copied for every lookup
+        return Collections.unmodifiableList(Arrays.asList(types));
+    }
+
+    private static <K> Map<K, TypeView<?>[]> toArrays(Map<K, Set<TypeView<?>>> index) {
+        Map<K, TypeView<?>[]> arrays = new HashMap<>(index.size());
+        index.forEach((key, types) -> arrays.put(key, types.toArray(NO_TYPES)));
+        return Map.copyOf(arrays);
+    }
+
+    private static Set<Class<?>> supertypes(Class<?> type) {
+        Set<Class<?>> supertypes = new HashSet<>();
+        collectSupertypes(type, supertypes);
+        supertypes.remove(type);
+        supertypes.remove(Object.class);
+        return supertypes;
+    }
+
+    private static void collectSupertypes(Class<?> type, Set<Class<?>> supertypes) {
+        if (type == null || !supertypes.add(type)) {
+            return;
+        }
+        collectSupertypes(type.getSuperclass(), supertypes);
+        for (Class<?> anInterface : type.getInterfaces()) {
+            collectSupertypes(anInterface, supertypes);
+        }
+    }
+}
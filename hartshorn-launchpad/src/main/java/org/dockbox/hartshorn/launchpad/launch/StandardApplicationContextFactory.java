@@ -17,6 +17,7 @@
 package org.dockbox.hartshorn.launchpad.launch;
 
 import java.lang.annotation.Annotation;
+import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -57,7 +58,9 @@
 import org.dockbox.hartshorn.util.TypeUtils;
 import org.dockbox.hartshorn.util.introspect.scan.PredefinedSetTypeReferenceCollector;
 import org.dockbox.hartshorn.util.introspect.scan.TypeReferenceCollectorContext;
+import org.dockbox.hartshorn.util.introspect.scan.classpath.ClassPathIndex;
 import org.dockbox.hartshorn.util.introspect.scan.classpath.ClassPathScannerTypeReferenceCollector;
+import org.dockbox.hartshorn.util.option.Option;
 
 /**
  * The standard implementation of an {@link ApplicationContextFactory}. This factory is responsible for creating an
@@ -213,8 +216,11 @@ private void enhanceTypeReferenceCollectorContext(
         Set<Annotation> activators
     ) {
         Set<String> prefixes = this.collectPrefixesForRegistering(bootstrapContext, activators);
-        prefixes.stream()
-                .map(ClassPathScannerTypeReferenceCollector::new)
+        ClassPathIndex index = this.configurer.classPathIndexDirectory.initialize(this.initializerContext.transform(bootstrapContext))
+                .map(ClassPathIndex::new)
+                .orNull();
+        // Collectors share a single scan, so the classpath is only walked once for all prefixes
+        ClassPathScannerTypeReferenceCollector.forPackages(prefixes, index)
                 .forEach(collectorContext::register);
 
         Set<Class<?>> standaloneComponents = Set.copyOf(this.configurer.standaloneComponents.initialize(this.initializerContext.transform(bootstrapContext)));
@@ -330,6 +336,7 @@ public static class Configurer {
 
         private ContextualInitializer<ApplicationBootstrapContext, ? extends ApplicationEnvironment> environment = ContextualApplicationEnvironment.create(Customizer.useDefaults());
         private ContextualInitializer<ApplicationBuildContext, Boolean> includeBasePackages = ContextualInitializer.of(true);
+        private ContextualInitializer<ApplicationBootstrapContext, Option<Path>> classPathIndexDirectory = ContextualInitializer.of(Option.empty());
 
         /**
          * Configures the service activators that are used to collect component processors. By default, this includes the
@@ -451,5 +458,28 @@ public Configurer includeBasePackages(ContextualInitializer<ApplicationBuildCont
             this.includeBasePackages = includeBasePackages;
             return this;
         }
+
+        /**
+         * Configures the directory in which a persistent {@link ClassPathIndex} is stored. When configured, jar files on the
+         * classpath which did not change since a previous startup are not scanned again. By default, no index is used.
+         *
+         * @param directory The directory in which the index is stored
+         * @return The current configurator instance
+         */
+        public Configurer classPathIndexDirectory(Path directory) {
+            return this.classPathIndexDirectory(ContextualInitializer.of(Option.of(directory)));
+        }
+
+        /**
+         * Configures the directory in which a persistent {@link ClassPathIndex} is stored. When configured, jar files on the
+         * classpath which did not change since a previous startup are not scanned again. By default, no index is used.
+         *
+         * @param directory The directory in which the index is stored, if any
+         * @return The current configurator instance
+         */
+        public Configurer classPathIndexDirectory(ContextualInitializer<ApplicationBootstrapContext, Option<Path>> directory) {
+            this.classPathIndexDirectory = directory;
+            return this;
+        }
     }
 }
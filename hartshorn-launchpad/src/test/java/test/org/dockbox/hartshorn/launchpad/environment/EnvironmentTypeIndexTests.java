@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.launchpad.environment;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.dockbox.hartshorn.launchpad.environment.EnvironmentTypeIndex;
+import org.dockbox.hartshorn.util.introspect.Introspector;
+import org.dockbox.hartshorn.util.introspect.NativeProxyLookup;
+import org.dockbox.hartshorn.util.introspect.annotations.Extends;
+import org.dockbox.hartshorn.util.introspect.annotations.VirtualHierarchyAnnotationLookup;
+import org.dockbox.hartshorn.util.introspect.reflect.ReflectionIntrospector;
+import org.dockbox.hartshorn.util.introspect.view.TypeView;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EnvironmentTypeIndexTests {
+
+    private final Introspector introspector = new ReflectionIntrospector(new NativeProxyLookup(), new VirtualHierarchyAnnotationLookup());
+
+    @Test
+    void testDirectAnnotationsAreIndexed() {
+        EnvironmentTypeIndex index = this.index(DirectlyAnnotatedType.class, VirtuallyAnnotatedType.class, PlainType.class);
+        Assertions.assertEquals(Set.of(VirtuallyAnnotatedType.class), this.rawTypes(index.annotatedWith(VirtualAnnotation.class)));
+    }
+
+    @Test
+    void testAnnotationHierarchyIsIndexed() {
+        EnvironmentTypeIndex index = this.index(DirectlyAnnotatedType.class, VirtuallyAnnotatedType.class, PlainType.class);
+        Assertions.assertEquals(
+                Set.of(DirectlyAnnotatedType.class, VirtuallyAnnotatedType.class),
+                this.rawTypes(index.annotatedWith(MetaAnnotation.class))
+        );
+    }
+
+    @Test
+    void testIndexMatchesAnnotationIntrospection() {
+        List<Class<?>> types = List.of(DirectlyAnnotatedType.class, VirtuallyAnnotatedType.class, PlainType.class);
+        EnvironmentTypeIndex index = this.index(types.toArray(Class<?>[]::new));
+        for (Class<? extends Annotation> annotation : List.of(MetaAnnotation.class, VirtualAnnotation.class)) {
+            Set<Class<?>> expected = types.stream()
+                    .filter(type -> this.introspector.introspect(type).annotations().has(annotation))
+                    .collect(Collectors.toSet());
+            Assertions.assertEquals(expected, this.rawTypes(index.annotatedWith(annotation)));
+        }
+    }
+
+    @Test
+    void testUnknownAnnotationYieldsEmptyResult() {
+        EnvironmentTypeIndex index = this.index(PlainType.class);
+        Assertions.assertTrue(index.annotatedWith(Deprecated.class).isEmpty());
+    }
+
+    @Test
+    void testSubtypesIncludeIndirectSupertypes() {
+        EnvironmentTypeIndex index = this.index(BaseType.class, ChildType.class, GrandChildType.class, PlainType.class);
+        Assertions.assertEquals(Set.of(ChildType.class, GrandChildType.class), this.rawTypes(index.subtypes(BaseType.class)));
+        Assertions.assertEquals(Set.of(ChildType.class, GrandChildType.class), this.rawTypes(index.subtypes(Marker.class)));
+        Assertions.assertEquals(Set.of(GrandChildType.class), this.rawTypes(index.subtypes(ChildType.class)));
+        Assertions.assertTrue(index.subtypes(Object.class).isEmpty());
+    }
+
+    @Test
+    void testResultsAreImmutable() {
+        EnvironmentTypeIndex index = this.index(DirectlyAnnotatedType.class);
+        Collection<TypeView<?>> types = index.annotatedWith(MetaAnnotation.class);
+        Assertions.assertThrows(UnsupportedOperationException.class, types::clear);
+    }
+
+    private EnvironmentTypeIndex index(Class<?>... types) {
+        List<TypeView<?>> views = Stream.of(types)
+                .<TypeView<?>>map(this.introspector::introspect)
+                .toList();
+        return EnvironmentTypeIndex.of(views, this.introspector.annotations());
+    }
+
+    private Set<Class<?>> rawTypes(Collection<? extends TypeView<?>> types) {
+        return types.stream()
+                .map(TypeView::type)
+                .collect(Collectors.toSet());
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface MetaAnnotation {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Extends(MetaAnnotation.class)
+    public @interface VirtualAnnotation {
+    }
+
+    @MetaAnnotation
+    public static class DirectlyAnnotatedType {
+    }
+
+    @VirtualAnnotation
+    public static class VirtuallyAnnotatedType {
+    }
+
+    public static class PlainType {
+    }
+
+    public interface Marker {
+    }
+
+    public static class BaseType {
+    }
+
+    public static class ChildType extends BaseType implements Marker {
+    }
+
+    public static class GrandChildType extends ChildType {
+    }
+}
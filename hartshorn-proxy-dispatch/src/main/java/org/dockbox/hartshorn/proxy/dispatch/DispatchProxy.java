@@ -0,0 +1,36 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy.dispatch;
+
+/**
+ * Interface implemented by all proxy classes which are generated by the {@link DispatchProxyFactory}. This exposes
+ * the {@link ProxyDispatcher} to which the proxy dispatches its method calls. The accessor is implemented directly
+ * by the generated class, and is never intercepted.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public interface DispatchProxy {
+
+    /**
+     * Returns the dispatcher to which the methods of this proxy dispatch their calls.
+     *
+     * @return the dispatcher of this proxy
+     */
+    ProxyDispatcher hartshorn$dispatcher();
+}
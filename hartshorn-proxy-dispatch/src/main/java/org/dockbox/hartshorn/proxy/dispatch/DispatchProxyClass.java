@@ -0,0 +1,248 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy.dispatch;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.dockbox.hartshorn.proxy.advice.intercept.MethodInvokableCache;
+import org.dockbox.hartshorn.proxy.advice.intercept.ProxyMethodInterceptor;
+import org.dockbox.hartshorn.util.ApplicationException;
+
+/**
+ * A generated dispatch proxy class, together with the handles which are shared by all of its instances. For each
+ * proxied method this holds a link handle, a generic handle which passes calls to the interceptor, and if possible
+ * a handle which invokes the original implementation of the method. All handles are of the {@link
+ * DispatchProxyClassWriter#handleType(Method) type} that is expected by the generated class.
+ *
+ * <p>Constructors are resolved once into a {@link MethodHandle} that accepts the {@link ProxyDispatcher} and the
+ * constructor arguments as a single array, so creating another instance only requires invoking that handle.
+ *
+ * @param <T> the type of the proxy
+ *
+ * @see DispatchProxyClassCache
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+final class DispatchProxyClass<T> {
+
+    private static final Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, ProxyDispatcher.class, Object[].class);
+    private static final MethodType INTERCEPT_TYPE = MethodType.methodType(Object.class, Object.class, int.class, Object[].class);
+    private static final MethodHandle LINK;
+    private static final MethodHandle DISPATCH;
+
+    static {
+        try {
+            LINK = LOOKUP.findStatic(ProxyDispatcher.class, "link", INTERCEPT_TYPE);
+            DISPATCH = LOOKUP.findStatic(ProxyDispatcher.class, "dispatch", INTERCEPT_TYPE);
+        }
+        catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Map<List<Class<?>>, MethodHandle> constructors = new ConcurrentHashMap<>();
+    private final Class<? extends T> proxyClass;
+    private final boolean interfaceProxy;
+    private final Lookup proxyLookup;
+    private final Method[] methods;
+    private final Method[] superMethods;
+    private final MethodType[] handleTypes;
+    private final MethodHandle[] linkHandles;
+    private final MethodHandle[] genericHandles;
+    private final MethodHandle[] originalHandles;
+
+    /**
+     * Creates a new proxy class from the given generated class.
+     *
+     * @param type the proxied type
+     * @param proxyLookup a lookup on the generated class
+     * @param methods the proxied methods, in the order in which they were passed to the {@link DispatchProxyClassWriter}
+     * @param implementations for each method, the implementation which is invoked by its generated super method, or
+     *        {@code null} if no super method was generated
+     * @throws ReflectiveOperationException if the generated methods cannot be resolved
+     */
+    DispatchProxyClass(Class<T> type, Lookup proxyLookup, List<Method> methods, List<Method> implementations) throws ReflectiveOperationException {
+        this.proxyClass = proxyLookup.lookupClass().asSubclass(type);
+        this.interfaceProxy = type.isInterface();
+        this.proxyLookup = proxyLookup;
+        this.methods = methods.toArray(new Method[0]);
+        this.superMethods = new Method[this.methods.length];
+        this.handleTypes = new MethodType[this.methods.length];
+        this.linkHandles = new MethodHandle[this.methods.length];
+        this.genericHandles = new MethodHandle[this.methods.length];
+        this.originalHandles = new MethodHandle[this.methods.length];
+
+        for (int i = 0; i < this.methods.length; i++) {
+            Method method = this.methods[i];
+            MethodType handleType = DispatchProxyClassWriter.handleType(method);
+            this.handleTypes[i] = handleType;
+            this.linkHandles[i] = interceptHandle(LINK, i, handleType);
+            this.genericHandles[i] = interceptHandle(DISPATCH, i, handleType);
+
+            if (implementations.get(i) != null) {
+                String name = DispatchProxyClassWriter.SUPER_METHOD_PREFIX + i;
+                this.superMethods[i] = this.proxyClass.getDeclaredMethod(name, method.getParameterTypes());
+                this.originalHandles[i] = proxyLookup.findVirtual(this.proxyClass, name, methodType(method)).asType(handleType);
+            }
+            else if (type.isInterface() && method.isDefault() && method.getDeclaringClass().isAssignableFrom(type)) {
+                this.originalHandles[i] = this.defaultHandle(type, method, handleType);
+            }
+        }
+    }
+
+    private MethodHandle defaultHandle(Class<T> type, Method method, MethodType handleType) {
+        try {
+            // Equivalent to the handle used by the interceptor to invoke default methods of the proxied type
+            return this.proxyLookup.findSpecial(type, method.getName(), methodType(method), type).asType(handleType);
+        }
+        catch (NoSuchMethodException | IllegalAccessException e) {
+            // Invoked by the interceptor instead
+            return null;
+        }
+    }
+
+    private static MethodHandle interceptHandle(MethodHandle target, int index, MethodType handleType) {
+        return MethodHandles.insertArguments(target, 1, index)
+                .asCollector(Object[].class, handleType.parameterCount() - 1)
+                .asType(handleType);
+    }
+
+    private static MethodType methodType(Method method) {
+        return MethodType.methodType(method.getReturnType(), method.getParameterTypes());
+    }
+
+    /**
+     * Creates a new instance of the proxy class using the constructor with the given parameter types. The instance
+     * dispatches its method calls to the given interceptor.
+     *
+     * @param parameterTypes the parameter types of the constructor to use
+     * @param args the arguments to pass to the constructor
+     * @param interceptor the interceptor that receives all advised method calls
+     * @param invokables the cache of invokables for intercepted methods
+     * @return the new proxy instance
+     * @throws ApplicationException if the constructor does not exist or cannot be invoked
+     */
+    T newInstance(Class<?>[] parameterTypes, Object[] args, ProxyMethodInterceptor<T> interceptor, MethodInvokableCache invokables) throws ApplicationException {
+        MethodHandle constructor = this.constructor(parameterTypes);
+        ProxyDispatcher dispatcher = new ProxyDispatcher(this, interceptor, invokables);
+        Object instance;
+        try {
+            instance = (Object) constructor.invokeExact(dispatcher, args);
+        }
+        catch (Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new ApplicationException(e);
+        }
+        dispatcher.constructed();
+        return this.proxyClass.cast(instance);
+    }
+
+    private MethodHandle constructor(Class<?>[] parameterTypes) throws ApplicationException {
+        List<Class<?>> key = List.of(parameterTypes);
+        MethodHandle constructor = this.constructors.get(key);
+        if (constructor == null) {
+            // Resolving twice under contention is harmless, both handles point to the same constructor
+            constructor = this.resolveConstructor(parameterTypes);
+            MethodHandle existing = this.constructors.putIfAbsent(key, constructor);
+            if (existing != null) {
+                constructor = existing;
+            }
+        }
+        return constructor;
+    }
+
+    private MethodHandle resolveConstructor(Class<?>[] parameterTypes) throws ApplicationException {
+        try {
+            MethodType constructorType = MethodType.methodType(void.class, parameterTypes)
+                    .insertParameterTypes(0, ProxyDispatcher.class);
+            return this.proxyLookup.findConstructor(this.proxyClass, constructorType)
+                    .asSpreader(Object[].class, parameterTypes.length)
+                    .asType(CONSTRUCTOR_TYPE);
+        }
+        catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ApplicationException(e);
+        }
+    }
+
+    /**
+     * Returns a new array containing the link handles of all proxied methods, to be used by a single instance.
+     *
+     * @return the link handles
+     */
+    MethodHandle[] linkHandles() {
+        return this.linkHandles.clone();
+    }
+
+    /**
+     * Returns whether the proxied type is an interface, in which case the proxy class extends {@link Object}.
+     *
+     * @return {@code true} if the proxied type is an interface, {@code false} otherwise
+     */
+    boolean isInterfaceProxy() {
+        return this.interfaceProxy;
+    }
+
+    Method method(int index) {
+        return this.methods[index];
+    }
+
+    /**
+     * Returns the generated method which invokes the original implementation of the proxied method with the given
+     * index, or {@code null} if the method has no implementation in the proxied type.
+     *
+     * @param index the index of the proxied method
+     * @return the generated method, or {@code null}
+     */
+    Method superMethod(int index) {
+        return this.superMethods[index];
+    }
+
+    MethodType handleType(int index) {
+        return this.handleTypes[index];
+    }
+
+    MethodHandle linkHandle(int index) {
+        return this.linkHandles[index];
+    }
+
+    MethodHandle genericHandle(int index) {
+        return this.genericHandles[index];
+    }
+
+    /**
+     * Returns a handle which invokes the original implementation of the proxied method with the given index on the
+     * receiver it is given, or {@code null} if there is no such implementation.
+     *
+     * @param index the index of the proxied method
+     * @return the handle of the original implementation, or {@code null}
+     */
+    MethodHandle originalHandle(int index) {
+        return this.originalHandles[index];
+    }
+}
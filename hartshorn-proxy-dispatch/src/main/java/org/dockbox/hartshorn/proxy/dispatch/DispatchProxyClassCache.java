@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy.dispatch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of generated dispatch proxy classes. Proxy classes are generated once for every distinct combination of
+ * target type and implemented interfaces, and are reused for all following proxies of the same shape. The order in
+ * which interfaces are requested does not affect the cache key.
+ *
+ * <p>Proxy classes are defined as hidden classes in the package of the target type, so they can override and invoke
+ * package-private members of the target type. If the package of the target type is not open to this module, as is
+ * the case for JDK types, the proxy class is defined in the package of this class instead, and only public and
+ * protected members are proxied.
+ *
+ * <p>Entries are stored in a {@link ClassValue} on the target type, rather than in a global map. Hidden classes are
+ * not strongly referenced by their defining class loader, so once the target type is no longer reachable, its proxy
+ * classes and the cached entries can be collected together.
+ *
+ * @see DispatchProxyClass
+ * @see DispatchProxyClassWriter
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+final class DispatchProxyClassCache {
+
+    private static final String CLASS_NAME_SUFFIX = "$$HartshornDispatch";
+    private static final Lookup LOOKUP = MethodHandles.lookup();
+    private static final Comparator<Class<?>> INTERFACE_ORDER = Comparator.comparing(Class::getName);
+
+    private static final ClassValue<Map<List<Class<?>>, DispatchProxyClass<?>>> PROXY_CLASSES = new ClassValue<>() {
+        @Override
+        protected Map<List<Class<?>>, DispatchProxyClass<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private DispatchProxyClassCache() {
+        // Static cache
+    }
+
+    /**
+     * Returns the proxy class for the given type and interfaces, generating it if no proxy class of the same
+     * shape has been generated before.
+     *
+     * @param type the type to extend or implement
+     * @param interfaces the interfaces to implement
+     * @param <T> the type of the proxy
+     * @return the cached proxy class
+     * @throws IllegalStateException if the proxy class cannot be generated
+     */
+    @SuppressWarnings("unchecked")
+    static <T> DispatchProxyClass<T> proxyClass(Class<T> type, Class<?>[] interfaces) {
+        List<Class<?>> key = Arrays.stream(interfaces)
+                .distinct()
+                .sorted(INTERFACE_ORDER)
+                .toList();
+        return (DispatchProxyClass<T>) PROXY_CLASSES.get(type).computeIfAbsent(key, k -> createProxyClass(type, k));
+    }
+
+    private static <T> DispatchProxyClass<T> createProxyClass(Class<T> type, List<Class<?>> interfaces) {
+        Lookup definingLookup = definingLookup(type);
+        String packageName = definingLookup.lookupClass().getPackageName();
+        ClassLoader classLoader = definingLookup.lookupClass().getClassLoader();
+        String className = definingLookup == LOOKUP
+                ? packageName + "." + type.getName().replace('.', '_') + CLASS_NAME_SUFFIX
+                : type.getName() + CLASS_NAME_SUFFIX;
+
+        Class<?> superClass = type.isInterface() ? Object.class : type;
+        List<Method> methods = new ArrayList<>();
+        List<Method> implementations = new ArrayList<>();
+        collectMethods(type, superClass, interfaces, packageName, classLoader, methods, implementations);
+        List<Constructor<?>> constructors = new ArrayList<>();
+        for (Constructor<?> constructor : superClass.getDeclaredConstructors()) {
+            if (isAccessible(superClass, constructor.getModifiers(), packageName, classLoader)) {
+                constructors.add(constructor);
+            }
+        }
+
+        try {
+            byte[] bytes = new DispatchProxyClassWriter(className, superClass, interfaces, methods, implementations, constructors).write();
+            Lookup proxyLookup = definingLookup.defineHiddenClass(bytes, true);
+            return new DispatchProxyClass<>(type, proxyLookup, methods, implementations);
+        }
+        catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("Could not generate dispatch proxy class for " + type.getName(), e);
+        }
+    }
+
+    private static Lookup definingLookup(Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(type, LOOKUP);
+        }
+        catch (IllegalAccessException e) {
+            return LOOKUP;
+        }
+    }
+
+    /**
+     * Collects all methods which should be implemented by the proxy class. Methods of the super class hierarchy take
+     * precedence over methods of interfaces, and methods of subtypes take precedence over methods of their super
+     * types. Methods are identified by their name and descriptor, so covariant overrides are implemented separately.
+     * For each collected method, the implementation in the super class hierarchy is collected as well, or {@code
+     * null} if the method is abstract or the proxied type is an interface.
+     */
+    private static void collectMethods(Class<?> type, Class<?> superClass, List<Class<?>> interfaces,
+                                       String packageName, ClassLoader classLoader,
+                                       List<Method> methods, List<Method> implementations) {
+        Set<String> visited = new HashSet<>();
+        Set<Class<?>> allInterfaces = new LinkedHashSet<>();
+        Deque<Class<?>> pendingInterfaces = new ArrayDeque<>(interfaces);
+
+        for (Class<?> current = superClass; current != null; current = current.getSuperclass()) {
+            pendingInterfaces.addAll(Arrays.asList(current.getInterfaces()));
+            for (Method method : current.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers) || !visited.add(signature(method))) {
+                    continue;
+                }
+                // Final methods and bridges are not overridden, but still hide the methods they override
+                if (Modifier.isFinal(modifiers) || method.isBridge() || method.isSynthetic()) {
+                    continue;
+                }
+                if (current == Object.class && !isProxiedObjectMethod(method)) {
+                    continue;
+                }
+                if (!isAccessible(current, modifiers, packageName, classLoader)) {
+                    continue;
+                }
+                methods.add(method);
+                implementations.add(type.isInterface() || Modifier.isAbstract(modifiers) ? null : method);
+            }
+        }
+
+        while (!pendingInterfaces.isEmpty()) {
+            Class<?> current = pendingInterfaces.removeFirst();
+            if (current == DispatchProxy.class || !allInterfaces.add(current)) {
+                continue;
+            }
+            pendingInterfaces.addAll(Arrays.asList(current.getInterfaces()));
+            for (Method method : current.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers) || method.isBridge() || method.isSynthetic()) {
+                    continue;
+                }
+                if (visited.add(signature(method))) {
+                    methods.add(method);
+                    implementations.add(null);
+                }
+            }
+        }
+    }
+
+    private static boolean isProxiedObjectMethod(Method method) {
+        // Consistent with the methods that are passed to JDK proxies
+        return switch (method.getName()) {
+            case "equals", "hashCode", "toString" -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isAccessible(Class<?> declaringClass, int modifiers, String packageName, ClassLoader classLoader) {
+        if (Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers)) {
+            return true;
+        }
+        // Package-private members are only accessible from the same runtime package
+        return !Modifier.isPrivate(modifiers)
+                && declaringClass.getPackageName().equals(packageName)
+                && declaringClass.getClassLoader() == classLoader;
+    }
+
+    private static String signature(Method method) {
+        return method.getName() + MethodType.methodType(method.getReturnType(), method.getParameterTypes()).toMethodDescriptorString();
+    }
+}
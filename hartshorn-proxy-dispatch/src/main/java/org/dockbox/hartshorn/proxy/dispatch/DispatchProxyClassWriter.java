@@ -0,0 +1,464 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy.dispatch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Minimal class file writer for dispatch proxy classes. Generated classes extend the proxied class, or {@link
+ * Object} for interfaces, and implement the proxied interfaces together with {@link DispatchProxy}. Each generated
+ * class holds the {@link ProxyDispatcher} it was constructed with, and implements every proxied method by invoking
+ * the {@link ProxyDispatcher#handle(int) handle} for that method with {@link MethodHandle#invokeExact(Object...)}.
+ *
+ * <p>Handles are invoked with the receiver and the original arguments, where reference types are erased to {@link
+ * Object} and primitive types are passed as-is. This keeps primitive arguments and return values unboxed, while
+ * the handle type only depends on types that are always accessible to the generated class.
+ *
+ * <p>For each proxied method that has an implementation in the proxied class, a public method named {@code
+ * hartshorn$super$<index>} is generated, which invokes the original implementation. Generated constructors accept the
+ * {@link ProxyDispatcher} followed by the parameters of a constructor of the proxied class, and assign the dispatcher
+ * before the constructor of the proxied class is invoked.
+ *
+ * <p>Generated code does not contain any branches, so no stack map frames are required. This keeps the writer small
+ * enough to not require a bytecode library.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+final class DispatchProxyClassWriter {
+
+    static final String SUPER_METHOD_PREFIX = "hartshorn$super$";
+
+    private static final int MAGIC = 0xCAFEBABE;
+    // Java 17 class files. Generated classes use no features of newer versions.
+    private static final int MAJOR_VERSION = 61;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int ILOAD = 0x15;
+    private static final int LLOAD = 0x16;
+    private static final int FLOAD = 0x17;
+    private static final int DLOAD = 0x18;
+    private static final int ALOAD = 0x19;
+    private static final int IRETURN = 0xac;
+    private static final int LRETURN = 0xad;
+    private static final int FRETURN = 0xae;
+    private static final int DRETURN = 0xaf;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int GETFIELD = 0xb4;
+    private static final int PUTFIELD = 0xb5;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int CHECKCAST = 0xc0;
+    private static final int WIDE = 0xc4;
+
+    private static final String DISPATCHER_FIELD = "hartshorn$dispatcher";
+    private static final String DISPATCHER_TYPE = internalName(ProxyDispatcher.class);
+    private static final String DISPATCHER_DESCRIPTOR = ProxyDispatcher.class.descriptorString();
+    private static final String METHOD_HANDLE_TYPE = internalName(MethodHandle.class);
+    private static final String HANDLE_DESCRIPTOR = "(I)" + MethodHandle.class.descriptorString();
+
+    private final ConstantPool constantPool = new ConstantPool();
+    private final String className;
+    private final Class<?> superClass;
+    private final Collection<Class<?>> interfaces;
+    private final List<Method> methods;
+    private final List<Method> superMethods;
+    private final List<Constructor<?>> constructors;
+
+    /**
+     * Creates a new writer for a class with the given name.
+     *
+     * @param className the binary name of the class, which must be in the package of the lookup that defines it
+     * @param superClass the class to extend
+     * @param interfaces the interfaces to implement, excluding {@link DispatchProxy}
+     * @param methods the methods to implement, in the order of their handle indices
+     * @param superMethods for each method, the method of which the original implementation can be invoked, or
+     *        {@code null} if there is no original implementation
+     * @param constructors the constructors of the super class to expose
+     */
+    DispatchProxyClassWriter(String className, Class<?> superClass, Collection<Class<?>> interfaces,
+                             List<Method> methods, List<Method> superMethods, List<Constructor<?>> constructors) {
+        this.className = className.replace('.', '/');
+        this.superClass = superClass;
+        this.interfaces = interfaces;
+        this.methods = methods;
+        this.superMethods = superMethods;
+        this.constructors = constructors;
+    }
+
+    /**
+     * Returns the type of the handle which is invoked by the generated implementation of the given method. This is
+     * the type of the method with the receiver as first parameter, and all reference types erased to {@link Object}.
+     *
+     * @param method the implemented method
+     * @return the type of the handle
+     */
+    static MethodType handleType(Method method) {
+        return MethodType.methodType(method.getReturnType(), method.getParameterTypes())
+                .erase()
+                .insertParameterTypes(0, Object.class);
+    }
+
+    /**
+     * Writes the class file.
+     *
+     * @return the bytes of the class file
+     */
+    byte[] write() {
+        try {
+            // Methods and fields are written first, so all constants are known before the constant pool is written
+            ByteArrayOutputStream members = new ByteArrayOutputStream();
+            DataOutputStream memberOutput = new DataOutputStream(members);
+            this.writeFields(memberOutput);
+            this.writeMethods(memberOutput);
+
+            int thisClass = this.constantPool.classRef(this.className);
+            int superClass = this.constantPool.classRef(internalName(this.superClass));
+            List<Integer> interfaceIndices = new ArrayList<>();
+            for (Class<?> type : this.interfaces) {
+                interfaceIndices.add(this.constantPool.classRef(internalName(type)));
+            }
+            interfaceIndices.add(this.constantPool.classRef(internalName(DispatchProxy.class)));
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeInt(MAGIC);
+            output.writeShort(0);
+            output.writeShort(MAJOR_VERSION);
+            this.constantPool.write(output);
+            output.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC);
+            output.writeShort(thisClass);
+            output.writeShort(superClass);
+            output.writeShort(interfaceIndices.size());
+            for (int index : interfaceIndices) {
+                output.writeShort(index);
+            }
+            members.writeTo(output);
+            // No class attributes
+            output.writeShort(0);
+            output.flush();
+            return bytes.toByteArray();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeFields(DataOutputStream output) throws IOException {
+        output.writeShort(1);
+        output.writeShort(ACC_PRIVATE | ACC_FINAL);
+        output.writeShort(this.constantPool.utf8(DISPATCHER_FIELD));
+        output.writeShort(this.constantPool.utf8(DISPATCHER_DESCRIPTOR));
+        output.writeShort(0);
+    }
+
+    private void writeMethods(DataOutputStream output) throws IOException {
+        int superMethodCount = (int) this.superMethods.stream().filter(Objects::nonNull).count();
+        output.writeShort(this.constructors.size() + 1 + this.methods.size() + superMethodCount);
+        for (Constructor<?> constructor : this.constructors) {
+            this.writeConstructor(output, constructor);
+        }
+        this.writeDispatcherAccessor(output);
+        for (int i = 0; i < this.methods.size(); i++) {
+            this.writeDispatchingMethod(output, this.methods.get(i), i);
+        }
+        for (int i = 0; i < this.superMethods.size(); i++) {
+            Method superMethod = this.superMethods.get(i);
+            if (superMethod != null) {
+                this.writeSuperMethod(output, superMethod, i);
+            }
+        }
+    }
+
+    private void writeConstructor(DataOutputStream output, Constructor<?> constructor) throws IOException {
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        String superDescriptor = MethodType.methodType(void.class, parameterTypes).toMethodDescriptorString();
+        String descriptor = MethodType.methodType(void.class, parameterTypes)
+                .insertParameterTypes(0, ProxyDispatcher.class)
+                .toMethodDescriptorString();
+
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        // The dispatcher is assigned before the super constructor is invoked, so methods which are invoked by that
+        // constructor can already be dispatched.
+        code.write(ALOAD_0);
+        code.write(ALOAD_1);
+        writeIndexed(code, PUTFIELD, this.constantPool.fieldRef(this.className, DISPATCHER_FIELD, DISPATCHER_DESCRIPTOR));
+        code.write(ALOAD_0);
+        int slots = writeLoadArguments(code, parameterTypes, 2);
+        writeIndexed(code, INVOKESPECIAL, this.constantPool.methodRef(internalName(this.superClass), "<init>", superDescriptor));
+        code.write(RETURN);
+
+        this.writeMethod(output, "<init>", descriptor, code.toByteArray(), Math.max(2, 1 + slots), 2 + slots);
+    }
+
+    private void writeDispatcherAccessor(DataOutputStream output) throws IOException {
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        code.write(ALOAD_0);
+        writeIndexed(code, GETFIELD, this.constantPool.fieldRef(this.className, DISPATCHER_FIELD, DISPATCHER_DESCRIPTOR));
+        code.write(ARETURN);
+        this.writeMethod(output, DISPATCHER_FIELD, "()" + DISPATCHER_DESCRIPTOR, code.toByteArray(), 1, 1);
+    }
+
+    private void writeDispatchingMethod(DataOutputStream output, Method method, int index) throws IOException {
+        Class<?> returnType = method.getReturnType();
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        code.write(ALOAD_0);
+        writeIndexed(code, GETFIELD, this.constantPool.fieldRef(this.className, DISPATCHER_FIELD, DISPATCHER_DESCRIPTOR));
+        writeInt(code, index);
+        writeIndexed(code, INVOKEVIRTUAL, this.constantPool.methodRef(DISPATCHER_TYPE, "handle", HANDLE_DESCRIPTOR));
+        code.write(ALOAD_0);
+        int slots = writeLoadArguments(code, method.getParameterTypes(), 1);
+        writeIndexed(code, INVOKEVIRTUAL, this.constantPool.methodRef(METHOD_HANDLE_TYPE, "invokeExact", handleType(method).toMethodDescriptorString()));
+        if (!returnType.isPrimitive() && returnType != Object.class) {
+            writeIndexed(code, CHECKCAST, this.constantPool.classRef(internalName(returnType)));
+        }
+        code.write(returnInstruction(returnType));
+
+        // At most: handle, this, arguments, or a wide return value
+        this.writeMethod(output, method.getName(), descriptor(method), code.toByteArray(), Math.max(2 + slots, 2), 1 + slots);
+    }
+
+    private void writeSuperMethod(DataOutputStream output, Method method, int index) throws IOException {
+        String descriptor = descriptor(method);
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        code.write(ALOAD_0);
+        int slots = writeLoadArguments(code, method.getParameterTypes(), 1);
+        writeIndexed(code, INVOKESPECIAL, this.constantPool.methodRef(internalName(this.superClass), method.getName(), descriptor));
+        code.write(returnInstruction(method.getReturnType()));
+        this.writeMethod(output, SUPER_METHOD_PREFIX + index, descriptor, code.toByteArray(), Math.max(1 + slots, 2), 1 + slots);
+    }
+
+    private void writeMethod(DataOutputStream output, String name, String descriptor, byte[] code, int maxStack, int maxLocals) throws IOException {
+        output.writeShort(ACC_PUBLIC);
+        output.writeShort(this.constantPool.utf8(name));
+        output.writeShort(this.constantPool.utf8(descriptor));
+        output.writeShort(1);
+        output.writeShort(this.constantPool.utf8("Code"));
+        // max_stack, max_locals, code_length, code, exception_table_length, attributes_count
+        output.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+        output.writeShort(maxStack);
+        output.writeShort(maxLocals);
+        output.writeInt(code.length);
+        output.write(code);
+        output.writeShort(0);
+        output.writeShort(0);
+    }
+
+    /**
+     * Loads all arguments of the given types onto the stack, starting at the given local variable slot.
+     *
+     * @return the number of slots used by the arguments
+     */
+    private static int writeLoadArguments(ByteArrayOutputStream code, Class<?>[] parameterTypes, int firstSlot) {
+        int slot = firstSlot;
+        for (Class<?> parameterType : parameterTypes) {
+            int instruction;
+            if (parameterType == long.class) {
+                instruction = LLOAD;
+            }
+            else if (parameterType == float.class) {
+                instruction = FLOAD;
+            }
+            else if (parameterType == double.class) {
+                instruction = DLOAD;
+            }
+            else if (parameterType.isPrimitive()) {
+                instruction = ILOAD;
+            }
+            else {
+                instruction = ALOAD;
+            }
+
+            if (slot <= 0xff) {
+                code.write(instruction);
+                code.write(slot);
+            }
+            else {
+                code.write(WIDE);
+                writeIndexed(code, instruction, slot);
+            }
+            slot += parameterType == long.class || parameterType == double.class ? 2 : 1;
+        }
+        return slot - firstSlot;
+    }
+
+    private static void writeIndexed(ByteArrayOutputStream code, int instruction, int index) {
+        code.write(instruction);
+        code.write(index >> 8);
+        code.write(index);
+    }
+
+    private static void writeInt(ByteArrayOutputStream code, int value) {
+        if (value <= 5) {
+            code.write(ICONST_0 + value);
+        }
+        else if (value <= Byte.MAX_VALUE) {
+            code.write(BIPUSH);
+            code.write(value);
+        }
+        else {
+            code.write(SIPUSH);
+            code.write(value >> 8);
+            code.write(value);
+        }
+    }
+
+    private static int returnInstruction(Class<?> type) {
+        if (type == void.class) {
+            return RETURN;
+        }
+        else if (type == long.class) {
+            return LRETURN;
+        }
+        else if (type == float.class) {
+            return FRETURN;
+        }
+        else if (type == double.class) {
+            return DRETURN;
+        }
+        else if (type.isPrimitive()) {
+            return IRETURN;
+        }
+        else {
+            return ARETURN;
+        }
+    }
+
+    private static String descriptor(Method method) {
+        return MethodType.methodType(method.getReturnType(), method.getParameterTypes()).toMethodDescriptorString();
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.isArray()
+                ? type.descriptorString()
+                : type.getName().replace('.', '/');
+    }
+
+    /**
+     * Constant pool of the generated class. Constants are deduplicated, and written in the order in which they
+     * were first requested.
+     */
+    private static final class ConstantPool {
+
+        private static final int CONSTANT_UTF8 = 1;
+        private static final int CONSTANT_CLASS = 7;
+        private static final int CONSTANT_FIELDREF = 9;
+        private static final int CONSTANT_METHODREF = 10;
+        private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream output = new DataOutputStream(this.bytes);
+        // Index 0 is reserved by the class file format
+        private int size = 1;
+
+        private int utf8(String value) {
+            return this.constant("U" + value, output -> {
+                output.writeByte(CONSTANT_UTF8);
+                output.writeUTF(value);
+            });
+        }
+
+        private int classRef(String internalName) {
+            int name = this.utf8(internalName);
+            return this.constant("C" + internalName, output -> {
+                output.writeByte(CONSTANT_CLASS);
+                output.writeShort(name);
+            });
+        }
+
+        private int nameAndType(String name, String descriptor) {
+            int nameIndex = this.utf8(name);
+            int descriptorIndex = this.utf8(descriptor);
+            return this.constant("N" + name + ":" + descriptor, output -> {
+                output.writeByte(CONSTANT_NAME_AND_TYPE);
+                output.writeShort(nameIndex);
+                output.writeShort(descriptorIndex);
+            });
+        }
+
+        private int fieldRef(String owner, String name, String descriptor) {
+            return this.memberRef(CONSTANT_FIELDREF, "F", owner, name, descriptor);
+        }
+
+        private int methodRef(String owner, String name, String descriptor) {
+            return this.memberRef(CONSTANT_METHODREF, "M", owner, name, descriptor);
+        }
+
+        private int memberRef(int tag, String kind, String owner, String name, String descriptor) {
+            int ownerIndex = this.classRef(owner);
+            int nameAndType = this.nameAndType(name, descriptor);
+            return this.constant(kind + owner + "." + name + ":" + descriptor, output -> {
+                output.writeByte(tag);
+                output.writeShort(ownerIndex);
+                output.writeShort(nameAndType);
+            });
+        }
+
+        private int constant(String key, ConstantWriter writer) {
+            Integer existing = this.indices.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                writer.write(this.output);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int index = this.size++;
+            this.indices.put(key, index);
+            return index;
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            output.writeShort(this.size);
+            this.output.flush();
+            this.bytes.writeTo(output);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConstantWriter {
+        void write(DataOutputStream output) throws IOException;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy.dispatch;
+
+import java.lang.reflect.Constructor;
+import java.util.function.Supplier;
+
+import org.dockbox.hartshorn.proxy.ProxyConstructorFunction;
+import org.dockbox.hartshorn.proxy.advice.intercept.MethodInvokableCache;
+import org.dockbox.hartshorn.proxy.advice.intercept.ProxyMethodInterceptor;
+import org.dockbox.hartshorn.util.ApplicationException;
+
+/**
+ * A proxy constructor function that creates instances of a generated dispatch proxy class. The proxy class is only
+ * resolved once the first instance is created, after which the same class is reused for every following instance.
+ *
+ * @param <T> the type of the proxy
+ *
+ * @see DispatchProxyClassCache
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+class DispatchProxyConstructorFunction<T> implements ProxyConstructorFunction<T> {
+
+    private static final Class<?>[] NO_PARAMETERS = new Class<?>[0];
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final Supplier<DispatchProxyClass<T>> proxyClassSupplier;
+    private final ProxyMethodInterceptor<T> interceptor;
+    private final MethodInvokableCache invokables;
+    private DispatchProxyClass<T> proxyClass;
+
+    DispatchProxyConstructorFunction(Supplier<DispatchProxyClass<T>> proxyClassSupplier, ProxyMethodInterceptor<T> interceptor, MethodInvokableCache invokables) {
+        this.proxyClassSupplier = proxyClassSupplier;
+        this.interceptor = interceptor;
+        this.invokables = invokables;
+    }
+
+    @Override
+    public T create() throws ApplicationException {
+        return this.create(NO_PARAMETERS, NO_ARGUMENTS);
+    }
+
+    @Override
+    public T create(Constructor<? extends T> constructor, Object[] args) throws ApplicationException {
+        return this.create(constructor.getParameterTypes(), args);
+    }
+
+    private T create(Class<?>[] parameterTypes, Object[] args) throws ApplicationException {
+        try {
+            return this.proxyClass().newInstance(parameterTypes, args, this.interceptor, this.invokables);
+        } catch (RuntimeException e) {
+            throw new ApplicationException(e);
+        }
+    }
+
+    private DispatchProxyClass<T> proxyClass() {
+        if (this.proxyClass == null) {
+            this.proxyClass = this.proxyClassSupplier.get();
+        }
+        return this.proxyClass;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy.dispatch;
+
+import org.dockbox.hartshorn.proxy.JDKInterfaceProxyFactory;
+import org.dockbox.hartshorn.proxy.ProxyConstructorFunction;
+import org.dockbox.hartshorn.proxy.advice.intercept.ProxyMethodInterceptor;
+import org.dockbox.hartshorn.util.ApplicationException;
+import org.dockbox.hartshorn.util.option.Option;
+
+/**
+ * A proxy factory that generates its own proxy classes, for interfaces as well as concrete and abstract classes.
+ * Generated classes are defined as hidden classes, and implement each proxied method by invoking a {@link
+ * java.lang.invoke.MethodHandle} held by the {@link ProxyDispatcher} of the proxy. Methods without advice are linked
+ * to handles that invoke their delegate or original implementation directly with the typed arguments of the call,
+ * without reflection, argument arrays, or boxing. Advised methods are passed to the {@link ProxyMethodInterceptor},
+ * in the same way as they are for other proxy factories.
+ *
+ * <p>Generated proxy classes are cached per target type and set of implemented interfaces, so creating additional
+ * proxies of the same shape does not generate a new class.
+ *
+ * @param <T> the type of the proxy
+ *
+ * @see ProxyDispatcher
+ * @see DispatchProxyClassCache
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public class DispatchProxyFactory<T> extends JDKInterfaceProxyFactory<T> {
+
+    public DispatchProxyFactory(Class<T> type, DispatchProxyOrchestrator proxyOrchestrator) {
+        super(type, proxyOrchestrator);
+    }
+
+    @Override
+    public Option<T> createNewProxy() throws ApplicationException {
+        return this.createProxy(interceptor -> this.type().isInterface()
+                ? Option.of(this.concreteOrAbstractEnhancer(interceptor).create())
+                : this.concreteOrAbstractProxy(interceptor));
+    }
+
+    @Override
+    protected ProxyConstructorFunction<T> concreteOrAbstractEnhancer(ProxyMethodInterceptor<T> interceptor) {
+        Class<?>[] interfaces = this.proxyInterfaces(this.type().isInterface());
+        return new DispatchProxyConstructorFunction<>(
+                () -> DispatchProxyClassCache.proxyClass(this.type(), interfaces),
+                interceptor,
+                this.orchestrator().invokables());
+    }
+}
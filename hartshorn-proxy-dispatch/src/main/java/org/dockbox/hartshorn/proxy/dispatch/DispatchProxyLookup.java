@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy.dispatch;
+
+import org.dockbox.hartshorn.proxy.ProxyManager;
+import org.dockbox.hartshorn.proxy.lookup.StandardProxyLookup;
+import org.dockbox.hartshorn.util.TypeUtils;
+import org.dockbox.hartshorn.util.introspect.ProxyIntrospector;
+import org.dockbox.hartshorn.util.option.Option;
+
+/**
+ * A proxy lookup implementation for proxies which are generated by the {@link DispatchProxyFactory}. Proxies are
+ * detected by checking whether the given instance or class implements {@link DispatchProxy}. For unproxying, the
+ * target class is obtained from the manager of the interceptor that is held by the {@link ProxyDispatcher} of the
+ * proxy.
+ *
+ * @see DispatchProxy
+ * @see ProxyDispatcher
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public class DispatchProxyLookup implements StandardProxyLookup {
+
+    @Override
+    public <T> Option<Class<T>> unproxy(T instance) {
+        if (instance instanceof DispatchProxy proxy) {
+            Class<?> targetClass = proxy.hartshorn$dispatcher().interceptor().manager().targetClass();
+            Class<T> adjustedTargetClass = TypeUtils.unchecked(targetClass, Class.class);
+            return Option.of(adjustedTargetClass);
+        }
+        return Option.empty();
+    }
+
+    @Override
+    public boolean isProxy(Class<?> candidate) {
+        return DispatchProxy.class.isAssignableFrom(candidate);
+    }
+
+    @Override
+    public <T> Option<ProxyIntrospector<T>> introspector(T instance) {
+        if (instance instanceof DispatchProxy proxy) {
+            ProxyManager<?> manager = proxy.hartshorn$dispatcher().interceptor().manager();
+            if (manager.proxy() == instance) {
+                ProxyManager<T> adjustedManager = TypeUtils.unchecked(manager, ProxyManager.class);
+                return Option.of(adjustedManager);
+            }
+        }
+        return Option.empty();
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy.dispatch;
+
+import org.dockbox.hartshorn.proxy.ProxyOrchestrator;
+import org.dockbox.hartshorn.proxy.ProxyOrchestratorLoader;
+import org.dockbox.hartshorn.util.introspect.Introspector;
+
+/**
+ * A proxy orchestrator loader that creates {@link DispatchProxyOrchestrator} instances.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public class DispatchProxyOrchestratorLoader implements ProxyOrchestratorLoader {
+
+    @Override
+    public ProxyOrchestrator create(Introspector introspector) {
+        return new DispatchProxyOrchestrator(introspector);
+    }
+}
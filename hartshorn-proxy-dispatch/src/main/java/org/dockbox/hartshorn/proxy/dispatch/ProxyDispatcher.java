@@ -0,0 +1,261 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy.dispatch;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+
+import org.dockbox.hartshorn.proxy.ProxyManager;
+import org.dockbox.hartshorn.proxy.advice.intercept.Invokable;
+import org.dockbox.hartshorn.proxy.advice.intercept.MethodInvokableCache;
+import org.dockbox.hartshorn.proxy.advice.intercept.ProxyAdvisorMethodInterceptor;
+import org.dockbox.hartshorn.proxy.advice.intercept.ProxyMethodInterceptor;
+import org.dockbox.hartshorn.proxy.advice.registry.AdvisorRegistryState;
+import org.dockbox.hartshorn.proxy.advice.registry.StateAwareAdvisorRegistry;
+
+/**
+ * Dispatches the method calls of a single {@link DispatchProxy} instance. The dispatcher holds one {@link
+ * MethodHandle} for each proxied method, which is invoked by the generated proxy class with the receiver and the
+ * typed arguments of the call.
+ *
+ * <p>Each handle starts out as a link handle, which resolves the handle to use for the method on its first call.
+ * If the {@link ProxyAdvisorMethodInterceptor} of the proxy reports that calls to the method are {@link
+ * ProxyAdvisorMethodInterceptor#isDirect(Method) direct}, the method is linked to a handle which invokes the method
+ * delegate, the type delegate, or the original implementation of the method directly. Otherwise, it is linked to a
+ * handle which passes the call to the {@link ProxyMethodInterceptor}, which requires the arguments to be collected
+ * into an array, and primitive values to be boxed.
+ *
+ * <p>Linked handles are guarded by the {@link AdvisorRegistryState#version() version} of the advisors of the proxy,
+ * so modifying the advisors of the proxy causes methods to be linked again on their next call. If the advisors of
+ * the proxy do not track their state, calls are always passed to the interceptor.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public final class ProxyDispatcher {
+
+    private static final Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodHandle IS_CURRENT;
+    private static final MethodHandle REPLACE_DELEGATE;
+
+    static {
+        try {
+            IS_CURRENT = LOOKUP.findStatic(ProxyDispatcher.class, "isCurrent",
+                    MethodType.methodType(boolean.class, AdvisorRegistryState.class, long.class));
+            REPLACE_DELEGATE = LOOKUP.findStatic(ProxyDispatcher.class, "replaceDelegate",
+                    MethodType.methodType(Object.class, Object.class, Object.class, Object.class, Object.class));
+        }
+        catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final DispatchProxyClass<?> proxyClass;
+    private final ProxyMethodInterceptor<?> interceptor;
+    private final MethodInvokableCache invokables;
+    private final MethodHandle[] handles;
+    private boolean constructed;
+
+    ProxyDispatcher(DispatchProxyClass<?> proxyClass, ProxyMethodInterceptor<?> interceptor, MethodInvokableCache invokables) {
+        this.proxyClass = proxyClass;
+        this.interceptor = interceptor;
+        this.invokables = invokables;
+        this.handles = proxyClass.linkHandles();
+    }
+
+    /**
+     * Returns the handle to invoke for the proxied method with the given index. The handle accepts the receiver and
+     * the arguments of the method, as described by {@link DispatchProxyClassWriter#handleType(Method)}. This method
+     * is invoked by generated proxy classes, and should not be used directly.
+     *
+     * @param index the index of the proxied method
+     * @return the handle to invoke
+     */
+    public MethodHandle handle(int index) {
+        return this.handles[index];
+    }
+
+    /**
+     * Returns the interceptor which receives all calls to advised methods of the proxy.
+     *
+     * @return the interceptor
+     */
+    public ProxyMethodInterceptor<?> interceptor() {
+        return this.interceptor;
+    }
+
+    /**
+     * Marks the proxy as fully constructed. Calls which are made before this, by the constructor of the proxied
+     * class, are not intercepted, but invoke the original implementation of the method directly.
+     */
+    void constructed() {
+        this.constructed = true;
+    }
+
+    /**
+     * Target of link handles. Resolves the handle to use for the given method, and dispatches the current call
+     * through the interceptor.
+     *
+     * @param self the proxy instance on which the method is invoked
+     * @param index the index of the invoked method
+     * @param args the arguments that are passed to the method
+     * @return the result of the method invocation
+     * @throws Throwable if the method invocation fails
+     */
+    static Object link(Object self, int index, Object[] args) throws Throwable {
+        ProxyDispatcher dispatcher = ((DispatchProxy) self).hartshorn$dispatcher();
+        if (dispatcher.constructed) {
+            dispatcher.handles[index] = dispatcher.resolve(index);
+        }
+        return dispatcher.intercept(self, index, args);
+    }
+
+    /**
+     * Target of generic handles. Dispatches the call through the interceptor.
+     *
+     * @param self the proxy instance on which the method is invoked
+     * @param index the index of the invoked method
+     * @param args the arguments that are passed to the method
+     * @return the result of the method invocation
+     * @throws Throwable if the method invocation fails
+     */
+    static Object dispatch(Object self, int index, Object[] args) throws Throwable {
+        return ((DispatchProxy) self).hartshorn$dispatcher().intercept(self, index, args);
+    }
+
+    private Object intercept(Object self, int index, Object[] args) throws Throwable {
+        Method method = this.proxyClass.method(index);
+        if (!this.constructed) {
+            return this.invokeDuringConstruction(self, index, args);
+        }
+        // Consistent with JDK proxies for interfaces, which have no original implementation, and with Javassist
+        // proxies for classes, which pass an absent invokable for abstract methods
+        Invokable proceed = this.proxyClass.isInterfaceProxy()
+                ? null
+                : this.invokables.invokable(this.proxyClass.superMethod(index));
+        try {
+            return this.interceptor.intercept(self, this.invokables.invokable(method), proceed, args);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            for (Class<?> exceptionType : method.getExceptionTypes()) {
+                if (exceptionType.isInstance(e)) {
+                    throw e;
+                }
+            }
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    private Object invokeDuringConstruction(Object self, int index, Object[] args) throws Throwable {
+        MethodHandle original = this.proxyClass.originalHandle(index);
+        if (original == null) {
+            throw new IllegalStateException("Cannot invoke " + this.proxyClass.method(index) + " before the proxy is constructed, as it has no implementation");
+        }
+        Object[] arguments = new Object[args.length + 1];
+        arguments[0] = self;
+        System.arraycopy(args, 0, arguments, 1, args.length);
+        return original.invokeWithArguments(arguments);
+    }
+
+    private MethodHandle resolve(int index) {
+        if (!(this.interceptor instanceof ProxyAdvisorMethodInterceptor<?> advisorInterceptor)
+                || !(advisorInterceptor.manager().advisor().resolver() instanceof StateAwareAdvisorRegistry<?> registry)) {
+            // Without state tracking there is no way to know when a linked handle becomes outdated
+            return this.proxyClass.genericHandle(index);
+        }
+
+        // Read before the method is checked, so concurrent modifications always result in an outdated handle
+        AdvisorRegistryState state = registry.state();
+        long version = state.version();
+
+        Method method = this.proxyClass.method(index);
+        MethodHandle target = null;
+        if (advisorInterceptor.isDirect(method)) {
+            target = this.directHandle(index, method, advisorInterceptor.manager());
+        }
+        if (target == null) {
+            target = this.proxyClass.genericHandle(index);
+        }
+        MethodHandle isCurrent = MethodHandles.insertArguments(IS_CURRENT, 0, state, version);
+        return MethodHandles.guardWithTest(isCurrent, target, this.proxyClass.linkHandle(index));
+    }
+
+    /**
+     * Resolves a handle which directly invokes the target of a method without advice, following the same rules as
+     * the {@link ProxyAdvisorMethodInterceptor}. If the target cannot be invoked directly, {@code null} is returned,
+     * and calls continue to be passed to the interceptor.
+     */
+    private MethodHandle directHandle(int index, Method method, ProxyManager<?> manager) {
+        Object methodDelegate = manager.advisor().resolver().method(method).delegate().orNull();
+        Object typeDelegate = manager.delegate().orNull();
+        if (methodDelegate != null) {
+            MethodHandle handle = this.boundHandle(index, method, methodDelegate);
+            if (handle != null && !method.getReturnType().isPrimitive() && method.getReturnType().isInstance(methodDelegate)) {
+                // Delegates returning themselves (e.g. fluent APIs) should not leak from the proxy
+                handle = this.replacingDelegate(handle, methodDelegate, typeDelegate);
+            }
+            return handle;
+        }
+        if (typeDelegate != null) {
+            return this.boundHandle(index, method, typeDelegate);
+        }
+        return this.proxyClass.originalHandle(index);
+    }
+
+    private MethodHandle boundHandle(int index, Method method, Object target) {
+        if (!method.getDeclaringClass().isInstance(target)) {
+            return null;
+        }
+        MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflect(method);
+        }
+        catch (IllegalAccessException e) {
+            // Invoked reflectively by the interceptor instead
+            return null;
+        }
+        MethodType handleType = this.proxyClass.handleType(index);
+        return MethodHandles.dropArguments(handle.bindTo(target).asType(handleType.dropParameterTypes(0, 1)), 0, Object.class);
+    }
+
+    private MethodHandle replacingDelegate(MethodHandle handle, Object methodDelegate, Object typeDelegate) {
+        MethodType handleType = handle.type();
+        // (result, self) -> result == methodDelegate ? callbackTarget : result
+        MethodHandle replace = MethodHandles.insertArguments(REPLACE_DELEGATE, 0, methodDelegate, typeDelegate);
+        replace = MethodHandles.dropArguments(replace, 2, handleType.dropParameterTypes(0, 1).parameterList());
+        return MethodHandles.foldArguments(replace, handle);
+    }
+
+    private static boolean isCurrent(AdvisorRegistryState state, long version) {
+        return state.version() == version;
+    }
+
+    private static Object replaceDelegate(Object methodDelegate, Object typeDelegate, Object result, Object self) {
+        if (result != methodDelegate) {
+            return result;
+        }
+        return typeDelegate != null ? typeDelegate : self;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.proxy.dispatch;
+
+import java.lang.management.ManagementFactory;
+
+import org.dockbox.hartshorn.proxy.ProxyFactory;
+import org.dockbox.hartshorn.proxy.ProxyOrchestrator;
+import org.dockbox.hartshorn.proxy.dispatch.DispatchProxy;
+import org.dockbox.hartshorn.proxy.dispatch.DispatchProxyOrchestrator;
+import org.dockbox.hartshorn.util.ApplicationException;
+import org.dockbox.hartshorn.util.introspect.Introspector;
+import org.dockbox.hartshorn.util.introspect.NativeProxyLookup;
+import org.dockbox.hartshorn.util.introspect.annotations.VirtualHierarchyAnnotationLookup;
+import org.dockbox.hartshorn.util.introspect.reflect.ReflectionIntrospector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import test.org.dockbox.hartshorn.proxy.AgedProxy;
+import test.org.dockbox.hartshorn.proxy.DescribedProxy;
+import test.org.dockbox.hartshorn.proxy.dispatch.types.ConstructorCallingProxyTarget;
+import test.org.dockbox.hartshorn.proxy.dispatch.types.PrimitiveProxyTarget;
+
+public class DispatchProxyFactoryTests {
+
+    private static final int WARMUP_INVOCATIONS = 10_000;
+    private static final int INVOCATIONS = 100_000;
+
+    @Test
+    void testProxyClassIsGeneratedOncePerShape() throws ApplicationException {
+        PrimitiveProxyTarget first = this.orchestrator().factory(PrimitiveProxyTarget.class).proxy().get();
+        PrimitiveProxyTarget second = this.orchestrator().factory(PrimitiveProxyTarget.class).proxy().get();
+
+        Assertions.assertNotSame(first, second);
+        Assertions.assertSame(first.getClass(), second.getClass());
+        Assertions.assertTrue(first.getClass().isHidden());
+        Assertions.assertNotSame(((DispatchProxy) first).hartshorn$dispatcher(), ((DispatchProxy) second).hartshorn$dispatcher());
+    }
+
+    @Test
+    void testInterfaceOrderDoesNotAffectProxyClass() throws ApplicationException {
+        ProxyFactory<PrimitiveProxyTarget> first = this.orchestrator().factory(PrimitiveProxyTarget.class);
+        first.implement(DescribedProxy.class, AgedProxy.class);
+        ProxyFactory<PrimitiveProxyTarget> second = this.orchestrator().factory(PrimitiveProxyTarget.class);
+        second.implement(AgedProxy.class, DescribedProxy.class);
+
+        Assertions.assertSame(first.proxy().get().getClass(), second.proxy().get().getClass());
+    }
+
+    @Test
+    void testUnadvisedMethodsInvokeOriginalImplementation() throws ApplicationException {
+        PrimitiveProxyTarget proxy = this.orchestrator().factory(PrimitiveProxyTarget.class).proxy().get();
+
+        // Invoked twice, so both the linking call and the linked handle are used
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertEquals(3, proxy.add(1, 2));
+            Assertions.assertEquals(6L, proxy.multiply(2L, 3L));
+            Assertions.assertEquals(2.5D, proxy.divide(5D, 2D));
+            Assertions.assertTrue(proxy.isEven(4));
+            Assertions.assertEquals("value1", proxy.describe("value", 1));
+            Assertions.assertSame(proxy, proxy.self());
+        }
+    }
+
+    @Test
+    void testAdviceAddedAfterLinkingIsApplied() throws ApplicationException, NoSuchMethodException {
+        ProxyFactory<PrimitiveProxyTarget> factory = this.orchestrator().factory(PrimitiveProxyTarget.class);
+        PrimitiveProxyTarget proxy = factory.proxy().get();
+        Assertions.assertEquals(3, proxy.add(1, 2));
+        Assertions.assertEquals(3, proxy.add(1, 2));
+
+        factory.advisors().method(PrimitiveProxyTarget.class.getMethod("add", int.class, int.class))
+                .intercept(context -> context.args()[0]);
+        Assertions.assertEquals(1, proxy.add(1, 2));
+        Assertions.assertEquals(4, proxy.add(4, 2));
+        // Other methods remain unaffected
+        Assertions.assertEquals(6L, proxy.multiply(2L, 3L));
+    }
+
+    @Test
+    void testDelegatedMethodsInvokeDelegate() throws ApplicationException, NoSuchMethodException {
+        PrimitiveProxyTarget delegate = new PrimitiveProxyTarget() {
+            @Override
+            public int add(int first, int second) {
+                return first - second;
+            }
+        };
+        ProxyFactory<PrimitiveProxyTarget> factory = this.orchestrator().factory(PrimitiveProxyTarget.class);
+        factory.advisors().method(PrimitiveProxyTarget.class.getMethod("add", int.class, int.class)).delegate(delegate);
+        factory.advisors().method(PrimitiveProxyTarget.class.getMethod("self")).delegate(delegate);
+        PrimitiveProxyTarget proxy = factory.proxy().get();
+
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertEquals(-1, proxy.add(1, 2));
+            // Delegates returning themselves should not leak from the proxy
+            Assertions.assertSame(proxy, proxy.self());
+        }
+    }
+
+    @Test
+    void testMethodsInvokedDuringConstructionAreNotIntercepted() throws ApplicationException, NoSuchMethodException {
+        ProxyFactory<ConstructorCallingProxyTarget> factory = this.orchestrator().factory(ConstructorCallingProxyTarget.class);
+        factory.advisors().method(ConstructorCallingProxyTarget.class.getMethod("name")).intercept(context -> "intercepted");
+        ConstructorCallingProxyTarget proxy = factory.proxy().get();
+
+        Assertions.assertEquals("original", proxy.initialName());
+        Assertions.assertEquals("intercepted", proxy.name());
+    }
+
+    @Test
+    void testUnadvisedPrimitiveMethodsDoNotAllocate() throws Throwable {
+        PrimitiveProxyTarget proxy = this.orchestrator().factory(PrimitiveProxyTarget.class).proxy().get();
+        this.assertDoesNotAllocate(proxy);
+    }
+
+    @Test
+    void testDelegatedPrimitiveMethodsDoNotAllocate() throws Throwable {
+        ProxyFactory<PrimitiveProxyTarget> factory = this.orchestrator().factory(PrimitiveProxyTarget.class);
+        factory.advisors().type().delegate(new PrimitiveProxyTarget());
+        this.assertDoesNotAllocate(factory.proxy().get());
+    }
+
+    private void assertDoesNotAllocate(PrimitiveProxyTarget proxy) {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        long sum = 0;
+        for (int i = 0; i < WARMUP_INVOCATIONS; i++) {
+            sum += this.invokePrimitiveMethods(proxy, i);
+        }
+
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < INVOCATIONS; i++) {
+            sum += this.invokePrimitiveMethods(proxy, i);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        Assertions.assertNotEquals(0, sum);
+        // Boxing the arguments or the results, or collecting the arguments into an array, allocates on every call
+        Assertions.assertTrue(allocated < INVOCATIONS, "Expected no per-call allocations, but " + allocated + " bytes were allocated");
+    }
+
+    private long invokePrimitiveMethods(PrimitiveProxyTarget proxy, int value) {
+        // Values outside of the Integer and Long caches, so boxing cannot reuse cached instances
+        long result = proxy.add(value, 1_000);
+        result += proxy.multiply(value, 1_000L);
+        result += (long) proxy.divide(value, 2D);
+        return proxy.isEven(value) ? result : -result;
+    }
+
+    private ProxyOrchestrator orchestrator() {
+        Introspector introspector = new ReflectionIntrospector(new NativeProxyLookup(), new VirtualHierarchyAnnotationLookup());
+        return new DispatchProxyOrchestrator(introspector);
+    }
+}
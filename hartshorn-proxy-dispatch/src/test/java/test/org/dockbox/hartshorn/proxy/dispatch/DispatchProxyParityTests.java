@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.proxy.dispatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.dockbox.hartshorn.proxy.ProxyFactory;
+import org.dockbox.hartshorn.proxy.ProxyOrchestrator;
+import org.dockbox.hartshorn.proxy.dispatch.DispatchProxyOrchestrator;
+import org.dockbox.hartshorn.proxy.javassist.JavassistProxyOrchestrator;
+import org.dockbox.hartshorn.util.introspect.Introspector;
+import org.dockbox.hartshorn.util.introspect.NativeProxyLookup;
+import org.dockbox.hartshorn.util.introspect.annotations.VirtualHierarchyAnnotationLookup;
+import org.dockbox.hartshorn.util.introspect.reflect.ReflectionIntrospector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import test.org.dockbox.hartshorn.proxy.DescribedProxy;
+import test.org.dockbox.hartshorn.proxy.dispatch.types.ConstructorCallingProxyTarget;
+import test.org.dockbox.hartshorn.proxy.dispatch.types.PrimitiveProxyTarget;
+
+/**
+ * Verifies that proxies created through the {@link DispatchProxyOrchestrator} behave identically to proxies
+ * created through the {@link JavassistProxyOrchestrator}. Each scenario records the observable results of a
+ * proxy, which are expected to be equal for both implementations.
+ */
+public class DispatchProxyParityTests {
+
+    public static Stream<Arguments> scenarios() {
+        return Stream.of(
+                Arguments.of("unadvised", (ParityScenario) DispatchProxyParityTests::unadvised),
+                Arguments.of("intercepted", (ParityScenario) DispatchProxyParityTests::intercepted),
+                Arguments.of("method delegate", (ParityScenario) DispatchProxyParityTests::methodDelegate),
+                Arguments.of("type delegate", (ParityScenario) DispatchProxyParityTests::typeDelegate),
+                Arguments.of("interface", (ParityScenario) DispatchProxyParityTests::interfaceProxy),
+                Arguments.of("constructor", (ParityScenario) DispatchProxyParityTests::constructorCalls)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("scenarios")
+    void testDispatchProxyMatchesJavassistProxy(String name, ParityScenario scenario) throws Exception {
+        List<Object> javassistResults = scenario.run(new JavassistProxyOrchestrator(this.introspector()));
+        List<Object> dispatchResults = scenario.run(new DispatchProxyOrchestrator(this.introspector()));
+        Assertions.assertEquals(javassistResults, dispatchResults);
+    }
+
+    private static List<Object> unadvised(ProxyOrchestrator orchestrator) throws Exception {
+        PrimitiveProxyTarget proxy = orchestrator.factory(PrimitiveProxyTarget.class).proxy().get();
+        return results(proxy, proxy.self() == proxy);
+    }
+
+    private static List<Object> intercepted(ProxyOrchestrator orchestrator) throws Exception {
+        ProxyFactory<PrimitiveProxyTarget> factory = orchestrator.factory(PrimitiveProxyTarget.class);
+        factory.advisors().method(PrimitiveProxyTarget.class.getMethod("add", int.class, int.class))
+                .intercept(context -> (int) context.args()[0] * 10);
+        factory.advisors().method(PrimitiveProxyTarget.class.getMethod("describe", String.class, int.class))
+                .intercept(context -> "intercepted:" + context.invokeDefault());
+        PrimitiveProxyTarget proxy = factory.proxy().get();
+        return results(proxy, proxy.self() == proxy);
+    }
+
+    private static List<Object> methodDelegate(ProxyOrchestrator orchestrator) throws Exception {
+        PrimitiveProxyTarget delegate = new PrimitiveProxyTarget() {
+            @Override
+            public long multiply(long first, long second) {
+                return first + second;
+            }
+        };
+        ProxyFactory<PrimitiveProxyTarget> factory = orchestrator.factory(PrimitiveProxyTarget.class);
+        factory.advisors().method(PrimitiveProxyTarget.class.getMethod("multiply", long.class, long.class)).delegate(delegate);
+        factory.advisors().method(PrimitiveProxyTarget.class.getMethod("self")).delegate(delegate);
+        PrimitiveProxyTarget proxy = factory.proxy().get();
+        PrimitiveProxyTarget self = proxy.self();
+        return results(proxy, self == proxy, self == delegate);
+    }
+
+    private static List<Object> typeDelegate(ProxyOrchestrator orchestrator) throws Exception {
+        PrimitiveProxyTarget delegate = new PrimitiveProxyTarget() {
+            @Override
+            public boolean isEven(int value) {
+                return !super.isEven(value);
+            }
+        };
+        ProxyFactory<PrimitiveProxyTarget> factory = orchestrator.factory(PrimitiveProxyTarget.class);
+        factory.advisors().type().delegate(delegate);
+        PrimitiveProxyTarget proxy = factory.proxy().get();
+        PrimitiveProxyTarget self = proxy.self();
+        return results(proxy, self == proxy, self == delegate);
+    }
+
+    private static List<Object> interfaceProxy(ProxyOrchestrator orchestrator) throws Exception {
+        ProxyFactory<DescribedProxy> factory = orchestrator.factory(DescribedProxy.class);
+        factory.advisors().method(DescribedProxy.class.getMethod("description")).intercept(context -> "described");
+        DescribedProxy proxy = factory.proxy().get();
+        return List.of(proxy.description(), proxy.description());
+    }
+
+    private static List<Object> constructorCalls(ProxyOrchestrator orchestrator) throws Exception {
+        ProxyFactory<ConstructorCallingProxyTarget> factory = orchestrator.factory(ConstructorCallingProxyTarget.class);
+        factory.advisors().method(ConstructorCallingProxyTarget.class.getMethod("name")).intercept(context -> "intercepted");
+        ConstructorCallingProxyTarget proxy = factory.proxy().get();
+        return List.of(proxy.initialName(), proxy.name());
+    }
+
+    private static List<Object> results(PrimitiveProxyTarget proxy, Object... additionalResults) {
+        List<Object> results = new ArrayList<>();
+        // Invoked twice, as the first invocation of a method may follow a different path than later invocations
+        for (int i = 0; i < 2; i++) {
+            results.add(proxy.add(3, 4));
+            results.add(proxy.multiply(5L, 6L));
+            results.add(proxy.divide(7D, 2D));
+            results.add(proxy.isEven(8));
+            results.add(proxy.describe("value", 9));
+        }
+        results.addAll(List.of(additionalResults));
+        return results;
+    }
+
+    private Introspector introspector() {
+        return new ReflectionIntrospector(new NativeProxyLookup(), new VirtualHierarchyAnnotationLookup());
+    }
+
+    @FunctionalInterface
+    public interface ParityScenario {
+        List<Object> run(ProxyOrchestrator orchestrator) throws Exception;
+    }
+}
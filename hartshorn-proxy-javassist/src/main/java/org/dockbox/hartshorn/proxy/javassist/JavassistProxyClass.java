@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy.javassist;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.dockbox.hartshorn.util.ApplicationException;
+
+import javassist.util.proxy.MethodHandler;
+import javassist.util.proxy.Proxy;
+
+/**
+ * A generated Javassist proxy class, together with the constructors that have been used to instantiate it. Each
+ * constructor is resolved once into a {@link MethodHandle} that accepts the constructor arguments as a single
+ * array, so creating another instance only requires invoking that handle and assigning the {@link MethodHandler}.
+ *
+ * @param <T> the type of the proxy
+ *
+ * @see JavassistProxyClassCache
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+final class JavassistProxyClass<T> {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private final Map<List<Class<?>>, MethodHandle> constructors = new ConcurrentHashMap<>();
+    private final Class<? extends T> proxyClass;
+
+    JavassistProxyClass(Class<T> type, Class<?> proxyClass) {
+        this.proxyClass = proxyClass.asSubclass(type);
+    }
+
+    /**
+     * Creates a new instance of the proxy class using the constructor with the given parameter types, and
+     * assigns the given handler to it.
+     *
+     * @param parameterTypes the parameter types of the constructor to use
+     * @param args the arguments to pass to the constructor
+     * @param methodHandler the handler that receives all intercepted method calls
+     * @return the new proxy instance
+     * @throws ApplicationException if the constructor does not exist or cannot be invoked
+     */
+    T newInstance(Class<?>[] parameterTypes, Object[] args, MethodHandler methodHandler) throws ApplicationException {
+        MethodHandle constructor = this.constructor(parameterTypes);
+        Object instance;
+        try {
+            instance = (Object) constructor.invokeExact(args);
+        }
+        catch (Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new ApplicationException(e);
+        }
+        ((Proxy) instance).setHandler(methodHandler);
+        return this.proxyClass.cast(instance);
+    }
+
+    private MethodHandle constructor(Class<?>[] parameterTypes) throws ApplicationException {
+        List<Class<?>> key = List.of(parameterTypes);
+        MethodHandle constructor = this.constructors.get(key);
+        if (constructor == null) {
+            // Resolving twice under contention is harmless, both handles point to the same constructor
+            constructor = this.resolveConstructor(parameterTypes);
+            MethodHandle existing = this.constructors.putIfAbsent(key, constructor);
+            if (existing != null) {
+                constructor = existing;
+            }
+        }
+        return constructor;
+    }
+
+    private MethodHandle resolveConstructor(Class<?>[] parameterTypes) throws ApplicationException {
+        try {
+            Constructor<? extends T> constructor = this.proxyClass.getConstructor(parameterTypes);
+            return MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, parameterTypes.length)
+                    .asType(CONSTRUCTOR_TYPE);
+        }
+        catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ApplicationException(e);
+        }
+    }
+}
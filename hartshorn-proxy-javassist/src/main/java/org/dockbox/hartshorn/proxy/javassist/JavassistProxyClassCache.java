@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy.javassist;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javassist.util.proxy.ProxyFactory;
+
+/**
+ * Cache of generated Javassist proxy classes. Proxy classes are generated once for every distinct combination of
+ * target type and implemented interfaces, and are reused for all following proxies of the same shape. The order in
+ * which interfaces are requested does not affect the cache key.
+ *
+ * <p>Entries are stored in a {@link ClassValue} on the target type, rather than in a global map. The generated
+ * proxy class is defined in the class loader of the target type, so once that class loader becomes unreachable
+ * the target type, its proxy classes, and the cached entries can all be collected together.
+ *
+ * @see JavassistProxyClass
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+final class JavassistProxyClassCache {
+
+    private static final Comparator<Class<?>> INTERFACE_ORDER = Comparator.comparing(Class::getName);
+
+    private static final ClassValue<Map<List<Class<?>>, JavassistProxyClass<?>>> PROXY_CLASSES = new ClassValue<>() {
+        @Override
+        protected Map<List<Class<?>>, JavassistProxyClass<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private JavassistProxyClassCache() {
+        // Static cache
+    }
+
+    /**
+     * Returns the proxy class for the given type and interfaces, generating it if no proxy class of the same
+     * shape has been generated before.
+     *
+     * @param type the type to extend
+     * @param interfaces the interfaces to implement
+     * @param <T> the type of the proxy
+     * @return the cached proxy class
+     */
+    @SuppressWarnings("unchecked")
+    static <T> JavassistProxyClass<T> proxyClass(Class<T> type, Class<?>[] interfaces) {
+        List<Class<?>> key = Arrays.stream(interfaces)
+                .distinct()
+                .sorted(INTERFACE_ORDER)
+                .toList();
+        return (JavassistProxyClass<T>) PROXY_CLASSES.get(type).computeIfAbsent(key, k -> createProxyClass(type, k));
+    }
+
+    private static <T> JavassistProxyClass<T> createProxyClass(Class<T> type, List<Class<?>> interfaces) {
+        ProxyFactory factory = new ProxyFactory();
+        factory.setSuperclass(type);
+        factory.setInterfaces(interfaces.toArray(new Class<?>[0]));
+        // Generated classes are cached here, so there is no need for Javassist to track them as well
+        factory.setUseCache(false);
+        return new JavassistProxyClass<>(type, factory.createClass());
+    }
+}
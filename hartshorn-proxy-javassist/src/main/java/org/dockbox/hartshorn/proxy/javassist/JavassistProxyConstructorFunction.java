@@ -20,17 +20,19 @@
 import org.dockbox.hartshorn.util.ApplicationException;
 
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.util.function.Supplier;
 
 import javassist.util.proxy.MethodHandler;
 import javassist.util.proxy.ProxyFactory;
 
 /**
- * A proxy constructor function that uses Javassist to create a proxy instance.
+ * A proxy constructor function that uses Javassist to create a proxy instance. The proxy class is only resolved
+ * once the first instance is created, after which the same class is reused for every following instance.
  *
  * @param <T> the type of the proxy
  *
  * @see ProxyFactory
+ * @see JavassistProxyClassCache
  *
  * @since 0.4.13
  *
@@ -38,32 +40,53 @@
  */
 public class JavassistProxyConstructorFunction<T> implements ProxyConstructorFunction<T> {
 
-    private final Class<T> type;
-    private final ProxyFactory factory;
+    private static final Class<?>[] NO_PARAMETERS = new Class<?>[0];
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final Supplier<JavassistProxyClass<T>> proxyClassSupplier;
     private final MethodHandler methodHandler;
+    private JavassistProxyClass<T> proxyClass;
 
+    /**
+     * Creates a new constructor function which generates its proxy class from the given {@link ProxyFactory}. The
+     * generated class is not shared with other constructor functions, use {@link JavassistProxyFactory} to
+     * benefit from cached proxy classes.
+     *
+     * @param type the type of the proxy
+     * @param factory the factory to generate the proxy class with
+     * @param methodHandler the handler that receives all intercepted method calls
+     */
     public JavassistProxyConstructorFunction(Class<T> type, ProxyFactory factory, MethodHandler methodHandler) {
-        this.type = type;
-        this.factory = factory;
+        this(() -> new JavassistProxyClass<>(type, factory.createClass()), methodHandler);
+    }
+
+    JavassistProxyConstructorFunction(Supplier<JavassistProxyClass<T>> proxyClassSupplier, MethodHandler methodHandler) {
+        this.proxyClassSupplier = proxyClassSupplier;
         this.methodHandler = methodHandler;
     }
 
     @Override
     public T create() throws ApplicationException {
-        try {
-            return this.type.cast(this.factory.create(new Class<?>[0], new Object[0], this.methodHandler));
-        } catch (RuntimeException | InvocationTargetException | NoSuchMethodException | InstantiationException | IllegalAccessException e) {
-            throw new ApplicationException(e);
-        }
+        return this.create(NO_PARAMETERS, NO_ARGUMENTS);
     }
 
     @Override
     public T create(Constructor<? extends T> constructor, Object[] args) throws ApplicationException {
+        return this.create(constructor.getParameterTypes(), args);
+    }
+
+    private T create(Class<?>[] parameterTypes, Object[] args) throws ApplicationException {
         try {
-            Class<?>[] parameterTypes = constructor.getParameterTypes();
-            return this.type.cast(this.factory.create(parameterTypes, args, this.methodHandler));
-        } catch (RuntimeException | InvocationTargetException | NoSuchMethodException | InstantiationException | IllegalAccessException e) {
+            return this.proxyClass().newInstance(parameterTypes, args, this.methodHandler);
+        } catch (RuntimeException e) {
             throw new ApplicationException(e);
         }
     }
+
+    private JavassistProxyClass<T> proxyClass() {
+        if (this.proxyClass == null) {
+            this.proxyClass = this.proxyClassSupplier.get();
+        }
+        return this.proxyClass;
+    }
 }
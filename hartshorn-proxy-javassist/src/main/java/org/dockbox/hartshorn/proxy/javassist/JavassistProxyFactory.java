@@ -1,5 +1,5 @@
 /*
- * Copyright 2019-2023 the original author or authors.
+ * Copyright 2019-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,6 +30,9 @@
  * proxy class is created by extending the target class, and implementing all interfaces that the
  * target class implements.
  *
+ * <p>Generated proxy classes are cached per target type and set of implemented interfaces, so creating additional
+ * proxies of the same shape does not generate a new class.
+ *
  * @param <T> the type of the proxy
  *
  * @see ProxyFactory
@@ -51,12 +54,9 @@ public JavassistProxyFactory(Class<T> type, JavassistProxyOrchestrator proxyOrch
 
     @Override
     protected ProxyConstructorFunction<T> concreteOrAbstractEnhancer(ProxyMethodInterceptor<T> interceptor) {
-        ProxyFactory factory = new ProxyFactory();
-        factory.setSuperclass(this.type());
-        factory.setInterfaces(this.proxyInterfaces(false));
-
-        MethodHandler methodHandler = new JavassistProxyMethodHandler<>(interceptor, this.orchestrator().introspector());
-        return new JavassistProxyConstructorFunction<>(this.type(), factory, methodHandler);
+        Class<?>[] interfaces = this.proxyInterfaces(false);
+        MethodHandler methodHandler = new JavassistProxyMethodHandler<>(interceptor, this.orchestrator().invokables());
+        return new JavassistProxyConstructorFunction<>(() -> JavassistProxyClassCache.proxyClass(this.type(), interfaces), methodHandler);
     }
 
 }
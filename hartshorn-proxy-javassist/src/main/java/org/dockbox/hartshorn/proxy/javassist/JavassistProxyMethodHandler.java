@@ -16,7 +16,7 @@
 
 package org.dockbox.hartshorn.proxy.javassist;
 
-import org.dockbox.hartshorn.proxy.advice.intercept.MethodInvokable;
+import org.dockbox.hartshorn.proxy.advice.intercept.MethodInvokableCache;
 import org.dockbox.hartshorn.proxy.advice.intercept.ProxyMethodInterceptor;
 import org.dockbox.hartshorn.util.introspect.Introspector;
 
@@ -25,23 +25,38 @@
 import javassist.util.proxy.MethodHandler;
 
 /**
- * A Javassist {@link MethodHandler} that delegates to a {@link ProxyMethodInterceptor}.
+ * A Javassist {@link MethodHandler} that delegates to a {@link ProxyMethodInterceptor}. Intercepted methods are
+ * passed to the interceptor as the invokables held by the given {@link MethodInvokableCache}, so repeated calls
+ * do not create new invokables.
  *
  * @param interceptor the interceptor to delegate to
- * @param introspector the introspector to use
+ * @param invokables the cache of invokables for intercepted methods
  * @param <T> the type of the proxy
  *
  * @since 0.4.10
  *
  * @author Guus Lieben
  */
-public record JavassistProxyMethodHandler<T>(ProxyMethodInterceptor<T> interceptor, Introspector introspector) implements MethodHandler {
+public record JavassistProxyMethodHandler<T>(ProxyMethodInterceptor<T> interceptor, MethodInvokableCache invokables) implements MethodHandler {
+
+    public JavassistProxyMethodHandler(ProxyMethodInterceptor<T> interceptor, Introspector introspector) {
+        this(interceptor, new MethodInvokableCache(introspector));
+    }
+
+    /**
+     * Returns the introspector that is used to introspect intercepted methods.
+     *
+     * @return the introspector
+     */
+    public Introspector introspector() {
+        return this.invokables.introspector();
+    }
 
     @Override
     public Object invoke(Object self, Method thisMethod, Method proceed, Object[] args) throws Throwable {
         return this.interceptor.intercept(self,
-                new MethodInvokable(thisMethod, this.introspector()),
-                new MethodInvokable(proceed, this.introspector()),
+                this.invokables.invokable(thisMethod),
+                this.invokables.invokable(proceed),
                 args);
     }
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.proxy.javassist;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+
+import org.dockbox.hartshorn.proxy.ProxyFactory;
+import org.dockbox.hartshorn.proxy.ProxyOrchestrator;
+import org.dockbox.hartshorn.proxy.javassist.JavassistProxyOrchestrator;
+import org.dockbox.hartshorn.util.ApplicationException;
+import org.dockbox.hartshorn.util.introspect.Introspector;
+import org.dockbox.hartshorn.util.introspect.NativeProxyLookup;
+import org.dockbox.hartshorn.util.introspect.annotations.VirtualHierarchyAnnotationLookup;
+import org.dockbox.hartshorn.util.introspect.reflect.ReflectionIntrospector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import test.org.dockbox.hartshorn.proxy.AgedProxy;
+import test.org.dockbox.hartshorn.proxy.DescribedProxy;
+import test.org.dockbox.hartshorn.proxy.javassist.types.CollectableProxyTarget;
+import test.org.dockbox.hartshorn.proxy.types.ConcreteProxyTarget;
+
+public class JavassistProxyClassCacheTests {
+
+    @Test
+    void testProxyClassIsGeneratedOncePerShape() throws ApplicationException {
+        ConcreteProxyTarget first = this.orchestrator().factory(ConcreteProxyTarget.class).proxy().get();
+        ConcreteProxyTarget second = this.orchestrator().factory(ConcreteProxyTarget.class).proxy().get();
+
+        Assertions.assertNotSame(first, second);
+        Assertions.assertSame(first.getClass(), second.getClass());
+    }
+
+    @Test
+    void testInterfaceOrderDoesNotAffectProxyClass() throws ApplicationException {
+        ProxyFactory<ConcreteProxyTarget> first = this.orchestrator().factory(ConcreteProxyTarget.class);
+        first.implement(DescribedProxy.class, AgedProxy.class);
+        ProxyFactory<ConcreteProxyTarget> second = this.orchestrator().factory(ConcreteProxyTarget.class);
+        second.implement(AgedProxy.class, DescribedProxy.class);
+
+        Assertions.assertSame(first.proxy().get().getClass(), second.proxy().get().getClass());
+    }
+
+    @Test
+    void testDifferentInterfacesGenerateDifferentProxyClasses() throws ApplicationException {
+        ProxyFactory<ConcreteProxyTarget> described = this.orchestrator().factory(ConcreteProxyTarget.class);
+        described.implement(DescribedProxy.class);
+        ConcreteProxyTarget describedProxy = described.proxy().get();
+        ConcreteProxyTarget plainProxy = this.orchestrator().factory(ConcreteProxyTarget.class).proxy().get();
+
+        Assertions.assertNotSame(plainProxy.getClass(), describedProxy.getClass());
+        Assertions.assertTrue(describedProxy instanceof DescribedProxy);
+        Assertions.assertFalse(plainProxy instanceof DescribedProxy);
+    }
+
+    @Test
+    void testProxyClassesAreReleasedWithClassLoader() throws Exception {
+        WeakReference<ClassLoader> loader = this.proxyInIsolatedClassLoader();
+        for (int i = 0; i < 50 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assertions.assertNull(loader.get());
+    }
+
+    private WeakReference<ClassLoader> proxyInIsolatedClassLoader() throws Exception {
+        IsolatedClassLoader loader = new IsolatedClassLoader(CollectableProxyTarget.class.getName());
+        Class<?> type = loader.loadClass(CollectableProxyTarget.class.getName());
+        Assertions.assertNotSame(CollectableProxyTarget.class, type);
+
+        Object first = this.orchestrator().factory(type).proxy().get();
+        Object second = this.orchestrator().factory(type).proxy().get();
+        Assertions.assertSame(first.getClass(), second.getClass());
+        Assertions.assertSame(loader, first.getClass().getClassLoader());
+
+        return new WeakReference<>(loader);
+    }
+
+    private ProxyOrchestrator orchestrator() {
+        Introspector introspector = new ReflectionIntrospector(new NativeProxyLookup(), new VirtualHierarchyAnnotationLookup());
+        return new JavassistProxyOrchestrator(introspector);
+    }
+
+    /**
+     * Class loader which defines a single class itself, and delegates all other classes to its parent. This
+     * allows the isolated class, and any proxy class generated for it, to be unloaded once the loader is no
+     * longer reachable.
+     */
+    private static class IsolatedClassLoader extends ClassLoader {
+
+        private final String isolatedClassName;
+
+        IsolatedClassLoader(String isolatedClassName) {
+            super(IsolatedClassLoader.class.getClassLoader());
+            this.isolatedClassName = isolatedClassName;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!this.isolatedClassName.equals(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (this.getClassLoadingLock(name)) {
+                Class<?> type = this.findLoadedClass(name);
+                if (type == null) {
+                    type = this.defineIsolatedClass(name);
+                }
+                return type;
+            }
+        }
+
+        private Class<?> defineIsolatedClass(String name) throws ClassNotFoundException {
+            String resource = name.replace('.', '/') + ".class";
+            try (InputStream stream = this.getParent().getResourceAsStream(resource)) {
+                if (stream == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                byte[] bytes = stream.readAllBytes();
+                return this.defineClass(name, bytes, 0, bytes.length);
+            }
+            catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@
 
 import org.dockbox.hartshorn.proxy.advice.ProxyAdvisor;
 import org.dockbox.hartshorn.proxy.advice.TypeAdvisorResolver;
+import org.dockbox.hartshorn.proxy.advice.intercept.MethodInvokableCache;
 import org.dockbox.hartshorn.proxy.lookup.HartshornProxyLookup;
 import org.dockbox.hartshorn.util.TypeUtils;
 import org.dockbox.hartshorn.util.introspect.Introspector;
@@ -41,9 +42,11 @@ public abstract class AbstractProxyOrchestrator implements ProxyOrchestrator {
 
     private final Set<ProxyLookup> proxyLookups = ConcurrentHashMap.newKeySet();
     private final Introspector introspector;
+    private final MethodInvokableCache invokables;
 
     protected AbstractProxyOrchestrator(Introspector introspector) {
         this.introspector = introspector;
+        this.invokables = new MethodInvokableCache(introspector);
         this.registerProxyLookup(new NativeProxyLookup());
         this.registerProxyLookup(new HartshornProxyLookup());
     }
@@ -53,6 +56,11 @@ public Introspector introspector() {
         return this.introspector;
     }
 
+    @Override
+    public MethodInvokableCache invokables() {
+        return this.invokables;
+    }
+
     @Override
     public <T> Option<Class<T>> real(T instance) {
         return this.manager(instance).map(ProxyManager::targetClass);
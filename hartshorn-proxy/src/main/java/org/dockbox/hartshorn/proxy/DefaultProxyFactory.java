@@ -77,6 +77,7 @@ public String get(String type) {
     private final StateAwareAdvisorRegistry<T> advisorRegistry;
     private final ProxyValidator validator;
     private final Class<T> type;
+    private boolean delegationOnly;
 
     protected DefaultProxyFactory(Class<T> type, ProxyOrchestrator proxyOrchestrator) {
         this.type = type;
@@ -111,6 +112,17 @@ public DefaultProxyFactory<T> implement(Class<?>... interfaces) {
         return this;
     }
 
+    @Override
+    public StateAwareProxyFactory<T> delegationOnly(boolean delegationOnly) {
+        this.delegationOnly = delegationOnly;
+        return this;
+    }
+
+    @Override
+    public boolean delegationOnly() {
+        return this.delegationOnly;
+    }
+
     @Override
     public Class<T> type() {
         return this.type;
@@ -19,7 +19,7 @@
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 
-import org.dockbox.hartshorn.proxy.advice.intercept.MethodInvokable;
+import org.dockbox.hartshorn.proxy.advice.intercept.MethodInvokableCache;
 import org.dockbox.hartshorn.proxy.advice.intercept.ProxyAdvisorMethodInterceptor;
 import org.dockbox.hartshorn.proxy.advice.intercept.ProxyMethodInterceptor;
 import org.dockbox.hartshorn.util.ApplicationException;
@@ -77,8 +77,11 @@ public Option<T> createNewProxy(Constructor<? extends T> constructor, Object[] a
     protected Option<T> createProxy(CheckedFunction<ProxyMethodInterceptor<T>, Option<T>> instantiate) throws ApplicationException {
         LazyProxyManager<T> manager = new LazyProxyManager<>(this);
 
-        this.contextContainer().contexts().forEach(manager::addContext);
-        this.contextContainer().namedContexts().forEach(manager::addContext);
+        ProxyContextContainer contextContainer = this.contextContainer();
+        if (!contextContainer.isEmpty()) {
+            contextContainer.contexts().forEach(manager::addContext);
+            contextContainer.namedContexts().forEach(manager::addContext);
+        }
 
         ProxyMethodInterceptor<T> interceptor = new ProxyAdvisorMethodInterceptor<>(manager, this.orchestrator());
 
@@ -96,7 +99,8 @@ protected Option<T> createProxy(CheckedFunction<ProxyMethodInterceptor<T>, Optio
      * @return The invocation handler
      */
     protected InvocationHandler invocationHandler(ProxyMethodInterceptor<T> interceptor) {
-        return (self, method, args) -> interceptor.intercept(self, new MethodInvokable(method, this.orchestrator().introspector()), null, args);
+        MethodInvokableCache invokables = this.orchestrator().invokables();
+        return (self, method, args) -> interceptor.intercept(self, invokables.invokable(method), null, args);
     }
 
     /**
@@ -148,7 +152,7 @@ protected Option<T> createClassProxy(ProxyMethodInterceptor<T> interceptor, Chec
         try {
             T proxy = instantiate.apply(enhancer);
             Option<T> delegate = this.advisors().type().delegate();
-            if (delegate.present()) {
+            if (delegate.present() && this.requiresFieldRestoration()) {
                 this.restoreFields(delegate.get(), proxy);
             }
             return Option.of(proxy);
@@ -188,14 +192,32 @@ protected Option<T> interfaceProxy(ProxyMethodInterceptor<T> interceptor) {
         return Option.of(this.type().cast(proxy));
     }
 
+    /**
+     * Gets whether the fields of a type delegate should be restored on newly created proxies. Restoration is only
+     * skipped in {@link #delegationOnly() delegation-only mode}, and only if the state of the proxied type cannot be
+     * observed without invoking a method that is delegated to, or intercepted by, the proxy.
+     *
+     * @return {@code true} if fields should be restored, {@code false} otherwise
+     */
+    protected boolean requiresFieldRestoration() {
+        return !(this.delegationOnly() && ProxyFieldAccessors.of(this.type()).encapsulated());
+    }
+
     /**
      * If possible, restores the fields of the delegate to the values of the proxy. This is only possible if the
-     * delegate is available.
+     * delegate is available. Fields are copied through accessors which are precomputed once per class, unless
+     * any of the fields cannot be accessed directly, in which case the fields are restored through introspection.
      *
      * @param existing The existing delegate
      * @param proxy The proxy
      */
     protected void restoreFields(T existing, T proxy) throws Throwable {
+        ProxyFieldAccessors accessors = ProxyFieldAccessors.of(existing.getClass());
+        if (accessors.compiled()) {
+            accessors.copy(existing, proxy);
+            return;
+        }
+
         TypeView<T> typeView = this.advisors().type().delegate()
                 .map(this.orchestrator().introspector()::introspect)
                 .orElseGet(() -> this.orchestrator().introspector().introspect(this.type()));
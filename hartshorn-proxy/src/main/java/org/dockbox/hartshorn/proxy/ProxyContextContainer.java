@@ -34,6 +34,7 @@
 public class ProxyContextContainer extends DefaultContext {
 
     private final Runnable onModify;
+    private boolean empty = true;
 
     public ProxyContextContainer(Runnable onModify) {
         this.onModify = onModify;
@@ -51,15 +52,27 @@ public MultiMap<String, ContextView> namedContexts() {
         return super.namedContexts();
     }
 
+    /**
+     * Returns whether no context was added to this container yet. This allows proxy factories to avoid copying
+     * contexts to the manager of every proxy they create, if there are no contexts to copy.
+     *
+     * @return {@code true} if no context was added, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return this.empty;
+    }
+
     @Override
     public <C extends ContextView> void addContext(C context) {
         super.addContext(context);
+        this.empty = false;
         this.onModify.run();
     }
 
     @Override
     public <C extends ContextView> void addContext(String name, C context) {
         super.addContext(name, context);
+        this.empty = false;
         this.onModify.run();
     }
 }
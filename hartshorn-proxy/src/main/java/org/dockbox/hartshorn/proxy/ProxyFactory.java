@@ -218,6 +218,36 @@
      */
     ProxyFactory<T> implement(Class<?>... interfaces);
 
+    /**
+     * Sets whether proxies created by this factory only delegate to, or intercept, their methods. By default,
+     * the state of a type delegate is copied onto every proxy that is created, so methods which are executed by
+     * the proxy itself observe the same state as the delegate. In delegation-only mode this copy is skipped, as
+     * long as the proxied type does not expose state that can be observed without invoking a proxied method,
+     * such as non-private fields or non-private {@code final} methods.
+     *
+     * <p>Note that the fields of proxies created in delegation-only mode only contain the values assigned by the
+     * constructor of the proxy, so this mode should not be used if the fields of the proxy are accessed reflectively.
+     *
+     * <p>Factories which do not support delegation-only mode may ignore this setting, as it does not change the
+     * behavior of proxies of which the state cannot be observed directly. By default, this setting is ignored.
+     *
+     * @param delegationOnly whether proxies only delegate to, or intercept, their methods
+     * @return This factory
+     */
+    default ProxyFactory<T> delegationOnly(boolean delegationOnly) {
+        return this;
+    }
+
+    /**
+     * Gets whether proxies created by this factory only delegate to, or intercept, their methods. See {@link
+     * #delegationOnly(boolean)} for more information. By default, this returns {@code false}.
+     *
+     * @return {@code true} if delegation-only mode is enabled, {@code false} otherwise
+     */
+    default boolean delegationOnly() {
+        return false;
+    }
+
     /**
      * Creates a proxy instance of the active {@link #type()} and returns it. This will create a new proxy,
      * as well as a new {@link ProxyManager} responsible for managing the proxy. The proxy will be created
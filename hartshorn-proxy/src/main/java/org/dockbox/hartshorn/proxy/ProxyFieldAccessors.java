@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.dockbox.hartshorn.util.introspect.annotations.Property;
+
+/**
+ * Precomputed field accessors of a single class, used by {@link JDKInterfaceProxyFactory} to restore the state of a
+ * delegate onto a newly created proxy. Accessors are resolved once per class and stored in a {@link ClassValue}, so
+ * restoring fields does not require the class to be introspected again for every proxy that is created.
+ *
+ * <p>Each field is copied by a single handle of the shape {@code (Object target, Object source)void}, which reads
+ * the field from the source and writes it to the target without boxing primitive values. If any field cannot be
+ * copied this way, for example because it cannot be made accessible or because it declares a custom {@link
+ * Property#getter() getter} or {@link Property#setter() setter}, the accessors are not {@link #compiled() compiled}
+ * and callers are expected to fall back to regular introspection.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+final class ProxyFieldAccessors {
+
+    private static final Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType COPY_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final Set<String> EXCLUDED_FIELDS = Set.of(
+            /*
+             * This field is a synthetic field which is added by IntelliJ IDEA when running tests with
+             * coverage. Refer to IDEA-274803 for more information.
+             */
+            "__$lineHits$__"
+    );
+
+    private static final ClassValue<ProxyFieldAccessors> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected ProxyFieldAccessors computeValue(Class<?> type) {
+            return new ProxyFieldAccessors(type);
+        }
+    };
+
+    private final MethodHandle[] copiers;
+    private final boolean encapsulated;
+
+    private ProxyFieldAccessors(Class<?> type) {
+        List<MethodHandle> copiers = new ArrayList<>();
+        boolean compiled = true;
+        boolean encapsulated = true;
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || EXCLUDED_FIELDS.contains(field.getName())) {
+                    continue;
+                }
+                encapsulated &= Modifier.isPrivate(field.getModifiers());
+                if (compiled) {
+                    MethodHandle copier = copier(field);
+                    if (copier == null) {
+                        compiled = false;
+                    }
+                    else {
+                        copiers.add(copier);
+                    }
+                }
+            }
+            for (Method method : current.getDeclaredMethods()) {
+                encapsulated &= isOverridable(method);
+            }
+        }
+        this.copiers = compiled ? copiers.toArray(new MethodHandle[0]) : null;
+        this.encapsulated = encapsulated;
+    }
+
+    /**
+     * Returns the accessors of the given class. Accessors are computed once, and shared for as long as the class is
+     * reachable.
+     *
+     * @param type the class to get the accessors of
+     * @return the accessors of the given class
+     */
+    static ProxyFieldAccessors of(Class<?> type) {
+        return ACCESSORS.get(type);
+    }
+
+    /**
+     * Returns whether all instance fields of the class, including those declared by its superclasses, can be copied
+     * through {@link #copy(Object, Object)}.
+     *
+     * @return {@code true} if all fields can be copied, {@code false} otherwise
+     */
+    boolean compiled() {
+        return this.copiers != null;
+    }
+
+    /**
+     * Returns whether the state of instances of the class can only be observed through methods that a proxy is able
+     * to override. This is the case if all instance fields are {@code private}, and all instance methods which are
+     * not {@code private} are either {@code public} or {@code protected}, and not {@code final}. When all calls to
+     * such methods are delegated or intercepted, the fields of a proxy instance are never read.
+     *
+     * @return {@code true} if the state of the class is encapsulated, {@code false} otherwise
+     */
+    boolean encapsulated() {
+        return this.encapsulated;
+    }
+
+    /**
+     * Copies the values of all instance fields from the given source to the given target. Both instances should be
+     * instances of the class these accessors were created for.
+     *
+     * @param source the instance to copy the fields from
+     * @param target the instance to copy the fields to
+     * @throws Throwable if any field cannot be copied
+     * @throws IllegalStateException if the accessors are not {@link #compiled() compiled}
+     */
+    void copy(Object source, Object target) throws Throwable {
+        if (this.copiers == null) {
+            throw new IllegalStateException("Field accessors are not compiled");
+        }
+        for (MethodHandle copier : this.copiers) {
+            copier.invokeExact(target, source);
+        }
+    }
+
+    private static MethodHandle copier(Field field) {
+        Property property = field.getAnnotation(Property.class);
+        if (property != null && !("".equals(property.getter()) && "".equals(property.setter()))) {
+            return null;
+        }
+        if (!field.trySetAccessible()) {
+            return null;
+        }
+        try {
+            MethodHandle getter = LOOKUP.unreflectGetter(field);
+            MethodHandle setter = LOOKUP.unreflectSetter(field);
+            // (target, source) -> target.field = source.field
+            return MethodHandles.filterArguments(setter, 1, getter).asType(COPY_TYPE);
+        }
+        catch (IllegalAccessException e) {
+            // Final fields of records and hidden classes cannot be modified
+            return null;
+        }
+    }
+
+    private static boolean isOverridable(Method method) {
+        int modifiers = method.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers) || method.isSynthetic()) {
+            return true;
+        }
+        return !Modifier.isFinal(modifiers) && (Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers));
+    }
+}
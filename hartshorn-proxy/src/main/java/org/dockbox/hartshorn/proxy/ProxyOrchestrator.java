@@ -16,6 +16,7 @@
 
 package org.dockbox.hartshorn.proxy;
 
+import org.dockbox.hartshorn.proxy.advice.intercept.MethodInvokableCache;
 import org.dockbox.hartshorn.proxy.lookup.StateAwareProxyFactory;
 import org.dockbox.hartshorn.util.introspect.Introspector;
 import org.dockbox.hartshorn.util.introspect.ProxyLookup;
@@ -83,4 +84,13 @@ public interface ProxyOrchestrator extends ProxyLookup {
      * @return The introspector.
      */
     Introspector introspector();
+
+    /**
+     * Gets the {@link MethodInvokableCache} that is shared by all proxies created by this orchestrator. Proxy
+     * method handlers use this cache to obtain the invokables for intercepted methods. Implementations should
+     * return the same cache instance on every call, so invokables are only resolved once per orchestrator.
+     *
+     * @return The shared invokable cache.
+     */
+    MethodInvokableCache invokables();
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy.advice;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of unbound {@link MethodHandle}s used by {@link ReflectionProxyMethodInvoker}. All handles are adapted to
+ * the {@code (Object, Object[])Object} shape, accepting the receiver and the method arguments as an array, so the
+ * same handle can be used for every instance on which the method is invoked.
+ *
+ * <p>Handles are stored in {@link ClassValue}s, so they are released together with the class that holds them.
+ * Methods that are not accessible to this class are resolved once through a private {@link Lookup} in their
+ * declaring class, rather than by changing the accessibility of the method itself.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+final class ProxyMethodHandles {
+
+    private static final Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<Map<Method, MethodHandle>> VIRTUAL_HANDLES = new ClassValue<>() {
+        @Override
+        protected Map<Method, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static final ClassValue<Map<Method, MethodHandle>> SPECIAL_HANDLES = new ClassValue<>() {
+        @Override
+        protected Map<Method, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private ProxyMethodHandles() {
+        // Static cache
+    }
+
+    /**
+     * Returns a handle that invokes the given method on the receiver it is given, following the same virtual
+     * dispatch rules as {@link Method#invoke(Object, Object...)}.
+     *
+     * @param method the method to invoke
+     * @return the cached handle
+     * @throws IllegalAccessException if the method cannot be accessed
+     */
+    static MethodHandle virtual(Method method) throws IllegalAccessException {
+        Map<Method, MethodHandle> handles = VIRTUAL_HANDLES.get(method.getDeclaringClass());
+        MethodHandle handle = handles.get(method);
+        if (handle == null) {
+            MethodHandle target = unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                target = MethodHandles.dropArguments(target, 0, Object.class);
+            }
+            handle = spread(target, method.getParameterCount());
+            MethodHandle existing = handles.putIfAbsent(method, handle);
+            if (existing != null) {
+                handle = existing;
+            }
+        }
+        return handle;
+    }
+
+    /**
+     * Returns a handle that invokes the given {@code default} method as it is implemented by the given interface,
+     * even if the receiver overrides it.
+     *
+     * @param type the interface through which the method is invoked
+     * @param method the default method to invoke
+     * @return the cached handle
+     * @throws ReflectiveOperationException if the method cannot be found or accessed
+     */
+    static MethodHandle special(Class<?> type, Method method) throws ReflectiveOperationException {
+        Map<Method, MethodHandle> handles = SPECIAL_HANDLES.get(type);
+        MethodHandle handle = handles.get(method);
+        if (handle == null) {
+            handle = special(type, method.getName(), method.getReturnType(), method.getParameterTypes());
+            MethodHandle existing = handles.putIfAbsent(method, handle);
+            if (existing != null) {
+                handle = existing;
+            }
+        }
+        return handle;
+    }
+
+    /**
+     * Resolves a new handle that invokes the {@code default} method with the given signature as it is implemented
+     * by the given interface. The returned handle is not cached.
+     *
+     * @param type the interface through which the method is invoked
+     * @param name the name of the method
+     * @param returnType the return type of the method
+     * @param parameterTypes the parameter types of the method
+     * @return the resolved handle
+     * @throws ReflectiveOperationException if the method cannot be found or accessed
+     */
+    static MethodHandle special(Class<?> type, String name, Class<?> returnType, Class<?>[] parameterTypes) throws ReflectiveOperationException {
+        MethodHandle handle = LOOKUP.findSpecial(type, name, MethodType.methodType(returnType, parameterTypes), type);
+        return spread(handle, parameterTypes.length);
+    }
+
+    private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+        try {
+            return LOOKUP.unreflect(method);
+        }
+        catch (IllegalAccessException e) {
+            return MethodHandles.privateLookupIn(method.getDeclaringClass(), LOOKUP).unreflect(method);
+        }
+    }
+
+    private static MethodHandle spread(MethodHandle handle, int arity) {
+        return handle.asFixedArity()
+                .asType(MethodType.genericMethodType(arity + 1))
+                .asSpreader(Object[].class, arity);
+    }
+}
@@ -17,12 +17,8 @@
 package org.dockbox.hartshorn.proxy.advice;
 
 import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
-import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Proxy;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.dockbox.hartshorn.proxy.ProxyManager;
 import org.dockbox.hartshorn.proxy.advice.intercept.CustomInvocation;
@@ -33,9 +29,7 @@
 import org.dockbox.hartshorn.proxy.advice.intercept.ProxyMethodInterceptor;
 import org.dockbox.hartshorn.proxy.advice.stub.MethodStub;
 import org.dockbox.hartshorn.proxy.advice.stub.MethodStubContext;
-import org.dockbox.hartshorn.util.TypeUtils;
 import org.dockbox.hartshorn.util.introspect.Introspector;
-import org.dockbox.hartshorn.util.introspect.MethodInvoker;
 import org.dockbox.hartshorn.util.introspect.view.MethodView;
 
 /**
@@ -49,7 +43,7 @@
  */
 public class ReflectionProxyMethodInvoker<T> implements ProxyMethodInvoker<T> {
 
-    private static final Map<Invokable, MethodHandle> METHOD_HANDLE_CACHE = new ConcurrentHashMap<>();
+    private static final Object[] NO_ARGUMENTS = new Object[0];
 
     private final Introspector introspector;
     private final ProxyManager<T> manager;
@@ -69,7 +63,7 @@ public <R> R invokeInterceptor(T self, MethodView<T, R> source, Object[] args, M
 
     @Override
     public Object invokeDelegate(T self, Invokable target, Object[] args) throws Throwable {
-        return this.invokeAccessible(self, target, args, (method, instance, interceptorArgs) -> method.invoke(this.manager.delegate().get(), interceptorArgs));
+        return this.invokeAccessible(this.manager.delegate().get(), target, args);
     }
 
     @Override
@@ -92,7 +86,7 @@ public Object invokeReal(T self, Invokable source, Invokable target, Object[] ar
      * @return the result of the method invocation
      */
     protected Object invokeSelf(T self, Invokable target, Object[] args) throws Throwable {
-        return this.invokeAccessible(self, target, args, (method, instance, interceptorArgs) -> method.invoke(self, interceptorArgs));
+        return this.invokeAccessible(self, target, args);
     }
 
     /**
@@ -107,20 +101,11 @@ protected Object invokeSelf(T self, Invokable target, Object[] args) throws Thro
      * @throws Throwable if the method invocation fails
      */
     protected Object invokeDefault(T self, Invokable source, Object[] args, Class<T> declaringType) throws Throwable {
-        MethodHandle handle;
-        if (METHOD_HANDLE_CACHE.containsKey(source)) {
-            handle = METHOD_HANDLE_CACHE.get(source);
-        }
-        else {
-            handle = MethodHandles.lookup().findSpecial(
-                    declaringType,
-                    source.name(),
-                    MethodType.methodType(source.returnType(), source.parameterTypes()),
-                    declaringType
-            ).bindTo(self);
-            METHOD_HANDLE_CACHE.put(source, handle);
-        }
-        return handle.invokeWithArguments(args);
+        MethodHandle handle = source instanceof MethodInvokable methodInvokable && methodInvokable.toMethod() != null
+                ? ProxyMethodHandles.special(declaringType, methodInvokable.toMethod())
+                : ProxyMethodHandles.special(declaringType, source.name(), source.returnType(), source.parameterTypes());
+        Object[] arguments = args != null ? args : NO_ARGUMENTS;
+        return (Object) handle.invokeExact((Object) self, arguments);
     }
 
     /**
@@ -152,7 +137,8 @@ else if (source.isDefault()) {
             }
 
                 // If the current target instance (self) is not a proxy, we can invoke the method directly using reflections.
-            else if (!(self instanceof Proxy || Proxy.isProxyClass(self.getClass()))) {
+                // Proxies which are not JDK proxies are recognized through the lookups of the orchestrator.
+            else if (!(self instanceof Proxy || Proxy.isProxyClass(self.getClass()) || this.manager.orchestrator().isProxy(self))) {
                 return this.invokeSelf(self, target, args);
             }
 
@@ -184,32 +170,33 @@ protected Object invokeStub(T self, Invokable source, Invokable target, Object[]
     }
 
     /**
-     * Ensures the given method is accessible before invoking it. If the method is a {@link MethodInvokable}, the
-     * given {@link MethodInvoker} is used to invoke the method. Otherwise, the method is invoked in whichever way
-     * the given {@link Invokable} supports. If the invocation of either option throws an exception, the default value
-     * for the method's return type is returned.
+     * Invokes the given method on the given {@code instance}. If the method is a {@link MethodInvokable}, it is
+     * invoked through a cached {@link MethodHandle}, which does not require the method to be made accessible.
+     * Otherwise, the method is made accessible and invoked in whichever way the given {@link Invokable} supports.
+     * If the method returns {@code null}, or if the invocation of a non-{@link MethodInvokable} throws an exception,
+     * the default value for the method's return type is returned.
      *
-     * @param self the instance on which the method is invoked
+     * @param instance the instance on which the method is invoked
      * @param target the method that is invoked
      * @param args the arguments that are passed to the method
-     * @param function the function that is used to invoke the method
      * @return the result of the method invocation
      */
-    protected Object invokeAccessible(T self, Invokable target, Object[] args, MethodInvoker<Object, T> function) throws Throwable {
+    protected Object invokeAccessible(Object instance, Invokable target, Object[] args) throws Throwable {
+        if (target instanceof MethodInvokable methodInvokable && methodInvokable.toMethod() != null) {
+            MethodHandle handle = ProxyMethodHandles.virtual(methodInvokable.toMethod());
+            Object[] arguments = args != null ? args : NO_ARGUMENTS;
+            Object result = (Object) handle.invokeExact(instance, arguments);
+            return result != null ? result : this.introspector.introspect(target.returnType()).defaultOrNull();
+        }
+
         target.setAccessible(true);
 
         Object result;
-        if (target instanceof MethodInvokable methodInvokable) {
-            result = function.invoke(TypeUtils.unchecked(methodInvokable.toIntrospector(), MethodView.class), self, args)
-                    .orElseGet(() -> this.introspector.introspect(target.returnType()).defaultOrNull());
+        try {
+            result = target.invoke(instance, args);
         }
-        else {
-            try {
-                result = target.invoke(self, args);
-            }
-            catch (Throwable e) {
-                result = this.introspector.introspect(target.returnType()).defaultOrNull();
-            }
+        catch (Throwable e) {
+            result = this.introspector.introspect(target.returnType()).defaultOrNull();
         }
 
         target.setAccessible(false);
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy.advice.intercept;
+
+import java.lang.reflect.Method;
+
+import org.dockbox.hartshorn.proxy.ProxyManager;
+import org.dockbox.hartshorn.proxy.advice.MethodAdvisorResolver;
+import org.dockbox.hartshorn.proxy.advice.ProxyResultValidator;
+import org.dockbox.hartshorn.proxy.advice.RegistryProxyAdvisor;
+import org.dockbox.hartshorn.proxy.lookup.Unproxy;
+import org.dockbox.hartshorn.util.TypeUtils;
+import org.dockbox.hartshorn.util.introspect.Introspector;
+import org.dockbox.hartshorn.util.introspect.view.MethodView;
+import org.dockbox.hartshorn.util.introspect.view.ParameterView;
+
+/**
+ * An immutable snapshot of everything the {@link ProxyAdvisorMethodInterceptor} needs to know to dispatch calls to a
+ * single proxied method. Plans are created once per method, and are only valid for the {@link #version() version} of
+ * the advisor registry they were created for. This allows the interceptor to avoid resolving advisors, loading
+ * arguments and introspecting return types on every call.
+ *
+ * <p>Methods without any advice, which are not {@link Object} methods and do not require their arguments to be
+ * loaded, are considered {@link #isDirect() direct}. Calls to direct methods can be dispatched straight to the
+ * method delegate or the original method, without creating any intermediate state.
+ *
+ * @param <T> the type of the proxy
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+final class DispatchPlan<T> {
+
+    private final long version;
+    private final MethodView<T, ?> methodView;
+    private final T typeDelegate;
+    private final Object methodDelegate;
+    private final MethodInterceptor<T, Object> interceptor;
+    private final boolean wrapped;
+    private final boolean loadsArguments;
+    private final boolean objectMethod;
+    private final ResultStrategy resultStrategy;
+    private final Class<?> returnType;
+    private final Object defaultResult;
+
+    private DispatchPlan(long version, MethodView<T, ?> methodView, T typeDelegate, Object methodDelegate,
+                         MethodInterceptor<T, Object> interceptor, boolean wrapped, boolean loadsArguments,
+                         boolean objectMethod, ResultStrategy resultStrategy, Class<?> returnType, Object defaultResult) {
+        this.version = version;
+        this.methodView = methodView;
+        this.typeDelegate = typeDelegate;
+        this.methodDelegate = methodDelegate;
+        this.interceptor = interceptor;
+        this.wrapped = wrapped;
+        this.loadsArguments = loadsArguments;
+        this.objectMethod = objectMethod;
+        this.resultStrategy = resultStrategy;
+        this.returnType = returnType;
+        this.defaultResult = defaultResult;
+    }
+
+    /**
+     * Creates a new plan for the given method, based on the current state of the advisors of the given manager.
+     *
+     * @param manager the manager of the proxy
+     * @param introspector the introspector to use
+     * @param method the method to create a plan for
+     * @param version the version of the advisor registry
+     * @param defaultParameterLoader whether arguments are loaded by the default {@link
+     *        org.dockbox.hartshorn.proxy.loaders.UnproxyingParameterLoader}
+     * @param <T> the type of the proxy
+     * @return the plan
+     */
+    static <T> DispatchPlan<T> create(ProxyManager<T> manager, Introspector introspector, Method method,
+                                      long version, boolean defaultParameterLoader) {
+        MethodView<T, ?> methodView = TypeUtils.unchecked(introspector.introspect(method), MethodView.class);
+        MethodAdvisorResolver<T, Object> advisors = manager.advisor().resolver().method(method);
+
+        // Advisors without wrappers do not need a callback context, as long as the advisor is known to only apply
+        // wrappers. Custom advisors are always invoked, as they may apply other behavior.
+        boolean wrapped = !(manager.advisor() instanceof RegistryProxyAdvisor) || !advisors.wrappers().isEmpty();
+
+        Class<?> returnType = method.getReturnType();
+        ResultStrategy resultStrategy;
+        Object defaultResult = null;
+        if (returnType == void.class || returnType == Void.class) {
+            resultStrategy = ResultStrategy.VOID;
+        }
+        else if (returnType.isPrimitive()) {
+            resultStrategy = ResultStrategy.PRIMITIVE;
+            defaultResult = introspector.introspect(returnType).defaultOrNull();
+        }
+        else {
+            resultStrategy = ResultStrategy.REFERENCE;
+        }
+
+        return new DispatchPlan<>(
+                version,
+                methodView,
+                manager.delegate().orNull(),
+                advisors.delegate().orNull(),
+                advisors.interceptor().orNull(),
+                wrapped,
+                !defaultParameterLoader || requiresArgumentLoading(method, methodView),
+                isObjectMethod(method),
+                resultStrategy,
+                returnType,
+                defaultResult
+        );
+    }
+
+    private static boolean requiresArgumentLoading(Method method, MethodView<?, ?> methodView) {
+        // Mirrors the rules of the default UnproxyingParameterLoader, which only changes arguments if they are
+        // marked with @Unproxy, or if they are passed to Object#equals.
+        if (method.getDeclaringClass() == Object.class && "equals".equals(method.getName())) {
+            return true;
+        }
+        if (method.getParameterCount() == 0) {
+            return false;
+        }
+        if (methodView.annotations().has(Unproxy.class)) {
+            return true;
+        }
+        for (ParameterView<?> parameter : methodView.parameters().all()) {
+            if (parameter.annotations().has(Unproxy.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        return switch (method.getName()) {
+            case "equals" -> method.getParameterCount() == 1
+                    && method.getParameterTypes()[0] == Object.class
+                    && method.getReturnType() == boolean.class;
+            case "hashCode" -> method.getParameterCount() == 0 && method.getReturnType() == int.class;
+            case "toString" -> method.getParameterCount() == 0 && method.getReturnType() == String.class;
+            default -> false;
+        };
+    }
+
+    /**
+     * Returns the version of the advisor registry this plan was created for. If the registry was modified since, the
+     * plan should no longer be used.
+     *
+     * @return the version of the advisor registry
+     */
+    long version() {
+        return this.version;
+    }
+
+    /**
+     * Returns the introspected view of the planned method.
+     *
+     * @return the method view
+     */
+    MethodView<T, ?> methodView() {
+        return this.methodView;
+    }
+
+    /**
+     * Returns the target on which callbacks are performed. This is the delegate of the proxy type if it exists, or
+     * the proxy instance itself otherwise.
+     *
+     * @param self the proxy instance
+     * @return the callback target
+     */
+    T callbackTarget(T self) {
+        return this.typeDelegate != null ? this.typeDelegate : self;
+    }
+
+    /**
+     * Returns the delegate of the planned method, or {@code null} if the method is not delegated.
+     *
+     * @return the method delegate, or {@code null}
+     */
+    Object methodDelegate() {
+        return this.methodDelegate;
+    }
+
+    /**
+     * Returns the interceptor of the planned method, or {@code null} if the method is not intercepted.
+     *
+     * @return the interceptor, or {@code null}
+     */
+    MethodInterceptor<T, Object> interceptor() {
+        return this.interceptor;
+    }
+
+    /**
+     * Returns whether calls to the planned method should be wrapped by the {@link
+     * org.dockbox.hartshorn.proxy.advice.ProxyAdvisor}.
+     *
+     * @return {@code true} if calls should be wrapped, {@code false} otherwise
+     */
+    boolean wrapped() {
+        return this.wrapped;
+    }
+
+    /**
+     * Returns whether arguments of the planned method should be processed by a parameter loader before the method
+     * is invoked.
+     *
+     * @return {@code true} if arguments should be loaded, {@code false} if they can be passed as-is
+     */
+    boolean loadsArguments() {
+        return this.loadsArguments;
+    }
+
+    /**
+     * Returns whether calls to the planned method can be dispatched directly to the method delegate or the original
+     * method, without any advisors being involved.
+     *
+     * @return {@code true} if the method can be dispatched directly, {@code false} otherwise
+     */
+    boolean isDirect() {
+        return this.interceptor == null && !this.wrapped && !this.loadsArguments && !this.objectMethod;
+    }
+
+    /**
+     * Validates the result of a call to the planned method. Results that are compatible with the return type of the
+     * method are returned as-is, without introspecting the result. Incompatible results are passed to the given
+     * fallback validator, so it can produce a meaningful error.
+     *
+     * @param source the method that was invoked
+     * @param result the result of the invocation
+     * @param fallback the validator to use for incompatible results
+     * @return the validated result
+     */
+    Object validateResult(MethodInvokable source, Object result, ProxyResultValidator fallback) {
+        return switch (this.resultStrategy) {
+            case VOID -> null;
+            case PRIMITIVE -> {
+                if (result == null) {
+                    yield this.defaultResult;
+                }
+                yield TypeUtils.isPrimitiveWrapper(result.getClass(), this.returnType)
+                        ? result
+                        : fallback.validateResult(source, result);
+            }
+            case REFERENCE -> result == null || this.returnType.isInstance(result)
+                    ? result
+                    : fallback.validateResult(source, result);
+        };
+    }
+
+    private enum ResultStrategy {
+        VOID,
+        PRIMITIVE,
+        REFERENCE,
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.proxy.advice.intercept;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.dockbox.hartshorn.util.introspect.Introspector;
+
+/**
+ * Cache of {@link MethodInvokable}s, used by proxy method handlers to pass the same invokable to the
+ * {@link ProxyMethodInterceptor} on every invocation of a method, rather than wrapping the method again for each
+ * call. Invokables are retained for as long as the cache itself, which is typically owned by the
+ * {@link org.dockbox.hartshorn.proxy.ProxyOrchestrator} that creates the proxies using it.
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public class MethodInvokableCache {
+
+    private final Map<Method, MethodInvokable> invokables = new ConcurrentHashMap<>();
+    private final Introspector introspector;
+    private final MethodInvokable absentInvokable;
+
+    public MethodInvokableCache(Introspector introspector) {
+        this.introspector = introspector;
+        this.absentInvokable = new MethodInvokable(null, introspector);
+    }
+
+    /**
+     * Returns the invokable for the given method, creating it if it was not requested before. If the given method
+     * is {@code null}, a shared invokable that does nothing when invoked is returned.
+     *
+     * @param method the method to get the invokable for
+     * @return the invokable for the given method
+     */
+    public MethodInvokable invokable(Method method) {
+        if (method == null) {
+            return this.absentInvokable;
+        }
+        MethodInvokable invokable = this.invokables.get(method);
+        if (invokable == null) {
+            // Not using computeIfAbsent, as the capturing mapping function would be allocated on every call
+            invokable = new MethodInvokable(method, this.introspector);
+            MethodInvokable existing = this.invokables.putIfAbsent(method, invokable);
+            if (existing != null) {
+                invokable = existing;
+            }
+        }
+        return invokable;
+    }
+
+    /**
+     * Returns the introspector that is used by the invokables in this cache.
+     *
+     * @return the introspector
+     */
+    public Introspector introspector() {
+        return this.introspector;
+    }
+}
@@ -16,6 +16,10 @@
 
 package org.dockbox.hartshorn.proxy.advice.intercept;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.dockbox.hartshorn.proxy.ProxyOrchestrator;
 import org.dockbox.hartshorn.proxy.ProxyManager;
 import org.dockbox.hartshorn.proxy.advice.IntrospectionProxyResultValidator;
@@ -23,6 +27,7 @@
 import org.dockbox.hartshorn.proxy.advice.ProxyMethodInvoker;
 import org.dockbox.hartshorn.proxy.advice.ProxyResultValidator;
 import org.dockbox.hartshorn.proxy.advice.ReflectionProxyMethodInterceptHandler;
+import org.dockbox.hartshorn.proxy.advice.registry.StateAwareAdvisorRegistry;
 import org.dockbox.hartshorn.proxy.advice.wrap.ProxyCallbackContext;
 import org.dockbox.hartshorn.proxy.loaders.ProxyParameterLoaderContext;
 import org.dockbox.hartshorn.proxy.loaders.UnproxyingParameterLoader;
@@ -30,7 +35,6 @@
 import org.dockbox.hartshorn.util.introspect.Introspector;
 import org.dockbox.hartshorn.util.introspect.util.ParameterLoader;
 import org.dockbox.hartshorn.util.introspect.view.MethodView;
-import org.dockbox.hartshorn.util.option.Option;
 
 /**
  * The default method interceptor used by the {@link org.dockbox.hartshorn.proxy.JDKInterfaceProxyFactory}. This
@@ -42,6 +46,10 @@
  * on the target instance. The actual invocation is delegated to the {@link ProxyMethodInterceptHandler}, which will
  * typically handle the invocation using configured advisors in its {@link ProxyMethodInvoker}.
  *
+ * <p>For each invoked method, a {@link DispatchPlan} is prepared once and reused for as long as the advisors of the
+ * proxy remain unchanged. Methods without any advice are dispatched directly to their delegate or original
+ * implementation, without allocating any intermediate state.
+ *
  * @param <T> the type of the target instance
  *
  * @since 0.5.0
@@ -50,6 +58,9 @@
 @SuppressWarnings("ProhibitedExceptionDeclared")
 public class ProxyAdvisorMethodInterceptor<T> implements ProxyMethodInterceptor<T> {
 
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+    private static final long UNVERSIONED = -1;
+
     private final ProxyManager<T> manager;
     private final Introspector introspector;
     private final ProxyMethodInvoker<T> methodInvoker;
@@ -57,6 +68,7 @@
     private final ProxyMethodInterceptHandler<T> interceptHandler;
     private final ProxyOrchestrator proxyOrchestrator;
     private final ParameterLoader parameterLoader = new UnproxyingParameterLoader();
+    private final Map<Method, DispatchPlan<T>> dispatchPlans = new ConcurrentHashMap<>();
 
     public ProxyAdvisorMethodInterceptor(ProxyManager<T> manager, ProxyOrchestrator proxyOrchestrator) {
         this.manager = manager;
@@ -75,35 +87,104 @@ public ProxyManager<T> manager() {
     @Override
     public Object intercept(Object self, MethodInvokable source, Invokable proxy, Object[] args) throws Throwable {
         T instance = this.manager().targetClass().cast(self);
-        T callbackTarget = this.manager().delegate().orElse(instance);
-        MethodView<T, ?> methodView = TypeUtils.unchecked(source.toIntrospector(), MethodView.class);
+        DispatchPlan<T> plan = this.dispatchPlan(source.toMethod());
+        Object[] arguments = args != null ? args : NO_ARGUMENTS;
 
-        CustomInvocation<?> customInvocation = this.createDefaultInvocation(source, proxy, callbackTarget);
-        Object[] arguments = this.resolveArgs(source, self, args);
+        Object result;
+        if (plan.isDirect()) {
+            result = this.dispatchDirect(plan, instance, source, proxy, arguments);
+        }
+        else {
+            T callbackTarget = plan.callbackTarget(instance);
+            CustomInvocation<?> customInvocation = this.createDefaultInvocation(source, proxy, callbackTarget);
+            if (plan.loadsArguments()) {
+                arguments = this.resolveArgs(source, self, arguments);
+            }
+            result = this.interceptAndNotify(instance, source, proxy, callbackTarget, plan, customInvocation, arguments);
+        }
+        return plan.validateResult(source, result, this.resultValidator);
+    }
 
-        Object result = this.interceptAndNotify(instance, source, proxy, callbackTarget, methodView, customInvocation, arguments);
-        return this.resultValidator.validateResult(source, result);
+    /**
+     * Returns whether calls to the given method are currently dispatched without involving any advisors. Calls to
+     * such methods only invoke the method delegate, the type delegate, or the original method, in that order. This
+     * may change whenever the advisors of the proxy are modified, so callers which rely on this should track the
+     * {@link org.dockbox.hartshorn.proxy.advice.registry.AdvisorRegistryState#version() version} of the advisors.
+     *
+     * @param method the method to check
+     * @return {@code true} if the method is dispatched directly, {@code false} otherwise
+     */
+    public boolean isDirect(Method method) {
+        return this.dispatchPlan(method).isDirect();
     }
 
-    protected Object interceptAndNotify(T self, MethodInvokable source, Invokable proxy, T callbackTarget,
-                                      MethodView<T, ?> methodView, CustomInvocation<?> customInvocation,
-                                      Object[] arguments) throws Throwable {
+    /**
+     * Returns the {@link DispatchPlan} for the given method. Plans are cached for as long as the advisors of the
+     * proxy are not modified. If the advisors cannot track modifications, a new plan is created for every call.
+     *
+     * @param method the method that is invoked
+     * @return the plan for the given method
+     */
+    private DispatchPlan<T> dispatchPlan(Method method) {
+        long version = this.advisorVersion();
+        DispatchPlan<T> plan = this.dispatchPlans.get(method);
+        if (plan == null || plan.version() != version) {
+            plan = DispatchPlan.create(this.manager(), this.introspector, method, version, this.parameterLoader() == this.parameterLoader);
+            if (version != UNVERSIONED) {
+                this.dispatchPlans.put(method, plan);
+            }
+        }
+        return plan;
+    }
 
-        ProxyCallbackContext<T> callbackContext = new ProxyCallbackContext<>(callbackTarget, TypeUtils.unchecked(self, Object.class), methodView, arguments);
-        return this.manager().advisor().safeWrapIntercept(callbackContext, () -> {
-            Option<MethodInterceptor<T, Object>> interceptor = this.manager()
-                    .advisor()
-                    .resolver()
-                    .method(source.toMethod())
-                    .interceptor();
+    private long advisorVersion() {
+        // Read before the plan is created, so concurrent modifications always result in an outdated plan
+        if (this.manager().advisor().resolver() instanceof StateAwareAdvisorRegistry<?> registry) {
+            return registry.state().version();
+        }
+        return UNVERSIONED;
+    }
 
-            if (interceptor.present()) {
-                return this.interceptHandler.handleInterceptedMethod(source, callbackTarget, customInvocation, arguments, interceptor.get());
-            }
-            else {
-                return this.interceptHandler.handleNonInterceptedMethod(self, source, proxy, callbackTarget, arguments);
-            }
-        });
+    /**
+     * Dispatches a call to a method without advice. If the method is delegated, the delegate is invoked directly,
+     * in the same way as {@link ProxyMethodInterceptHandler#handleNonInterceptedMethod}. Otherwise, the original
+     * method is invoked if it is available, or the real method is invoked through the {@link ProxyMethodInvoker}.
+     */
+    private Object dispatchDirect(DispatchPlan<T> plan, T self, MethodInvokable source, Invokable proxy, Object[] arguments) throws Throwable {
+        Object methodDelegate = plan.methodDelegate();
+        T callbackTarget = plan.callbackTarget(self);
+        if (methodDelegate != null) {
+            Object result = source.invoke(methodDelegate, arguments);
+            // Delegates returning themselves (e.g. fluent APIs) should not leak from the proxy, as with advised calls
+            return result == methodDelegate ? callbackTarget : result;
+        }
+        if (callbackTarget == self && proxy != null) {
+            return proxy.invoke(callbackTarget, arguments);
+        }
+        return this.methodInvoker.invokeReal(self, source, source, arguments);
+    }
+
+    private Object interceptAndNotify(T self, MethodInvokable source, Invokable proxy, T callbackTarget,
+                                      DispatchPlan<T> plan, CustomInvocation<?> customInvocation,
+                                      Object[] arguments) throws Throwable {
+        if (!plan.wrapped()) {
+            return this.invokeAdvised(self, source, proxy, callbackTarget, plan, customInvocation, arguments);
+        }
+        ProxyCallbackContext<T> callbackContext = new ProxyCallbackContext<>(callbackTarget, TypeUtils.unchecked(self, Object.class), plan.methodView(), arguments);
+        return this.manager().advisor().safeWrapIntercept(callbackContext,
+                () -> this.invokeAdvised(self, source, proxy, callbackTarget, plan, customInvocation, arguments));
+    }
+
+    private Object invokeAdvised(T self, MethodInvokable source, Invokable proxy, T callbackTarget,
+                                 DispatchPlan<T> plan, CustomInvocation<?> customInvocation,
+                                 Object[] arguments) throws Throwable {
+        MethodInterceptor<T, Object> interceptor = plan.interceptor();
+        if (interceptor != null) {
+            return this.interceptHandler.handleInterceptedMethod(source, callbackTarget, customInvocation, arguments, interceptor);
+        }
+        else {
+            return this.interceptHandler.handleNonInterceptedMethod(self, source, proxy, callbackTarget, arguments);
+        }
     }
 
     protected CustomInvocation<?> createDefaultInvocation(Invokable source, Invokable proxy, T callbackTarget) {
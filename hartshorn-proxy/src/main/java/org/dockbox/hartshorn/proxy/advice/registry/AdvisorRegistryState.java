@@ -49,4 +49,12 @@ public interface AdvisorRegistryState {
      */
     void modify();
 
+    /**
+     * Returns the current version of the registry. The version is incremented on every modification of the registry,
+     * regardless of whether the registry {@link #trackState(boolean) tracks its state}. This allows derived state,
+     * such as cached dispatch information of existing proxies, to detect that it is outdated.
+     *
+     * @return the current version of the registry
+     */
+    long version();
 }
@@ -16,6 +16,8 @@
 
 package org.dockbox.hartshorn.proxy.advice.registry;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Default implementation of {@link AdvisorRegistryState}. This implementation tracks whether the registry has been
  * modified since its initial creation.
@@ -27,6 +29,7 @@ public class SimpleAdvisorRegistryState implements AdvisorRegistryState {
 
     private boolean trackingState = true;
     private boolean modified = false;
+    private final AtomicLong version = new AtomicLong();
 
     @Override
     public void trackState(boolean trackingState) {
@@ -40,8 +43,14 @@ public boolean modified() {
 
     @Override
     public void modify() {
+        this.version.incrementAndGet();
         if (this.trackingState) {
             this.modified = true;
         }
     }
+
+    @Override
+    public long version() {
+        return this.version.get();
+    }
 }
@@ -60,4 +60,9 @@
 
     @Override
     StateAwareProxyFactory<T> implement(Class<?>... interfaces);
+
+    @Override
+    default StateAwareProxyFactory<T> delegationOnly(boolean delegationOnly) {
+        return this;
+    }
 }
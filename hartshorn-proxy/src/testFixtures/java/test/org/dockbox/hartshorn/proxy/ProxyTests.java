@@ -16,6 +16,8 @@
 
 package test.org.dockbox.hartshorn.proxy;
 
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
@@ -26,7 +28,13 @@
 import org.dockbox.hartshorn.proxy.ProxyFactory;
 import org.dockbox.hartshorn.proxy.ProxyManager;
 import org.dockbox.hartshorn.proxy.ProxyOrchestrator;
+import org.dockbox.hartshorn.proxy.advice.ProxyMethodInvoker;
+import org.dockbox.hartshorn.proxy.advice.ReflectionProxyMethodInvoker;
+import org.dockbox.hartshorn.proxy.advice.intercept.Invokable;
 import org.dockbox.hartshorn.proxy.advice.intercept.MethodInterceptor;
+import org.dockbox.hartshorn.proxy.advice.intercept.MethodInvokable;
+import org.dockbox.hartshorn.proxy.advice.intercept.ProxyAdvisorMethodInterceptor;
+import org.dockbox.hartshorn.proxy.advice.intercept.ProxyMethodInterceptor;
 import org.dockbox.hartshorn.proxy.advice.wrap.MethodWrapper;
 import org.dockbox.hartshorn.proxy.advice.wrap.ProxyCallbackContext;
 import org.dockbox.hartshorn.proxy.constraint.ProxyConstraintViolationException;
@@ -38,13 +46,19 @@
 import org.dockbox.hartshorn.util.introspect.view.TypeView;
 import org.dockbox.hartshorn.util.option.Option;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import test.org.dockbox.hartshorn.proxy.types.ConcreteProxyTarget;
+import test.org.dockbox.hartshorn.proxy.types.EncapsulatedProxyTarget;
+import test.org.dockbox.hartshorn.proxy.types.FiftyFieldProxyTarget;
 import test.org.dockbox.hartshorn.proxy.types.FinalProxyTarget;
+import test.org.dockbox.hartshorn.proxy.types.FiveFieldProxyTarget;
+import test.org.dockbox.hartshorn.proxy.types.FiveHundredFieldProxyTarget;
+import test.org.dockbox.hartshorn.proxy.types.ObservableProxyTarget;
 
 @SuppressWarnings("unchecked")
 public abstract class ProxyTests {
@@ -64,6 +78,50 @@ void testConcreteMethodsCanBeProxied() throws ApplicationException, NoSuchMethod
         Assertions.assertEquals("Hartshorn", proxy.name());
     }
 
+    @Test
+    void testAdviceAddedAfterInvocationIsApplied() throws ApplicationException, NoSuchMethodException {
+        Method name = ConcreteProxyTarget.class.getMethod("name");
+        ProxyFactory<ConcreteProxyTarget> factory = this.orchestratorLoader().create(this.introspector()).factory(ConcreteProxyTarget.class);
+        ConcreteProxyTarget proxy = factory.proxy().get();
+        Assertions.assertEquals("NotHartshorn", proxy.name());
+
+        // Dispatch of the first call may be cached, but should be invalidated when advisors change
+        factory.advisors().method(name).intercept(context -> "Hartshorn");
+        Assertions.assertEquals("Hartshorn", proxy.name());
+    }
+
+    @Test
+    void testUnadvisedMethodDispatchDoesNotAllocate() throws Throwable {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        Introspector introspector = this.introspector();
+        ProxyOrchestrator orchestrator = this.orchestratorLoader().create(introspector);
+        ConcreteProxyTarget proxy = orchestrator.factory(ConcreteProxyTarget.class).proxy().get();
+        ProxyManager<ConcreteProxyTarget> manager = ((Proxy<ConcreteProxyTarget>) proxy).manager();
+
+        ProxyMethodInterceptor<ConcreteProxyTarget> interceptor = new ProxyAdvisorMethodInterceptor<>(manager, orchestrator);
+        MethodInvokable source = new MethodInvokable(ConcreteProxyTarget.class.getMethod("name"), introspector);
+        Invokable original = new ConstantInvokable("original");
+
+        for (int i = 0; i < 10_000; i++) {
+            interceptor.intercept(proxy, source, original, null);
+        }
+
+        int invocations = 100_000;
+        Object result = null;
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < invocations; i++) {
+            result = interceptor.intercept(proxy, source, original, null);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        Assertions.assertEquals("original", result);
+        // Allow for incidental allocations by the measurement itself, but not for any per-call allocations
+        Assertions.assertTrue(allocated < invocations, "Expected no per-call allocations, but " + allocated + " bytes were allocated");
+    }
+
     @Test
     void testFinalMethodsCanNotBeProxied() throws NoSuchMethodException {
         Method name = FinalProxyTarget.class.getMethod("name");
@@ -163,6 +221,18 @@ void testMethodsCanBeDelegated(Class<? extends InterfaceProxy> proxyType) throws
         Assertions.assertEquals("concrete", proxyInstance.name());
     }
 
+    @Test
+    void testMethodDelegateReturningItselfReturnsProxy() throws ApplicationException, NoSuchMethodException {
+        ProxyFactory<DefaultMethodProxy> factory = this.orchestratorLoader().create(this.introspector()).factory(DefaultMethodProxy.class);
+        DefaultMethodProxy delegate = new DefaultMethodProxy() {
+        };
+        factory.advisors().method(DefaultMethodProxy.class.getMethod("self")).delegate(delegate);
+        DefaultMethodProxy proxy = factory.proxy().get();
+
+        // Fluent methods of a delegate return the proxy, rather than leaking the delegate
+        Assertions.assertSame(proxy, proxy.self());
+    }
+
     @Test
     void testTypesCanBeDelegated() throws ApplicationException {
         // Use a custom interface for this type of delegation, as the other proxy types override methods from their parent
@@ -177,6 +247,102 @@ void testTypesCanBeDelegated() throws ApplicationException {
         Assertions.assertEquals("NamedProxy", proxyInstance.name());
     }
 
+    @Test
+    void testFieldsAreRestoredFromTypeDelegate() throws ReflectiveOperationException, ApplicationException {
+        ProxyFactory<ObservableProxyTarget> factory = this.orchestratorLoader().create(this.introspector()).factory(ObservableProxyTarget.class);
+        factory.advisors().type().delegate(new ObservableProxyTarget("delegate", 12, true));
+        ObservableProxyTarget proxy = factory.proxy().get();
+
+        Assertions.assertEquals(true, fieldValue(proxy, ObservableProxyTarget.class, "active"));
+        Assertions.assertEquals("delegate", fieldValue(proxy, EncapsulatedProxyTarget.class, "name"));
+        Assertions.assertEquals(12, fieldValue(proxy, EncapsulatedProxyTarget.class, "age"));
+    }
+
+    @Test
+    void testDelegationOnlyProxyDoesNotRestoreFields() throws ReflectiveOperationException, ApplicationException {
+        ProxyFactory<EncapsulatedProxyTarget> factory = this.orchestratorLoader().create(this.introspector()).factory(EncapsulatedProxyTarget.class);
+        factory.delegationOnly(true);
+        factory.advisors().type().delegate(new EncapsulatedProxyTarget("delegate", 12));
+        EncapsulatedProxyTarget proxy = factory.proxy().get();
+
+        Assertions.assertEquals("delegate", proxy.name());
+        Assertions.assertEquals(12, proxy.age());
+        // Only set by the constructor of the proxy, as fields are not copied from the delegate
+        Assertions.assertEquals("default", fieldValue(proxy, EncapsulatedProxyTarget.class, "name"));
+    }
+
+    @Test
+    void testDelegationOnlyProxyRestoresObservableFields() throws ReflectiveOperationException, ApplicationException {
+        ProxyFactory<ObservableProxyTarget> factory = this.orchestratorLoader().create(this.introspector()).factory(ObservableProxyTarget.class);
+        factory.delegationOnly(true);
+        factory.advisors().type().delegate(new ObservableProxyTarget("delegate", 12, true));
+        ObservableProxyTarget proxy = factory.proxy().get();
+
+        // The protected field can be read without invoking a delegated method, so fields are still restored
+        Assertions.assertEquals(true, fieldValue(proxy, ObservableProxyTarget.class, "active"));
+        Assertions.assertEquals("delegate", fieldValue(proxy, EncapsulatedProxyTarget.class, "name"));
+    }
+
+    public static Stream<Arguments> fieldRestorationTypes() {
+        return Stream.of(
+                Arguments.of(FiveFieldProxyTarget.class),
+                Arguments.of(FiftyFieldProxyTarget.class),
+                Arguments.of(FiveHundredFieldProxyTarget.class)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("fieldRestorationTypes")
+    <T> void testFieldRestorationDoesNotAllocatePerField(Class<T> type) throws Throwable {
+        T delegate = type.getConstructor().newInstance();
+        Field[] fields = type.getDeclaredFields();
+        for (int i = 0; i < fields.length; i++) {
+            fields[i].setAccessible(true);
+            // Values outside of the Integer cache, so copying cannot rely on cached instances
+            fields[i].set(delegate, fields[i].getType() == int.class ? Integer.valueOf(1_000 + i) : "value" + i);
+        }
+
+        ProxyOrchestrator orchestrator = this.orchestratorLoader().create(this.introspector());
+        ProxyFactory<T> restoringFactory = orchestrator.factory(type);
+        restoringFactory.advisors().type().delegate(delegate);
+        ProxyFactory<T> plainFactory = orchestrator.factory(type);
+
+        T proxy = restoringFactory.proxy().get();
+        for (Field field : fields) {
+            Assertions.assertEquals(field.get(delegate), field.get(proxy));
+        }
+
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        // Compares the allocations of proxies that restore fields with those of proxies that do not, so only the
+        // allocations caused by restoring fields are measured. The first rounds also serve as warmup, so only the
+        // lowest difference is considered.
+        int proxies = 1_000;
+        long perProxy = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long restoring = allocatedBytes(threads, restoringFactory, proxies);
+            long plain = allocatedBytes(threads, plainFactory, proxies);
+            perProxy = Math.min(perProxy, (restoring - plain) / proxies);
+        }
+        Assertions.assertTrue(perProxy < 256, "Expected no per-field allocations, but restoring " + fields.length + " fields allocated " + perProxy + " bytes per proxy");
+    }
+
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads, ProxyFactory<?> factory, int proxies) throws ApplicationException {
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < proxies; i++) {
+            factory.proxy();
+        }
+        return threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+    }
+
+    private static Object fieldValue(Object instance, Class<?> declaringType, String name) throws ReflectiveOperationException {
+        Field field = declaringType.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(instance);
+    }
+
     @ParameterizedTest
     @MethodSource("proxyTypes")
     void testWrapperInterceptionIsCorrect(Class<? extends InterfaceProxy> proxyType) throws NoSuchMethodException, ApplicationException {
@@ -453,6 +619,93 @@ void testInterfaceProxySelfEquality() throws ApplicationException {
         Assertions.assertTrue(proxyInstance.test(proxyInstance));
     }
 
+    @Test
+    void testDefaultMethodsAreInvokedOnOwnProxy() throws ApplicationException {
+        ProxyOrchestrator orchestrator = this.orchestratorLoader().create(this.introspector());
+        EqualInterfaceProxy first = orchestrator.factory(EqualInterfaceProxy.class).proxy().get();
+        EqualInterfaceProxy second = orchestrator.factory(EqualInterfaceProxy.class).proxy().get();
+
+        Assertions.assertTrue(first.test(first));
+        // Invokables are shared between both proxies, so the default method should not remain bound to the first proxy
+        Assertions.assertTrue(second.test(second));
+    }
+
+    @Test
+    void testDefaultMethodHandlesAreNotBoundToReceiver() throws Throwable {
+        ProxyOrchestrator orchestrator = this.orchestratorLoader().create(this.introspector());
+        DefaultMethodProxy first = orchestrator.factory(DefaultMethodProxy.class).proxy().get();
+        DefaultMethodProxy second = orchestrator.factory(DefaultMethodProxy.class).proxy().get();
+
+        Assertions.assertSame(first, first.self());
+        Assertions.assertSame(second, second.self());
+
+        // Both invokers resolve the same cached handle, so the receiver has to be passed on every invocation
+        MethodInvokable source = orchestrator.invokables().invokable(DefaultMethodProxy.class.getMethod("self"));
+        ProxyMethodInvoker<DefaultMethodProxy> firstInvoker = this.methodInvoker(orchestrator, first);
+        ProxyMethodInvoker<DefaultMethodProxy> secondInvoker = this.methodInvoker(orchestrator, second);
+        Assertions.assertSame(first, firstInvoker.invokeReal(first, source, source, new Object[0]));
+        Assertions.assertSame(second, secondInvoker.invokeReal(second, source, source, new Object[0]));
+    }
+
+    @Test
+    void testDefaultMethodInvocationDoesNotAllocate() throws Throwable {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        ProxyOrchestrator orchestrator = this.orchestratorLoader().create(this.introspector());
+        DefaultMethodProxy proxy = orchestrator.factory(DefaultMethodProxy.class).proxy().get();
+        ProxyManager<DefaultMethodProxy> manager = ((Proxy<DefaultMethodProxy>) proxy).manager();
+        DefaultMethodInvoker<DefaultMethodProxy> invoker = new DefaultMethodInvoker<>(new ProxyAdvisorMethodInterceptor<>(manager, orchestrator));
+        MethodInvokable source = orchestrator.invokables().invokable(DefaultMethodProxy.class.getMethod("self"));
+        Object[] arguments = new Object[0];
+
+        for (int i = 0; i < 10_000; i++) {
+            invoker.invokeDefault(proxy, source, arguments, DefaultMethodProxy.class);
+        }
+
+        int invocations = 100_000;
+        Object result = null;
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < invocations; i++) {
+            result = invoker.invokeDefault(proxy, source, arguments, DefaultMethodProxy.class);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        Assertions.assertSame(proxy, result);
+        // Binding the handle to the receiver, or spreading the arguments through invokeWithArguments, allocates on every call
+        Assertions.assertTrue(allocated < invocations, "Expected no per-call allocations, but " + allocated + " bytes were allocated");
+    }
+
+    private <T> ProxyMethodInvoker<T> methodInvoker(ProxyOrchestrator orchestrator, T proxy) {
+        ProxyManager<T> manager = ((Proxy<T>) proxy).manager();
+        return new ReflectionProxyMethodInvoker<>(new ProxyAdvisorMethodInterceptor<>(manager, orchestrator));
+    }
+
+    private static class DefaultMethodInvoker<T> extends ReflectionProxyMethodInvoker<T> {
+
+        DefaultMethodInvoker(ProxyMethodInterceptor<T> interceptor) {
+            super(interceptor);
+        }
+
+        @Override
+        public Object invokeDefault(T self, Invokable source, Object[] args, Class<T> declaringType) throws Throwable {
+            return super.invokeDefault(self, source, args, declaringType);
+        }
+    }
+
+    @Test
+    void testMethodInvokablesAreShared() throws NoSuchMethodException {
+        ProxyOrchestrator orchestrator = this.orchestratorLoader().create(this.introspector());
+        Method method = ConcreteProxyTarget.class.getMethod("name");
+
+        MethodInvokable invokable = orchestrator.invokables().invokable(method);
+        Assertions.assertSame(method, invokable.toMethod());
+        Assertions.assertSame(invokable, orchestrator.invokables().invokable(method));
+        Assertions.assertSame(invokable, orchestrator.invokables().invokable(ConcreteProxyTarget.class.getMethod("name")));
+        Assertions.assertSame(orchestrator.invokables().invokable(null), orchestrator.invokables().invokable(null));
+    }
+
     @Test
     void testLambdaCanBeProxied() throws NoSuchMethodException, ApplicationException {
         Class<Supplier<String>> supplierClass = (Class<Supplier<String>>) (Class<?>) Supplier.class;
@@ -485,4 +738,47 @@ void testIsProxyIsFalseIfTypeIsNormal() {
         boolean isProxy = orchestrator.isProxy(view);
         Assertions.assertFalse(isProxy);
     }
+
+    private record ConstantInvokable(Object value) implements Invokable {
+
+        @Override
+        public Object invoke(Object obj, Object... args) {
+            return this.value;
+        }
+
+        @Override
+        public void setAccessible(boolean accessible) {
+            // Nothing to make accessible
+        }
+
+        @Override
+        public Class<?> declaringClass() {
+            return ConcreteProxyTarget.class;
+        }
+
+        @Override
+        public String name() {
+            return "name";
+        }
+
+        @Override
+        public boolean isDefault() {
+            return false;
+        }
+
+        @Override
+        public Class<?> returnType() {
+            return String.class;
+        }
+
+        @Override
+        public Class<?>[] parameterTypes() {
+            return new Class<?>[0];
+        }
+
+        @Override
+        public String qualifiedName() {
+            return ConcreteProxyTarget.class.getName() + "#name";
+        }
+    }
 }
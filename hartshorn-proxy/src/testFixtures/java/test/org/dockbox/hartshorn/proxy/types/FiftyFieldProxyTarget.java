@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.proxy.types;
+
+@SuppressWarnings("unused")
+public class FiftyFieldProxyTarget {
+
+    private int field0;
+    private String field1;
+    private int field2;
+    private String field3;
+    private int field4;
+    private String field5;
+    private int field6;
+    private String field7;
+    private int field8;
+    private String field9;
+    private int field10;
+    private String field11;
+    private int field12;
+    private String field13;
+    private int field14;
+    private String field15;
+    private int field16;
+    private String field17;
+    private int field18;
+    private String field19;
+    private int field20;
+    private String field21;
+    private int field22;
+    private String field23;
+    private int field24;
+    private String field25;
+    private int field26;
+    private String field27;
+    private int field28;
+    private String field29;
+    private int field30;
+    private String field31;
+    private int field32;
+    private String field33;
+    private int field34;
+    private String field35;
+    private int field36;
+    private String field37;
+    private int field38;
+    private String field39;
+    private int field40;
+    private String field41;
+    private int field42;
+    private String field43;
+    private int field44;
+    private String field45;
+    private int field46;
+    private String field47;
+    private int field48;
+    private String field49;
+}
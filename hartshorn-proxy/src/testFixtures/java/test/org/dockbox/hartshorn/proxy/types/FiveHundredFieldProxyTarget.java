@@ -0,0 +1,522 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.proxy.types;
+
+@SuppressWarnings("unused")
+public class FiveHundredFieldProxyTarget {
+
+    private int field0;
+    private String field1;
+    private int field2;
+    private String field3;
+    private int field4;
+    private String field5;
+    private int field6;
+    private String field7;
+    private int field8;
+    private String field9;
+    private int field10;
+    private String field11;
+    private int field12;
+    private String field13;
+    private int field14;
+    private String field15;
+    private int field16;
+    private String field17;
+    private int field18;
+    private String field19;
+    private int field20;
+    private String field21;
+    private int field22;
+    private String field23;
+    private int field24;
+    private String field25;
+    private int field26;
+    private String field27;
+    private int field28;
+    private String field29;
+    private int field30;
+    private String field31;
+    private int field32;
+    private String field33;
+    private int field34;
+    private String field35;
+    private int field36;
+    private String field37;
+    private int field38;
+    private String field39;
+    private int field40;
+    private String field41;
+    private int field42;
+    private String field43;
+    private int field44;
+    private String field45;
+    private int field46;
+    private String field47;
+    private int field48;
+    private String field49;
+    private int field50;
+    private String field51;
+    private int field52;
+    private String field53;
+    private int field54;
+    private String field55;
+    private int field56;
+    private String field57;
+    private int field58;
+    private String field59;
+    private int field60;
+    private String field61;
+    private int field62;
+    private String field63;
+    private int field64;
+    private String field65;
+    private int field66;
+    private String field67;
+    private int field68;
+    private String field69;
+    private int field70;
+    private String field71;
+    private int field72;
+    private String field73;
+    private int field74;
+    private String field75;
+    private int field76;
+    private String field77;
+    private int field78;
+    private String field79;
+    private int field80;
+    private String field81;
+    private int field82;
+    private String field83;
+    private int field84;
+    private String field85;
+    private int field86;
+    private String field87;
+    private int field88;
+    private String field89;
+    private int field90;
+    private String field91;
+    private int field92;
+    private String field93;
+    private int field94;
+    private String field95;
+    private int field96;
+    private String field97;
+    private int field98;
+    private String field99;
+    private int field100;
+    private String field101;
+    private int field102;
+    private String field103;
+    private int field104;
+    private String field105;
+    private int field106;
+    private String field107;
+    private int field108;
+    private String field109;
+    private int field110;
+    private String field111;
+    private int field112;
+    private String field113;
+    private int field114;
+    private String field115;
+    private int field116;
+    private String field117;
+    private int field118;
+    private String field119;
+    private int field120;
+    private String field121;
+    private int field122;
+    private String field123;
+    private int field124;
+    private String field125;
+    private int field126;
+    private String field127;
+    private int field128;
+    private String field129;
+    private int field130;
+    private String field131;
+    private int field132;
+    private String field133;
+    private int field134;
+    private String field135;
+    private int field136;
+    private String field137;
+    private int field138;
+    private String field139;
+    private int field140;
+    private String field141;
+    private int field142;
+    private String field143;
+    private int field144;
+    private String field145;
+    private int field146;
+    private String field147;
+    private int field148;
+    private String field149;
+    private int field150;
+    private String field151;
+    private int field152;
+    private String field153;
+    private int field154;
+    private String field155;
+    private int field156;
+    private String field157;
+    private int field158;
+    private String field159;
+    private int field160;
+    private String field161;
+    private int field162;
+    private String field163;
+    private int field164;
+    private String field165;
+    private int field166;
+    private String field167;
+    private int field168;
+    private String field169;
+    private int field170;
+    private String field171;
+    private int field172;
+    private String field173;
+    private int field174;
+    private String field175;
+    private int field176;
+    private String field177;
+    private int field178;
+    private String field179;
+    private int field180;
+    private String field181;
+    private int field182;
+    private String field183;
+    private int field184;
+    private String field185;
+    private int field186;
+    private String field187;
+    private int field188;
+    private String field189;
+    private int field190;
+    private String field191;
+    private int field192;
+    private String field193;
+    private int field194;
+    private String field195;
+    private int field196;
+    private String field197;
+    private int field198;
+    private String field199;
+    private int field200;
+    private String field201;
+    private int field202;
+    private String field203;
+    private int field204;
+    private String field205;
+    private int field206;
+    private String field207;
+    private int field208;
+    private String field209;
+    private int field210;
+    private String field211;
+    private int field212;
+    private String field213;
+    private int field214;
+    private String field215;
+    private int field216;
+    private String field217;
+    private int field218;
+    private String field219;
+    private int field220;
+    private String field221;
+    private int field222;
+    private String field223;
+    private int field224;
+    private String field225;
+    private int field226;
+    private String field227;
+    private int field228;
+    private String field229;
+    private int field230;
+    private String field231;
+    private int field232;
+    private String field233;
+    private int field234;
+    private String field235;
+    private int field236;
+    private String field237;
+    private int field238;
+    private String field239;
+    private int field240;
+    private String field241;
+    private int field242;
+    private String field243;
+    private int field244;
+    private String field245;
+    private int field246;
+    private String field247;
+    private int field248;
+    private String field249;
+    private int field250;
+    private String field251;
+    private int field252;
+    private String field253;
+    private int field254;
+    private String field255;
+    private int field256;
+    private String field257;
+    private int field258;
+    private String field259;
+    private int field260;
+    private String field261;
+    private int field262;
+    private String field263;
+    private int field264;
+    private String field265;
+    private int field266;
+    private String field267;
+    private int field268;
+    private String field269;
+    private int field270;
+    private String field271;
+    private int field272;
+    private String field273;
+    private int field274;
+    private String field275;
+    private int field276;
+    private String field277;
+    private int field278;
+    private String field279;
+    private int field280;
+    private String field281;
+    private int field282;
+    private String field283;
+    private int field284;
+    private String field285;
+    private int field286;
+    private String field287;
+    private int field288;
+    private String field289;
+    private int field290;
+    private String field291;
+    private int field292;
+    private String field293;
+    private int field294;
+    private String field295;
+    private int field296;
+    private String field297;
+    private int field298;
+    private String field299;
+    private int field300;
+    private String field301;
+    private int field302;
+    private String field303;
+    private int field304;
+    private String field305;
+    private int field306;
+    private String field307;
+    private int field308;
+    private String field309;
+    private int field310;
+    private String field311;
+    private int field312;
+    private String field313;
+    private int field314;
+    private String field315;
+    private int field316;
+    private String field317;
+    private int field318;
+    private String field319;
+    private int field320;
+    private String field321;
+    private int field322;
+    private String field323;
+    private int field324;
+    private String field325;
+    private int field326;
+    private String field327;
+    private int field328;
+    private String field329;
+    private int field330;
+    private String field331;
+    private int field332;
+    private String field333;
+    private int field334;
+    private String field335;
+    private int field336;
+    private String field337;
+    private int field338;
+    private String field339;
+    private int field340;
+    private String field341;
+    private int field342;
+    private String field343;
+    private int field344;
+    private String field345;
+    private int field346;
+    private String field347;
+    private int field348;
+    private String field349;
+    private int field350;
+    private String field351;
+    private int field352;
+    private String field353;
+    private int field354;
+    private String field355;
+    private int field356;
+    private String field357;
+    private int field358;
+    private String field359;
+    private int field360;
+    private String field361;
+    private int field362;
+    private String field363;
+    private int field364;
+    private String field365;
+    private int field366;
+    private String field367;
+    private int field368;
+    private String field369;
+    private int field370;
+    private String field371;
+    private int field372;
+    private String field373;
+    private int field374;
+    private String field375;
+    private int field376;
+    private String field377;
+    private int field378;
+    private String field379;
+    private int field380;
+    private String field381;
+    private int field382;
+    private String field383;
+    private int field384;
+    private String field385;
+    private int field386;
+    private String field387;
+    private int field388;
+    private String field389;
+    private int field390;
+    private String field391;
+    private int field392;
+    private String field393;
+    private int field394;
+    private String field395;
+    private int field396;
+    private String field397;
+    private int field398;
+    private String field399;
+    private int field400;
+    private String field401;
+    private int field402;
+    private String field403;
+    private int field404;
+    private String field405;
+    private int field406;
+    private String field407;
+    private int field408;
+    private String field409;
+    private int field410;
+    private String field411;
+    private int field412;
+    private String field413;
+    private int field414;
+    private String field415;
+    private int field416;
+    private String field417;
+    private int field418;
+    private String field419;
+    private int field420;
+    private String field421;
+    private int field422;
+    private String field423;
+    private int field424;
+    private String field425;
+    private int field426;
+    private String field427;
+    private int field428;
+    private String field429;
+    private int field430;
+    private String field431;
+    private int field432;
+    private String field433;
+    private int field434;
+    private String field435;
+    private int field436;
+    private String field437;
+    private int field438;
+    private String field439;
+    private int field440;
+    private String field441;
+    private int field442;
+    private String field443;
+    private int field444;
+    private String field445;
+    private int field446;
+    private String field447;
+    private int field448;
+    private String field449;
+    private int field450;
+    private String field451;
+    private int field452;
+    private String field453;
+    private int field454;
+    private String field455;
+    private int field456;
+    private String field457;
+    private int field458;
+    private String field459;
+    private int field460;
+    private String field461;
+    private int field462;
+    private String field463;
+    private int field464;
+    private String field465;
+    private int field466;
+    private String field467;
+    private int field468;
+    private String field469;
+    private int field470;
+    private String field471;
+    private int field472;
+    private String field473;
+    private int field474;
+    private String field475;
+    private int field476;
+    private String field477;
+    private int field478;
+    private String field479;
+    private int field480;
+    private String field481;
+    private int field482;
+    private String field483;
+    private int field484;
+    private String field485;
+    private int field486;
+    private String field487;
+    private int field488;
+    private String field489;
+    private int field490;
+    private String field491;
+    private int field492;
+    private String field493;
+    private int field494;
+    private String field495;
+    private int field496;
+    private String field497;
+    private int field498;
+    private String field499;
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.proxy.types;
+
+public class ObservableProxyTarget extends EncapsulatedProxyTarget {
+
+    // Non-private fields can be accessed without invoking a method of the proxy
+    protected boolean active;
+
+    public ObservableProxyTarget() {
+    }
+
+    public ObservableProxyTarget(String name, int age, boolean active) {
+        super(name, age);
+        this.active = active;
+    }
+}
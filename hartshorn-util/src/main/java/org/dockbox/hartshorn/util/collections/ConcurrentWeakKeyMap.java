@@ -0,0 +1,236 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.util.collections;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A thread-safe map which only holds weak references to its keys, similar to {@link java.util.WeakHashMap}. Keys
+ * are compared using {@link Object#equals(Object)}, and entries are removed once their key is no longer strongly
+ * reachable. Stale entries are expunged from a {@link ReferenceQueue} on every modification, so lookups never
+ * block or contend on a shared lock.
+ *
+ * <p>Note that values are held strongly. If a value references its own key, the key will remain strongly
+ * reachable through this map, and the entry will not be collected.
+ *
+ * <p>This map does not permit {@code null} keys or values.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ *
+ * @see java.util.WeakHashMap
+ * @see ConcurrentHashMap
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+public class ConcurrentWeakKeyMap<K, V> {
+
+    private final ConcurrentHashMap<KeyReference<K>, V> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+
+    /**
+     * Returns the value associated with the given key, or {@code null} if no value is associated with the key.
+     *
+     * @param key the key
+     * @return the value associated with the key, or {@code null}
+     */
+    public V get(K key) {
+        return this.entries.get(new LookupKey<>(key));
+    }
+
+    /**
+     * Returns whether a value is associated with the given key.
+     *
+     * @param key the key
+     * @return {@code true} if a value is associated with the key
+     */
+    public boolean containsKey(K key) {
+        return this.entries.containsKey(new LookupKey<>(key));
+    }
+
+    /**
+     * Associates the given value with the given key if no value is associated with the key yet.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value associated with the key, or {@code null} if there was none
+     */
+    public V putIfAbsent(K key, V value) {
+        this.expungeStaleEntries();
+        return this.entries.putIfAbsent(new WeakKey<>(key, this.queue), value);
+    }
+
+    /**
+     * Returns the value associated with the given key, or computes and stores a new value if no value is
+     * associated with the key yet. The mapping function is invoked at most once per absent key, following
+     * the semantics of {@link ConcurrentHashMap#computeIfAbsent(Object, Function)}.
+     *
+     * @param key the key
+     * @param mappingFunction the function to compute a value
+     * @return the current or computed value
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = this.get(key);
+        if (value != null) {
+            return value;
+        }
+        this.expungeStaleEntries();
+        return this.entries.computeIfAbsent(new WeakKey<>(key, this.queue), reference -> mappingFunction.apply(key));
+    }
+
+    /**
+     * Removes the value associated with the given key, if any.
+     *
+     * @param key the key
+     * @return the value that was associated with the key, or {@code null}
+     */
+    public V remove(K key) {
+        this.expungeStaleEntries();
+        return this.entries.remove(new LookupKey<>(key));
+    }
+
+    /**
+     * Returns an unmodifiable view of the values in this map. The view is weakly consistent, and may
+     * include values of which the key has been collected but not yet expunged.
+     *
+     * @return the values in this map
+     */
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(this.entries.values());
+    }
+
+    /**
+     * Returns the number of live entries in this map. Stale entries are expunged before the size is
+     * calculated.
+     *
+     * @return the number of entries in this map
+     */
+    public int size() {
+        this.expungeStaleEntries();
+        return this.entries.size();
+    }
+
+    /**
+     * Removes all entries from this map.
+     */
+    public void clear() {
+        this.entries.clear();
+        while (this.queue.poll() != null) {
+            // Drain queue, entries are already removed
+        }
+    }
+
+    /**
+     * Removes all entries of which the key has been collected.
+     */
+    protected void expungeStaleEntries() {
+        Reference<? extends K> reference;
+        while ((reference = this.queue.poll()) != null) {
+            this.entries.remove(reference);
+        }
+    }
+
+    /**
+     * Common type for stored keys and lookup keys, so both can be compared to each other by their
+     * referent.
+     *
+     * @param <K> the type of the key
+     */
+    private interface KeyReference<K> {
+        K referent();
+    }
+
+    /**
+     * Stored key, which only weakly references the actual key. The hash code is computed eagerly, so
+     * the entry can still be located (and removed) after the referent has been collected.
+     *
+     * @param <K> the type of the key
+     */
+    private static final class WeakKey<K> extends WeakReference<K> implements KeyReference<K> {
+
+        private final int hash;
+
+        private WeakKey(K key, ReferenceQueue<K> queue) {
+            super(Objects.requireNonNull(key), queue);
+            this.hash = key.hashCode();
+        }
+
+        @Override
+        public K referent() {
+            return this.get();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            return other instanceof KeyReference<?> reference && equalReferents(this.referent(), reference.referent());
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    /**
+     * Transient key used for lookups, which strongly references the key for the duration of the lookup.
+     *
+     * @param <K> the type of the key
+     */
+    private static final class LookupKey<K> implements KeyReference<K> {
+
+        private final K key;
+
+        private LookupKey(K key) {
+            this.key = Objects.requireNonNull(key);
+        }
+
+        @Override
+        public K referent() {
+            return this.key;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            return other instanceof KeyReference<?> reference && equalReferents(this.key, reference.referent());
+        }
+
+        @Override
+        public int hashCode() {
+            return this.key.hashCode();
+        }
+    }
+
+    private static boolean equalReferents(Object left, Object right) {
+        // Cleared references are never equal to anything but themselves
+        return left != null && right != null && (left == right || left.equals(right));
+    }
+}
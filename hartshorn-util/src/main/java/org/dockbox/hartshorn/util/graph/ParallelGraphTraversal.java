@@ -0,0 +1,215 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.util.graph;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single traversal of a graph by a {@link ParallelGraphVisitor}. Nodes are scheduled on a dedicated executor
+ * as soon as their remaining parent count reaches zero, and are only visited if at least one of their parents
+ * accepted them. The executor is shut down when the traversal completes.
+ *
+ * @param <T> the type of the value of the node
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+final class ParallelGraphTraversal<T> {
+
+    private static final AtomicInteger TRAVERSAL_COUNT = new AtomicInteger();
+
+    private final ParallelGraphVisitor<T> visitor;
+    private final Set<GraphNode<T>> visited = ConcurrentHashMap.newKeySet();
+    private final Queue<NodeFailure> failures = new ConcurrentLinkedQueue<>();
+    // Starts at one, so the traversal cannot complete while roots are being scheduled
+    private final AtomicInteger pendingVisits = new AtomicInteger(1);
+    private final CountDownLatch completed = new CountDownLatch(1);
+
+    private Map<GraphNode<T>, NodeState> states;
+    private ExecutorService executor;
+    private volatile boolean failed;
+
+    ParallelGraphTraversal(ParallelGraphVisitor<T> visitor) {
+        this.visitor = visitor;
+    }
+
+    Set<GraphNode<T>> traverse(Graph<T> graph) throws GraphException {
+        // Sorted, so nodes are discovered in the same order in every traversal
+        List<GraphNode<T>> roots = graph.roots().stream()
+                .sorted(this.visitor.nodeOrder())
+                .toList();
+        if (roots.isEmpty()) {
+            return this.visited;
+        }
+
+        this.states = this.collectStates(roots);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, this.visitor.parallelism()), this.threadFactory());
+        try {
+            this.visitor.beforePathVisited();
+            for (GraphNode<T> root : roots) {
+                this.schedule(root);
+            }
+            this.release();
+            this.completed.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GraphException("Interrupted while visiting graph", e);
+        }
+        finally {
+            this.executor.shutdownNow();
+        }
+
+        if (!this.failures.isEmpty()) {
+            this.rethrowFailures();
+        }
+        this.visitor.afterPathVisited();
+        return this.visited;
+    }
+
+    private Map<GraphNode<T>, NodeState> collectStates(List<GraphNode<T>> roots) {
+        Comparator<GraphNode<T>> order = this.visitor.nodeOrder();
+        Map<GraphNode<T>, NodeState> states = new HashMap<>();
+        Deque<GraphNode<T>> queue = new ArrayDeque<>(roots);
+        while (!queue.isEmpty()) {
+            GraphNode<T> node = queue.poll();
+            if (states.containsKey(node)) {
+                continue;
+            }
+            // Nodes without known parents are visited as soon as they are first accepted by a parent
+            boolean knownParents = node instanceof ContainableGraphNode<T>;
+            int parentCount = knownParents ? ((ContainableGraphNode<T>) node).parents().size() : 1;
+            states.put(node, new NodeState(states.size(), new AtomicInteger(parentCount), knownParents, new AtomicBoolean()));
+            node.children().stream()
+                    .sorted(order)
+                    .forEach(queue::add);
+        }
+        for (GraphNode<T> root : roots) {
+            states.get(root).accepted().set(true);
+        }
+        return states;
+    }
+
+    private void schedule(GraphNode<T> node) {
+        this.pendingVisits.incrementAndGet();
+        try {
+            this.executor.execute(() -> this.visit(node));
+        }
+        catch (RejectedExecutionException e) {
+            this.fail(node, e);
+            this.release();
+        }
+    }
+
+    private void visit(GraphNode<T> node) {
+        try {
+            // Nodes which no parent accepted are not visited, so their children can never have all parents visited
+            if (!this.failed && this.states.get(node).accepted().get() && this.visited.add(node)) {
+                boolean accepted = this.visitor.visit(node);
+                for (GraphNode<T> child : node.children()) {
+                    this.parentVisited(child, accepted);
+                }
+            }
+        }
+        catch (Throwable e) {
+            this.fail(node, e);
+        }
+        finally {
+            this.release();
+        }
+    }
+
+    private void parentVisited(GraphNode<T> child, boolean accepted) {
+        NodeState state = this.states.get(child);
+        if (state == null) {
+            return;
+        }
+        // Marked before the count is decremented, so the thread that schedules the child observes it
+        if (accepted) {
+            state.accepted().set(true);
+        }
+        if ((accepted || state.knownParents()) && state.remainingParents().decrementAndGet() == 0) {
+            this.schedule(child);
+        }
+    }
+
+    private void fail(GraphNode<T> node, Throwable failure) {
+        this.failures.add(new NodeFailure(this.states.get(node).order(), failure));
+        this.failed = true;
+    }
+
+    private void release() {
+        if (this.pendingVisits.decrementAndGet() == 0) {
+            this.completed.countDown();
+        }
+    }
+
+    private void rethrowFailures() throws GraphException {
+        List<Throwable> failures = this.failures.stream()
+                .sorted(Comparator.comparingInt(NodeFailure::order))
+                .map(NodeFailure::failure)
+                .toList();
+
+        Throwable first = failures.getFirst();
+        for (Throwable failure : failures.subList(1, failures.size())) {
+            first.addSuppressed(failure);
+        }
+        if (first instanceof GraphException graphException) {
+            throw graphException;
+        }
+        if (first instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (first instanceof Error error) {
+            throw error;
+        }
+        throw new GraphException(first);
+    }
+
+    private ThreadFactory threadFactory() {
+        String prefix = "graph-visitor-" + TRAVERSAL_COUNT.incrementAndGet() + "-";
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record NodeState(int order, AtomicInteger remainingParents, boolean knownParents, AtomicBoolean accepted) {
+    }
+
+    private record NodeFailure(int order, Throwable failure) {
+    }
+}
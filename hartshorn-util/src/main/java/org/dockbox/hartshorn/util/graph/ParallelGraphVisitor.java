@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dockbox.hartshorn.util.graph;
+
+import java.util.Comparator;
+import java.util.Set;
+
+/**
+ * A {@link GraphIterator} that visits independent nodes of a {@link Graph} concurrently. Before nodes are visited,
+ * the number of parents of each reachable node is counted once. Roots are visited first, and every other node is
+ * scheduled as soon as all of its parents have been visited. As with the {@link BreadthFirstGraphVisitor}, a node
+ * is never visited before its parents, and nodes with parents that cannot be reached from any root are not visited.
+ * A node is only visited if at least one of its parents returned {@code true} when it was
+ * {@link #visit(GraphNode) visited}, so returning {@code false} does not prevent children from being visited if
+ * another of their parents accepts them.
+ *
+ * <p>Up to {@link #parallelism()} nodes are visited at the same time, so {@link #visit(GraphNode)} should be safe to
+ * invoke from multiple threads. If visiting one or more nodes fails, no new nodes are scheduled, and the traversal
+ * completes once all running visits have finished. The failure of the node that was discovered first is then
+ * rethrown, with any other failures {@link Throwable#addSuppressed(Throwable) suppressed}. Roots and children are
+ * discovered in the {@link #nodeOrder() node order}, which keeps the reported failure independent of the order in
+ * which threads happen to fail, and of the iteration order of the sets of the graph.
+ *
+ * <p>The traversal is observed as a single path, so {@link #beforePathVisited()} and {@link #afterPathVisited()} are
+ * invoked once, on the thread that started the traversal.
+ *
+ * @param <T> the type of the value of the node
+ *
+ * @since 0.7.0
+ *
+ * @author Guus Lieben
+ */
+@FunctionalInterface
+public interface ParallelGraphVisitor<T> extends ObservableGraphIterator<T> {
+
+    @Override
+    default Set<GraphNode<T>> iterate(Graph<T> graph) throws GraphException {
+        return new ParallelGraphTraversal<>(this).traverse(graph);
+    }
+
+    /**
+     * Returns the maximum number of nodes that are visited at the same time. Defaults to the number of available
+     * processors. Values lower than {@code 1} are treated as {@code 1}.
+     *
+     * @return the maximum number of concurrently visited nodes
+     */
+    default int parallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Returns the order in which roots and the children of each node are discovered. This determines which failure
+     * is rethrown if multiple nodes fail, but does not affect the order in which nodes are visited. Defaults to the
+     * order of the string representation of the values of nodes.
+     *
+     * @return the order in which nodes are discovered
+     */
+    default Comparator<GraphNode<T>> nodeOrder() {
+        return Comparator.comparing(node -> String.valueOf(node.value()));
+    }
+}
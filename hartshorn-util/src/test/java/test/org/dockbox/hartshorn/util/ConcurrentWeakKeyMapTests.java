@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.util;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dockbox.hartshorn.util.collections.ConcurrentWeakKeyMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentWeakKeyMapTests {
+
+    @Test
+    void testLookupUsesEquality() {
+        ConcurrentWeakKeyMap<String, String> map = new ConcurrentWeakKeyMap<>();
+        String key = "key";
+        map.putIfAbsent(key, "value");
+
+        Assertions.assertEquals("value", map.get(new String("key")));
+        Assertions.assertTrue(map.containsKey(new String("key")));
+        Assertions.assertNull(map.get("other"));
+    }
+
+    @Test
+    void testPutIfAbsentKeepsExistingValue() {
+        ConcurrentWeakKeyMap<String, String> map = new ConcurrentWeakKeyMap<>();
+        String key = "key";
+        Assertions.assertNull(map.putIfAbsent(key, "first"));
+        Assertions.assertEquals("first", map.putIfAbsent(key, "second"));
+        Assertions.assertEquals("first", map.get(key));
+        Assertions.assertEquals(1, map.size());
+    }
+
+    @Test
+    void testRemoveRemovesEntry() {
+        ConcurrentWeakKeyMap<String, String> map = new ConcurrentWeakKeyMap<>();
+        String key = "key";
+        map.putIfAbsent(key, "value");
+        Assertions.assertEquals("value", map.remove(key));
+        Assertions.assertFalse(map.containsKey(key));
+        Assertions.assertEquals(0, map.size());
+    }
+
+    @Test
+    void testUnreachableKeysAreExpunged() throws InterruptedException {
+        ConcurrentWeakKeyMap<Object, String> map = new ConcurrentWeakKeyMap<>();
+        Object retained = new Object();
+        map.putIfAbsent(retained, "retained");
+        for (int i = 0; i < 100; i++) {
+            map.putIfAbsent(new Object(), "discarded");
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (map.size() > 1 && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        Assertions.assertEquals(1, map.size());
+        Assertions.assertEquals("retained", map.get(retained));
+        Reference.reachabilityFence(retained);
+    }
+
+    @Test
+    void testComputeIfAbsentComputesOnceUnderContention() throws Exception {
+        ConcurrentWeakKeyMap<String, Object> map = new ConcurrentWeakKeyMap<>();
+        AtomicInteger computations = new AtomicInteger();
+        int threads = 16;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch startGate = new CountDownLatch(1);
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    return map.computeIfAbsent("key", key -> {
+                        computations.incrementAndGet();
+                        return new Object();
+                    });
+                }));
+            }
+            startGate.countDown();
+
+            Object first = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Object> future : futures) {
+                Assertions.assertSame(first, future.get(10, TimeUnit.SECONDS));
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, computations.get());
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package test.org.dockbox.hartshorn.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.dockbox.hartshorn.util.graph.BreadthFirstGraphVisitor;
+import org.dockbox.hartshorn.util.graph.Graph;
+import org.dockbox.hartshorn.util.graph.GraphException;
+import org.dockbox.hartshorn.util.graph.GraphNode;
+import org.dockbox.hartshorn.util.graph.ParallelGraphVisitor;
+import org.dockbox.hartshorn.util.graph.SimpleGraph;
+import org.dockbox.hartshorn.util.graph.SimpleGraphNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ParallelGraphVisitorTests {
+
+    private static final int PARALLELISM = 4;
+
+    @Test
+    void testNodesAreVisitedAfterParents() throws GraphException {
+        // Ten layers of ten nodes, where each node depends on all nodes of the previous layer
+        List<List<SimpleGraphNode<String>>> layers = new ArrayList<>();
+        for (int layer = 0; layer < 10; layer++) {
+            List<SimpleGraphNode<String>> nodes = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                SimpleGraphNode<String> node = new SimpleGraphNode<>(layer + ":" + i);
+                if (layer > 0) {
+                    layers.get(layer - 1).forEach(node::addParent);
+                }
+                nodes.add(node);
+            }
+            layers.add(nodes);
+        }
+        Graph<String> graph = new SimpleGraph<>(Set.copyOf(layers.getFirst()));
+
+        Set<GraphNode<String>> completed = ConcurrentHashMap.newKeySet();
+        List<GraphNode<String>> visitedEarly = new ArrayList<>();
+        ParallelGraphVisitor<String> visitor = parallel(node -> {
+            boolean parentsCompleted = node instanceof SimpleGraphNode<String> containable && completed.containsAll(containable.parents());
+            if (!parentsCompleted) {
+                synchronized (visitedEarly) {
+                    visitedEarly.add(node);
+                }
+            }
+            completed.add(node);
+            return true;
+        });
+
+        Set<GraphNode<String>> visited = visitor.iterate(graph);
+        Assertions.assertEquals(100, visited.size());
+        Assertions.assertTrue(visitedEarly.isEmpty());
+    }
+
+    @Test
+    void testIndependentNodesAreVisitedConcurrently() throws GraphException {
+        SimpleGraphNode<String> first = new SimpleGraphNode<>("first");
+        SimpleGraphNode<String> second = new SimpleGraphNode<>("second");
+        SimpleGraphNode<String> dependent = new SimpleGraphNode<>("dependent");
+        dependent.addParents(List.of(first, second));
+
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ParallelGraphVisitor<String> visitor = parallel(node -> {
+            if (node != dependent) {
+                // Only completes if both roots are visited at the same time
+                awaitBarrier(barrier);
+            }
+            return true;
+        });
+
+        Set<GraphNode<String>> visited = visitor.iterate(new SimpleGraph<>(Set.of(first, second)));
+        Assertions.assertEquals(Set.of(first, second, dependent), visited);
+    }
+
+    @Test
+    void testFailuresAreAggregated() {
+        SimpleGraphNode<String> first = new SimpleGraphNode<>("first");
+        SimpleGraphNode<String> second = new SimpleGraphNode<>("second");
+        SimpleGraphNode<String> dependent = new SimpleGraphNode<>("dependent");
+        dependent.addParent(first);
+
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        Set<GraphNode<String>> visited = ConcurrentHashMap.newKeySet();
+        ParallelGraphVisitor<String> visitor = parallel(node -> {
+            visited.add(node);
+            if (node != dependent) {
+                awaitBarrier(barrier);
+                throw new GraphException(node.value());
+            }
+            return true;
+        });
+
+        GraphException exception = Assertions.assertThrows(GraphException.class, () -> visitor.iterate(new SimpleGraph<>(Set.of(first, second))));
+        // Roots are discovered in their natural order, so the failure of the first root is always rethrown
+        Assertions.assertEquals("first", exception.getMessage());
+        Assertions.assertEquals(1, exception.getSuppressed().length);
+
+        Set<String> messages = Stream.concat(Stream.of(exception), Stream.of(exception.getSuppressed()))
+                .map(Throwable::getMessage)
+                .collect(Collectors.toSet());
+        Assertions.assertEquals(Set.of("first", "second"), messages);
+        Assertions.assertFalse(visited.contains(dependent));
+    }
+
+    @Test
+    void testChildrenOfStoppedNodesAreNotVisited() throws GraphException {
+        SimpleGraphNode<String> root = new SimpleGraphNode<>("root");
+        SimpleGraphNode<String> stopped = new SimpleGraphNode<>("stopped");
+        SimpleGraphNode<String> child = new SimpleGraphNode<>("child");
+        stopped.addParent(root);
+        child.addParent(stopped);
+
+        ParallelGraphVisitor<String> visitor = parallel(node -> node != stopped);
+        Set<GraphNode<String>> visited = visitor.iterate(new SimpleGraph<>(Set.of(root)));
+        Assertions.assertEquals(Set.of(root, stopped), visited);
+    }
+
+    @Test
+    void testNodesAcceptedByAnyParentAreVisited() throws GraphException {
+        SimpleGraphNode<String> accepting = new SimpleGraphNode<>("accepting");
+        SimpleGraphNode<String> rejecting = new SimpleGraphNode<>("rejecting");
+        SimpleGraphNode<String> shared = new SimpleGraphNode<>("shared");
+        SimpleGraphNode<String> rejected = new SimpleGraphNode<>("rejected");
+        SimpleGraphNode<String> rejectedChild = new SimpleGraphNode<>("rejectedChild");
+        shared.addParents(List.of(accepting, rejecting));
+        rejected.addParent(rejecting);
+        // Never visited, as one of its parents is never visited
+        rejectedChild.addParents(List.of(shared, rejected));
+
+        ParallelGraphVisitor<String> visitor = parallel(node -> node != rejecting);
+        Set<GraphNode<String>> visited = visitor.iterate(new SimpleGraph<>(Set.of(accepting, rejecting)));
+        Assertions.assertEquals(Set.of(accepting, rejecting, shared), visited);
+
+        BreadthFirstGraphVisitor<String> sequential = node -> node != rejecting;
+        Assertions.assertEquals(sequential.iterate(new SimpleGraph<>(Set.of(accepting, rejecting))), visited);
+    }
+
+    @Test
+    void testNodesWithUnreachableParentsAreNotVisited() throws GraphException {
+        SimpleGraphNode<String> root = new SimpleGraphNode<>("root");
+        SimpleGraphNode<String> unreachable = new SimpleGraphNode<>("unreachable");
+        SimpleGraphNode<String> child = new SimpleGraphNode<>("child");
+        unreachable.addParent(unreachable);
+        child.addParents(List.of(root, unreachable));
+
+        ParallelGraphVisitor<String> visitor = parallel(node -> true);
+        Set<GraphNode<String>> visited = visitor.iterate(new SimpleGraph<>(Set.of(root)));
+        Assertions.assertEquals(Set.of(root), visited);
+    }
+
+    private static ParallelGraphVisitor<String> parallel(ParallelGraphVisitor<String> visitor) {
+        return new ParallelGraphVisitor<>() {
+            @Override
+            public boolean visit(GraphNode<String> node) throws GraphException {
+                return visitor.visit(node);
+            }
+
+            @Override
+            public int parallelism() {
+                // Independent of the number of available processors, so concurrent visits can be verified
+                return PARALLELISM;
+            }
+        };
+    }
+
+    private static void awaitBarrier(CyclicBarrier barrier) throws GraphException {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+            throw new GraphException(e);
+        }
+    }
+}